@@ -39,13 +39,8 @@ export default function Dashboard() {
         categoriesCount: categoriesResponse.length || 0,
       });
 
-      // Carregar próximas parcelas (próximas 5 pendentes)
-      const allInstallments = await installmentService.getAll();
-      const pending = allInstallments
-        .filter((inst) => !inst.paid)
-        .sort((a, b) => new Date(a.dueDate) - new Date(b.dueDate))
-        .slice(0, 5);
-      setNextInstallments(pending);
+      // Próximas 5 parcelas pendentes (a API já ordena por vencimento)
+      setNextInstallments(pendingResponse.slice(0, 5));
     } catch (error) {
       console.error("Erro ao carregar resumo:", error);
     } finally {
@@ -8,21 +8,26 @@ import { expenseService } from "../services/expenseService";
 export default function ExpensesList() {
   const [expenses, setExpenses] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
   const [deleteModalOpen, setDeleteModalOpen] = useState(false);
   const [expenseToDelete, setExpenseToDelete] = useState(null);
 
   useEffect(() => {
-    loadExpenses();
+    loadExpenses(null);
   }, []);
 
-  const loadExpenses = async () => {
+  const loadExpenses = async (cursor = null) => {
     try {
-      const response = await expenseService.getAll();
-      setExpenses(response);
+      if (cursor) setLoadingMore(true);
+      const page = await expenseService.getPage(cursor);
+      setExpenses((current) => (cursor ? [...current, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error("Erro ao carregar despesas:", error);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -154,6 +159,17 @@ export default function ExpensesList() {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <div className="flex justify-center py-4">
+                <Button
+                  variant="outline"
+                  loading={loadingMore}
+                  onClick={() => loadExpenses(nextCursor)}
+                >
+                  Carregar mais
+                </Button>
+              </div>
+            )}
           </div>
         )}
       </Card>
@@ -8,21 +8,26 @@ import { revenueService } from "../services/revenueService";
 export default function RevenueList() {
   const [revenues, setRevenues] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
   const [deleteModalOpen, setDeleteModalOpen] = useState(false);
   const [revenueToDelete, setRevenueToDelete] = useState(null);
 
   useEffect(() => {
-    loadRevenues();
+    loadRevenues(null);
   }, []);
 
-  const loadRevenues = async () => {
+  const loadRevenues = async (cursor = null) => {
     try {
-      const response = await revenueService.getAll();
-      setRevenues(response);
+      if (cursor) setLoadingMore(true);
+      const page = await revenueService.getPage(cursor);
+      setRevenues((current) => (cursor ? [...current, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error("Erro ao carregar receitas:", error);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -186,6 +191,17 @@ export default function RevenueList() {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <div className="flex justify-center py-4">
+                <Button
+                  variant="outline"
+                  loading={loadingMore}
+                  onClick={() => loadRevenues(nextCursor)}
+                >
+                  Carregar mais
+                </Button>
+              </div>
+            )}
           </div>
         )}
       </Card>
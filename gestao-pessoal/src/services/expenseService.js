@@ -1,8 +1,11 @@
 import api from "../config/api";
 
 export const expenseService = {
-  getAll: async () => {
-    const response = await api.get("/expenses");
+  // Retorna { items, nextCursor, hasMore }; passe nextCursor para a próxima página
+  getPage: async (cursor = null, size = 50, sort = "desc") => {
+    const params = { size, sort };
+    if (cursor) params.cursor = cursor;
+    const response = await api.get("/expenses", { params });
     return response.data;
   },
 
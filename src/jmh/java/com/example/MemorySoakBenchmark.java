@@ -0,0 +1,219 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Teste de resistência do perfil lowmem: sobe a aplicação com as opções de
+ * jvm-lowmem.options e o perfil lowmem, cadastra um usuário novo com
+ * "registros" despesas e chama as listagens e resumos sem parar por todas
+ * as iterações (5 min por padrão), medindo o RSS do processo (VmRSS em
+ * /proc, só Linux) a cada segundo. Ao fim falha se o maior RSS medido
+ * passou de rssMaximoMb.
+ *
+ * Usa o jar fino do perfil startup, com o Postgres das variáveis DB_URL,
+ * DB_USERNAME e DB_PASSWORD, herdadas pelo processo; com -foe true a falha
+ * de orçamento encerra o Maven com erro:
+ *   mvn -P startup,benchmarks package exec:exec -DskipTests -Djmh.args="MemorySoak -foe true"
+ *
+ * Roda sem o arquivo CDS da imagem (ver Dockerfile), que deixa o RSS um
+ * pouco menor: é o caso mais pesado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 30)
+@Measurement(iterations = 10, time = 30)
+@Threads(4)
+@Fork(1)
+public class MemorySoakBenchmark {
+
+    private static final Pattern VM_RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+
+    @Param("target/minha-gestao-frontend-1.0-SNAPSHOT.jar")
+    public String jar;
+
+    @Param("jvm-lowmem.options")
+    public String opcoes;
+
+    // Contêiner de 512 MB, com folga para o que não é da JVM
+    @Param("450")
+    public long rssMaximoMb;
+
+    @Param("2000")
+    public int registros;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong rssAtual = new AtomicLong();
+    private final AtomicLong rssMaximo = new AtomicLong();
+
+    private Process process;
+    private ScheduledExecutorService sampler;
+    private HttpClient client;
+    private String base;
+    private String authorization;
+    private List<String> paths;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ProcessBuilder builder = new ProcessBuilder("java", "@" + opcoes, "-jar", jar, "--server.port=" + port,
+                "--spring.profiles.active=lowmem")
+                .redirectErrorStream(true)
+                .redirectOutput(new File(new File(jar).getParentFile(), "memory-soak.log"));
+        // Arenas do malloc por thread inflam o RSS (mesmo valor do render.yaml)
+        builder.environment().put("MALLOC_ARENA_MAX", "2");
+        process = builder.start();
+
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        base = "http://localhost:" + port;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (status(get("/actuator/health/readiness").build()) != 200) {
+            if (!process.isAlive() || System.nanoTime() > deadline) {
+                throw new IllegalStateException("A aplicação não ficou pronta (ver memory-soak.log)");
+            }
+            Thread.sleep(200);
+        }
+
+        String login = client.send(post("/api/auth/register",
+                "{\"email\":\"soak-" + System.currentTimeMillis() + "@exemplo.com\",\"password\":\"123456\"}").build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher token = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(login);
+        if (!token.find()) {
+            throw new IllegalStateException("Login sem token: " + login);
+        }
+        authorization = "Bearer " + token.group(1);
+        semear();
+
+        YearMonth month = YearMonth.now();
+        paths = List.of("/api/expenses", "/api/expenses?size=100", "/api/expenses/summary",
+                "/api/expenses/month/" + month.getYear() + "/" + month.getMonthValue(),
+                "/api/revenues", "/api/revenues/summary", "/api/installments/summary",
+                "/api/installments/pending", "/api/dashboard/monthly-summary", "/api/users/me/balance");
+
+        sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::medirRss, 0, 1, TimeUnit.SECONDS);
+    }
+
+    // Despesas à vista e parceladas em lotes de 1000, e algumas receitas
+    private void semear() throws Exception {
+        for (int offset = 0; offset < registros; offset += 1000) {
+            List<String> lote = new ArrayList<>();
+            for (int i = offset; i < Math.min(offset + 1000, registros); i++) {
+                lote.add(i % 3 == 0
+                        ? "{\"nome\":\"parcelada " + i + "\",\"tipo\":\"PARCELADO\",\"valorPago\":1200,"
+                                + "\"nomeCategoria\":\"Casa\",\"totalParcelas\":12,\"diaVencimento\":" + (i % 28 + 1) + "}"
+                        : "{\"nome\":\"avulsa " + i + "\",\"tipo\":\"AVULSO\",\"valorPago\":" + (i % 500 + 1)
+                                + ",\"nomeCategoria\":\"Mercado " + (i % 20) + "\",\"totalParcelas\":1}");
+            }
+            exigir200(post("/api/expenses/bulk", "[" + String.join(",", lote) + "]"));
+        }
+        for (int i = 0; i < 50; i++) {
+            exigir200(post("/api/revenues", "{\"nome\":\"receita " + i + "\",\"tipo\":\"AVULSO\",\"valor\":"
+                    + (i + 1) * 100 + ",\"nomeCategoria\":\"Salário\"}"));
+        }
+    }
+
+    @Benchmark
+    public int listasEResumos() throws Exception {
+        String path = paths.get(Math.floorMod(next.getAndIncrement(), paths.size()));
+        return client.send(get(path).header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @TearDown(Level.Iteration)
+    public void relatar() {
+        System.out.printf("RSS: %d MB (máximo %d MB)%n", rssAtual.get() / 1024, rssMaximo.get() / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws InterruptedException {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+        if (rssMaximo.get() / 1024 > rssMaximoMb) {
+            throw new IllegalStateException("RSS máximo de " + rssMaximo.get() / 1024 + " MB acima do orçamento de "
+                    + rssMaximoMb + " MB");
+        }
+    }
+
+    private void medirRss() {
+        try {
+            Matcher rss = VM_RSS.matcher(Files.readString(Path.of("/proc", String.valueOf(process.pid()), "status")));
+            if (rss.find()) {
+                rssAtual.set(Long.parseLong(rss.group(1)));
+                rssMaximo.accumulateAndGet(rssAtual.get(), Math::max);
+            }
+        } catch (IOException e) {
+            // Processo já encerrado
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30));
+        return authorization == null ? request : request.header("Authorization", authorization);
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return get(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private void exigir200(HttpRequest.Builder request) throws Exception {
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.build().uri() + ": " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private int status(HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            // Porta ainda fechada
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tempo até a primeira resposta: do início do processo da aplicação até o
+ * readiness responder UP (o que inclui o aquecimento de StartupWarmup) e a
+ * primeira requisição à API ser respondida. Cada iteração sobe um processo
+ * novo, como uma instância acordando.
+ *
+ * Usa o jar fino do perfil startup, com o Postgres das variáveis DB_URL,
+ * DB_USERNAME e DB_PASSWORD, herdadas pelo processo:
+ *   mvn -P startup,benchmarks package exec:exec -DskipTests -Djmh.args="StartupBenchmark"
+ *
+ * modo: padrao (sem AOT), aot (-Dspring.aot.enabled=true) e aot-cds (AOT com
+ * o arquivo CDS, gravado em target/app.jsa por uma execução de treino igual
+ * à do Dockerfile quando não existe ou é mais antigo que o jar).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(3);
+
+    @Param({ "padrao", "aot", "aot-cds" })
+    public String modo;
+
+    @Param("target/minha-gestao-frontend-1.0-SNAPSHOT.jar")
+    public String jar;
+
+    private File archive;
+    private HttpClient client;
+    private int port;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File jarFile = new File(jar);
+        if (!jarFile.isFile()) {
+            throw new IllegalStateException(jar + " não existe; gerar com mvn -P startup package");
+        }
+        archive = new File(jarFile.getParentFile(), "app.jsa");
+        if ("aot-cds".equals(modo) && archive.lastModified() < jarFile.lastModified()) {
+            Process training = new ProcessBuilder("java", "-XX:ArchiveClassesAtExit=" + archive.getPath(),
+                    "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh", "-Dspring.profiles.active=cds",
+                    "-jar", jar)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(jarFile.getParentFile(), "cds-training.log"))
+                    .start();
+            if (training.waitFor() != 0 || !archive.isFile()) {
+                throw new IllegalStateException("Execução de treino do CDS falhou (ver cds-training.log)");
+            }
+        }
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void livre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+    }
+
+    @Benchmark
+    public int primeiraResposta() throws Exception {
+        List<String> command = new ArrayList<>(List.of("java"));
+        if ("aot-cds".equals(modo)) {
+            command.add("-XX:SharedArchiveFile=" + archive.getPath());
+        }
+        if (modo.startsWith("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar, "--server.port=" + port));
+        process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(new File(jar).getParentFile(), "startup-benchmark.log"))
+                .start();
+
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (status("/actuator/health/readiness") != 200) {
+            if (!process.isAlive() || System.nanoTime() > deadline) {
+                throw new IllegalStateException("A aplicação não ficou pronta (ver startup-benchmark.log)");
+            }
+            Thread.sleep(20);
+        }
+        // Sem token: a resposta passa por todo o Spring MVC até o interceptor (401)
+        return status("/api/categories");
+    }
+
+    @TearDown(Level.Iteration)
+    public void encerrar() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private int status(String path) throws InterruptedException {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            // Porta ainda fechada
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.models.Expenses;
+import com.example.service.AnalyticsService.AnalyticsRow;
+import com.example.service.AnalyticsSnapshot.Agrupamento;
+import com.example.service.AnalyticsSnapshot.Consulta;
+import com.example.service.AnalyticsSnapshot.Dimensao;
+
+/**
+ * Despesas de um ano somadas por categoria e por mês: stream de BigDecimal
+ * sobre as entidades carregadas, como antes, e AnalyticsSnapshot.agregar
+ * sobre as colunas. Rodar com -prof gc para ver a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AnalyticsBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 6, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 5, 31);
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    private List<Expenses> expenses;
+    private AnalyticsSnapshot snapshot;
+    private Consulta porCategoria;
+    private Consulta porMes;
+
+    @Setup
+    public void setup() {
+        expenses = BenchmarkData.despesas(rows);
+        snapshot = new AnalyticsSnapshot();
+        expenses.forEach(expense -> snapshot.gravar(AnalyticsRow.of(expense)));
+        porCategoria = new Consulta(AnalyticsSnapshot.DESPESA, Dimensao.CATEGORIA, FROM, TO, null, null, null);
+        porMes = new Consulta(AnalyticsSnapshot.DESPESA, Dimensao.MES, FROM, TO, null, null, null);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> streamPorCategoria() {
+        return expenses.stream()
+                .filter(e -> !e.getRegisteredAt().isBefore(FROM) && !e.getRegisteredAt().isAfter(TO))
+                .collect(Collectors.groupingBy(e -> e.getCategory().getId(),
+                        Collectors.reducing(BigDecimal.ZERO, Expenses::getAmount, BigDecimal::add)));
+    }
+
+    @Benchmark
+    public Map<YearMonth, BigDecimal> streamPorMes() {
+        return expenses.stream()
+                .filter(e -> !e.getRegisteredAt().isBefore(FROM) && !e.getRegisteredAt().isAfter(TO))
+                .collect(Collectors.groupingBy(e -> YearMonth.from(e.getRegisteredAt()),
+                        Collectors.reducing(BigDecimal.ZERO, Expenses::getAmount, BigDecimal::add)));
+    }
+
+    @Benchmark
+    public Agrupamento colunasPorCategoria() {
+        return snapshot.agregar(porCategoria);
+    }
+
+    @Benchmark
+    public Agrupamento colunasPorMes() {
+        return snapshot.agregar(porMes);
+    }
+}
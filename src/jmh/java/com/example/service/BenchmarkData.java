@@ -0,0 +1,112 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.example.Dto.ExpensesDTO;
+import com.example.models.Category;
+import com.example.models.Expenses;
+import com.example.models.Installment;
+import com.example.models.Revenue;
+
+/**
+ * Massa de dados determinística (semente fixa) para os benchmarks, com a
+ * mesma proporção de tipos em todas as execuções.
+ */
+final class BenchmarkData {
+
+    private static final String[] EXPENSE_TYPES = { "AVULSO", "AVULSO", "PARCELADO", "FIXO" };
+    private static final String[] REVENUE_TYPES = { "AVULSO", "FIXO" };
+    private static final LocalDate START = LocalDate.of(2024, 1, 31);
+    // Todos os dados de um único dono
+    private static final Long USER_ID = 1L;
+
+    private BenchmarkData() {
+    }
+
+    static List<Category> categorias(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setUserId(USER_ID);
+            category.setName("Categoria " + (i + 1));
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<ExpensesDTO> despesasDto(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ExpensesDTO> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String type = EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)];
+            int total = "PARCELADO".equals(type) ? 2 + random.nextInt(23) : "FIXO".equals(type) ? 12 : 1;
+            dtos.add(new ExpensesDTO("Despesa " + i, type, valor(random), "Categoria " + (i % 20 + 1), total,
+                    null, null, null, true, 1 + random.nextInt(28)));
+        }
+        return dtos;
+    }
+
+    static List<Expenses> despesas(int count) {
+        ExpensesService service = new ExpensesService(null, null, null, null, null, null, null, null, null, null);
+        List<Category> categories = categorias(20);
+        SplittableRandom random = new SplittableRandom(7);
+        List<Expenses> expenses = new ArrayList<>(count);
+        long id = 1;
+        for (ExpensesDTO dto : despesasDto(count)) {
+            Expenses expense = service.mapToEntity(USER_ID, dto, categories.get((int) (id % categories.size())),
+                    START.plusDays(random.nextInt(730)));
+            expense.setId(id++);
+            expenses.add(expense);
+        }
+        return expenses;
+    }
+
+    // Cronogramas das despesas parceladas/fixas de despesas(), cortados em count parcelas
+    static List<Installment> parcelas(int count) {
+        List<Installment> schedule = new ArrayList<>(count + 24);
+        int expenses = count;
+        while (schedule.size() < count) {
+            schedule.clear();
+            for (Expenses expense : despesas(expenses)) {
+                InstallmentService.montarParcelas(expense, schedule);
+            }
+            expenses *= 2;
+        }
+        List<Installment> installments = new ArrayList<>(schedule.subList(0, count));
+        long id = 1;
+        for (Installment installment : installments) {
+            installment.setId(id++);
+        }
+        return installments;
+    }
+
+    static List<Revenue> receitas(int count) {
+        List<Category> categories = categorias(5);
+        SplittableRandom random = new SplittableRandom(11);
+        List<Revenue> revenues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Revenue revenue = new Revenue();
+            revenue.setId((long) i + 1);
+            revenue.setName("Receita " + i);
+            revenue.setAmount(valor(random));
+            revenue.setType(REVENUE_TYPES[random.nextInt(REVENUE_TYPES.length)]);
+            revenue.setStatus("AVULSO".equals(revenue.getType()) ? "RECEBIDO" : "PENDENTE");
+            revenue.setRegisteredAt(START.plusDays(random.nextInt(730)));
+            revenue.setReceivedDate("RECEBIDO".equals(revenue.getStatus()) ? revenue.getRegisteredAt() : null);
+            revenue.setCategory(categories.get(i % categories.size()));
+            revenue.setDueDay("FIXO".equals(revenue.getType()) ? 5 : null);
+            revenues.add(revenue);
+        }
+        return revenues;
+    }
+
+    // Valores entre 1,00 e 5.000,00 com duas casas
+    private static BigDecimal valor(SplittableRandom random) {
+        return BigDecimal.valueOf(100 + random.nextInt(499_901), 2);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.Dto.ExpensesDTO;
+import com.example.models.Category;
+
+/**
+ * ExpensesService.mapToEntity sobre 1.000 DTOs (mesmo tamanho de bloco do
+ * registrarLote) e, isolado, o divide com HALF_EVEN do valor da parcela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseMappingBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ExpensesService service;
+    private List<ExpensesDTO> dtos;
+    private Category category;
+    private LocalDate registeredAt;
+
+    @Setup
+    public void setup() {
+        // mapToEntity não usa as dependências do serviço
+        service = new ExpensesService(null, null, null, null, null, null, null, null, null, null);
+        dtos = BenchmarkData.despesasDto(ROWS);
+        category = BenchmarkData.categorias(1).get(0);
+        registeredAt = LocalDate.of(2025, 1, 15);
+    }
+
+    @Benchmark
+    public void mapToEntity(Blackhole blackhole) {
+        for (ExpensesDTO dto : dtos) {
+            blackhole.consume(service.mapToEntity(1L, dto, category, registeredAt));
+        }
+    }
+
+    @Benchmark
+    public void valorParcelaHalfEven(Blackhole blackhole) {
+        for (ExpensesDTO dto : dtos) {
+            blackhole.consume(dto.valorPago().divide(
+                    BigDecimal.valueOf(dto.totalParcelas()), 2, RoundingMode.HALF_EVEN));
+        }
+    }
+}
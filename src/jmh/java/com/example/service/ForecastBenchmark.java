@@ -0,0 +1,118 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.example.service.ForecastService.ForecastEntry;
+
+/**
+ * Previsão de 60 meses: percorrer item a item cada mês do horizonte somando
+ * BigDecimal, montar a CashFlowProjection (diferenças em centavos) a partir
+ * das entidades, como no ForecastService sem cache, e a leitura depois de
+ * alterar um item numa projeção já montada, como no ForecastService com cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ForecastBenchmark {
+
+    private static final int HORIZON = 60;
+    private static final int MAX_MONTHS = 120;
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    private List<Expenses> expenses;
+    private List<Revenue> revenues;
+    private List<ForecastEntry> entries;
+    private YearMonth start;
+    private CashFlowProjection projection;
+    private ForecastEntry changed;
+    private ForecastEntry original;
+    private long[] inflows;
+    private long[] outflows;
+
+    @Setup
+    public void setup() {
+        expenses = BenchmarkData.despesas(rows);
+        revenues = BenchmarkData.receitas(rows / 10);
+        start = YearMonth.of(2025, 6);
+        entries = new ArrayList<>();
+        expenses.forEach(expense -> entries.add(ForecastEntry.of(expense)));
+        revenues.forEach(revenue -> entries.add(ForecastEntry.of(revenue)));
+        entries.removeIf(entry -> entry == null);
+
+        projection = montar();
+        original = entries.get(entries.size() / 2);
+        changed = new ForecastEntry(original.userId(), original.from().plusMonths(3), original.months(),
+                original.inflow(), original.outflow() + 1);
+        inflows = new long[HORIZON];
+        outflows = new long[HORIZON];
+    }
+
+    @Benchmark
+    public BigDecimal[] porItemEMes() {
+        BigDecimal[] net = new BigDecimal[HORIZON];
+        Arrays.fill(net, BigDecimal.ZERO);
+        for (ForecastEntry entry : entries) {
+            long first = Math.max(start.until(entry.from(), ChronoUnit.MONTHS), 0);
+            for (int i = 0; i < HORIZON; i++) {
+                if (i >= first && i - first < entry.months()) {
+                    net[i] = net[i].add(BigDecimal.valueOf(entry.inflow() - entry.outflow(), 2));
+                }
+            }
+        }
+        return net;
+    }
+
+    @Benchmark
+    public long[] montarProjecao() {
+        CashFlowProjection built = montar();
+        built.copiar(HORIZON, inflows, outflows);
+        return outflows;
+    }
+
+    @Benchmark
+    public long[] alterarItemELer() {
+        projection.aplicar(original, -1);
+        projection.aplicar(changed, 1);
+        projection.copiar(HORIZON, inflows, outflows);
+        ForecastEntry swap = original;
+        original = changed;
+        changed = swap;
+        return outflows;
+    }
+
+    private CashFlowProjection montar() {
+        CashFlowProjection built = new CashFlowProjection(start, MAX_MONTHS);
+        for (Expenses expense : expenses) {
+            built.aplicar(ForecastEntry.of(expense), 1);
+        }
+        for (Revenue revenue : revenues) {
+            built.aplicar(ForecastEntry.of(revenue), 1);
+        }
+        return built;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.models.Expenses;
+import com.example.models.Installment;
+
+/**
+ * Geração dos cronogramas de parcelas (InstallmentService.montarParcelas, usado
+ * em gerarParcelas) e consulta da parcela de um mês por InstallmentRecurrence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class InstallmentExpansionBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private List<Expenses> expenses;
+    private YearMonth month;
+
+    @Setup
+    public void setup() {
+        expenses = BenchmarkData.despesas(rows);
+        month = YearMonth.of(2025, 6);
+    }
+
+    @Benchmark
+    public List<Installment> montarParcelas() {
+        List<Installment> schedule = new ArrayList<>();
+        for (Expenses expense : expenses) {
+            InstallmentService.montarParcelas(expense, schedule);
+        }
+        return schedule;
+    }
+
+    @Benchmark
+    public void parcelaDoMes(Blackhole blackhole) {
+        for (Expenses expense : expenses) {
+            if (InstallmentService.isRecurring(expense)) {
+                blackhole.consume(InstallmentRecurrence.of(expense).in(month));
+            }
+        }
+    }
+}
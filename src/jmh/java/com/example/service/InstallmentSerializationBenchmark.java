@@ -0,0 +1,161 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.Dto.InstallmentView;
+import com.example.models.Installment;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Listagem de parcelas: o formato antigo (um HashMap por linha, dueDate via
+ * toString, lista inteira serializada) contra InstallmentView escrita linha
+ * a linha como em ViewStreamService, em JSON, Smile, CBOR e JSON com gzip.
+ * O contador "bytes" é o tamanho da resposta; a alocação por operação sai
+ * com o profiler de GC (gc.alloc.rate.norm):
+ *   mvn -P benchmarks compile exec:exec -Djmh.args="InstallmentSerialization -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class InstallmentSerializationBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private List<Installment> installments;
+    private ObjectMapper json;
+    private ObjectWriter jsonStream;
+    private ObjectWriter smileStream;
+    private ObjectWriter cborStream;
+
+    // Tamanho da última resposta escrita
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Saida {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        installments = BenchmarkData.parcelas(rows);
+        json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        jsonStream = stream(json);
+        smileStream = stream(Jackson2ObjectMapperBuilder.smile()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        cborStream = stream(Jackson2ObjectMapperBuilder.cbor()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    }
+
+    private static ObjectWriter stream(ObjectMapper mapper) {
+        return mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Benchmark
+    public void mapasJson(Saida saida) throws IOException {
+        List<Map<String, Object>> response = new ArrayList<>(installments.size());
+        for (Installment installment : installments) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", installment.getId());
+            map.put("expenseId", installment.getExpense().getId());
+            map.put("description", installment.getExpense().getName());
+            map.put("amount", installment.getAmount());
+            map.put("installmentNumber", installment.getNumber());
+            map.put("totalInstallments", installment.getExpense().getTotalInstallments());
+            map.put("paid", installment.getPaid());
+            map.put("dueDate", installment.getDueDate().toString());
+            response.add(map);
+        }
+        Contador out = new Contador();
+        json.writeValue(out, response);
+        saida.bytes = out.count;
+    }
+
+    @Benchmark
+    public void viewsJson(Saida saida) throws IOException {
+        saida.bytes = escrever(jsonStream, new Contador()).count;
+    }
+
+    @Benchmark
+    public void viewsSmile(Saida saida) throws IOException {
+        saida.bytes = escrever(smileStream, new Contador()).count;
+    }
+
+    @Benchmark
+    public void viewsCbor(Saida saida) throws IOException {
+        saida.bytes = escrever(cborStream, new Contador()).count;
+    }
+
+    @Benchmark
+    public void viewsJsonGzip(Saida saida) throws IOException {
+        Contador out = new Contador();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            escrever(jsonStream, gzip);
+        }
+        saida.bytes = out.count;
+    }
+
+    // Cada linha vira a view e é escrita na hora, como a query em stream
+    private <T extends OutputStream> T escrever(ObjectWriter writer, T out) throws IOException {
+        try (SequenceWriter sequence = writer.writeValuesAsArray(out)) {
+            for (Installment installment : installments) {
+                sequence.write(new InstallmentView(installment.getId(), installment.getExpense().getId(),
+                        installment.getExpense().getName(), installment.getAmount(), installment.getNumber(),
+                        installment.getExpense().getTotalInstallments(), installment.getPaid(),
+                        installment.getDueDate()));
+            }
+        }
+        return out;
+    }
+
+    // Descarta o conteúdo e conta os bytes
+    private static final class Contador extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialização Jackson de listas de Expenses/Revenue, com o ObjectMapper
+ * montado como o do Spring (datas ISO), escrevendo num stream descartável.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SerializationBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<Expenses> expenses;
+    private List<Revenue> revenues;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        expenses = BenchmarkData.despesas(rows);
+        revenues = BenchmarkData.receitas(rows);
+    }
+
+    @Benchmark
+    public void despesas() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), expenses);
+    }
+
+    @Benchmark
+    public void receitas() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), revenues);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.models.Expenses;
+
+/**
+ * Reduções de BigDecimal sobre listas de despesas: a soma por stream que o
+ * getSummary fazia antes dos contadores, o filtro por tipo/status da mesma
+ * época e o acúmulo de SummaryDelta usado hoje no salvarLote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SummaryReductionBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private List<Expenses> expenses;
+
+    @Setup
+    public void setup() {
+        expenses = BenchmarkData.despesas(rows);
+    }
+
+    @Benchmark
+    public BigDecimal somaPorStream() {
+        return expenses.stream()
+                .map(Expenses::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal somaPendentesPorStream() {
+        return expenses.stream()
+                .filter(e -> "PENDENTE".equals(e.getStatus()))
+                .map(Expenses::getInstallmentAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public SummaryDelta acumularSummaryDelta() {
+        SummaryDelta delta = SummaryDelta.ZERO;
+        for (Expenses expense : expenses) {
+            delta = delta.plus(SummaryDelta.ofExpense(expense));
+        }
+        return delta;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.Config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Toda a API, exceto login e cadastro, exige o dono resolvido por
+ * OwnerInterceptor
+ */
+@Configuration
+public class AuthConfig implements WebMvcConfigurer {
+
+    private final OwnerInterceptor ownerInterceptor;
+
+    public AuthConfig(OwnerInterceptor ownerInterceptor) {
+        this.ownerInterceptor = ownerInterceptor;
+    }
+
+    // Hash das senhas (ver UsuarioService)
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(ownerInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/auth/**");
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.Config;
+
+import java.util.Locale;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.service.SummaryService;
+import com.example.service.ViewStreamService.Codificacao;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * If-None-Match dos GETs de listagem e resumo. Os mesmos dados saem em JSON,
+ * Smile ou CBOR conforme o Accept (ver JacksonFormatsConfig), e cada
+ * codificação é outra representação: o ETag leva a codificação negociada e
+ * a resposta, inclusive o 304, declara Vary: Accept para caches
+ * intermediários. Os controllers validam a entrada antes de chamar
+ * naoModificado(), para um pedido inválido nunca receber 304.
+ */
+@Component
+public class ConditionalGet {
+
+    private final SummaryService summaryService;
+
+    public ConditionalGet(SummaryService summaryService) {
+        this.summaryService = summaryService;
+    }
+
+    public boolean naoModificado(WebRequest request, Long ownerId) {
+        return naoModificado(request, ownerId, null);
+    }
+
+    /**
+     * true (e a resposta já é um 304) se o If-None-Match traz o ETag atual;
+     * variant distingue representações da mesma URL (ex.: o mês resolvido
+     * de um período implícito)
+     */
+    public boolean naoModificado(WebRequest request, Long ownerId, String variant) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        Codificacao codificacao;
+        try {
+            codificacao = Codificacao.negociar(request.getHeader(HttpHeaders.ACCEPT));
+        } catch (IllegalArgumentException e) {
+            // Nenhuma codificação aceita: segue sem ETag até o 406
+            return false;
+        }
+        String representation = codificacao.name().toLowerCase(Locale.ROOT);
+        return request.checkNotModified(summaryService.etag(ownerId,
+                variant != null ? variant + "-" + representation : representation));
+    }
+}
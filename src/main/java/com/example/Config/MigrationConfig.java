@@ -0,0 +1,26 @@
+package com.example.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Migrações do Flyway na subida, exceto com app.migrations.enabled=false:
+ * a execução de treino do arquivo CDS (perfil cds) sobe o contexto sem banco.
+ * Com o AOT as condições das autoconfigurações ficam fixas no build, então
+ * spring.flyway.enabled não serviria para isso.
+ */
+@Configuration
+public class MigrationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${app.migrations.enabled:true}") boolean enabled) {
+        return flyway -> {
+            if (enabled) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.example.repository.UserRepository;
+import com.example.service.AuthTokenService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Resolve o dono dos dados de cada requisição da API a partir do token
+ * (Authorization: Bearer) e o publica no atributo OWNER_ID, lido pelos
+ * controllers com @RequestAttribute. Token inválido, expirado ou de um
+ * usuário inexistente responde 401. Sem Authorization, usa
+ * app.auth.default-user-id se configurado (instalações de um único usuário);
+ * caso contrário, 401.
+ */
+@Component
+public class OwnerInterceptor implements HandlerInterceptor {
+
+    public static final String OWNER_ID = "ownerId";
+
+    private static final String BEARER = "Bearer ";
+
+    private final AuthTokenService authTokenService;
+    private final UserRepository userRepository;
+    private final Long defaultUserId;
+
+    public OwnerInterceptor(AuthTokenService authTokenService, UserRepository userRepository,
+            @Value("${app.auth.default-user-id:#{null}}") Long defaultUserId) {
+        this.authTokenService = authTokenService;
+        this.userRepository = userRepository;
+        this.defaultUserId = defaultUserId;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        Long ownerId;
+        if (authorization == null || authorization.isBlank()) {
+            ownerId = defaultUserId;
+        } else if (authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            ownerId = authTokenService.validar(authorization.substring(BEARER.length()).trim()).orElse(null);
+        } else {
+            ownerId = null;
+        }
+        // findById é servido pela região "users" do cache de segundo nível
+        if (ownerId == null || userRepository.findById(ownerId).isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            return false;
+        }
+        request.setAttribute(OWNER_ID, ownerId);
+        return true;
+    }
+}
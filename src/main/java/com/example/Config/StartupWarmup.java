@@ -0,0 +1,173 @@
+package com.example.Config;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.example.Dto.PageCursor;
+import com.example.repository.CategoryRepository;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.service.AnalyticsService;
+import com.example.service.AnalyticsSnapshot;
+import com.example.service.AnalyticsSnapshot.Consulta;
+import com.example.service.AnalyticsSnapshot.Dimensao;
+import com.example.service.BalanceService;
+import com.example.service.ExpensesService;
+import com.example.service.ForecastService;
+import com.example.service.MonthlyRollupService;
+import com.example.service.RevenueService;
+import com.example.service.SummaryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Aquecimento na subida, no ApplicationReadyEvent, antes de o Spring Boot
+ * passar o readiness (/actuator/health/readiness) para ACCEPTING_TRAFFIC:
+ * a primeira requisição de verdade já encontra criados os beans adiados
+ * pela inicialização preguiçosa, o pool de conexões e o código quente já
+ * compilado pelo JIT.
+ *
+ * Não age como nenhum usuário: pela porta HTTP só chama rotas sem token
+ * (health e o 401 do OwnerInterceptor), o que aquece Tomcat, filtros e
+ * DispatcherServlet; as consultas das rotas de leitura mais usadas são
+ * chamadas direto nos serviços para DONO_SINTETICO, que não tem linhas, e o
+ * resultado passa pelo ObjectMapper como numa resposta. Termina em
+ * app.warmup.timeout mesmo sem completar app.warmup.iterations.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    // Ids de usuário vêm de users_seq (a partir de 1): nenhum registro pertence a ele
+    static final Long DONO_SINTETICO = -1L;
+
+    private static final List<String> PATHS = List.of("/actuator/health", "/api/categories");
+
+    private final ExpensesService expensesService;
+    private final RevenueService revenueService;
+    private final SummaryService summaryService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceService balanceService;
+    private final ForecastService forecastService;
+    private final AnalyticsService analyticsService;
+    private final CategoryRepository categoryRepository;
+    private final ExpensesRepository expensesRepository;
+    private final RevenuesRepository revenuesRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration timeout;
+
+    public StartupWarmup(ExpensesService expensesService, RevenueService revenueService,
+            SummaryService summaryService, MonthlyRollupService monthlyRollupService, BalanceService balanceService,
+            ForecastService forecastService, AnalyticsService analyticsService, CategoryRepository categoryRepository,
+            ExpensesRepository expensesRepository, RevenuesRepository revenuesRepository, ObjectMapper objectMapper,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${app.warmup.enabled:true}") boolean enabled,
+            @Value("${app.warmup.iterations:30}") int iterations,
+            @Value("${app.warmup.timeout:20s}") Duration timeout) {
+        this.expensesService = expensesService;
+        this.revenueService = revenueService;
+        this.summaryService = summaryService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceService = balanceService;
+        this.forecastService = forecastService;
+        this.analyticsService = analyticsService;
+        this.categoryRepository = categoryRepository;
+        this.expensesRepository = expensesRepository;
+        this.revenuesRepository = revenuesRepository;
+        this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.iterations = Math.max(iterations, 1);
+        this.timeout = timeout;
+    }
+
+    // Depois das inicializações de dados dos serviços, também no ApplicationReadyEvent
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aquecer(ApplicationReadyEvent event) {
+        Integer port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", Integer.class);
+        if (!enabled || port == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        String base = "http://localhost:" + port;
+        List<Supplier<Object>> reads = leituras();
+
+        int requests = 0;
+        int calls = 0;
+        try {
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                for (String path : PATHS) {
+                    client.send(HttpRequest.newBuilder(URI.create(base + path))
+                            .timeout(Duration.ofSeconds(10))
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .build(), HttpResponse.BodyHandlers.discarding());
+                    requests++;
+                }
+                for (Supplier<Object> read : reads) {
+                    objectMapper.writeValueAsBytes(read.get());
+                    calls++;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Aquecimento interrompido após {} requisições e {} consultas: {}", requests, calls,
+                    e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Os resultados vazios de DONO_SINTETICO não precisam ocupar os caches. O
+        // Hibernate não remove um resultado só do cache de queries: a região
+        // inteira sai, e nela ainda só há o findByUserId do aquecimento
+        forecastService.invalidar(List.of(DONO_SINTETICO));
+        analyticsService.invalidar(List.of(DONO_SINTETICO));
+        monthlyRollupService.invalidar(List.of(DONO_SINTETICO));
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        log.info("Aquecimento: {} requisições e {} consultas em {} ms", requests, calls,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // As consultas de GET /api/categories, /expenses, /revenues, /summary, /dashboard, /users/me/balance,
+    // /forecast e /analytics, e das listagens por mês
+    private List<Supplier<Object>> leituras() {
+        YearMonth month = YearMonth.now();
+        return List.of(
+                () -> categoryRepository.findByUserId(DONO_SINTETICO),
+                () -> expensesService.listarPagina(DONO_SINTETICO, null, null, PageCursor.Ordem.DESC),
+                () -> revenueService.listarPagina(DONO_SINTETICO, null, null, PageCursor.Ordem.DESC),
+                () -> expensesRepository.findByMonth(DONO_SINTETICO, month.atDay(1), month.plusMonths(1).atDay(1)),
+                () -> revenuesRepository.findByMonth(DONO_SINTETICO, month.atDay(1), month.plusMonths(1).atDay(1)),
+                () -> summaryService.etag(DONO_SINTETICO, "json"),
+                () -> summaryService.consultar(DONO_SINTETICO),
+                () -> monthlyRollupService.consultar(DONO_SINTETICO, month),
+                () -> balanceService.consultar(DONO_SINTETICO),
+                () -> forecastService.projetar(DONO_SINTETICO, 12),
+                () -> analyticsService.consultar(DONO_SINTETICO,
+                        new Consulta(AnalyticsSnapshot.DESPESA, Dimensao.CATEGORIA, null, null, null, null, null)));
+    }
+}
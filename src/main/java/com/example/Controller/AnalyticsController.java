@@ -0,0 +1,69 @@
+package com.example.Controller;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.Config.ConditionalGet;
+import com.example.Config.OwnerInterceptor;
+import com.example.Dto.AnalyticsView;
+import com.example.service.AnalyticsService;
+import com.example.service.AnalyticsSnapshot;
+import com.example.service.AnalyticsSnapshot.Consulta;
+import com.example.service.AnalyticsSnapshot.Dimensao;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ConditionalGet conditionalGet;
+
+    // GET /api/analytics?kind=expenses|revenues&groupBy=category|type|status|month&from=&to=&type=&status=&categoryId=
+    // - Soma e quantidade agrupadas, com filtros opcionais (datas de registro inclusivas, yyyy-MM-dd)
+    @GetMapping
+    public ResponseEntity<AnalyticsView> agregar(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestParam(defaultValue = "expenses") String kind,
+            @RequestParam(defaultValue = "category") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long categoryId,
+            WebRequest request) {
+        byte registro;
+        Dimensao dimensao;
+        switch (kind.toLowerCase(Locale.ROOT)) {
+            case "expenses" -> registro = AnalyticsSnapshot.DESPESA;
+            case "revenues" -> registro = AnalyticsSnapshot.RECEITA;
+            default -> {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        switch (groupBy.toLowerCase(Locale.ROOT)) {
+            case "category" -> dimensao = Dimensao.CATEGORIA;
+            case "type" -> dimensao = Dimensao.TIPO;
+            case "status" -> dimensao = Dimensao.STATUS;
+            case "month" -> dimensao = Dimensao.MES;
+            default -> {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
+        }
+        return ResponseEntity.ok(analyticsService.consultar(ownerId,
+                new Consulta(registro, dimensao, from, to, type, status, categoryId)));
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,17 +11,22 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import com.example.models.User;
-import com.example.repository.UserRepository;
+import com.example.service.AuthTokenService;
+import com.example.service.UsuarioService;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     @Autowired
-    private UserRepository userRepository;
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
 
     // POST /api/auth/login - Login de usuário
     @PostMapping("/login")
@@ -27,23 +34,12 @@ public class AuthController {
         String email = credentials.get("email");
         String password = credentials.get("password");
 
-        // Simples verificação - em produção usar BCrypt
-        if (email != null && password != null && password.length() >= 6) {
-            // Busca usuário ou cria um mock se não existir
-            User user = userRepository.findById(1L).orElseGet(() -> {
-                User newUser = new User();
-                newUser.setName(email.split("@")[0]);
-                newUser.setCode(1L);
-                return userRepository.save(newUser);
-            });
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", user.getId());
-            response.put("email", email);
-            response.put("name", user.getName());
-            response.put("token", "mock-token-" + System.currentTimeMillis());
-
-            return ResponseEntity.ok(response);
+        // E-mail desconhecido ou senha errada: mesma resposta, sem criar usuário
+        if (email != null && !email.isBlank() && password != null) {
+            Optional<User> user = usuarioService.entrar(email, password);
+            if (user.isPresent()) {
+                return ResponseEntity.ok(resposta(user.get()));
+            }
         }
 
         return ResponseEntity.status(401).body(Map.of("message", "Credenciais inválidas"));
@@ -52,18 +48,32 @@ public class AuthController {
     // POST /api/auth/register - Registro de usuário
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> register(@RequestBody Map<String, String> userData) {
-        User user = new User();
-        user.setName(userData.get("name"));
-        user.setCode(System.currentTimeMillis());
-
-        User saved = userRepository.save(user);
+        String email = userData.get("email");
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "E-mail é obrigatório"));
+        }
+        String password = userData.get("password");
+        if (password == null || password.length() < UsuarioService.MIN_PASSWORD_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Senha deve ter ao menos " + UsuarioService.MIN_PASSWORD_LENGTH + " caracteres"));
+        }
+        try {
+            return usuarioService.registrar(userData.get("name"), email, password)
+                    .map(saved -> ResponseEntity.ok(resposta(saved)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("message", "E-mail já cadastrado")));
+        } catch (DataIntegrityViolationException e) {
+            // Cadastro concorrente do mesmo e-mail
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "E-mail já cadastrado"));
+        }
+    }
 
+    private Map<String, Object> resposta(User user) {
         Map<String, Object> response = new HashMap<>();
-        response.put("id", saved.getId());
-        response.put("email", userData.get("email"));
-        response.put("name", saved.getName());
-        response.put("token", "mock-token-" + System.currentTimeMillis());
-
-        return ResponseEntity.ok(response);
+        response.put("id", user.getId());
+        response.put("email", user.getEmail());
+        response.put("name", user.getName());
+        response.put("token", authTokenService.emitir(user.getId()));
+        return response;
     }
 }
@@ -1,18 +1,23 @@
 package com.example.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import com.example.Config.OwnerInterceptor;
 import com.example.models.Category;
 import com.example.repository.CategoryRepository;
+import com.example.service.CategoryService;
 
 import java.util.List;
 import java.util.Map;
@@ -24,46 +29,57 @@ public class CategoriesController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryService categoryService;
+
     // GET /api/categories - Listar todas as categorias
     @GetMapping
-    public ResponseEntity<List<Category>> listarTodasCategorias() {
-        return ResponseEntity.ok(categoryRepository.findAll());
+    public ResponseEntity<List<Category>> listarTodasCategorias(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId) {
+        return ResponseEntity.ok(categoryRepository.findByUserId(ownerId));
     }
 
     // GET /api/categories/{id} - Buscar categoria por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Category> buscarCategoriaPorId(@PathVariable Long id) {
-        return categoryRepository.findById(id)
+    public ResponseEntity<Category> buscarCategoriaPorId(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+        return categoryRepository.findByIdAndUserId(id, ownerId)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
     // POST /api/categories - Criar nova categoria
     @PostMapping
-    public ResponseEntity<Category> criarCategoria(@RequestBody Map<String, String> payload) {
-        Category category = new Category();
-        category.setName(payload.get("name"));
-        Category saved = categoryRepository.save(category);
-        return ResponseEntity.ok(saved);
+    public ResponseEntity<Category> criarCategoria(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestBody Map<String, String> payload) {
+        String name = payload.get("name");
+        if (name == null || name.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Devolve a existente se já houver uma com o mesmo nome
+        return ResponseEntity.ok(categoryService.resolver(ownerId, name));
     }
 
     // PUT /api/categories/{id} - Atualizar categoria
     @PutMapping("/{id}")
-    public ResponseEntity<Category> atualizarCategoria(@PathVariable Long id, @RequestBody Map<String, String> payload) {
-        return categoryRepository.findById(id)
-            .map(category -> {
-                category.setName(payload.get("name"));
-                Category updated = categoryRepository.save(category);
-                return ResponseEntity.ok(updated);
-            })
-            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Category> atualizarCategoria(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id,
+            @RequestBody Map<String, String> payload) {
+        String name = payload.get("name");
+        if (name == null || name.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return categoryService.atualizar(ownerId, id, name.trim())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (DataIntegrityViolationException e) {
+            // Já existe outra categoria com esse nome
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     // DELETE /api/categories/{id} - Excluir categoria
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> excluirCategoria(@PathVariable Long id) {
-        if (categoryRepository.existsById(id)) {
-            categoryRepository.deleteById(id);
+    public ResponseEntity<Void> excluirCategoria(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+        if (categoryService.excluir(ownerId, id)) {
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
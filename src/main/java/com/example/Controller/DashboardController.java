@@ -1,40 +1,62 @@
 package com.example.Controller;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.DateTimeException;
+import java.time.YearMonth;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.example.repository.ExpensesRepository;
-import com.example.repository.RevenuesRepository;
+import com.example.Config.ConditionalGet;
+import com.example.Config.OwnerInterceptor;
+import com.example.service.MonthlyRollupService;
+import com.example.service.MonthlyRollupService.MonthlySummary;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
     @Autowired
-    private RevenuesRepository revenueRepository;
+    private MonthlyRollupService monthlyRollupService;
 
     @Autowired
-    private ExpensesRepository expensesRepository;
+    private ConditionalGet conditionalGet;
 
+    // GET /api/dashboard/monthly-summary?year=&month= - Resumo do mês (padrão: mês atual)
+    // - O ETag leva o mês resolvido: sem year/month a mesma URL muda de mês na virada
     @GetMapping("/monthly-summary")
-    public ResponseEntity<Map<String, BigDecimal>> getMonthlySummary() {
-        LocalDate today = LocalDate.now();
-        int year = today.getYear();
-        int month = today.getMonthValue();
-        BigDecimal totalRevenue = revenueRepository.sumExpectedByMonth(year, month);
-        BigDecimal totalExpenses = expensesRepository.sumByMonthAndType(year, month);
-        BigDecimal balance = totalRevenue.subtract(totalExpenses);
+    public ResponseEntity<Map<String, BigDecimal>> getMonthlySummary(
+            @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            WebRequest request) {
+        YearMonth period;
+        try {
+            if (year == null && month == null) {
+                period = YearMonth.now();
+            } else if (year != null && month != null) {
+                period = YearMonth.of(year, month);
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (conditionalGet.naoModificado(request, ownerId, period.toString())) {
+            return null;
+        }
+        MonthlySummary summary = monthlyRollupService.consultar(ownerId, period);
 
         return ResponseEntity.ok(Map.of(
-                "totalRevenue", totalRevenue,
-                "totalExpenses", totalExpenses,
-                "balance", balance));
+                "totalRevenue", summary.totalRevenue(),
+                "totalExpenses", summary.totalExpenses(),
+                "balance", summary.balance()));
     }
 
 }
@@ -1,6 +1,8 @@
 package com.example.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,21 +12,38 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
-
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.Config.ConditionalGet;
+import com.example.Config.OwnerInterceptor;
+import com.example.Dto.CursorPage;
+import com.example.Dto.ExpenseView;
 import com.example.Dto.ExpensesDTO;
-import com.example.models.Expenses;
+import com.example.Dto.PageCursor;
+import com.example.models.SummaryCounters;
 import com.example.repository.ExpensesRepository;
 import com.example.service.ExpensesService;
+import com.example.service.ExportService;
 import com.example.service.InstallmentSchedulerService;
+import com.example.service.SummaryService;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.math.BigDecimal;
 
 @RestController
 @RequestMapping("/api/expenses")
 public class ExpensesController {
+    private static final int BULK_MAX_SIZE = 10_000;
+
     @Autowired
     private ExpensesService expensesService;
 
@@ -34,59 +53,117 @@ public class ExpensesController {
     @Autowired
     private ExpensesRepository expensesRepository;
 
-    // GET /api/expenses - Listar todas as despesas
+    @Autowired
+    private SummaryService summaryService;
+
+    @Autowired
+    private ConditionalGet conditionalGet;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ExportService exportService;
+
+    // GET /api/expenses?cursor=&size=&sort= - Listar despesas paginadas por cursor
     @GetMapping
-    public ResponseEntity<List<Expenses>> listarTodasDespesas() {
-        return ResponseEntity.ok(expensesRepository.findAll());
+    public ResponseEntity<CursorPage<ExpenseView>> listarTodasDespesas(
+            @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "desc") String sort,
+            WebRequest request) {
+        // Ordem e cursor conferidos antes do ETag: inválidos respondem 400 mesmo com If-None-Match
+        PageCursor.Ordem ordem;
+        PageCursor after;
+        try {
+            ordem = PageCursor.Ordem.of(sort);
+            after = PageCursor.fromParam(cursor, ordem);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // If-None-Match com a versão atual: 304 sem consultar a lista nem serializar
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
+        }
+        return ResponseEntity.ok(expensesService.listarPagina(ownerId, after, size, ordem));
+    }
+
+    // GET /api/expenses/export?format=csv|ndjson - Exportar todas as despesas (streaming)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarDespesas(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Formato formato;
+        try {
+            formato = ExportService.Formato.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> exportService.exportarDespesas(ownerId, formato, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"despesas." + formato.extensao() + "\"")
+                .body(body);
     }
 
     // GET /api/expenses/{id} - Buscar despesa por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Expenses> buscarDespesaPorId(@PathVariable Long id) {
-        return expensesRepository.findById(id)
+    public ResponseEntity<ExpenseView> buscarDespesaPorId(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+        return expensesRepository.findViewById(id, ownerId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // POST /api/expenses - Criar nova despesa
     @PostMapping
-    public ResponseEntity<String> registrarDespesa(@RequestBody @Valid ExpensesDTO expensesDTO) {
-        expensesService.registrarGasto(expensesDTO);
+    public ResponseEntity<String> registrarDespesa(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestBody @Valid ExpensesDTO expensesDTO) {
+        expensesService.registrarGasto(ownerId, expensesDTO);
         return ResponseEntity.ok("DespesaRegistrada");
     }
 
+    // POST /api/expenses/bulk - Criar várias despesas de uma vez (até BULK_MAX_SIZE)
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> registrarDespesasEmLote(
+            @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestBody List<ExpensesDTO> expensesDTOs) {
+        if (expensesDTOs.isEmpty() || expensesDTOs.size() > BULK_MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        // @Valid não se aplica aos elementos de uma lista no @RequestBody
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < expensesDTOs.size(); i++) {
+            for (ConstraintViolation<ExpensesDTO> violation : validator.validate(expensesDTOs.get(i))) {
+                errors.add("[" + i + "] " + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("errors", errors));
+        }
+        long start = System.nanoTime();
+        int inserted = expensesService.registrarLote(ownerId, expensesDTOs);
+        long elapsedMs = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+
+        return ResponseEntity.ok(Map.of(
+                "inserted", inserted,
+                "elapsedMs", elapsedMs,
+                "rowsPerSecond", inserted * 1000L / elapsedMs));
+    }
+
     // PUT /api/expenses/{id} - Atualizar despesa
     @PutMapping("/{id}")
-    public ResponseEntity<Expenses> atualizarDespesa(@PathVariable Long id, @RequestBody ExpensesDTO expensesDTO) {
-        return expensesRepository.findById(id)
-                .map(expense -> {
-                    expense.setName(expensesDTO.nome());
-                    expense.setAmount(expensesDTO.valorPago());
-                    expense.setType(expensesDTO.tipo());
-                    if (expensesDTO.diaVencimento() != null) {
-                        expense.setDueDay(expensesDTO.diaVencimento());
-                    }
-                    if (expensesDTO.totalParcelas() != null) {
-                        expense.setTotalInstallments(expensesDTO.totalParcelas());
-                    }
-                    if (expensesDTO.parcelaAtual() != null) {
-                        expense.setCurrentInstallment(expensesDTO.parcelaAtual());
-                    }
-                    // Buscar categoria pelo nome
-                    if (expensesDTO.nomeCategoria() != null) {
-                        // A categoria será mantida ou atualizada se necessário
-                    }
-                    Expenses updated = expensesRepository.save(expense);
-                    return ResponseEntity.ok(updated);
-                })
+    public ResponseEntity<ExpenseView> atualizarDespesa(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id,
+            @RequestBody ExpensesDTO expensesDTO) {
+        return expensesService.atualizarDespesa(ownerId, id, expensesDTO)
+                .map(ExpenseView::of)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // DELETE /api/expenses/{id} - Excluir despesa
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> excluirDespesa(@PathVariable Long id) {
-        if (expensesRepository.existsById(id)) {
-            expensesRepository.deleteById(id);
+    public ResponseEntity<Void> excluirDespesa(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+        if (expensesService.excluirDespesa(ownerId, id)) {
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
@@ -94,46 +171,40 @@ public class ExpensesController {
 
     // GET /api/expenses/summary - Resumo de despesas
     @GetMapping("/summary")
-    public ResponseEntity<Map<String, Object>> getSummary() {
-        List<Expenses> all = expensesRepository.findAll();
-
-        BigDecimal totalExpenses = all.stream()
-                .map(Expenses::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalInstallments = all.stream()
-                .filter(e -> "PARCELADO".equals(e.getType()) || "FIXO".equals(e.getType()))
-                .map(Expenses::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal pendingInstallments = all.stream()
-                .filter(e -> "PENDENTE".equals(e.getStatus()))
-                .map(Expenses::getInstallmentAmount)
-                .filter(v -> v != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public ResponseEntity<Map<String, Object>> getSummary(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, WebRequest request) {
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
+        }
+        SummaryCounters counters = summaryService.consultar(ownerId);
 
         return ResponseEntity.ok(Map.of(
-                "totalExpenses", totalExpenses,
-                "totalInstallments", totalInstallments,
-                "pendingInstallments", pendingInstallments));
+                "totalExpenses", counters.getExpensesTotal(),
+                "totalInstallments", counters.getExpensesRecurring(),
+                "pendingInstallments", counters.getExpensesPending()));
     }
 
     // GET /api/expenses/month/{year}/{month} - Despesas por mês
     @GetMapping("/month/{year}/{month}")
-    public ResponseEntity<List<Expenses>> getExpensesByMonth(@PathVariable int year, @PathVariable int month) {
-        List<Expenses> all = expensesRepository.findAll();
-        List<Expenses> filtered = all.stream()
-                .filter(e -> e.getRegisteredAt() != null)
-                .filter(e -> e.getRegisteredAt().getYear() == year)
-                .filter(e -> e.getRegisteredAt().getMonthValue() == month)
-                .toList();
-        return ResponseEntity.ok(filtered);
+    public ResponseEntity<List<ExpenseView>> getExpensesByMonth(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @PathVariable int year, @PathVariable int month, WebRequest request) {
+        // Mês inválido responde 400 mesmo com If-None-Match
+        YearMonth period;
+        try {
+            period = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
+        }
+        return ResponseEntity.ok(expensesRepository.findByMonth(ownerId,
+                period.atDay(1), period.plusMonths(1).atDay(1)));
     }
 
     // POST /api/expenses/pay/{id} - Pagar parcela (já existe)
     @PostMapping("/pay/{id}")
-    public ResponseEntity<String> pagarParcela(@PathVariable Long id) {
-        installmentSchedulerService.processPaymentManual(id);
+    public ResponseEntity<String> pagarParcela(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+        installmentSchedulerService.processPaymentManual(ownerId, id);
         return ResponseEntity.ok("PagamentoProcessado");
     }
 }
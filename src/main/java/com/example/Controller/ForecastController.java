@@ -0,0 +1,30 @@
+package com.example.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Config.OwnerInterceptor;
+import com.example.Dto.ForecastView;
+import com.example.service.ForecastService;
+
+@RestController
+@RequestMapping("/api/forecast")
+public class ForecastController {
+    @Autowired
+    private ForecastService forecastService;
+
+    // GET /api/forecast?months=N - Previsão de entradas, saídas e saldo mês a mês (padrão: 12 meses)
+    @GetMapping
+    public ResponseEntity<ForecastView> projetarSaldo(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestParam(defaultValue = "12") int months) {
+        if (months < 1 || months > forecastService.maxMonths()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(forecastService.projetar(ownerId, months));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Config.OwnerInterceptor;
+import com.example.Dto.ImportResult;
+import com.example.service.StatementImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+@RestController
+@RequestMapping("/api/imports")
+public class ImportsController {
+
+    @Autowired
+    private StatementImportService statementImportService;
+
+    // POST /api/imports/statement?format=csv|ofx&charset= - Importar extrato bancário
+    // O arquivo é o próprio corpo da requisição, lido em fluxo (sem multipart).
+    // Corpos form-urlencoded seriam consumidos pelo container como parâmetros.
+    @PostMapping(value = "/statement", consumes = { "text/*", "application/octet-stream", "application/x-ofx" })
+    public ResponseEntity<ImportResult> importarExtrato(
+            @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "UTF-8") String charset,
+            InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(statementImportService.importar(ownerId, body, format, Charset.forName(charset)));
+        } catch (IllegalArgumentException e) {
+            // Formato ou charset não suportado
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
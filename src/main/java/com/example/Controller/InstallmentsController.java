@@ -1,22 +1,35 @@
 package com.example.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.example.models.Expenses;
+import com.example.Config.ConditionalGet;
+import com.example.Config.OwnerInterceptor;
+import com.example.Dto.InstallmentView;
+import com.example.models.SummaryCounters;
 import com.example.repository.ExpensesRepository;
+import com.example.repository.InstallmentRepository;
 import com.example.service.InstallmentSchedulerService;
+import com.example.service.SummaryService;
+import com.example.service.ViewStreamService;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.DateTimeException;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
-import java.math.BigDecimal;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/installments")
@@ -25,173 +38,121 @@ public class InstallmentsController {
     @Autowired
     private ExpensesRepository expensesRepository;
 
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
     @Autowired
     private InstallmentSchedulerService installmentSchedulerService;
 
-    // GET /api/installments - Listar todas as parcelas
+    @Autowired
+    private SummaryService summaryService;
+
+    @Autowired
+    private ConditionalGet conditionalGet;
+
+    @Autowired
+    private ViewStreamService viewStreamService;
+
+    // GET /api/installments - Listar todas as parcelas (JSON, Smile ou CBOR pelo Accept)
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllInstallments() {
-        List<Expenses> expenses = expensesRepository.findAll();
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        for (Expenses expense : expenses) {
-            if ("PARCELADO".equals(expense.getType()) || "FIXO".equals(expense.getType())) {
-                int total = expense.getTotalInstallments() != null ? expense.getTotalInstallments() : 1;
-                for (int i = 1; i <= total; i++) {
-                    boolean isPaid = expense.getCurrentInstallment() != null && expense.getCurrentInstallment() >= i;
-                    Map<String, Object> installment = new HashMap<>();
-                    installment.put("id", expense.getId() * 100 + i);
-                    installment.put("expenseId", expense.getId());
-                    installment.put("description", expense.getName());
-                    installment.put("amount",
-                            expense.getInstallmentAmount() != null ? expense.getInstallmentAmount() : BigDecimal.ZERO);
-                    installment.put("installmentNumber", i);
-                    installment.put("totalInstallments", total);
-                    installment.put("paid", isPaid);
-                    installment.put("dueDate",
-                            expense.getRegisteredAt() != null ? expense.getRegisteredAt().plusMonths(i - 1).toString()
-                                    : "");
-                    result.add(installment);
-                }
-            }
+    public ResponseEntity<StreamingResponseBody> getAllInstallments(
+            @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
         }
-
-        return ResponseEntity.ok(result);
+        return stream(accept, () -> installmentRepository.streamAllViews(ownerId));
     }
 
-    // GET /api/installments/pending - Listar parcelas pendentes
+    // GET /api/installments/pending - Listar parcelas pendentes (por vencimento)
     @GetMapping("/pending")
-    public ResponseEntity<List<Map<String, Object>>> getPendingInstallments() {
-        List<Expenses> expenses = expensesRepository.findAll();
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        for (Expenses expense : expenses) {
-            if ("PENDENTE".equals(expense.getStatus()) &&
-                    ("PARCELADO".equals(expense.getType()) || "FIXO".equals(expense.getType()))) {
-                int current = expense.getCurrentInstallment() != null ? expense.getCurrentInstallment() : 0;
-                int total = expense.getTotalInstallments() != null ? expense.getTotalInstallments() : 1;
-                for (int i = current + 1; i <= total; i++) {
-                    Map<String, Object> installment = new HashMap<>();
-                    installment.put("id", expense.getId() * 100 + i);
-                    installment.put("expenseId", expense.getId());
-                    installment.put("description", expense.getName());
-                    installment.put("amount",
-                            expense.getInstallmentAmount() != null ? expense.getInstallmentAmount() : BigDecimal.ZERO);
-                    installment.put("installmentNumber", i);
-                    installment.put("totalInstallments", total);
-                    installment.put("paid", false);
-                    installment.put("dueDate",
-                            expense.getRegisteredAt() != null ? expense.getRegisteredAt().plusMonths(i - 1).toString()
-                                    : "");
-                    result.add(installment);
-                }
-            }
+    public ResponseEntity<StreamingResponseBody> getPendingInstallments(
+            @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
         }
-
-        return ResponseEntity.ok(result);
+        return stream(accept, () -> installmentRepository.streamPendingViews(ownerId));
     }
 
     // GET /api/installments/expense/{expenseId} - Parcelas de uma despesa
     // específica
     @GetMapping("/expense/{expenseId}")
-    public ResponseEntity<List<Map<String, Object>>> getInstallmentsByExpense(@PathVariable Long expenseId) {
-        return expensesRepository.findById(expenseId)
-                .map(expense -> {
-                    List<Map<String, Object>> result = new ArrayList<>();
-                    int total = expense.getTotalInstallments() != null ? expense.getTotalInstallments() : 1;
-                    for (int i = 1; i <= total; i++) {
-                        boolean isPaid = expense.getCurrentInstallment() != null
-                                && expense.getCurrentInstallment() >= i;
-                        Map<String, Object> installment = new HashMap<>();
-                        installment.put("id", expense.getId() * 100 + i);
-                        installment.put("expenseId", expense.getId());
-                        installment.put("description", expense.getName());
-                        installment.put("amount",
-                                expense.getInstallmentAmount() != null ? expense.getInstallmentAmount()
-                                        : BigDecimal.ZERO);
-                        installment.put("installmentNumber", i);
-                        installment.put("totalInstallments", total);
-                        installment.put("paid", isPaid);
-                        installment.put("dueDate",
-                                expense.getRegisteredAt() != null
-                                        ? expense.getRegisteredAt().plusMonths(i - 1).toString()
-                                        : "");
-                        result.add(installment);
-                    }
-                    return ResponseEntity.ok(result);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<List<InstallmentView>> getInstallmentsByExpense(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @PathVariable Long expenseId, WebRequest request) {
+        if (!expensesRepository.existsByIdAndUserId(expenseId, ownerId)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
+        }
+        return ResponseEntity.ok(installmentRepository.findViewsByExpenseId(expenseId, ownerId));
     }
 
     // GET /api/installments/month/{year}/{month} - Parcelas de um mês específico
     @GetMapping("/month/{year}/{month}")
-    public ResponseEntity<List<Map<String, Object>>> getInstallmentsByMonth(@PathVariable int year,
-            @PathVariable int month) {
-        List<Expenses> expenses = expensesRepository.findAll();
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        for (Expenses expense : expenses) {
-            if (("PARCELADO".equals(expense.getType()) || "FIXO".equals(expense.getType()))
-                    && expense.getRegisteredAt() != null) {
-                int total = expense.getTotalInstallments() != null ? expense.getTotalInstallments() : 1;
-                for (int i = 1; i <= total; i++) {
-                    var dueDate = expense.getRegisteredAt().plusMonths(i - 1);
-                    if (dueDate.getYear() == year && dueDate.getMonthValue() == month) {
-                        boolean isPaid = expense.getCurrentInstallment() != null
-                                && expense.getCurrentInstallment() >= i;
-                        Map<String, Object> installment = new HashMap<>();
-                        installment.put("id", expense.getId() * 100 + i);
-                        installment.put("expenseId", expense.getId());
-                        installment.put("description", expense.getName());
-                        installment.put("amount",
-                                expense.getInstallmentAmount() != null ? expense.getInstallmentAmount()
-                                        : BigDecimal.ZERO);
-                        installment.put("installmentNumber", i);
-                        installment.put("totalInstallments", total);
-                        installment.put("paid", isPaid);
-                        installment.put("dueDate", dueDate.toString());
-                        result.add(installment);
-                    }
-                }
-            }
+    public ResponseEntity<StreamingResponseBody> getInstallmentsByMonth(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @PathVariable int year,
+            @PathVariable int month,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        // Mês inválido responde 400 mesmo com If-None-Match
+        YearMonth period;
+        try {
+            period = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
         }
-
-        return ResponseEntity.ok(result);
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
+        }
+        return stream(accept, () -> installmentRepository.streamViewsByDueDateRange(ownerId,
+                period.atDay(1), period.plusMonths(1).atDay(1)));
     }
 
     // POST /api/installments/{id}/pay - Marcar parcela como paga
+    // - Só a próxima parcela da despesa; uma posterior com anterior em aberto responde 409
     @PostMapping("/{id}/pay")
-    public ResponseEntity<String> payInstallment(@PathVariable Long id) {
-        // O ID da parcela é composto por expenseId * 100 + installmentNumber
-        long expenseId = id / 100;
-        installmentSchedulerService.processPaymentManual(expenseId);
+    public ResponseEntity<String> payInstallment(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+        try {
+            installmentSchedulerService.processInstallmentPayment(ownerId, id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         return ResponseEntity.ok("PagamentoProcessado");
     }
 
     // GET /api/installments/summary - Resumo de parcelas
     @GetMapping("/summary")
-    public ResponseEntity<Map<String, Object>> getSummary() {
-        List<Expenses> expenses = expensesRepository.findAll();
-
-        BigDecimal totalPending = BigDecimal.ZERO;
-        BigDecimal totalPaid = BigDecimal.ZERO;
-        long pendingCount = 0;
-
-        for (Expenses expense : expenses) {
-            if ("PARCELADO".equals(expense.getType()) || "FIXO".equals(expense.getType())) {
-                if ("PENDENTE".equals(expense.getStatus()) && expense.getInstallmentAmount() != null) {
-                    totalPending = totalPending.add(expense.getInstallmentAmount());
-                    pendingCount++;
-                }
-                if ("PAGO".equals(expense.getStatus()) && expense.getInstallmentAmount() != null) {
-                    totalPaid = totalPaid.add(expense.getInstallmentAmount());
-                }
-            }
+    public ResponseEntity<Map<String, Object>> getSummary(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, WebRequest request) {
+        if (conditionalGet.naoModificado(request, ownerId)) {
+            return null;
         }
+        SummaryCounters counters = summaryService.consultar(ownerId);
 
         return ResponseEntity.ok(Map.of(
-                "totalPending", totalPending,
-                "totalPaid", totalPaid,
-                "pendingCount", pendingCount));
+                "totalPending", counters.getInstallmentsPending(),
+                "totalPaid", counters.getInstallmentsPaid(),
+                "pendingCount", counters.getInstallmentsPendingCount()));
+    }
+
+    // Listagens sem limite: escritas linha a linha por ViewStreamService, na
+    // codificação pedida no Accept (406 se nenhuma for aceita). A query roda
+    // depois do retorno do controller: o dono já vai capturado nela
+    private ResponseEntity<StreamingResponseBody> stream(String accept,
+            Supplier<Stream<InstallmentView>> query) {
+        ViewStreamService.Codificacao codificacao;
+        try {
+            codificacao = ViewStreamService.Codificacao.negociar(accept);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        // Vary: Accept já vai na resposta (ConditionalGet)
+        StreamingResponseBody body = out -> viewStreamService.escrever(query, codificacao, out);
+        return ResponseEntity.ok()
+                .contentType(codificacao.mediaType())
+                .body(body);
     }
 }
@@ -0,0 +1,26 @@
+package com.example.Controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.models.JobRun;
+import com.example.service.InstallmentSchedulerService;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobsController {
+
+    @Autowired
+    private InstallmentSchedulerService installmentSchedulerService;
+
+    // GET /api/jobs/runs - Últimas execuções do job de pagamentos recorrentes
+    @GetMapping("/runs")
+    public ResponseEntity<List<JobRun>> listarExecucoes() {
+        return ResponseEntity.ok(installmentSchedulerService.listarExecucoes());
+    }
+}
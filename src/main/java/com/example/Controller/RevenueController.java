@@ -1,24 +1,39 @@
 package com.example.Controller;
 
 import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Config.ConditionalGet;
+import com.example.Config.OwnerInterceptor;
+import com.example.Dto.CursorPage;
+import com.example.Dto.PageCursor;
 import com.example.Dto.RevenueDTO;
-import com.example.models.Revenue;
+import com.example.Dto.RevenueView;
+import com.example.models.SummaryCounters;
 import com.example.repository.RevenuesRepository;
+import com.example.service.ExportService;
 import com.example.service.RevenueService;
+import com.example.service.SummaryService;
 
 @RestController
 @RequestMapping("/api/revenues")
@@ -29,23 +44,66 @@ public class RevenueController {
   @Autowired
   private RevenuesRepository revenueRepository;
 
-  // LISTAR TODAS DESPESAS
+  @Autowired
+  private SummaryService summaryService;
+
+  @Autowired
+  private ConditionalGet conditionalGet;
+
+  @Autowired
+  private ExportService exportService;
+
+  // LISTAR RECEITAS PAGINADAS POR CURSOR (?cursor=&size=&sort=)
   @GetMapping
-  public ResponseEntity<List<Revenue>> listarTodas() {
-    return ResponseEntity.ok(revenueRepository.findAll());
+  public ResponseEntity<CursorPage<RevenueView>> listarTodas(
+      @RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(defaultValue = "desc") String sort,
+      WebRequest request) {
+    // Ordem e cursor conferidos antes do ETag: inválidos respondem 400 mesmo com If-None-Match
+    PageCursor.Ordem ordem;
+    PageCursor after;
+    try {
+      ordem = PageCursor.Ordem.of(sort);
+      after = PageCursor.fromParam(cursor, ordem);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (conditionalGet.naoModificado(request, ownerId)) {
+      return null;
+    }
+    return ResponseEntity.ok(revenueService.listarPagina(ownerId, after, size, ordem));
+  }
+
+  // EXPORTAR TODAS AS RECEITAS EM STREAMING (?format=csv|ndjson)
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportarReceitas(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+      @RequestParam(defaultValue = "csv") String format) {
+    ExportService.Formato formato;
+    try {
+      formato = ExportService.Formato.of(format);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    StreamingResponseBody body = out -> exportService.exportarReceitas(ownerId, formato, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(formato.contentType() + ";charset=UTF-8"))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"receitas." + formato.extensao() + "\"")
+        .body(body);
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<Revenue> listarReceitaPorID(@PathVariable Long id) {
-    return revenueRepository.findById(id)
+  public ResponseEntity<RevenueView> listarReceitaPorID(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+    return revenueRepository.findViewById(id, ownerId)
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
   @PostMapping
-  public ResponseEntity<String> registrarReceita(@RequestBody RevenueDTO dto) {
+  public ResponseEntity<String> registrarReceita(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @RequestBody RevenueDTO dto) {
     try {
-      revenueService.registrarReceitas(dto);
+      revenueService.registrarReceitas(ownerId, dto);
       return ResponseEntity.ok("Receita Registrada");
     } catch (Exception e) {
       e.printStackTrace();
@@ -54,43 +112,53 @@ public class RevenueController {
   }
 
   @PutMapping("/{id}")
-  public ResponseEntity<Revenue> atualizarReceita(@PathVariable Long id, @RequestBody RevenueDTO dto) {
-    return revenueRepository.findById(id)
-        .map(revenue -> {
-          revenue.setName(dto.nome());
-          revenue.setAmount(dto.valor());
-          revenue.setType(dto.tipo());
-          if (dto.diaVencimento() != null) {
-            revenue.setDueDay(dto.diaVencimento());
-          }
-          Revenue update = revenueRepository.save(revenue);
-          return ResponseEntity.ok(update);
-        }).orElse(ResponseEntity.notFound().build());
+  public ResponseEntity<RevenueView> atualizarReceita(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id,
+      @RequestBody RevenueDTO dto) {
+    return revenueService.atualizarReceita(ownerId, id, dto)
+        .map(RevenueView::of)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
   }
 
   @DeleteMapping("/{id}")
-  public ResponseEntity<Void> excluirReceita(@PathVariable Long id) {
-    if (revenueRepository.existsById(id)) {
-      revenueRepository.deleteById(id);
+  public ResponseEntity<Void> excluirReceita(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, @PathVariable Long id) {
+    if (revenueService.excluirReceita(ownerId, id)) {
       return ResponseEntity.ok().build();
     }
     return ResponseEntity.notFound().build();
   }
 
+  // Resumo lido dos contadores mantidos pelo SummaryService
   @GetMapping("/summary")
-  public ResponseEntity<Map<String, BigDecimal>> getSummary() {
+  public ResponseEntity<Map<String, BigDecimal>> getSummary(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId, WebRequest request) {
+    if (conditionalGet.naoModificado(request, ownerId)) {
+      return null;
+    }
+    SummaryCounters counters = summaryService.consultar(ownerId);
     Map<String, BigDecimal> summary = Map.of(
-        "totalRevenues", revenueRepository.sumAllAmounts(),
-        "totalFixed", revenueRepository.sumFixedAmount(),
-        "totalPending", revenueRepository.sumPendingAmount(),
-        "totalMiscellaneous", revenueRepository.sumMiscellaneousAmount());
+        "totalRevenues", counters.getRevenuesTotal(),
+        "totalFixed", counters.getRevenuesFixed(),
+        "totalPending", counters.getRevenuesPending(),
+        "totalMiscellaneous", counters.getRevenuesMiscellaneous());
 
     return ResponseEntity.ok(summary);
   }
 
   @GetMapping("/month/{year}/{month}")
-  public ResponseEntity<List<Revenue>> getRevenueByMonth(@PathVariable int year, @PathVariable int month) {
-    List<Revenue> revenues = revenueRepository.findByMonth(year, month);
+  public ResponseEntity<List<RevenueView>> getRevenueByMonth(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+      @PathVariable int year, @PathVariable int month, WebRequest request) {
+    // Mês inválido responde 400 mesmo com If-None-Match
+    YearMonth period;
+    try {
+      period = YearMonth.of(year, month);
+    } catch (DateTimeException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (conditionalGet.naoModificado(request, ownerId)) {
+      return null;
+    }
+    List<RevenueView> revenues = revenueRepository.findByMonth(ownerId, period.atDay(1),
+        period.plusMonths(1).atDay(1));
     return ResponseEntity.ok(revenues);
   }
 
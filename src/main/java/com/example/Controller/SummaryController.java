@@ -0,0 +1,28 @@
+package com.example.Controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Config.OwnerInterceptor;
+import com.example.service.SummaryService;
+
+@RestController
+@RequestMapping("/api/summary")
+public class SummaryController {
+
+    @Autowired
+    private SummaryService summaryService;
+
+    // POST /api/summary/rebuild - Recalcula os contadores de resumo e
+    // informa divergências em relação aos valores incrementais
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId) {
+        return ResponseEntity.ok(summaryService.recalcular(ownerId));
+    }
+}
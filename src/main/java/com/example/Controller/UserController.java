@@ -1,16 +1,25 @@
 package com.example.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import com.example.Config.OwnerInterceptor;
+import com.example.models.BalanceEntry;
 import com.example.models.User;
 import com.example.repository.UserRepository;
+import com.example.service.AuthTokenService;
+import com.example.service.BalanceService;
+import com.example.service.UsuarioService;
 
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -21,15 +30,24 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
     // GET /api/users/me - Obter usuário atual
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser() {
-        return userRepository.findById(1L)
+    public ResponseEntity<Map<String, Object>> getCurrentUser(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId) {
+        return userRepository.findById(ownerId)
                 .map(user -> {
                     Map<String, Object> response = new HashMap<>();
                     response.put("id", user.getId());
                     response.put("name", user.getName());
-                    response.put("email", "user@example.com");
+                    response.put("email", user.getEmail());
                     return ResponseEntity.ok(response);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -37,8 +55,9 @@ public class UserController {
 
     // PUT /api/users/me - Atualizar perfil do usuário
     @PutMapping("/me")
-    public ResponseEntity<Map<String, Object>> updateProfile(@RequestBody Map<String, String> userData) {
-        return userRepository.findById(1L)
+    public ResponseEntity<Map<String, Object>> updateProfile(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestBody Map<String, String> userData) {
+        return userRepository.findById(ownerId)
                 .map(user -> {
                     if (userData.containsKey("name")) {
                         user.setName(userData.get("name"));
@@ -48,10 +67,51 @@ public class UserController {
                     Map<String, Object> response = new HashMap<>();
                     response.put("id", updated.getId());
                     response.put("name", updated.getName());
-                    response.put("email", "user@example.com");
+                    response.put("email", updated.getEmail());
 
                     return ResponseEntity.ok(response);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    // GET /api/users/me/balance - Saldo atual conferido contra o diário de movimentos
+    @GetMapping("/me/balance")
+    public ResponseEntity<Map<String, Object>> getBalance(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId) {
+        BalanceService.BalanceCheck check = balanceService.consultar(ownerId);
+        return ResponseEntity.ok(Map.of(
+                "balance", check.balance(),
+                "journalTotal", check.journalTotal(),
+                "consistent", check.consistent()));
+    }
+
+    // GET /api/users/me/balance-entries - Últimos 100 movimentos do saldo
+    @GetMapping("/me/balance-entries")
+    public ResponseEntity<List<BalanceEntry>> getBalanceEntries(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId) {
+        return ResponseEntity.ok(balanceService.listarMovimentos(ownerId));
+    }
+
+    // POST /api/users/me/claim-legacy - Assumir os dados de uma base anterior ao login por e-mail
+    // - Corpo {"code": "..."} com o valor de app.auth.legacy-claim-code; a conta atual precisa estar vazia.
+    // - Responde com o token do usuário assumido (o token atual deixa de valer)
+    @PostMapping("/me/claim-legacy")
+    public ResponseEntity<Map<String, Object>> claimLegacy(@RequestAttribute(OwnerInterceptor.OWNER_ID) Long ownerId,
+            @RequestBody Map<String, String> body) {
+        UsuarioService.Reivindicacao result = usuarioService.assumirLegado(ownerId, body.get("code"));
+        return switch (result.status()) {
+            case ASSUMIDO -> {
+                User user = result.user();
+                Map<String, Object> response = new HashMap<>();
+                response.put("id", user.getId());
+                response.put("email", user.getEmail());
+                response.put("name", user.getName());
+                response.put("token", authTokenService.emitir(user.getId()));
+                yield ResponseEntity.ok(response);
+            }
+            case DESATIVADO, SEM_LEGADO -> ResponseEntity.notFound().build();
+            case CODIGO_INVALIDO -> ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", "Código inválido"));
+            case CONTA_COM_DADOS -> ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "A conta atual já tem dados"));
+        };
+    }
 }
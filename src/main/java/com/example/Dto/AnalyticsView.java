@@ -0,0 +1,15 @@
+package com.example.Dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de GET /api/analytics: soma e quantidade de todos os registros
+ * filtrados e de cada grupo. key é o nome da categoria, o tipo, o status ou
+ * o mês (yyyy-MM); categoryId só é preenchido no agrupamento por categoria.
+ */
+public record AnalyticsView(BigDecimal total, long count, List<Group> groups) {
+
+    public record Group(Long categoryId, String key, BigDecimal total, long count) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.Dto;
+
+import com.example.models.Category;
+
+/**
+ * Categoria como aparece dentro de ExpenseView/RevenueView.
+ */
+public record CategoryView(Long id, String name) {
+
+    public static CategoryView of(Long id, String name) {
+        return id != null ? new CategoryView(id, name) : null;
+    }
+
+    public static CategoryView of(Category category) {
+        return category != null ? new CategoryView(category.getId(), category.getName()) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.Dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.example.models.Expenses;
+
+/**
+ * Despesa como é devolvida pela API (mesmo JSON da entidade). As listagens
+ * montam a view direto na query (ExpensesRepository.EXPENSE_VIEW), com a
+ * categoria no mesmo join, sem carregar entidades.
+ */
+public record ExpenseView(
+        Long id,
+        String type,
+        String name,
+        BigDecimal amount,
+        String status,
+        LocalDate registeredAt,
+        CategoryView category,
+        Integer dueDay,
+        Boolean active,
+        Integer currentInstallment,
+        Integer totalInstallments,
+        BigDecimal installmentAmount,
+        LocalDate lastPaymentDate,
+        Boolean completed) {
+
+    // Usado pela constructor expression das queries
+    public ExpenseView(Long id, String type, String name, BigDecimal amount, String status,
+            LocalDate registeredAt, Long categoryId, String categoryName, Integer dueDay, Boolean active,
+            Integer currentInstallment, Integer totalInstallments, BigDecimal installmentAmount,
+            LocalDate lastPaymentDate, Boolean completed) {
+        this(id, type, name, amount, status, registeredAt, CategoryView.of(categoryId, categoryName), dueDay, active,
+                currentInstallment, totalInstallments, installmentAmount, lastPaymentDate, completed);
+    }
+
+    public static ExpenseView of(Expenses e) {
+        return new ExpenseView(e.getId(), e.getType(), e.getName(), e.getAmount(), e.getStatus(),
+                e.getRegisteredAt(), CategoryView.of(e.getCategory()), e.getDueDay(), e.getActive(),
+                e.getCurrentInstallment(), e.getTotalInstallments(), e.getInstallmentAmount(),
+                e.getLastPaymentDate(), e.getCompleted());
+    }
+}
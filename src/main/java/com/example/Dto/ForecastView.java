@@ -0,0 +1,17 @@
+package com.example.Dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Projeção de saldo devolvida por GET /api/forecast: o saldo atual e, para
+ * cada mês a partir do atual, as entradas (receitas fixas) e saídas
+ * (parcelas de despesas parceladas e fixas) previstas e o saldo ao fim do mês.
+ */
+public record ForecastView(BigDecimal startingBalance, List<Month> months) {
+
+    public record Month(YearMonth month, BigDecimal inflows, BigDecimal outflows, BigDecimal net,
+            BigDecimal balance) {
+    }
+}
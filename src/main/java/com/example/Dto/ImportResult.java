@@ -0,0 +1,19 @@
+package com.example.Dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação de extrato. errors traz só os primeiros erros
+ * (errorCount tem o total).
+ */
+public record ImportResult(
+        long lines,
+        long expensesImported,
+        long revenuesImported,
+        long errorCount,
+        List<LineError> errors,
+        long elapsedMs) {
+
+    public record LineError(long line, String message) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.Dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Parcela com os dados da despesa usados pelas listagens de
+ * InstallmentsController, montada direto na query
+ * (InstallmentRepository.INSTALLMENT_VIEW).
+ */
+public record InstallmentView(
+        Long id,
+        Long expenseId,
+        String description,
+        BigDecimal amount,
+        Integer installmentNumber,
+        Integer totalInstallments,
+        Boolean paid,
+        LocalDate dueDate) {
+}
@@ -0,0 +1,70 @@
+package com.example.Dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Posição de uma página na ordenação (registeredAt, id), com o sentido da
+ * ordenação que a gerou: um cursor de "desc" não serve para "asc".
+ * Trafega como token opaco (base64 url-safe de "ordem|data|id").
+ */
+public record PageCursor(Ordem ordem, LocalDate registeredAt, Long id) {
+
+    public enum Ordem {
+        ASC, DESC;
+
+        /**
+         * Parâmetro sort da requisição: "asc" ou "desc" (padrão)
+         */
+        public static Ordem of(String sort) {
+            if (sort == null || sort.isBlank()) {
+                return DESC;
+            }
+            return switch (sort.trim().toLowerCase(Locale.ROOT)) {
+                case "asc" -> ASC;
+                case "desc" -> DESC;
+                default -> throw new IllegalArgumentException("Ordenação não suportada: " + sort);
+            };
+        }
+    }
+
+    public String encode() {
+        String raw = ordem.name().toLowerCase(Locale.ROOT) + "|" + registeredAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor do parâmetro da requisição; null (primeira página) se ausente.
+     * Inválido se foi gerado por outra ordenação.
+     */
+    public static PageCursor fromParam(String token, Ordem ordem) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        PageCursor cursor = decode(token);
+        if (cursor.ordem() != ordem) {
+            throw new IllegalArgumentException("Cursor de outra ordenação");
+        }
+        return cursor;
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new PageCursor(
+                    Ordem.valueOf(parts[0].toUpperCase(Locale.ROOT)),
+                    LocalDate.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.Dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.example.models.Revenue;
+
+/**
+ * Receita como é devolvida pela API (mesmo JSON da entidade), montada direto
+ * na query (RevenuesRepository.REVENUE_VIEW).
+ */
+public record RevenueView(
+        Long id,
+        String name,
+        BigDecimal amount,
+        String status,
+        String type,
+        LocalDate registeredAt,
+        LocalDate receivedDate,
+        CategoryView category,
+        Boolean active,
+        Integer dueDay) {
+
+    // Usado pela constructor expression das queries
+    public RevenueView(Long id, String name, BigDecimal amount, String status, String type,
+            LocalDate registeredAt, LocalDate receivedDate, Long categoryId, String categoryName, Boolean active,
+            Integer dueDay) {
+        this(id, name, amount, status, type, registeredAt, receivedDate, CategoryView.of(categoryId, categoryName),
+                active, dueDay);
+    }
+
+    public static RevenueView of(Revenue r) {
+        return new RevenueView(r.getId(), r.getName(), r.getAmount(), r.getStatus(), r.getType(),
+                r.getRegisteredAt(), r.getReceivedDate(), CategoryView.of(r.getCategory()), r.getActive(),
+                r.getDueDay());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Movimento do saldo do usuário (diário só de inserção). O valor tem sinal:
+ * positivo para receitas, negativo para despesas e parcelas pagas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_entries", indexes = {
+        @Index(name = "idx_balance_entries_user_created_at", columnList = "users_id, balent_dt_created_at")
+})
+public class BalanceEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_entries_seq")
+    @SequenceGenerator(name = "balance_entries_seq", sequenceName = "balance_entries_seq", allocationSize = 50)
+    @Column(name = "balent_id")
+    private Long id;
+
+    @Column(name = "users_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "balent_vl_amount", nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "balent_ds_source", nullable = false)
+    private String source; // ABERTURA, DESPESA, PARCELA, RECEITA, ESTORNO
+
+    // Sem chave estrangeira: o movimento continua no diário se a origem for excluída
+    @Column(name = "expens_id")
+    private Long expenseId;
+
+    @Column(name = "instal_id")
+    private Long installmentId;
+
+    @Column(name = "reven_id")
+    private Long revenueId;
+
+    @Column(name = "balent_dt_created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
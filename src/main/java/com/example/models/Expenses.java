@@ -11,13 +11,21 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_user_registered_at_id", columnList = "users_id, expens_dt_registered_at, expens_id"),
+        @Index(name = "idx_expenses_user_type_registered_at", columnList = "users_id, expens_ds_type, expens_dt_registered_at")
+})
 public class Expenses {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     @Column(name = "expens_id")
     private Long id;
 
+    // Dono do registro; toda consulta filtra por ele (ver OwnerInterceptor)
+    @Column(name = "users_id")
+    private Long userId;
+
     @Column(name = "expens_ds_type", nullable = false)
     private String type;
 
@@ -30,10 +38,12 @@ public class Expenses {
     @Column(name = "expens_st_status", nullable = false)
     private String status;
 
+    // Coluna de partição: a tabela é particionada por mês de registro e a
+    // chave primária no banco é (expens_id, expens_dt_registered_at)
     @Column(name = "expens_dt_registered_at", nullable = false)
     private LocalDate registeredAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "catego_id", nullable = false)
     private Category category;
 
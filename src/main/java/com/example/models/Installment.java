@@ -0,0 +1,49 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "installments", indexes = {
+        @Index(name = "idx_installments_user_due_date_paid", columnList = "users_id, instal_dt_due_date, instal_fl_paid")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_installments_expense_number", columnNames = { "expens_id", "instal_nr_number" })
+})
+public class Installment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "installments_seq")
+    @SequenceGenerator(name = "installments_seq", sequenceName = "installments_seq", allocationSize = 50)
+    @Column(name = "instal_id")
+    private Long id;
+
+    // Copiado da despesa, para as listagens filtrarem sem o join
+    @Column(name = "users_id")
+    private Long userId;
+
+    // Sem FK no banco: expenses é particionada e expens_id sozinho não é chave
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "expens_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Expenses expense;
+
+    @Column(name = "instal_nr_number", nullable = false)
+    private Integer number;
+
+    @Column(name = "instal_dt_due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "instal_vl_amount", nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "instal_fl_paid", nullable = false)
+    private Boolean paid = false;
+
+    @Column(name = "instal_dt_paid_at")
+    private LocalDate paidAt;
+}
@@ -0,0 +1,53 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de uma execução de job (um dia processado)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_runs", indexes = {
+        @Index(name = "idx_job_runs_name_started_at", columnList = "jobrun_ds_name, jobrun_dt_started_at")
+})
+public class JobRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_runs_seq")
+    @SequenceGenerator(name = "job_runs_seq", sequenceName = "job_runs_seq", allocationSize = 50)
+    @Column(name = "jobrun_id")
+    private Long id;
+
+    @Column(name = "jobrun_ds_name", nullable = false)
+    private String name;
+
+    @Column(name = "jobrun_dt_processed_day", nullable = false)
+    private LocalDate processedDay;
+
+    @Column(name = "jobrun_dt_started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "jobrun_nr_duration_ms")
+    private Long durationMs;
+
+    @Column(name = "jobrun_nr_rows_reset")
+    private Integer rowsReset;
+
+    @Column(name = "jobrun_nr_rows_paid")
+    private Integer rowsPaid;
+
+    @Column(name = "jobrun_nr_rows_completed")
+    private Integer rowsCompleted;
+
+    @Column(name = "jobrun_st_status", nullable = false)
+    private String status; // SUCESSO, FALHA
+
+    @Column(name = "jobrun_ds_error", length = 1000)
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * Último dia já processado por um job diário
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_watermarks")
+public class JobWatermark {
+    @Id
+    @Column(name = "jobwat_ds_name")
+    private String name;
+
+    @Column(name = "jobwat_dt_last_processed", nullable = false)
+    private LocalDate lastProcessedDate;
+}
@@ -0,0 +1,27 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Totais de receitas esperadas e despesas por (usuário, ano, mês de registro, tipo),
+ * mantidos pelos fluxos de escrita (ver MonthlyRollupService).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "monthly_rollups")
+public class MonthlyRollup {
+    @EmbeddedId
+    private MonthlyRollupId id;
+
+    @Column(name = "rollup_vl_revenue", nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "rollup_vl_expense", nullable = false)
+    private BigDecimal expense = BigDecimal.ZERO;
+}
@@ -0,0 +1,27 @@
+package com.example.models;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class MonthlyRollupId implements Serializable {
+    @Column(name = "users_id")
+    private Long userId;
+
+    @Column(name = "rollup_nr_year")
+    private Integer year;
+
+    @Column(name = "rollup_nr_month")
+    private Integer month;
+
+    @Column(name = "rollup_ds_type")
+    private String type;
+}
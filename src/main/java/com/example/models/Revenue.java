@@ -5,11 +5,14 @@ import java.time.LocalDate;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,13 +22,20 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "revenues")
+@Table(name = "revenues", indexes = {
+        @Index(name = "idx_revenues_user_registered_at_id", columnList = "users_id, reven_dt_registered_at, reven_id"),
+        @Index(name = "idx_revenues_user_type_registered_at", columnList = "users_id, reven_ds_type, reven_dt_registered_at")
+})
 public class Revenue {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revenues_seq")
+    @SequenceGenerator(name = "revenues_seq", sequenceName = "revenues_seq", allocationSize = 50)
     @Column(name = "reven_id")
     private Long id;
 
+    @Column(name = "users_id")
+    private Long userId;
+
     @Column(name = "reven_ds_name")
     private String name;
 
@@ -38,13 +48,14 @@ public class Revenue {
     @Column(name = "reven_ds_type")
     private String type; // AVULSO, FIXO
 
-    @Column(name = "reven_dt_registered_at")
+    // Coluna de partição, como em Expenses.registeredAt
+    @Column(name = "reven_dt_registered_at", nullable = false)
     private LocalDate registeredAt;
 
     @Column(name = "reven_dt_received_at")
     private LocalDate receivedDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "catego_id")
     private Category category;
 
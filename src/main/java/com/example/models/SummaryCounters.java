@@ -0,0 +1,62 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Totais dos resumos de despesas, receitas e parcelas, mantidos de forma
+ * incremental pelos fluxos de escrita (ver SummaryService).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "summary_counters")
+public class SummaryCounters {
+    // Uma linha por usuário: o id é o users_id
+    @Id
+    @Column(name = "summar_id")
+    private Long id;
+
+    @Column(name = "summar_vl_expenses_total", nullable = false)
+    private BigDecimal expensesTotal = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_expenses_recurring", nullable = false)
+    private BigDecimal expensesRecurring = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_expenses_pending", nullable = false)
+    private BigDecimal expensesPending = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_revenues_total", nullable = false)
+    private BigDecimal revenuesTotal = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_revenues_fixed", nullable = false)
+    private BigDecimal revenuesFixed = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_revenues_pending", nullable = false)
+    private BigDecimal revenuesPending = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_revenues_miscellaneous", nullable = false)
+    private BigDecimal revenuesMiscellaneous = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_installments_pending", nullable = false)
+    private BigDecimal installmentsPending = BigDecimal.ZERO;
+
+    @Column(name = "summar_vl_installments_paid", nullable = false)
+    private BigDecimal installmentsPaid = BigDecimal.ZERO;
+
+    @Column(name = "summar_nr_installments_pending", nullable = false)
+    private Long installmentsPendingCount = 0L;
+
+    // Incrementada a cada escrita em despesas, receitas, parcelas ou categorias
+    // (ver SummaryService.etag); só muda pelas queries de SummaryCountersRepository
+    @Column(name = "summar_nr_data_version", updatable = false)
+    private Long dataVersion = 0L;
+
+    @Column(name = "summar_dt_rebuilt_at")
+    private LocalDateTime rebuiltAt;
+}
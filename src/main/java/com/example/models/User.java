@@ -1,9 +1,13 @@
 package com.example.models;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,10 +16,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "users_id")
     private Long id;
 
@@ -25,9 +32,24 @@ public class User {
     @Column(name = "users_ds_name")
     private String name;
 
+    // Sempre em minúsculas; identifica o usuário no login
+    @Column(name = "users_ds_email", unique = true)
+    private String email;
+
+    // Hash BCrypt da senha (ver UsuarioService); null em usuários anteriores às senhas
+    @ToString.Exclude
+    @Column(name = "users_ds_password_hash")
+    private String passwordHash;
+
     @Column(name = "users_vl_monthly_salary")
     private BigDecimal monthlySalary;
 
+    // Saldo corrente, soma do diário de movimentos (ver BalanceService). Só é
+    // alterado por UserRepository.addToBalance; um save() com a entidade
+    // desatualizada não pode sobrescrevê-lo
+    @Column(name = "users_vl_balance", updatable = false)
+    private BigDecimal balance = BigDecimal.ZERO;
+
     @Column(name = "users_dt_created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
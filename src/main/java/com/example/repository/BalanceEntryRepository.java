@@ -0,0 +1,43 @@
+package com.example.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.models.BalanceEntry;
+
+@Repository
+public interface BalanceEntryRepository extends JpaRepository<BalanceEntry, Long> {
+
+   @Query("SELECT COALESCE(SUM(b.amount), 0) FROM BalanceEntry b WHERE b.userId = :userId")
+   BigDecimal sumByUserId(Long userId);
+
+   boolean existsByUserId(Long userId);
+
+   // Total lançado por uma origem de uma despesa ou receita (ver BalanceService.estornarDespesa)
+   @Query("SELECT COALESCE(SUM(b.amount), 0) FROM BalanceEntry b WHERE b.userId = :userId "
+         + "AND b.expenseId = :expenseId AND b.source = :source")
+   BigDecimal sumByExpense(Long userId, Long expenseId, String source);
+
+   @Query("SELECT COALESCE(SUM(b.amount), 0) FROM BalanceEntry b WHERE b.userId = :userId "
+         + "AND b.revenueId = :revenueId AND b.source = :source")
+   BigDecimal sumByRevenue(Long userId, Long revenueId, String source);
+
+   List<BalanceEntry> findTop100ByUserIdOrderByCreatedAtDescIdDesc(Long userId);
+
+   // Linhas [userId, expenseId, valor da parcela, id da parcela a pagar] das despesas cobradas no dia.
+   // Deve rodar antes de ExpensesRepository.payDue, que avança currentInstallment.
+   @Query("SELECT e.userId, e.id, e.installmentAmount, "
+         + "(SELECT i.id FROM Installment i WHERE i.expense = e AND i.number = COALESCE(e.currentInstallment, 0) + 1) "
+         + "FROM Expenses e WHERE " + ExpensesRepository.DUE_PREDICATE)
+   List<Object[]> findDueMovements(List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Query("SELECT e.userId, e.id, e.installmentAmount, "
+         + "(SELECT i.id FROM Installment i WHERE i.expense = e AND i.number = COALESCE(e.currentInstallment, 0) + 1) "
+         + "FROM Expenses e WHERE " + ExpensesRepository.DUE_IN_PREDICATE)
+   List<Object[]> findDueMovementsIn(List<Long> ids, List<String> types, List<Integer> dueDays, LocalDate day);
+}
@@ -2,12 +2,48 @@ package com.example.repository;
 
 import com.example.models.Category;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    Optional<Category> findByNameIgnoreCase(String name);
+
+    // Query cache (uma entrada por usuário): invalidado pelo Hibernate a cada escrita em categories
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findByUserId(Long userId);
+
+    // Conta sem dados (ver UsuarioService.assumirLegado)
+    boolean existsByUserId(Long userId);
+
+    Optional<Category> findByIdAndUserId(Long id, Long userId);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Usa o índice único uk_categories_user_lower_name (ver V1__esquema_inicial.sql)
+    @Query("SELECT c FROM Category c WHERE c.userId = :userId AND LOWER(c.name) = LOWER(:name)")
+    Optional<Category> findByNormalizedName(Long userId, String name);
+
+    @Query("SELECT c FROM Category c WHERE c.userId = :userId AND LOWER(c.name) IN :names")
+    List<Category> findByNormalizedNames(Long userId, Collection<String> names);
+
+    // Insere só se o usuário não tiver outra com o mesmo nome em minúsculas; uma
+    // transação concorrente inserindo o mesmo nome faz esta esperar e não inserir.
+    // O id vem do nextval da sequence: com o otimizador pooled esse valor é o
+    // topo de um bloco que nenhuma outra sessão recebe.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "categories"))
+    @Query(value = "INSERT INTO categories (catego_id, users_id, catego_ds_name) "
+            + "VALUES (nextval('categories_seq'), :userId, :name) "
+            + "ON CONFLICT (users_id, (lower(catego_ds_name))) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Long userId, String name);
 }
@@ -1,27 +1,160 @@
 package com.example.repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.Dto.ExpenseView;
 import com.example.models.Expenses;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ExpensesRepository extends JpaRepository<Expenses, Long> {
-   List<Expenses> findByDueDayAndActiveTrue(Integer dueDay);
+   // Despesa recorrente com parcela vencendo no dia e ainda não cobrada nele. O job
+   // processa todos os usuários de uma vez: as queries do job não filtram por
+   // userId e os totais saem agrupados por ele
+   String DUE_PREDICATE = "e.active = true AND e.status = 'PENDENTE' AND e.type IN :types "
+         + "AND e.dueDay IN :dueDays AND e.installmentAmount > 0 "
+         + "AND (e.lastPaymentDate IS NULL OR e.lastPaymentDate < :day)";
+
+   // Pagas antes de :day; as já cobradas no próprio dia não voltam a PENDENTE (reset idempotente)
+   String RESET_PREDICATE = "e.active = true AND e.status = 'PAGO' AND e.type IN :types "
+         + "AND (e.completed IS NULL OR e.completed = false) "
+         + "AND (e.lastPaymentDate IS NULL OR e.lastPaymentDate < :day)";
+
+   // Leitura para a API: ExpenseView montada na query, categoria no mesmo join
+   String EXPENSE_VIEW = "SELECT new com.example.Dto.ExpenseView(e.id, e.type, e.name, e.amount, e.status, "
+         + "e.registeredAt, c.id, c.name, e.dueDay, e.active, e.currentInstallment, e.totalInstallments, "
+         + "e.installmentAmount, e.lastPaymentDate, e.completed) FROM Expenses e JOIN e.category c ";
+
+   // Restringe DUE_PREDICATE a um bloco de ids (modo em blocos do job)
+   String DUE_IN_PREDICATE = "e.id IN :ids AND " + DUE_PREDICATE;
+
+   String FINISHED_PREDICATE = "e.lastPaymentDate = :day AND e.type IN :types AND e.active = true "
+         + "AND e.currentInstallment >= e.totalInstallments";
+
+   List<Expenses> findByUserIdAndDueDayAndActiveTrue(Long userId, Integer dueDay);
+
+   List<Expenses> findByUserIdAndActiveTrueAndStatusAndTypeIn(Long userId, String status, List<String> types);
+
+   List<Expenses> findByUserIdAndActiveTrueAndStatusAndTypeInAndDueDay(Long userId, String status,
+         List<String> types, Integer dueDay);
+
+   Optional<Expenses> findByIdAndUserId(Long id, Long userId);
+
+   // Pagamento manual: SELECT ... FOR UPDATE, pagamentos concorrentes da mesma despesa esperam um pelo outro
+   @Lock(LockModeType.PESSIMISTIC_WRITE)
+   @Query("SELECT e FROM Expenses e WHERE e.id = :id AND e.userId = :userId")
+   Optional<Expenses> findByIdAndUserIdForUpdate(Long id, Long userId);
+
+   // Despesas que ainda podem gerar cobranças (ForecastService); só leitura, sem snapshot para dirty check
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query("SELECT e FROM Expenses e WHERE e.userId = :userId AND e.active = true AND e.type IN :types "
+         + "AND (e.completed IS NULL OR e.completed = false)")
+   List<Expenses> findRecurringForForecast(Long userId, List<String> types);
+
+   // Colunas do snapshot de análise (AnalyticsService): [id, valor, registro, id da categoria, tipo, status]
+   @Query("SELECT e.id, e.amount, e.registeredAt, e.category.id, e.type, e.status FROM Expenses e WHERE e.userId = :userId")
+   List<Object[]> findAnalyticsRows(Long userId);
+
+   boolean existsByIdAndUserId(Long id, Long userId);
+
+   // Conta sem dados (ver UsuarioService.assumirLegado)
+   boolean existsByUserId(Long userId);
+
+   // Paginação por cursor (keyset) sobre (userId, registeredAt, id): idx_expenses_user_registered_at_id
+   // A comparação de linha (registeredAt, id) < (:registeredAt, :id) é um único intervalo nesse índice
+   @Query(EXPENSE_VIEW + "WHERE e.userId = :userId ORDER BY e.registeredAt DESC, e.id DESC")
+   List<ExpenseView> findFirstPageDesc(Long userId, Pageable pageable);
+
+   @Query(EXPENSE_VIEW + "WHERE e.userId = :userId AND (e.registeredAt, e.id) < (:registeredAt, :id) ORDER BY e.registeredAt DESC, e.id DESC")
+   List<ExpenseView> findPageDescAfter(Long userId, LocalDate registeredAt, Long id, Pageable pageable);
+
+   @Query(EXPENSE_VIEW + "WHERE e.userId = :userId ORDER BY e.registeredAt ASC, e.id ASC")
+   List<ExpenseView> findFirstPageAsc(Long userId, Pageable pageable);
+
+   @Query(EXPENSE_VIEW + "WHERE e.userId = :userId AND (e.registeredAt, e.id) > (:registeredAt, :id) ORDER BY e.registeredAt ASC, e.id ASC")
+   List<ExpenseView> findPageAscAfter(Long userId, LocalDate registeredAt, Long id, Pageable pageable);
+
+   @Query(EXPENSE_VIEW + "WHERE e.id = :id AND e.userId = :userId")
+   Optional<ExpenseView> findViewById(Long id, Long userId);
+
+   // Exportação: cursor no servidor (fetch size) e entidades somente leitura; exige transação aberta
+   @QueryHints({
+         @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+         @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("SELECT e FROM Expenses e JOIN FETCH e.category WHERE e.userId = :userId ORDER BY e.id")
+   Stream<Expenses> streamAllForExport(Long userId);
+
+
+   // Processamento diário em lote (InstallmentSchedulerService). Linhas [userId, soma]
+   @Query("SELECT e.userId, COALESCE(SUM(e.installmentAmount), 0) FROM Expenses e WHERE " + RESET_PREDICATE
+         + " GROUP BY e.userId")
+   List<Object[]> sumInstallmentAmountToResetByUser(List<String> types, LocalDate day);
+
+   @Modifying
+   @Query("UPDATE Expenses e SET e.status = 'PENDENTE' WHERE " + RESET_PREDICATE)
+   int resetPaidRecurring(List<String> types, LocalDate day);
+
+   @Modifying
+   @Query("UPDATE Expenses e SET e.currentInstallment = COALESCE(e.currentInstallment, 0) + 1, "
+         + "e.lastPaymentDate = :day, e.status = 'PAGO' WHERE " + DUE_PREDICATE)
+   int payDue(List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Modifying
+   @Query("UPDATE Expenses e SET e.completed = true, e.active = false WHERE " + FINISHED_PREDICATE)
+   int completeFinished(List<String> types, LocalDate day);
+
+   // Modo em blocos: cada bloco trava as suas linhas ainda devidas antes de cobrar. Uma despesa já
+   // cobrada no dia (lastPaymentDate = day) sai do predicado, então repetir um bloco não cobra duas vezes.
+   @Query("SELECT e.id FROM Expenses e WHERE " + DUE_PREDICATE + " ORDER BY e.id")
+   List<Long> findDueIds(List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Lock(LockModeType.PESSIMISTIC_WRITE)
+   @Query("SELECT e.id FROM Expenses e WHERE " + DUE_IN_PREDICATE)
+   List<Long> lockDue(List<Long> ids, List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Modifying
+   @Query("UPDATE Expenses e SET e.currentInstallment = COALESCE(e.currentInstallment, 0) + 1, "
+         + "e.lastPaymentDate = :day, e.status = 'PAGO' WHERE " + DUE_IN_PREDICATE)
+   int payDueIn(List<Long> ids, List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Modifying
+   @Query("UPDATE Expenses e SET e.completed = true, e.active = false WHERE e.id IN :ids AND " + FINISHED_PREDICATE)
+   int completeFinishedIn(List<Long> ids, List<String> types, LocalDate day);
+
+   // Totais completos de um usuário, usados apenas na reconstrução dos contadores de resumo
+   @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expenses e WHERE e.userId = :userId")
+   BigDecimal sumAllAmounts(Long userId);
+
+   @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expenses e WHERE e.userId = :userId AND e.type IN ('PARCELADO', 'FIXO')")
+   BigDecimal sumRecurringAmount(Long userId);
 
-   List<Expenses> findByActiveTrueAndStatusAndTypeIn(String status, List<String> types);
+   @Query("SELECT COALESCE(SUM(e.installmentAmount), 0) FROM Expenses e WHERE e.userId = :userId AND e.status = 'PENDENTE'")
+   BigDecimal sumPendingInstallmentAmount(Long userId);
 
-   List<Expenses> findByActiveTrueAndStatusAndTypeInAndDueDay(String status, List<String> types, Integer dueDay);
+   // Consultas mensais usam intervalo semiaberto [start, end) para aproveitar o índice (userId, registeredAt)
+   @Query(EXPENSE_VIEW + "WHERE e.userId = :userId AND e.registeredAt >= :start AND e.registeredAt < :end ORDER BY e.registeredAt, e.id")
+   List<ExpenseView> findByMonth(Long userId, LocalDate start, LocalDate end);
 
-   
-   @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expenses e WHERE YEAR(e.registeredAt) = :year AND MONTH(e.registeredAt) = :month")
-   BigDecimal sumByMonth(int year, int month);
+   @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expenses e WHERE e.userId = :userId AND e.registeredAt >= :start AND e.registeredAt < :end")
+   BigDecimal sumByMonth(Long userId, LocalDate start, LocalDate end);
 
-   // Soma despesas por tipo do mês atual
-   @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expenses e WHERE YEAR(e.registeredAt) = :year AND MONTH(e.registeredAt) = :month AND e.type = :type")
-   BigDecimal sumByMonthAndType(int year, int month);
+   // Soma despesas de um tipo no mês: idx_expenses_user_type_registered_at
+   @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expenses e WHERE e.userId = :userId AND e.type = :type AND e.registeredAt >= :start AND e.registeredAt < :end")
+   BigDecimal sumByMonthAndType(Long userId, LocalDate start, LocalDate end, String type);
 }
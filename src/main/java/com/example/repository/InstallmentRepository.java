@@ -0,0 +1,87 @@
+package com.example.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.example.Dto.InstallmentView;
+import com.example.models.Expenses;
+import com.example.models.Installment;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface InstallmentRepository extends JpaRepository<Installment, Long> {
+   // Próxima parcela das despesas que vencem no dia (ver ExpensesRepository.DUE_PREDICATE)
+   String DUE_PREDICATE = "i.paid = false AND EXISTS (SELECT e.id FROM Expenses e WHERE e = i.expense AND "
+         + ExpensesRepository.DUE_PREDICATE + " AND i.number = COALESCE(e.currentInstallment, 0) + 1)";
+
+   // Leitura para a API: InstallmentView com os campos da despesa no mesmo join
+   String INSTALLMENT_VIEW = "SELECT new com.example.Dto.InstallmentView(i.id, e.id, e.name, i.amount, i.number, "
+         + "e.totalInstallments, i.paid, i.dueDate) FROM Installment i JOIN i.expense e ";
+
+   String DUE_IN_PREDICATE = "i.expense.id IN :ids AND " + DUE_PREDICATE;
+
+   // Listagens sem limite: lidas por cursor e escritas linha a linha por ViewStreamService.
+   // Filtram por i.userId (idx_installments_user_due_date_paid), sem depender do join
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+   @Query(INSTALLMENT_VIEW + "WHERE i.userId = :userId ORDER BY i.dueDate, i.id")
+   Stream<InstallmentView> streamAllViews(Long userId);
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+   @Query(INSTALLMENT_VIEW + "WHERE i.userId = :userId AND i.paid = false ORDER BY i.dueDate, i.id")
+   Stream<InstallmentView> streamPendingViews(Long userId);
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+   @Query(INSTALLMENT_VIEW + "WHERE i.userId = :userId AND i.dueDate >= :start AND i.dueDate < :end ORDER BY i.dueDate, i.id")
+   Stream<InstallmentView> streamViewsByDueDateRange(Long userId, LocalDate start, LocalDate end);
+
+   @Query(INSTALLMENT_VIEW + "WHERE e.id = :expenseId AND i.userId = :userId ORDER BY i.number")
+   List<InstallmentView> findViewsByExpenseId(Long expenseId, Long userId);
+
+   Optional<Installment> findByIdAndUserId(Long id, Long userId);
+
+   @Query("SELECT i FROM Installment i WHERE i.expense.id = :expenseId ORDER BY i.number")
+   List<Installment> findByExpenseId(Long expenseId);
+
+   Optional<Installment> findByExpenseIdAndNumber(Long expenseId, Integer number);
+
+   // Linhas [paid, soma, quantidade] de um usuário agrupadas pelo flag de pagamento
+   @Query("SELECT i.paid, COALESCE(SUM(i.amount), 0), COUNT(i) FROM Installment i WHERE i.userId = :userId GROUP BY i.paid")
+   List<Object[]> sumAndCountByPaid(Long userId);
+
+   // Despesas recorrentes criadas antes da tabela de parcelas existir
+   @Query("SELECT e FROM Expenses e WHERE e.type IN :types AND NOT EXISTS (SELECT i.id FROM Installment i WHERE i.expense = e)")
+   List<Expenses> findRecurringWithoutSchedule(List<String> types);
+
+   // Linhas [userId, soma, quantidade] das parcelas cobradas no dia
+   @Query("SELECT i.userId, COALESCE(SUM(i.amount), 0), COUNT(i) FROM Installment i WHERE " + DUE_PREDICATE
+         + " GROUP BY i.userId")
+   List<Object[]> sumAndCountDue(List<String> types, List<Integer> dueDays, LocalDate day);
+
+   // Deve rodar antes de ExpensesRepository.payDue, que avança currentInstallment
+   @Modifying
+   @Query("UPDATE Installment i SET i.paid = true, i.paidAt = :day WHERE " + DUE_PREDICATE)
+   int markDuePaid(List<String> types, List<Integer> dueDays, LocalDate day);
+
+   // Variantes restritas a um bloco de despesas (modo em blocos do job)
+   @Query("SELECT i.userId, COALESCE(SUM(i.amount), 0), COUNT(i) FROM Installment i WHERE " + DUE_IN_PREDICATE
+         + " GROUP BY i.userId")
+   List<Object[]> sumAndCountDueIn(List<Long> ids, List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Modifying
+   @Query("UPDATE Installment i SET i.paid = true, i.paidAt = :day WHERE " + DUE_IN_PREDICATE)
+   int markDuePaidIn(List<Long> ids, List<String> types, List<Integer> dueDays, LocalDate day);
+
+   @Modifying
+   @Query("DELETE FROM Installment i WHERE i.expense.id = :expenseId")
+   void deleteByExpenseId(Long expenseId);
+}
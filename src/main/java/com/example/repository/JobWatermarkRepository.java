@@ -0,0 +1,33 @@
+package com.example.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.example.models.JobWatermark;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+   // Trava a linha do job: duas instâncias nunca processam o mesmo dia
+   @Lock(LockModeType.PESSIMISTIC_WRITE)
+   @Query("SELECT w FROM JobWatermark w WHERE w.name = :name")
+   Optional<JobWatermark> findForUpdate(String name);
+
+   // Primeira execução: duas instâncias criando a linha ao mesmo tempo não falham, a segunda espera a primeira
+   @Modifying
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_watermarks"))
+   @Query(value = "INSERT INTO job_watermarks (jobwat_ds_name, jobwat_dt_last_processed) VALUES (:name, :lastProcessed) "
+         + "ON CONFLICT (jobwat_ds_name) DO NOTHING", nativeQuery = true)
+   int insertIfAbsent(String name, LocalDate lastProcessed);
+}
@@ -0,0 +1,43 @@
+package com.example.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.example.models.MonthlyRollup;
+import com.example.models.MonthlyRollupId;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, MonthlyRollupId> {
+
+   @Query("SELECT r FROM MonthlyRollup r WHERE r.id.userId = :userId AND r.id.year = :year AND r.id.month = :month")
+   List<MonthlyRollup> findByMonth(Long userId, int year, int month);
+
+   // Upsert atômico: cria a linha do usuário/mês/tipo ou soma os deltas na existente
+   @Modifying
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_rollups"))
+   @Query(value = "INSERT INTO monthly_rollups (users_id, rollup_nr_year, rollup_nr_month, rollup_ds_type, rollup_vl_revenue, rollup_vl_expense) "
+         + "VALUES (:userId, :year, :month, :type, :revenue, :expense) "
+         + "ON CONFLICT (users_id, rollup_nr_year, rollup_nr_month, rollup_ds_type) DO UPDATE SET "
+         + "rollup_vl_revenue = monthly_rollups.rollup_vl_revenue + EXCLUDED.rollup_vl_revenue, "
+         + "rollup_vl_expense = monthly_rollups.rollup_vl_expense + EXCLUDED.rollup_vl_expense", nativeQuery = true)
+   void increment(Long userId, int year, int month, String type, BigDecimal revenue, BigDecimal expense);
+
+   // Linhas [usuário, ano, mês, tipo, soma] usadas apenas na reconstrução
+   @Query("SELECT e.userId, YEAR(e.registeredAt), MONTH(e.registeredAt), e.type, SUM(e.amount) FROM Expenses e "
+         + "GROUP BY e.userId, YEAR(e.registeredAt), MONTH(e.registeredAt), e.type")
+   List<Object[]> aggregateExpenses();
+
+   @Query("SELECT r.userId, YEAR(r.registeredAt), MONTH(r.registeredAt), r.type, SUM(r.amount) FROM Revenue r "
+         + "WHERE r.registeredAt IS NOT NULL AND r.type IN ('FIXO', 'AVULSO') "
+         + "GROUP BY r.userId, YEAR(r.registeredAt), MONTH(r.registeredAt), r.type")
+   List<Object[]> aggregateRevenues();
+}
@@ -1,34 +1,87 @@
 package com.example.repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.Dto.RevenueView;
 import com.example.models.Revenue;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface RevenuesRepository extends JpaRepository<Revenue, Long> {
-   List<Revenue> findByActiveTrueAndStatusAndTypeIn(String status, List<String> type);
+   // Leitura para a API: RevenueView montada na query (categoria opcional, por isso LEFT JOIN)
+   String REVENUE_VIEW = "SELECT new com.example.Dto.RevenueView(r.id, r.name, r.amount, r.status, r.type, "
+         + "r.registeredAt, r.receivedDate, c.id, c.name, r.active, r.dueDay) FROM Revenue r LEFT JOIN r.category c ";
+
+   List<Revenue> findByUserIdAndActiveTrueAndStatusAndTypeIn(Long userId, String status, List<String> type);
+
+   Optional<Revenue> findByIdAndUserId(Long id, Long userId);
+
+   // Conta sem dados (ver UsuarioService.assumirLegado)
+   boolean existsByUserId(Long userId);
+
+   // Receitas fixas ativas (ForecastService), só leitura
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   List<Revenue> findByUserIdAndActiveTrueAndType(Long userId, String type);
+
+   // Colunas do snapshot de análise (AnalyticsService), como em ExpensesRepository.findAnalyticsRows
+   @Query("SELECT r.id, r.amount, r.registeredAt, c.id, r.type, r.status FROM Revenue r LEFT JOIN r.category c WHERE r.userId = :userId")
+   List<Object[]> findAnalyticsRows(Long userId);
+
+   // Paginação por cursor (keyset) sobre (userId, registeredAt, id): idx_revenues_user_registered_at_id
+   // A comparação de linha (registeredAt, id) < (:registeredAt, :id) é um único intervalo nesse índice
+   @Query(REVENUE_VIEW + "WHERE r.userId = :userId ORDER BY r.registeredAt DESC, r.id DESC")
+   List<RevenueView> findFirstPageDesc(Long userId, Pageable pageable);
+
+   @Query(REVENUE_VIEW + "WHERE r.userId = :userId AND (r.registeredAt, r.id) < (:registeredAt, :id) ORDER BY r.registeredAt DESC, r.id DESC")
+   List<RevenueView> findPageDescAfter(Long userId, LocalDate registeredAt, Long id, Pageable pageable);
+
+   @Query(REVENUE_VIEW + "WHERE r.userId = :userId ORDER BY r.registeredAt ASC, r.id ASC")
+   List<RevenueView> findFirstPageAsc(Long userId, Pageable pageable);
+
+   @Query(REVENUE_VIEW + "WHERE r.userId = :userId AND (r.registeredAt, r.id) > (:registeredAt, :id) ORDER BY r.registeredAt ASC, r.id ASC")
+   List<RevenueView> findPageAscAfter(Long userId, LocalDate registeredAt, Long id, Pageable pageable);
+
+   @Query(REVENUE_VIEW + "WHERE r.id = :id AND r.userId = :userId")
+   Optional<RevenueView> findViewById(Long id, Long userId);
+
+   // Exportação: cursor no servidor (fetch size) e entidades somente leitura; exige transação aberta
+   @QueryHints({
+         @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+         @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("SELECT r FROM Revenue r LEFT JOIN FETCH r.category WHERE r.userId = :userId ORDER BY r.id")
+   Stream<Revenue> streamAllForExport(Long userId);
 
-   @Query("SELECT r FROM Revenue r WHERE YEAR(r.registeredAt) = :year AND MONTH(r.registeredAt) = :month")
-   List<Revenue> findByMonth(int year, int month);
+   // Consultas mensais usam intervalo semiaberto [start, end) para aproveitar o índice (userId, registeredAt)
+   @Query(REVENUE_VIEW + "WHERE r.userId = :userId AND r.registeredAt >= :start AND r.registeredAt < :end ORDER BY r.registeredAt, r.id")
+   List<RevenueView> findByMonth(Long userId, LocalDate start, LocalDate end);
 
-   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r")
-   BigDecimal sumAllAmounts();
+   // Totais completos de um usuário, usados apenas na reconstrução dos contadores de resumo
+   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.userId = :userId")
+   BigDecimal sumAllAmounts(Long userId);
 
-   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.type = 'FIXO'")
-   BigDecimal sumFixedAmount();
+   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.userId = :userId AND r.type = 'FIXO'")
+   BigDecimal sumFixedAmount(Long userId);
 
-   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.status = 'PENDENTE'")
-   BigDecimal sumPendingAmount();
+   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.userId = :userId AND r.status = 'PENDENTE'")
+   BigDecimal sumPendingAmount(Long userId);
 
-   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.type = 'AVULSO'")
-   BigDecimal sumMiscellaneousAmount();
+   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.userId = :userId AND r.type = 'AVULSO'")
+   BigDecimal sumMiscellaneousAmount(Long userId);
 
-   @Query("SELECT COALESCE (SUM(r.amount), 0 )  FROM Revenue r WHERE YEAR(r.registeredAt) = : year AND MOUNT(r.registeredAt) =: month AND r.type IN('FIXO', 'AVULSO')")
-   BigDecimal sumExpectedByMonth(int year, int month);
+   @Query("SELECT COALESCE(SUM(r.amount), 0) FROM Revenue r WHERE r.userId = :userId AND r.registeredAt >= :start AND r.registeredAt < :end AND r.type IN ('FIXO', 'AVULSO')")
+   BigDecimal sumExpectedByMonth(Long userId, LocalDate start, LocalDate end);
 
 }
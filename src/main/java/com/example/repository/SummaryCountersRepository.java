@@ -0,0 +1,60 @@
+package com.example.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.example.models.SummaryCounters;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface SummaryCountersRepository extends JpaRepository<SummaryCounters, Long> {
+
+   // Incremento atômico no banco: escritas concorrentes não perdem atualizações.
+   // Nativa porque o HQL gera cast(? as numeric($p,$s)) para BigDecimal em expressões aritméticas.
+   // NATIVE_SPACES: sem ela o Hibernate invalidaria todas as regiões do cache de segundo nível.
+   @Modifying
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "summary_counters"))
+   @Query(value = "UPDATE summary_counters SET "
+         + "summar_vl_expenses_total = summar_vl_expenses_total + :expensesTotal, "
+         + "summar_vl_expenses_recurring = summar_vl_expenses_recurring + :expensesRecurring, "
+         + "summar_vl_expenses_pending = summar_vl_expenses_pending + :expensesPending, "
+         + "summar_vl_revenues_total = summar_vl_revenues_total + :revenuesTotal, "
+         + "summar_vl_revenues_fixed = summar_vl_revenues_fixed + :revenuesFixed, "
+         + "summar_vl_revenues_pending = summar_vl_revenues_pending + :revenuesPending, "
+         + "summar_vl_revenues_miscellaneous = summar_vl_revenues_miscellaneous + :revenuesMiscellaneous, "
+         + "summar_vl_installments_pending = summar_vl_installments_pending + :installmentsPending, "
+         + "summar_vl_installments_paid = summar_vl_installments_paid + :installmentsPaid, "
+         + "summar_nr_installments_pending = summar_nr_installments_pending + :installmentsPendingCount, "
+         + "summar_nr_data_version = COALESCE(summar_nr_data_version, 0) + 1 "
+         + "WHERE summar_id = :id", nativeQuery = true)
+   int increment(Long id,
+         BigDecimal expensesTotal, BigDecimal expensesRecurring, BigDecimal expensesPending,
+         BigDecimal revenuesTotal, BigDecimal revenuesFixed, BigDecimal revenuesPending,
+         BigDecimal revenuesMiscellaneous,
+         BigDecimal installmentsPending, BigDecimal installmentsPaid, long installmentsPendingCount);
+
+   // Escritas que não mudam nenhum total (ex.: descrição, nome de categoria) só avançam a versão
+   @Modifying
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "summary_counters"))
+   @Query(value = "UPDATE summary_counters SET summar_nr_data_version = COALESCE(summar_nr_data_version, 0) + 1 "
+         + "WHERE summar_id = :id", nativeQuery = true)
+   int incrementDataVersion(Long id);
+
+   // Reconstrução (SummaryService.recalcular): SELECT ... FOR UPDATE, os increment() do usuário esperam o fim dela
+   @Lock(LockModeType.PESSIMISTIC_WRITE)
+   @Query("SELECT s FROM SummaryCounters s WHERE s.id = :id")
+   Optional<SummaryCounters> findByIdForUpdate(Long id);
+
+   @Query("SELECT s.dataVersion FROM SummaryCounters s WHERE s.id = :id")
+   Optional<Long> findDataVersion(Long id);
+}
@@ -1,10 +1,44 @@
 package com.example.repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import com.example.models.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>  {
-    
-}
\ No newline at end of file
+
+    // Incremento atômico do saldo (ver BalanceService); nativa pelo mesmo motivo
+    // de SummaryCountersRepository.increment. Só invalida a região de User no cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET users_vl_balance = users_vl_balance + :amount WHERE users_id = :id",
+            nativeQuery = true)
+    int addToBalance(Long id, BigDecimal amount);
+
+    // Login: users_ds_email é gravado em minúsculas
+    Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    // Usuário anterior ao login por e-mail (ver UsuarioService.assumirLegado)
+    Optional<User> findFirstByEmailIsNullOrderByIdAsc();
+
+    // Usuários sem linha de contadores de resumo (ver SummaryService.inicializar)
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS (SELECT s.id FROM SummaryCounters s WHERE s.id = u.id)")
+    List<Long> findIdsWithoutSummary();
+
+    // Usuários com saldo anterior ao diário de movimentos (ver BalanceService.inicializar)
+    @Query("SELECT u FROM User u WHERE u.balance <> 0 "
+            + "AND NOT EXISTS (SELECT b.id FROM BalanceEntry b WHERE b.userId = u.id)")
+    List<User> findWithoutBalanceEntries();
+}
@@ -0,0 +1,254 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.Dto.AnalyticsView;
+import com.example.models.Category;
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.example.repository.CategoryRepository;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.service.AnalyticsSnapshot.Agrupamento;
+import com.example.service.AnalyticsSnapshot.Consulta;
+import com.example.service.AnalyticsSnapshot.Dimensao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Análises de receitas e despesas (GET /api/analytics): soma e quantidade
+ * agrupadas por categoria, tipo, status ou mês, com filtros, calculadas
+ * sobre um AnalyticsSnapshot por usuário em memória em vez de agregar
+ * BigDecimal de entidades carregadas do banco. Os valores só voltam a
+ * BigDecimal na resposta.
+ *
+ * Os fluxos de escrita chamam aplicar() com a linha antes/depois de cada
+ * registro, aplicada no snapshot quando a transação confirma; se a linha
+ * atual do snapshot não for a esperada, ele é descartado e montado de novo
+ * na próxima consulta. O job de pagamentos, que muda o status das despesas
+ * com UPDATEs em lote, descarta o dos usuários afetados. No máximo
+ * MAX_CACHED snapshots ficam em memória.
+ *
+ * Só as escritas deste processo chegam aos snapshots dele: a aplicação roda
+ * como instância única (render.yaml), e várias réplicas exigiriam propagar
+ * as invalidações entre elas.
+ */
+@Service
+public class AnalyticsService {
+
+    // Cada snapshot guarda todos os registros do usuário (cerca de 100 bytes por linha com o índice),
+    // por isso um limite menor que o das projeções de ForecastService
+    private static final int MAX_CACHED = 200;
+
+    /**
+     * Linha de um registro no snapshot: valor em centavos e data de registro em epoch days
+     */
+    public record AnalyticsRow(Long userId, byte kind, Long id, long amount, int day, Long categoryId, String type,
+            String status) {
+
+        public static AnalyticsRow of(Expenses expense) {
+            return new AnalyticsRow(expense.getUserId(), AnalyticsSnapshot.DESPESA, expense.getId(),
+                    centavos(expense.getAmount()), (int) expense.getRegisteredAt().toEpochDay(),
+                    expense.getCategory() != null ? expense.getCategory().getId() : null,
+                    expense.getType(), expense.getStatus());
+        }
+
+        public static AnalyticsRow of(Revenue revenue) {
+            return new AnalyticsRow(revenue.getUserId(), AnalyticsSnapshot.RECEITA, revenue.getId(),
+                    centavos(revenue.getAmount()), (int) revenue.getRegisteredAt().toEpochDay(),
+                    revenue.getCategory() != null ? revenue.getCategory().getId() : null,
+                    revenue.getType(), revenue.getStatus());
+        }
+    }
+
+    private final ExpensesRepository expensesRepository;
+    private final RevenuesRepository revenuesRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final Cache<Long, AnalyticsSnapshot> cache = Caffeine.newBuilder().maximumSize(MAX_CACHED).build();
+
+    // Um snapshot montado só entra no cache se nenhuma correção ou descarte
+    // aconteceu enquanto ele consultava o banco; as correções posteriores
+    // conferem a linha antes de aplicar
+    private final Object lock = new Object();
+    private long generation;
+
+    public AnalyticsService(ExpensesRepository expensesRepository, RevenuesRepository revenuesRepository,
+            CategoryRepository categoryRepository) {
+        this.expensesRepository = expensesRepository;
+        this.revenuesRepository = revenuesRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public AnalyticsView consultar(Long userId, Consulta consulta) {
+        Agrupamento groups = snapshot(userId).agregar(consulta);
+
+        // Nomes das categorias só para os grupos da resposta
+        Map<Long, String> categoryNames = consulta.groupBy() == Dimensao.CATEGORIA && !groups.keys().isEmpty()
+                ? categoryRepository.findByUserId(userId).stream()
+                        .collect(Collectors.toMap(Category::getId, Category::getName))
+                : Map.of();
+        List<AnalyticsView.Group> result = new ArrayList<>(groups.keys().size());
+        long total = 0;
+        long count = 0;
+        for (int g = 0; g < groups.keys().size(); g++) {
+            Object key = groups.keys().get(g);
+            String label = switch (consulta.groupBy()) {
+                case CATEGORIA -> key != null ? categoryNames.getOrDefault(key, String.valueOf(key)) : null;
+                case MES -> ((YearMonth) key).toString();
+                default -> (String) key;
+            };
+            result.add(new AnalyticsView.Group(key instanceof Long id ? id : null, label,
+                    reais(groups.totals()[g]), groups.counts()[g]));
+            total += groups.totals()[g];
+            count += groups.counts()[g];
+        }
+        // Meses já saem em ordem; os demais grupos seguem a ordem dos dicionários, que depende do histórico
+        if (consulta.groupBy() != Dimensao.MES) {
+            result.sort(Comparator.comparing(AnalyticsView.Group::key, Comparator.nullsLast(Comparator.naturalOrder())));
+        }
+        return new AnalyticsView(reais(total), count, result);
+    }
+
+    /**
+     * Soma de todas as despesas do usuário
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal totalDespesas(Long userId) {
+        return reais(snapshot(userId).total(AnalyticsSnapshot.DESPESA));
+    }
+
+    /**
+     * Aplica a troca de linha antes -> depois (null em criação/exclusão)
+     * quando a transação confirma; nada a fazer se a linha não mudou
+     */
+    public void aplicar(AnalyticsRow before, AnalyticsRow after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        aplicarAposCommit(() -> corrigir(before, after));
+    }
+
+    /**
+     * Linhas de vários registros novos, como em aplicar(null, row)
+     */
+    public void aplicar(List<AnalyticsRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        aplicarAposCommit(() -> rows.forEach(row -> corrigir(null, row)));
+    }
+
+    /**
+     * Descarta o snapshot dos usuários informados, agora e quando a transação
+     * terminar (escritas em lote que não passam por aplicar())
+     */
+    public void invalidar(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Runnable evict = () -> {
+            synchronized (lock) {
+                generation++;
+                cache.invalidateAll(userIds);
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private AnalyticsSnapshot snapshot(Long userId) {
+        long seen;
+        synchronized (lock) {
+            seen = generation;
+        }
+        AnalyticsSnapshot snapshot = cache.getIfPresent(userId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        snapshot = montar(userId);
+        synchronized (lock) {
+            if (generation == seen) {
+                cache.asMap().putIfAbsent(userId, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    private AnalyticsSnapshot montar(Long userId) {
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot();
+        for (Object[] row : expensesRepository.findAnalyticsRows(userId)) {
+            snapshot.gravar(linha(userId, AnalyticsSnapshot.DESPESA, row));
+        }
+        for (Object[] row : revenuesRepository.findAnalyticsRows(userId)) {
+            snapshot.gravar(linha(userId, AnalyticsSnapshot.RECEITA, row));
+        }
+        return snapshot;
+    }
+
+    // Linhas [id, valor, registro, id da categoria, tipo, status] de findAnalyticsRows
+    private static AnalyticsRow linha(Long userId, byte kind, Object[] row) {
+        return new AnalyticsRow(userId, kind, (Long) row[0], centavos((BigDecimal) row[1]),
+                (int) ((LocalDate) row[2]).toEpochDay(), (Long) row[3], (String) row[4], (String) row[5]);
+    }
+
+    private void aplicarAposCommit(Runnable correction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (lock) {
+                generation++;
+                correction.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (lock) {
+                    generation++;
+                    if (status == STATUS_COMMITTED) {
+                        correction.run();
+                    }
+                }
+            }
+        });
+    }
+
+    private void corrigir(AnalyticsRow before, AnalyticsRow after) {
+        Long userId = before != null ? before.userId() : after.userId();
+        AnalyticsSnapshot snapshot = cache.getIfPresent(userId);
+        if (snapshot != null && !snapshot.substituir(before, after)) {
+            cache.invalidate(userId);
+        }
+    }
+
+    private static long centavos(BigDecimal value) {
+        return value != null ? value.movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact() : 0;
+    }
+
+    private static BigDecimal reais(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.example.service.AnalyticsService.AnalyticsRow;
+
+/**
+ * Receitas e despesas de um usuário em colunas: valor em centavos (long),
+ * data de registro em dias desde 1970-01-01 (int) e categoria, tipo e status
+ * como códigos (short) de dicionários do próprio snapshot. Uma linha por
+ * registro; a exclusão move a última linha para o lugar da removida.
+ *
+ * agregar() percorre as colunas somando e contando por grupo sem alocar nada
+ * por linha; os códigos dos filtros são resolvidos uma vez por consulta e o
+ * mês de cada linha é uma coluna derivada da data, preenchida na gravação.
+ */
+public final class AnalyticsSnapshot {
+
+    public static final byte DESPESA = 0;
+    public static final byte RECEITA = 1;
+
+    public enum Dimensao {
+        CATEGORIA, TIPO, STATUS, MES
+    }
+
+    /**
+     * Filtros da agregação; from/to inclusivos e null (ou type, status e
+     * categoryId null) para não filtrar
+     */
+    public record Consulta(byte kind, Dimensao groupBy, LocalDate from, LocalDate to, String type, String status,
+            Long categoryId) {
+    }
+
+    /**
+     * Um grupo por posição: chave (id da categoria, tipo, status ou YearMonth),
+     * soma em centavos e quantidade de linhas; só grupos com linhas
+     */
+    public record Agrupamento(List<Object> keys, long[] totals, long[] counts) {
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+    // Código de filtro que aceita qualquer valor; NENHUM = valor que não está no dicionário
+    private static final int QUALQUER = -1;
+    private static final int NENHUM = -2;
+
+    /**
+     * Valores distintos de uma coluna, na ordem em que apareceram; o código é a posição
+     */
+    private static final class Dicionario {
+        private final List<Object> values = new ArrayList<>();
+        private final Map<Object, Short> codes = new HashMap<>();
+
+        short codigo(Object value) {
+            Short code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (values.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Dicionário do snapshot de análise cheio");
+            }
+            short created = (short) values.size();
+            values.add(value);
+            codes.put(value, created);
+            return created;
+        }
+
+        int procurar(Object value) {
+            if (value == null) {
+                return QUALQUER;
+            }
+            Short code = codes.get(value);
+            return code != null ? code : NENHUM;
+        }
+
+        Object valor(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    private final Dicionario categoryCodes = new Dicionario();
+    private final Dicionario typeCodes = new Dicionario();
+    private final Dicionario statusCodes = new Dicionario();
+    // (kind, id) -> linha; ids de receitas e despesas vêm de sequences diferentes
+    private final Map<Long, Integer> expenseRows = new HashMap<>();
+    private final Map<Long, Integer> revenueRows = new HashMap<>();
+
+    private int size;
+    // Menor e maior mês já gravados (só se expandem)
+    private int minMonth = Integer.MAX_VALUE;
+    private int maxMonth = Integer.MIN_VALUE;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    // Mês de days, calculado na gravação para o agrupamento por mês
+    private int[] months = new int[INITIAL_CAPACITY];
+    private short[] categories = new short[INITIAL_CAPACITY];
+    private short[] types = new short[INITIAL_CAPACITY];
+    private short[] statuses = new short[INITIAL_CAPACITY];
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Inclui ou substitui a linha do registro
+     */
+    public synchronized void gravar(AnalyticsRow row) {
+        Map<Long, Integer> index = indice(row.kind());
+        Integer existing = index.get(row.id());
+        int r;
+        if (existing != null) {
+            r = existing;
+        } else {
+            r = size++;
+            garantirCapacidade(size);
+            index.put(row.id(), r);
+        }
+        ids[r] = row.id();
+        kinds[r] = row.kind();
+        amounts[r] = row.amount();
+        days[r] = row.day();
+        months[r] = mes(LocalDate.ofEpochDay(row.day()));
+        minMonth = Math.min(minMonth, months[r]);
+        maxMonth = Math.max(maxMonth, months[r]);
+        categories[r] = categoryCodes.codigo(row.categoryId());
+        types[r] = typeCodes.codigo(row.type());
+        statuses[r] = statusCodes.codigo(row.status());
+    }
+
+    public synchronized void remover(byte kind, Long id) {
+        Integer removed = indice(kind).remove(id);
+        if (removed == null) {
+            return;
+        }
+        int last = --size;
+        if (removed != last) {
+            int r = removed;
+            ids[r] = ids[last];
+            kinds[r] = kinds[last];
+            amounts[r] = amounts[last];
+            days[r] = days[last];
+            months[r] = months[last];
+            categories[r] = categories[last];
+            types[r] = types[last];
+            statuses[r] = statuses[last];
+            indice(kinds[r]).put(ids[r], r);
+        }
+    }
+
+    /**
+     * Troca antes -> depois (null = registro ausente; os dois do mesmo
+     * registro) se a linha atual é igual a before; false, sem alterar nada,
+     * quando não é (outra alteração do mesmo registro já foi aplicada, ou o
+     * snapshot foi montado depois dela)
+     */
+    public synchronized boolean substituir(AnalyticsRow before, AnalyticsRow after) {
+        AnalyticsRow key = before != null ? before : after;
+        if (!confere(key.kind(), key.id(), before)) {
+            return false;
+        }
+        if (after != null) {
+            gravar(after);
+        } else {
+            remover(before.kind(), before.id());
+        }
+        return true;
+    }
+
+    /**
+     * Soma (centavos) e quantidade das linhas que passam nos filtros, agrupadas
+     * por consulta.groupBy(). O laço não desvia por linha: a linha fora dos
+     * filtros soma valor * 0 e quantidade 0 num grupo qualquer, o que sai mais
+     * barato que o desvio mal previsto quando os filtros cortam linhas ao acaso.
+     */
+    public synchronized Agrupamento agregar(Consulta consulta) {
+        int type = typeCodes.procurar(consulta.type());
+        int status = statusCodes.procurar(consulta.status());
+        int category = categoryCodes.procurar(consulta.categoryId());
+        int from = consulta.from() != null ? (int) consulta.from().toEpochDay() : Integer.MIN_VALUE;
+        int to = consulta.to() != null ? (int) consulta.to().toEpochDay() : Integer.MAX_VALUE;
+        byte kind = consulta.kind();
+        if (size == 0 || type == NENHUM || status == NENHUM || category == NENHUM || from > to) {
+            return new Agrupamento(List.of(), new long[0], new long[0]);
+        }
+
+        long[] totals;
+        long[] counts;
+        List<Object> keys = new ArrayList<>();
+        if (consulta.groupBy() == Dimensao.MES) {
+            int firstMonth = consulta.from() != null ? Math.max(minMonth, mes(consulta.from())) : minMonth;
+            int lastMonth = consulta.to() != null ? Math.min(maxMonth, mes(consulta.to())) : maxMonth;
+            if (firstMonth > lastMonth) {
+                return new Agrupamento(List.of(), new long[0], new long[0]);
+            }
+            totals = new long[lastMonth - firstMonth + 1];
+            counts = new long[totals.length];
+            int last = totals.length - 1;
+            for (int i = 0; i < size; i++) {
+                int match = aceita(i, kind, from, to, type, status, category);
+                // Fora dos filtros: soma zero em qualquer grupo válido, sem concentrar as escritas num só
+                int g = Math.min(Math.max(months[i] - firstMonth, 0), last);
+                totals[g] += amounts[i] * match;
+                counts[g] += match;
+            }
+            for (int g = 0; g < totals.length; g++) {
+                int month = firstMonth + g;
+                keys.add(YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1));
+            }
+        } else {
+            Dicionario dictionary = switch (consulta.groupBy()) {
+                case CATEGORIA -> categoryCodes;
+                case TIPO -> typeCodes;
+                default -> statusCodes;
+            };
+            short[] column = switch (consulta.groupBy()) {
+                case CATEGORIA -> categories;
+                case TIPO -> types;
+                default -> statuses;
+            };
+            totals = new long[dictionary.size()];
+            counts = new long[totals.length];
+            for (int i = 0; i < size; i++) {
+                int match = aceita(i, kind, from, to, type, status, category);
+                totals[column[i]] += amounts[i] * match;
+                counts[column[i]] += match;
+            }
+            for (int g = 0; g < totals.length; g++) {
+                keys.add(dictionary.valor(g));
+            }
+        }
+        return compactar(keys, totals, counts);
+    }
+
+    /**
+     * Soma em centavos de todas as linhas do tipo de registro informado
+     */
+    public synchronized long total(byte kind) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == kind) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    // 1 se a linha passa nos filtros, senão 0; & em vez de && para não desviar a cada comparação
+    private int aceita(int i, byte kind, int from, int to, int type, int status, int category) {
+        boolean match = kinds[i] == kind & days[i] >= from & days[i] <= to
+                & (type == QUALQUER | types[i] == type)
+                & (status == QUALQUER | statuses[i] == status)
+                & (category == QUALQUER | categories[i] == category);
+        return match ? 1 : 0;
+    }
+
+    private boolean confere(byte kind, Long id, AnalyticsRow expected) {
+        Integer r = indice(kind).get(id);
+        if (r == null || expected == null) {
+            return r == null && expected == null;
+        }
+        return amounts[r] == expected.amount() && days[r] == expected.day()
+                && Objects.equals(categoryCodes.valor(categories[r]), expected.categoryId())
+                && Objects.equals(typeCodes.valor(types[r]), expected.type())
+                && Objects.equals(statusCodes.valor(statuses[r]), expected.status());
+    }
+
+    private Map<Long, Integer> indice(byte kind) {
+        return kind == DESPESA ? expenseRows : revenueRows;
+    }
+
+    private void garantirCapacidade(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        kinds = Arrays.copyOf(kinds, grown);
+        amounts = Arrays.copyOf(amounts, grown);
+        days = Arrays.copyOf(days, grown);
+        months = Arrays.copyOf(months, grown);
+        categories = Arrays.copyOf(categories, grown);
+        types = Arrays.copyOf(types, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+    }
+
+    // Remove os grupos sem linhas (códigos de valores que não aparecem mais ou meses vazios)
+    private static Agrupamento compactar(List<Object> keys, long[] totals, long[] counts) {
+        int used = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                used++;
+            }
+        }
+        List<Object> usedKeys = new ArrayList<>(used);
+        long[] usedTotals = new long[used];
+        long[] usedCounts = new long[used];
+        int j = 0;
+        for (int g = 0; g < counts.length; g++) {
+            if (counts[g] > 0) {
+                usedKeys.add(keys.get(g));
+                usedTotals[j] = totals[g];
+                usedCounts[j++] = counts[g];
+            }
+        }
+        return new Agrupamento(usedKeys, usedTotals, usedCounts);
+    }
+
+    // Mês como ano * 12 + mês - 1
+    private static int mes(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
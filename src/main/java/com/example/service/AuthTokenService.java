@@ -0,0 +1,105 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tokens de acesso no formato "userId.emitidoEm.assinatura", assinados com
+ * HMAC-SHA256 (app.auth.token-secret). A validação não consulta o banco:
+ * basta recalcular a assinatura e conferir a validade (app.auth.token-ttl).
+ * Sem segredo configurado a aplicação só sobe nos perfis de desenvolvimento
+ * (DEV_PROFILES), com um segredo aleatório por execução.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    // local: Postgres do docker-compose; cds: execução de treino do build da imagem, que não atende requisições
+    private static final Profiles DEV_PROFILES = Profiles.of("local", "cds", "test");
+
+    private final Mac prototype;
+    private final Duration ttl;
+
+    public AuthTokenService(@Value("${app.auth.token-secret:}") String secret,
+            @Value("${app.auth.token-ttl:30d}") Duration ttl, Environment environment)
+            throws GeneralSecurityException {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            // Em produção cada instância teria o próprio segredo e os tokens cairiam a cada reinício
+            if (!environment.acceptsProfiles(DEV_PROFILES)) {
+                throw new IllegalStateException(
+                        "app.auth.token-secret (AUTH_TOKEN_SECRET) é obrigatório fora dos perfis local, cds e test");
+            }
+            // Sem segredo configurado os tokens só valem até a aplicação reiniciar
+            log.warn("app.auth.token-secret não configurado; usando um segredo aleatório");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.prototype = Mac.getInstance(ALGORITHM);
+        this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        this.ttl = ttl;
+    }
+
+    public String emitir(Long userId) {
+        String payload = userId + "." + Instant.now().getEpochSecond();
+        return payload + "." + assinar(payload);
+    }
+
+    /**
+     * Id do usuário do token, ou vazio se o token for malformado, tiver
+     * assinatura inválida ou estiver expirado
+     */
+    public Optional<Long> validar(String token) {
+        int last = token.lastIndexOf('.');
+        int first = token.indexOf('.');
+        if (first <= 0 || last <= first) {
+            return Optional.empty();
+        }
+        String payload = token.substring(0, last);
+        byte[] expected = assinar(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(last + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+        try {
+            long userId = Long.parseLong(payload.substring(0, first));
+            long issuedAt = Long.parseLong(payload.substring(first + 1));
+            if (Instant.ofEpochSecond(issuedAt).plus(ttl).isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(userId);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Mac não é thread-safe; cada assinatura usa uma cópia da instância inicializada
+    private String assinar(String payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
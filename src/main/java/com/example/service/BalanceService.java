@@ -0,0 +1,196 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.models.BalanceEntry;
+import com.example.models.User;
+import com.example.repository.BalanceEntryRepository;
+import com.example.repository.UserRepository;
+
+/**
+ * Saldo de cada usuário: cada movimento é gravado em balance_entries e
+ * somado ao saldo do seu usuário com um UPDATE atômico, sem ler/alterar/salvar
+ * a linha do usuário. Escritas concorrentes (requisições e job) não perdem
+ * atualizações, e saldo = soma do diário do usuário (ver consultar(Long)).
+ */
+@Service
+public class BalanceService {
+
+    private final BalanceEntryRepository balanceEntryRepository;
+    private final UserRepository userRepository;
+
+    public BalanceService(BalanceEntryRepository balanceEntryRepository, UserRepository userRepository) {
+        this.balanceEntryRepository = balanceEntryRepository;
+        this.userRepository = userRepository;
+    }
+
+    public record BalanceCheck(BigDecimal balance, BigDecimal journalTotal) {
+
+        public boolean consistent() {
+            return balance.compareTo(journalTotal) == 0;
+        }
+    }
+
+    @Transactional
+    public void debitarDespesa(Long userId, Long expenseId, BigDecimal value) {
+        lancar(novaDespesa(userId, expenseId, value));
+    }
+
+    @Transactional
+    public void debitarParcela(Long userId, Long expenseId, Long installmentId, BigDecimal value) {
+        lancar(novo(userId, "PARCELA", value.negate(), expenseId, installmentId, null));
+    }
+
+    @Transactional
+    public void creditarReceita(Long userId, Long revenueId, BigDecimal value) {
+        lancar(novaReceita(userId, revenueId, value));
+    }
+
+    /**
+     * Desfaz, na exclusão de uma despesa, o débito do registro: um movimento
+     * ESTORNO com o total dos seus movimentos DESPESA, negado. Parcelas já
+     * cobradas pelo job continuam no saldo. Despesas recorrentes, que não
+     * debitam no registro, não geram estorno.
+     */
+    @Transactional
+    public void estornarDespesa(Long userId, Long expenseId) {
+        BigDecimal posted = balanceEntryRepository.sumByExpense(userId, expenseId, "DESPESA");
+        if (posted.signum() != 0) {
+            lancar(novo(userId, "ESTORNO", posted.negate(), expenseId, null, null));
+        }
+    }
+
+    /**
+     * Como estornarDespesa, para o crédito de uma receita excluída
+     */
+    @Transactional
+    public void estornarReceita(Long userId, Long revenueId) {
+        BigDecimal posted = balanceEntryRepository.sumByRevenue(userId, revenueId, "RECEITA");
+        if (posted.signum() != 0) {
+            lancar(novo(userId, "ESTORNO", posted.negate(), null, null, revenueId));
+        }
+    }
+
+    /**
+     * Grava vários movimentos (inserts em lote) com um único UPDATE no saldo
+     * de cada usuário envolvido
+     */
+    @Transactional
+    public void lancarTodos(List<BalanceEntry> entries) {
+        balanceEntryRepository.saveAll(entries);
+        totaisPorUsuario(entries).forEach(this::somarAoSaldo);
+    }
+
+    /**
+     * Debita as parcelas que vencem no dia: um movimento por despesa cobrada,
+     * gravados em lote, e um UPDATE no saldo de cada usuário cobrado. Deve
+     * rodar antes de ExpensesRepository.payDue. Retorna o total debitado de
+     * cada usuário (positivo).
+     */
+    @Transactional
+    public Map<Long, BigDecimal> debitarParcelasDoDia(List<String> types, List<Integer> dueDays, LocalDate day) {
+        List<BalanceEntry> entries = parcelas(balanceEntryRepository.findDueMovements(types, dueDays, day));
+        if (!entries.isEmpty()) {
+            lancarTodos(entries);
+        }
+        Map<Long, BigDecimal> debited = new LinkedHashMap<>();
+        totaisPorUsuario(entries).forEach((userId, total) -> debited.put(userId, total.negate()));
+        return debited;
+    }
+
+    /**
+     * Soma dos movimentos por usuário, na ordem em que aparecem
+     */
+    public static Map<Long, BigDecimal> totaisPorUsuario(List<BalanceEntry> entries) {
+        Map<Long, BigDecimal> totals = new LinkedHashMap<>();
+        for (BalanceEntry entry : entries) {
+            totals.merge(entry.getUserId(), entry.getAmount(), BigDecimal::add);
+        }
+        return totals;
+    }
+
+    /**
+     * Movimentos (ainda não lançados) das parcelas devidas no dia dentro de um
+     * bloco de despesas. Como em debitarParcelasDoDia, deve rodar antes de
+     * payDueIn; o chamador lança com lancarTodos no fim do bloco.
+     */
+    public List<BalanceEntry> parcelasDoBloco(List<Long> expenseIds, List<String> types, List<Integer> dueDays,
+            LocalDate day) {
+        return parcelas(balanceEntryRepository.findDueMovementsIn(expenseIds, types, dueDays, day));
+    }
+
+    // Linhas [userId, expenseId, valor da parcela, id da parcela] viram débitos PARCELA
+    private static List<BalanceEntry> parcelas(List<Object[]> rows) {
+        List<BalanceEntry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            BigDecimal amount = (BigDecimal) row[2];
+            entries.add(novo((Long) row[0], "PARCELA", amount.negate(), (Long) row[1], (Long) row[3], null));
+        }
+        return entries;
+    }
+
+    public static BalanceEntry novaDespesa(Long userId, Long expenseId, BigDecimal value) {
+        return novo(userId, "DESPESA", value.negate(), expenseId, null, null);
+    }
+
+    public static BalanceEntry novaReceita(Long userId, Long revenueId, BigDecimal value) {
+        return novo(userId, "RECEITA", value, null, null, revenueId);
+    }
+
+    public BalanceCheck consultar(Long userId) {
+        BigDecimal balance = userRepository.findById(userId)
+                .map(User::getBalance)
+                .orElse(null);
+        return new BalanceCheck(balance != null ? balance : BigDecimal.ZERO,
+                balanceEntryRepository.sumByUserId(userId));
+    }
+
+    public List<BalanceEntry> listarMovimentos(Long userId) {
+        return balanceEntryRepository.findTop100ByUserIdOrderByCreatedAtDescIdDesc(userId);
+    }
+
+    /**
+     * Saldos anteriores ao diário entram como um movimento de abertura, para
+     * que a soma do diário de cada usuário continue igual ao saldo
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        for (User user : userRepository.findWithoutBalanceEntries()) {
+            balanceEntryRepository.save(novo(user.getId(), "ABERTURA", user.getBalance(), null, null, null));
+        }
+    }
+
+    private void lancar(BalanceEntry entry) {
+        balanceEntryRepository.save(entry);
+        somarAoSaldo(entry.getUserId(), entry.getAmount());
+    }
+
+    private void somarAoSaldo(Long userId, BigDecimal value) {
+        if (userRepository.addToBalance(userId, value) == 0) {
+            throw new RuntimeException("Usuário não encontrado");
+        }
+    }
+
+    private static BalanceEntry novo(Long userId, String source, BigDecimal amount, Long expenseId,
+            Long installmentId, Long revenueId) {
+        BalanceEntry entry = new BalanceEntry();
+        entry.setUserId(userId);
+        entry.setSource(source);
+        entry.setAmount(amount);
+        entry.setExpenseId(expenseId);
+        entry.setInstallmentId(installmentId);
+        entry.setRevenueId(revenueId);
+        return entry;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.service;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+import com.example.service.ForecastService.ForecastEntry;
+
+/**
+ * Entradas e saídas previstas de um usuário mês a mês, de start até
+ * start + months - 1, em centavos.
+ *
+ * Cada item recorrente soma o seu valor a um intervalo contínuo de meses,
+ * guardado como diferenças: +valor no primeiro mês e -valor no mês seguinte
+ * ao último. Incluir, alterar ou excluir um item mexe em duas posições e
+ * marca os meses a partir do primeiro afetado para recálculo; os totais de
+ * cada mês (soma acumulada das diferenças) só são refeitos desses meses em
+ * diante, na próxima leitura.
+ */
+public final class CashFlowProjection {
+
+    private final YearMonth start;
+    private final int months;
+    private final long[] inflowChanges;
+    private final long[] outflowChanges;
+    private final long[] inflows;
+    private final long[] outflows;
+    // Primeiro mês cujos totais estão desatualizados (months = nenhum)
+    private int dirtyFrom;
+
+    public CashFlowProjection(YearMonth start, int months) {
+        this.start = start;
+        this.months = months;
+        this.inflowChanges = new long[months + 1];
+        this.outflowChanges = new long[months + 1];
+        this.inflows = new long[months];
+        this.outflows = new long[months];
+        this.dirtyFrom = months;
+    }
+
+    public YearMonth start() {
+        return start;
+    }
+
+    public int months() {
+        return months;
+    }
+
+    /**
+     * Soma (sign = 1) ou retira (sign = -1) a contribuição de um item. Um item
+     * com cobranças anteriores a start (atrasadas) começa em start, com o
+     * mesmo número de meses.
+     */
+    public synchronized void aplicar(ForecastEntry entry, int sign) {
+        if (entry == null) {
+            return;
+        }
+        long offset = Math.max(start.until(entry.from(), ChronoUnit.MONTHS), 0);
+        if (offset >= months) {
+            return;
+        }
+        int first = (int) offset;
+        int end = (int) Math.min(offset + entry.months(), months);
+        inflowChanges[first] += sign * entry.inflow();
+        inflowChanges[end] -= sign * entry.inflow();
+        outflowChanges[first] += sign * entry.outflow();
+        outflowChanges[end] -= sign * entry.outflow();
+        dirtyFrom = Math.min(dirtyFrom, first);
+    }
+
+    /**
+     * Copia os totais dos count primeiros meses, refazendo antes os que
+     * estiverem desatualizados
+     */
+    public synchronized void copiar(int count, long[] inflowsOut, long[] outflowsOut) {
+        if (dirtyFrom < months) {
+            long inflow = dirtyFrom > 0 ? inflows[dirtyFrom - 1] : 0;
+            long outflow = dirtyFrom > 0 ? outflows[dirtyFrom - 1] : 0;
+            for (int i = dirtyFrom; i < months; i++) {
+                inflow += inflowChanges[i];
+                outflow += outflowChanges[i];
+                inflows[i] = inflow;
+                outflows[i] = outflow;
+            }
+            dirtyFrom = months;
+        }
+        System.arraycopy(inflows, 0, inflowsOut, 0, count);
+        System.arraycopy(outflows, 0, outflowsOut, 0, count);
+    }
+}
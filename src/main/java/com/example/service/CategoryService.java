@@ -0,0 +1,208 @@
+package com.example.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.models.Category;
+import com.example.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Resolve o nome de categoria informado nos cadastros para a Category do
+ * usuário, criando-a se preciso. Os nomes já resolvidos ficam num cache
+ * limitado ((usuário, nome normalizado) -> cópia da categoria), então
+ * cadastros frequentes não consultam a tabela de categorias.
+ *
+ * Renomear ou excluir descarta as entradas só no cache deste processo. Outra
+ * réplica continuaria resolvendo o nome antigo para o id antigo, por isso a
+ * aplicação roda com uma instância (render.yaml).
+ */
+@Service
+public class CategoryService {
+
+    private static final int MAX_CACHED = 1000;
+
+    private final CategoryRepository categoryRepository;
+    private final SummaryService summaryService;
+
+    private record Chave(Long userId, String name) {
+    }
+
+    private final Cache<Chave, Category> cache = Caffeine.newBuilder().maximumSize(MAX_CACHED).build();
+
+    // Incrementada a cada invalidação; uma resolução só entra no cache se
+    // nenhuma invalidação aconteceu desde que ela começou. O lock só protege
+    // a conferência de generation junto com a escrita no cache
+    private final Object lock = new Object();
+    private long generation;
+
+    public CategoryService(CategoryRepository categoryRepository, SummaryService summaryService) {
+        this.categoryRepository = categoryRepository;
+        this.summaryService = summaryService;
+    }
+
+    public static String normalizar(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Categoria do usuário com o nome informado (sem diferenciar
+     * maiúsculas/minúsculas), criada se não existir. Seguro sob concorrência:
+     * o insert usa o índice único em (users_id, lower(catego_ds_name)) e nunca
+     * gera duplicadas.
+     */
+    @Transactional
+    public Category resolver(Long userId, String name) {
+        Chave key = new Chave(userId, normalizar(name));
+        long seen = geracao();
+        Category cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Category category = categoryRepository.findByNormalizedName(userId, key.name()).orElseGet(() -> {
+            if (categoryRepository.insertIfAbsent(userId, name.trim()) > 0) {
+                summaryService.marcarAlteracao(userId);
+            }
+            return categoryRepository.findByNormalizedName(userId, key.name())
+                    .orElseThrow(() -> new IllegalStateException("Categoria não encontrada após inserir: " + name));
+        });
+        Category copy = new Category(category.getId(), category.getUserId(), category.getName());
+        // Só entra no cache depois do commit: uma categoria criada numa transação
+        // desfeita não pode ficar no cache
+        aposCommit(() -> {
+            synchronized (lock) {
+                if (generation == seen) {
+                    cache.put(key, copy);
+                }
+            }
+        });
+        return category;
+    }
+
+    /**
+     * Resolve vários nomes de uma vez: os que não estão no cache são buscados
+     * numa única consulta e só os inexistentes passam pelo insert. Retorna o
+     * mapa nome normalizado -> categoria.
+     */
+    @Transactional
+    public Map<String, Category> resolverTodos(Long userId, Collection<String> names) {
+        long seen = geracao();
+        Map<String, Category> resolved = new HashMap<>();
+        Map<String, String> missing = new HashMap<>();
+        for (String name : names) {
+            String key = normalizar(name);
+            Category cached = cache.getIfPresent(new Chave(userId, key));
+            if (cached != null) {
+                resolved.put(key, cached);
+            } else {
+                missing.putIfAbsent(key, name.trim());
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+        Map<String, Category> found = new HashMap<>();
+        for (Category category : categoryRepository.findByNormalizedNames(userId, missing.keySet())) {
+            found.put(normalizar(category.getName()), category);
+        }
+        if (found.size() < missing.size()) {
+            int inserted = 0;
+            for (Map.Entry<String, String> entry : missing.entrySet()) {
+                if (!found.containsKey(entry.getKey())) {
+                    inserted += categoryRepository.insertIfAbsent(userId, entry.getValue());
+                }
+            }
+            if (inserted > 0) {
+                summaryService.marcarAlteracao(userId);
+            }
+            for (Category category : categoryRepository.findByNormalizedNames(userId, missing.keySet())) {
+                found.put(normalizar(category.getName()), category);
+            }
+        }
+        Map<Chave, Category> copies = new HashMap<>();
+        found.forEach((key, category) -> copies.put(new Chave(userId, key),
+                new Category(category.getId(), category.getUserId(), category.getName())));
+        aposCommit(() -> {
+            synchronized (lock) {
+                if (generation == seen) {
+                    cache.putAll(copies);
+                }
+            }
+        });
+        resolved.putAll(found);
+        return resolved;
+    }
+
+    @Transactional
+    public Optional<Category> atualizar(Long userId, Long id, String name) {
+        return categoryRepository.findByIdAndUserId(id, userId).map(category -> {
+            category.setName(name);
+            Category updated = categoryRepository.saveAndFlush(category);
+            invalidar(id);
+            summaryService.marcarAlteracao(userId);
+            return updated;
+        });
+    }
+
+    @Transactional
+    public boolean excluir(Long userId, Long id) {
+        if (!categoryRepository.existsByIdAndUserId(id, userId)) {
+            return false;
+        }
+        categoryRepository.deleteById(id);
+        categoryRepository.flush();
+        invalidar(id);
+        summaryService.marcarAlteracao(userId);
+        return true;
+    }
+
+    /**
+     * Remove a categoria do cache agora e de novo após o commit, para que uma
+     * leitura concorrente não recoloque o nome antigo
+     */
+    private void invalidar(Long id) {
+        Runnable evict = () -> {
+            synchronized (lock) {
+                generation++;
+                cache.asMap().values().removeIf(category -> category.getId().equals(id));
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private long geracao() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    private static void aposCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
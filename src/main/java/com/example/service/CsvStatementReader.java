@@ -0,0 +1,112 @@
+package com.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extrato CSV com as colunas data, descrição, valor e (opcional) categoria.
+ * O separador (; ou ,) é detectado na primeira linha, que é ignorada quando
+ * é um cabeçalho. Campos entre aspas podem conter o separador ("" escapa aspas).
+ */
+class CsvStatementReader implements StatementReader {
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private char separator;
+
+    CsvStatementReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementLine next() throws IOException {
+        while (true) {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            if (separator == 0) {
+                line = line.replace("\uFEFF", "");
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields;
+            if (separator == 0) {
+                separator = line.indexOf(';') >= 0 ? ';' : ',';
+                fields = split(line);
+                if (isHeader(fields)) {
+                    continue;
+                }
+            } else {
+                fields = split(line);
+            }
+            return parse(fields);
+        }
+    }
+
+    private StatementLine parse(List<String> fields) {
+        if (fields.size() < 3) {
+            throw new StatementReader.InvalidLineException(lineNumber,
+                    "Esperadas ao menos 3 colunas (data, descrição, valor)");
+        }
+        try {
+            String description = fields.get(1).trim();
+            if (description.isEmpty()) {
+                throw new IllegalArgumentException("Descrição vazia");
+            }
+            BigDecimal amount = StatementReader.parseAmount(fields.get(2));
+            String category = fields.size() > 3 && !fields.get(3).isBlank() ? fields.get(3).trim() : null;
+            return new StatementLine(lineNumber, StatementReader.parseDate(fields.get(0)), description, amount,
+                    category);
+        } catch (NumberFormatException e) {
+            throw new StatementReader.InvalidLineException(lineNumber, "Valor inválido: " + fields.get(2).trim());
+        } catch (IllegalArgumentException e) {
+            throw new StatementReader.InvalidLineException(lineNumber, e.getMessage());
+        }
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        if (fields.size() < 3) {
+            return false;
+        }
+        try {
+            StatementReader.parseAmount(fields.get(2));
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private List<String> split(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
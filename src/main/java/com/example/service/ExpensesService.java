@@ -3,78 +3,219 @@ package com.example.service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.example.Dto.CursorPage;
+import com.example.Dto.ExpenseView;
 import com.example.Dto.ExpensesDTO;
+import com.example.Dto.PageCursor;
+import com.example.models.BalanceEntry;
 import com.example.models.Category;
 import com.example.models.Expenses;
 import com.example.models.User;
-import com.example.repository.CategoryRepository;
 import com.example.repository.ExpensesRepository;
 import com.example.repository.UserRepository;
+import com.example.service.AnalyticsService.AnalyticsRow;
+import com.example.service.ForecastService.ForecastEntry;
+import com.example.service.MonthlyRollupService.RollupEntry;
+
+import jakarta.persistence.EntityManager;
 
 @Service
 public class ExpensesService {
 
+    // Múltiplo de hibernate.jdbc.batch_size (application.properties)
+    public static final int BULK_CHUNK_SIZE = 500;
+
     private UserRepository userRepository;
     private ExpensesRepository expensesRepository;
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
+    private InstallmentService installmentService;
+    private SummaryService summaryService;
+    private MonthlyRollupService monthlyRollupService;
+    private BalanceService balanceService;
+    private ForecastService forecastService;
+    private AnalyticsService analyticsService;
+    private EntityManager entityManager;
 
     public ExpensesService(
             UserRepository userRepository,
             ExpensesRepository expensesRepository,
-            CategoryRepository categoryRepository) {
+            CategoryService categoryService,
+            InstallmentService installmentService,
+            SummaryService summaryService,
+            MonthlyRollupService monthlyRollupService,
+            BalanceService balanceService,
+            ForecastService forecastService,
+            AnalyticsService analyticsService,
+            EntityManager entityManager) {
         this.userRepository = userRepository;
         this.expensesRepository = expensesRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryService = categoryService;
+        this.installmentService = installmentService;
+        this.summaryService = summaryService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceService = balanceService;
+        this.forecastService = forecastService;
+        this.analyticsService = analyticsService;
+        this.entityManager = entityManager;
     }
 
-    public BigDecimal consultarSaldoSimples() {
-        BigDecimal salary = userRepository.findById(1L)
+    public BigDecimal consultarSaldoSimples(Long userId) {
+        BigDecimal salary = userRepository.findById(userId)
                 .map(User::getMonthlySalary)
                 .orElse(BigDecimal.ZERO);
 
-        BigDecimal totalSpent = expensesRepository.findAll().stream()
-                .map(Expenses::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return salary.subtract(totalSpent);
+        return salary.subtract(analyticsService.totalDespesas(userId));
     }
 
     @Transactional
-    public void registrarGasto(ExpensesDTO dto) {
-        Category category = categoryRepository.findByNameIgnoreCase(dto.nomeCategoria()).orElseGet(() -> {
-            Category nova = new Category();
-            nova.setName(dto.nomeCategoria());
-            return categoryRepository.save(nova);
-        });
-
-        Expenses expenses = mapToEntity(dto, category);
+    public void registrarGasto(Long userId, ExpensesDTO dto) {
+        Category category = categoryService.resolver(userId, dto.nomeCategoria());
+
+        Expenses expenses = mapToEntity(userId, dto, category, LocalDate.now());
         expensesRepository.save(expenses);
+        installmentService.gerarParcelas(expenses);
+        summaryService.aplicar(userId, SummaryDelta.ofExpense(expenses));
+        monthlyRollupService.aplicar(null, RollupEntry.of(expenses));
+        forecastService.aplicar(null, ForecastEntry.of(expenses));
+        analyticsService.aplicar(null, AnalyticsRow.of(expenses));
 
         if (!"PARCELADO".equals(dto.tipo()) && !"FIXO".equals(dto.tipo())) {
-            descontarDoSaldo(expenses.getAmount());
+            balanceService.debitarDespesa(userId, expenses.getId(), expenses.getAmount());
+        }
+    }
+
+    /**
+     * Registra várias despesas numa transação, em blocos de BULK_CHUNK_SIZE
+     * gravados por salvarLote.
+     */
+    @Transactional
+    public int registrarLote(Long userId, List<ExpensesDTO> dtos) {
+        LocalDate today = LocalDate.now();
+        for (int from = 0; from < dtos.size(); from += BULK_CHUNK_SIZE) {
+            List<ExpensesDTO> chunk = dtos.subList(from, Math.min(from + BULK_CHUNK_SIZE, dtos.size()));
+            Map<String, Category> categories = categoryService.resolverTodos(userId,
+                    chunk.stream().map(ExpensesDTO::nomeCategoria).toList());
+            List<Expenses> expenses = new ArrayList<>(chunk.size());
+            for (ExpensesDTO dto : chunk) {
+                Category category = categories.get(CategoryService.normalizar(dto.nomeCategoria()));
+                expenses.add(mapToEntity(userId, dto, category, today));
+            }
+            salvarLote(userId, expenses);
+        }
+        return dtos.size();
+    }
+
+    /**
+     * Grava um bloco de despesas novas: saveAll (inserts em lote do JDBC, ids
+     * vindos das sequences) das despesas e parcelas, e um único ajuste nos
+     * contadores, rollups e saldo. O contexto de persistência é limpo ao
+     * final para não crescer com o número de blocos. Todas as despesas são
+     * do usuário informado.
+     */
+    @Transactional
+    public void salvarLote(Long userId, List<Expenses> expenses) {
+        SummaryDelta delta = SummaryDelta.ZERO;
+        List<RollupEntry> rollups = new ArrayList<>(expenses.size());
+        List<ForecastEntry> forecasts = new ArrayList<>(expenses.size());
+        for (Expenses expense : expenses) {
+            delta = delta.plus(SummaryDelta.ofExpense(expense));
+            rollups.add(RollupEntry.of(expense));
+            forecasts.add(ForecastEntry.of(expense));
+        }
+
+        expensesRepository.saveAll(expenses);
+        installmentService.gerarParcelas(expenses);
+        // Os UPDATEs nativos abaixo forçariam um flush (com dirty check) de
+        // todo o bloco a cada chamada; grava e solta o bloco antes deles
+        entityManager.flush();
+        entityManager.clear();
+
+        // Os ids já foram atribuídos pelo saveAll
+        List<BalanceEntry> movements = new ArrayList<>();
+        List<AnalyticsRow> rows = new ArrayList<>(expenses.size());
+        for (Expenses expense : expenses) {
+            rows.add(AnalyticsRow.of(expense));
+            if (!InstallmentService.isRecurring(expense)) {
+                movements.add(BalanceService.novaDespesa(userId, expense.getId(), expense.getAmount()));
+            }
+        }
+
+        summaryService.aplicar(userId, delta);
+        monthlyRollupService.aplicar(rollups);
+        forecastService.aplicar(forecasts);
+        analyticsService.aplicar(rows);
+        if (!movements.isEmpty()) {
+            balanceService.lancarTodos(movements);
         }
     }
 
-    private void descontarDoSaldo(BigDecimal value) {
-        User usuario = userRepository.findById(1L)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        BigDecimal currentBalance = usuario.getMonthlySalary();
-        usuario.setMonthlySalary(currentBalance.subtract(value));
-        userRepository.save(usuario);
+    @Transactional
+    public Optional<Expenses> atualizarDespesa(Long userId, Long id, ExpensesDTO dto) {
+        return expensesRepository.findByIdAndUserId(id, userId)
+                .map(expense -> {
+                    SummaryDelta before = SummaryDelta.ofExpense(expense);
+                    RollupEntry rollupBefore = RollupEntry.of(expense);
+                    ForecastEntry forecastBefore = ForecastEntry.of(expense);
+                    AnalyticsRow analyticsBefore = AnalyticsRow.of(expense);
+                    expense.setName(dto.nome());
+                    expense.setAmount(dto.valorPago());
+                    expense.setType(dto.tipo());
+                    if (dto.diaVencimento() != null) {
+                        expense.setDueDay(dto.diaVencimento());
+                    }
+                    if (dto.totalParcelas() != null) {
+                        expense.setTotalInstallments(dto.totalParcelas());
+                    }
+                    if (dto.parcelaAtual() != null) {
+                        expense.setCurrentInstallment(dto.parcelaAtual());
+                    }
+                    // Os "antes" acima guardam a categoria antiga; os "depois" levam a nova
+                    if (dto.nomeCategoria() != null) {
+                        expense.setCategory(categoryService.resolver(userId, dto.nomeCategoria()));
+                    }
+                    Expenses updated = expensesRepository.save(expense);
+                    installmentService.sincronizar(updated);
+                    summaryService.aplicar(userId, SummaryDelta.ofExpense(updated).minus(before));
+                    monthlyRollupService.aplicar(rollupBefore, RollupEntry.of(updated));
+                    forecastService.aplicar(forecastBefore, ForecastEntry.of(updated));
+                    analyticsService.aplicar(analyticsBefore, AnalyticsRow.of(updated));
+                    return updated;
+                });
     }
 
-    private Expenses mapToEntity(ExpensesDTO dto, Category category) {
+    @Transactional
+    public boolean excluirDespesa(Long userId, Long id) {
+        Optional<Expenses> expense = expensesRepository.findByIdAndUserId(id, userId);
+        if (expense.isEmpty()) {
+            return false;
+        }
+        installmentService.excluirParcelas(expense.get());
+        expensesRepository.delete(expense.get());
+        summaryService.aplicar(userId, SummaryDelta.ofExpense(expense.get()).negate());
+        monthlyRollupService.aplicar(RollupEntry.of(expense.get()), null);
+        forecastService.aplicar(ForecastEntry.of(expense.get()), null);
+        analyticsService.aplicar(AnalyticsRow.of(expense.get()), null);
+        balanceService.estornarDespesa(userId, id);
+        return true;
+    }
+
+    Expenses mapToEntity(Long userId, ExpensesDTO dto, Category category, LocalDate registeredAt) {
         BigDecimal installmentValue = dto.valorPago().divide(
                 BigDecimal.valueOf(dto.totalParcelas()), 2, RoundingMode.HALF_EVEN);
         Expenses expenses = new Expenses();
+        expenses.setUserId(userId);
         expenses.setName(dto.nome());
         expenses.setAmount(dto.valorPago());
         expenses.setCategory(category);
-        expenses.setRegisteredAt(LocalDate.now());
+        expenses.setRegisteredAt(registeredAt);
 
         // Para despesas parceladas e fixas, o status inicial é PENDENTE
         // Para despesas avulsas, o status é PAGO
@@ -95,7 +236,26 @@ public class ExpensesService {
         return expenses;
     }
 
-    public List<Expenses> findAll() {
-        return expensesRepository.findAll();
+    /**
+     * Lista despesas paginadas por cursor sobre (registeredAt, id), depois de after (null: primeira página).
+     * Em DESC os mais recentes primeiro; o cursor devolvido leva a ordem.
+     */
+    public CursorPage<ExpenseView> listarPagina(Long userId, PageCursor after, Integer size, PageCursor.Ordem ordem) {
+        int pageSize = CursorPage.normalizeSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        boolean ascending = ordem == PageCursor.Ordem.ASC;
+
+        List<ExpenseView> rows;
+        if (after == null) {
+            rows = ascending
+                    ? expensesRepository.findFirstPageAsc(userId, limit)
+                    : expensesRepository.findFirstPageDesc(userId, limit);
+        } else {
+            rows = ascending
+                    ? expensesRepository.findPageAscAfter(userId, after.registeredAt(), after.id(), limit)
+                    : expensesRepository.findPageDescAfter(userId, after.registeredAt(), after.id(), limit);
+        }
+
+        return CursorPage.of(rows, pageSize, e -> new PageCursor(ordem, e.registeredAt(), e.id()));
     }
 }
@@ -0,0 +1,175 @@
+package com.example.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.Dto.ExpenseView;
+import com.example.Dto.RevenueView;
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Exportação completa das despesas e receitas de um usuário em CSV ou NDJSON. As linhas são
+ * lidas por um cursor no servidor (fetch size nas queries do repository) e
+ * escritas direto na resposta; cada entidade é desanexada logo depois de
+ * escrita, então o heap não cresce com o número de linhas. O NDJSON usa as
+ * mesmas views (ExpenseView/RevenueView) das listagens da API.
+ */
+@Service
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] EXPENSE_HEADER = { "id", "nome", "tipo", "status", "valor", "valorParcela",
+            "parcelaAtual", "totalParcelas", "diaVencimento", "categoria", "registradoEm", "ultimoPagamento",
+            "ativa", "concluida" };
+
+    private static final String[] REVENUE_HEADER = { "id", "nome", "tipo", "status", "valor", "categoria",
+            "registradoEm", "recebidoEm", "diaVencimento", "ativa" };
+
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extensao() {
+            return extensao;
+        }
+
+        public static Formato of(String format) {
+            if (format == null || format.isBlank()) {
+                return CSV;
+            }
+            return switch (format.trim().toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "ndjson", "jsonl" -> NDJSON;
+                default -> throw new IllegalArgumentException("Formato não suportado: " + format);
+            };
+        }
+    }
+
+    private final ExpensesRepository expensesRepository;
+    private final RevenuesRepository revenuesRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter ndjsonWriter;
+
+    public ExportService(ExpensesRepository expensesRepository, RevenuesRepository revenuesRepository,
+            EntityManager entityManager, ObjectMapper objectMapper) {
+        this.expensesRepository = expensesRepository;
+        this.revenuesRepository = revenuesRepository;
+        this.entityManager = entityManager;
+        // Sem flush a cada linha: o buffer do writer decide quando enviar
+        this.ndjsonWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarDespesas(Long userId, Formato formato, OutputStream out) throws IOException {
+        try (Stream<Expenses> rows = expensesRepository.streamAllForExport(userId)) {
+            escrever(rows.iterator(), formato, out, EXPENSE_HEADER, ExportService::colunasDespesa, ExpenseView::of);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarReceitas(Long userId, Formato formato, OutputStream out) throws IOException {
+        try (Stream<Revenue> rows = revenuesRepository.streamAllForExport(userId)) {
+            escrever(rows.iterator(), formato, out, REVENUE_HEADER, ExportService::colunasReceita, RevenueView::of);
+        }
+    }
+
+    private <T> void escrever(Iterator<T> rows, Formato formato, OutputStream out, String[] header,
+            Function<T, Object[]> colunas, Function<T, Object> json) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (formato == Formato.NDJSON) {
+            SequenceWriter sequence = ndjsonWriter.writeValues(writer);
+            boolean any = false;
+            while (rows.hasNext()) {
+                T row = rows.next();
+                sequence.write(json.apply(row));
+                entityManager.detach(row);
+                any = true;
+            }
+            sequence.flush();
+            if (any) {
+                writer.write('\n');
+            }
+        } else {
+            escreverLinhaCsv(writer, header);
+            while (rows.hasNext()) {
+                T row = rows.next();
+                escreverLinhaCsv(writer, colunas.apply(row));
+                entityManager.detach(row);
+            }
+        }
+        writer.flush();
+    }
+
+    private static Object[] colunasDespesa(Expenses e) {
+        return new Object[] { e.getId(), e.getName(), e.getType(), e.getStatus(), e.getAmount(),
+                e.getInstallmentAmount(), e.getCurrentInstallment(), e.getTotalInstallments(), e.getDueDay(),
+                e.getCategory() != null ? e.getCategory().getName() : null, e.getRegisteredAt(),
+                e.getLastPaymentDate(), e.getActive(), e.getCompleted() };
+    }
+
+    private static Object[] colunasReceita(Revenue r) {
+        return new Object[] { r.getId(), r.getName(), r.getType(), r.getStatus(), r.getAmount(),
+                r.getCategory() != null ? r.getCategory().getName() : null, r.getRegisteredAt(),
+                r.getReceivedDate(), r.getDueDay(), r.getActive() };
+    }
+
+    // RFC 4180: separador vírgula, ponto decimal, datas ISO e aspas só quando necessário
+    private static void escreverLinhaCsv(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.Dto.ForecastView;
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.example.models.User;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Previsão de saldo mês a mês (GET /api/forecast): parte do saldo atual do
+ * usuário, soma as receitas fixas e desconta as parcelas restantes das
+ * despesas parceladas e fixas, na mesma regra do job de pagamentos (uma
+ * cobrança por mês no dia de vencimento, até totalInstallments).
+ *
+ * Mantém em memória uma CashFlowProjection por usuário, de app.forecast.max-months
+ * meses a partir do mês atual. Os fluxos de escrita chamam aplicar() com a
+ * contribuição antes/depois de cada item, como em MonthlyRollupService, e a
+ * projeção em cache é corrigida quando a transação confirma; o job de
+ * pagamentos, que altera as despesas com UPDATEs em lote, descarta a dos
+ * usuários cobrados. Na virada do mês a projeção é montada de novo. O cache
+ * guarda no máximo MAX_CACHED projeções.
+ *
+ * As correções e descartes valem só para este processo; a projeção de outra
+ * instância ficaria desatualizada até ser despejada. A aplicação roda com
+ * uma instância (render.yaml).
+ */
+@Service
+public class ForecastService {
+
+    private static final List<String> RECURRING_TYPES = List.of("PARCELADO", "FIXO");
+    private static final int MAX_CACHED = 1000;
+
+    /**
+     * Contribuição de um item recorrente: inflow e outflow (centavos) em cada
+     * mês de from até from + months - 1
+     */
+    public record ForecastEntry(Long userId, YearMonth from, int months, long inflow, long outflow) {
+
+        // Receitas fixas não têm fim
+        public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+        /**
+         * Parcelas que o job ainda vai cobrar: a próxima no mês seguinte ao do
+         * último pagamento ou, se nenhuma foi paga, no primeiro vencimento a
+         * partir do registro; null se a despesa não gera mais cobranças
+         */
+        public static ForecastEntry of(Expenses expense) {
+            boolean recurring = "PARCELADO".equals(expense.getType()) || "FIXO".equals(expense.getType());
+            if (!recurring || !Boolean.TRUE.equals(expense.getActive()) || Boolean.TRUE.equals(expense.getCompleted())
+                    || expense.getDueDay() == null || expense.getRegisteredAt() == null
+                    || expense.getInstallmentAmount() == null || expense.getInstallmentAmount().signum() <= 0) {
+                return null;
+            }
+            int total = expense.getTotalInstallments() != null ? expense.getTotalInstallments() : 1;
+            int paid = expense.getCurrentInstallment() != null ? expense.getCurrentInstallment() : 0;
+            if (paid >= total) {
+                return null;
+            }
+            YearMonth from;
+            if (expense.getLastPaymentDate() != null) {
+                from = YearMonth.from(expense.getLastPaymentDate()).plusMonths(1);
+            } else {
+                LocalDate registeredAt = expense.getRegisteredAt();
+                from = YearMonth.from(registeredAt);
+                // Vencimento no fim do mês quando o dia não existe nele, como no job
+                if ("PAGO".equals(expense.getStatus())
+                        || Math.min(expense.getDueDay(), registeredAt.lengthOfMonth()) < registeredAt.getDayOfMonth()) {
+                    from = from.plusMonths(1);
+                }
+            }
+            return new ForecastEntry(expense.getUserId(), from, total - paid, 0, centavos(expense.getInstallmentAmount()));
+        }
+
+        /**
+         * Receita fixa ativa: todo mês a partir do seguinte ao último recebimento
+         * (ou do mês do registro, se ainda não foi recebida); null nos demais casos
+         */
+        public static ForecastEntry of(Revenue revenue) {
+            if (!"FIXO".equals(revenue.getType()) || !Boolean.TRUE.equals(revenue.getActive())
+                    || revenue.getRegisteredAt() == null
+                    || revenue.getAmount() == null || revenue.getAmount().signum() <= 0) {
+                return null;
+            }
+            YearMonth from = revenue.getReceivedDate() != null
+                    ? YearMonth.from(revenue.getReceivedDate()).plusMonths(1)
+                    : YearMonth.from(revenue.getRegisteredAt());
+            return new ForecastEntry(revenue.getUserId(), from, UNBOUNDED, centavos(revenue.getAmount()), 0);
+        }
+    }
+
+    private final ExpensesRepository expensesRepository;
+    private final RevenuesRepository revenuesRepository;
+    private final UserRepository userRepository;
+    private final int maxMonths;
+
+    private final Cache<Long, CashFlowProjection> cache = Caffeine.newBuilder().maximumSize(MAX_CACHED).build();
+
+    // Uma projeção montada só entra no cache se nenhuma escrita começou ou
+    // terminou enquanto ela consultava o banco (generation) e não há escrita
+    // aguardando commit (pending): senão poderia conter, ou não, uma alteração
+    // que aplicar() ainda vai corrigir nela
+    private final Object lock = new Object();
+    private long generation;
+    private int pending;
+
+    public ForecastService(ExpensesRepository expensesRepository, RevenuesRepository revenuesRepository,
+            UserRepository userRepository, @Value("${app.forecast.max-months:120}") int maxMonths) {
+        this.expensesRepository = expensesRepository;
+        this.revenuesRepository = revenuesRepository;
+        this.userRepository = userRepository;
+        this.maxMonths = Math.max(maxMonths, 1);
+    }
+
+    public int maxMonths() {
+        return maxMonths;
+    }
+
+    /**
+     * Os count primeiros meses da projeção (1 <= count <= maxMonths), a partir do mês atual
+     */
+    @Transactional(readOnly = true)
+    public ForecastView projetar(Long userId, int count) {
+        YearMonth current = YearMonth.now();
+        CashFlowProjection projection = cache.getIfPresent(userId);
+        if (projection == null || !projection.start().equals(current)) {
+            long seen;
+            synchronized (lock) {
+                seen = generation;
+            }
+            projection = montar(userId, current);
+            synchronized (lock) {
+                if (generation == seen && pending == 0) {
+                    cache.put(userId, projection);
+                }
+            }
+        }
+
+        long[] inflows = new long[count];
+        long[] outflows = new long[count];
+        projection.copiar(count, inflows, outflows);
+
+        BigDecimal balance = userRepository.findById(userId)
+                .map(User::getBalance)
+                .orElse(null);
+        long running = balance != null ? centavos(balance) : 0;
+        List<ForecastView.Month> months = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            running += inflows[i] - outflows[i];
+            months.add(new ForecastView.Month(current.plusMonths(i), reais(inflows[i]), reais(outflows[i]),
+                    reais(inflows[i] - outflows[i]), reais(running)));
+        }
+        return new ForecastView(balance != null ? balance : BigDecimal.ZERO, months);
+    }
+
+    /**
+     * Aplica a troca de contribuição antes -> depois (null em criação/exclusão
+     * ou quando o item não é recorrente) quando a transação confirma
+     */
+    public void aplicar(ForecastEntry before, ForecastEntry after) {
+        if (before == null && after == null) {
+            return;
+        }
+        aplicarAposCommit(() -> {
+            corrigir(before, -1);
+            corrigir(after, 1);
+        });
+    }
+
+    /**
+     * Contribuições de vários itens novos, como em aplicar(null, entry)
+     */
+    public void aplicar(List<ForecastEntry> entries) {
+        List<ForecastEntry> recurring = entries.stream().filter(entry -> entry != null).toList();
+        if (recurring.isEmpty()) {
+            return;
+        }
+        aplicarAposCommit(() -> recurring.forEach(entry -> corrigir(entry, 1)));
+    }
+
+    /**
+     * Descarta a projeção dos usuários informados, agora e quando a transação
+     * terminar (escritas em lote que não passam por aplicar())
+     */
+    public void invalidar(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Runnable evict = () -> {
+            synchronized (lock) {
+                generation++;
+                cache.invalidateAll(userIds);
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private CashFlowProjection montar(Long userId, YearMonth start) {
+        CashFlowProjection projection = new CashFlowProjection(start, maxMonths);
+        for (Expenses expense : expensesRepository.findRecurringForForecast(userId, RECURRING_TYPES)) {
+            projection.aplicar(ForecastEntry.of(expense), 1);
+        }
+        for (Revenue revenue : revenuesRepository.findByUserIdAndActiveTrueAndType(userId, "FIXO")) {
+            projection.aplicar(ForecastEntry.of(revenue), 1);
+        }
+        return projection;
+    }
+
+    private void aplicarAposCommit(Runnable correction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (lock) {
+                generation++;
+                correction.run();
+            }
+            return;
+        }
+        synchronized (lock) {
+            generation++;
+            pending++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (lock) {
+                    if (status == STATUS_COMMITTED) {
+                        correction.run();
+                    }
+                    generation++;
+                    pending--;
+                }
+            }
+        });
+    }
+
+    private void corrigir(ForecastEntry entry, int sign) {
+        if (entry == null) {
+            return;
+        }
+        CashFlowProjection projection = cache.getIfPresent(entry.userId());
+        if (projection != null) {
+            projection.aplicar(entry, sign);
+        }
+    }
+
+    private static long centavos(BigDecimal value) {
+        return value.movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    private static BigDecimal reais(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.example.models.Expenses;
+
+/**
+ * Cronograma mensal de uma despesa recorrente calculado em forma fechada.
+ *
+ * A parcela n (1..total) vence em start.plusMonths(n - 1), com a mesma regra de
+ * fim de mês do plusMonths (31/01 + 1 mês = 28/02 ou 29/02). Como cada parcela
+ * cai sempre no mês start + (n - 1), o número da parcela de um mês é obtido por
+ * aritmética, sem percorrer as parcelas anteriores.
+ */
+public final class InstallmentRecurrence {
+
+    public record Occurrence(int number, LocalDate dueDate) {
+    }
+
+    private final LocalDate start;
+    private final int total;
+
+    public InstallmentRecurrence(LocalDate start, int total) {
+        this.start = start;
+        this.total = Math.max(total, 0);
+    }
+
+    public static InstallmentRecurrence of(Expenses expense) {
+        int total = expense.getTotalInstallments() != null ? expense.getTotalInstallments() : 1;
+        return new InstallmentRecurrence(expense.getRegisteredAt(), total);
+    }
+
+    public LocalDate dueDate(int number) {
+        if (number < 1 || number > total) {
+            throw new IllegalArgumentException("Parcela fora do cronograma: " + number);
+        }
+        return start.plusMonths(number - 1L);
+    }
+
+    /**
+     * Número da parcela que vence no mês informado, se houver
+     */
+    public Optional<Occurrence> in(YearMonth month) {
+        long offset = YearMonth.from(start).until(month, ChronoUnit.MONTHS);
+        if (offset < 0 || offset >= total) {
+            return Optional.empty();
+        }
+        int number = (int) offset + 1;
+        return Optional.of(new Occurrence(number, dueDate(number)));
+    }
+
+    /**
+     * Primeira parcela após as já pagas (paidCount) que vence em ou depois de date
+     */
+    public Optional<Occurrence> nextDue(int paidCount, LocalDate date) {
+        int number = Math.max(paidCount + 1, firstOnOrAfter(date));
+        if (number > total) {
+            return Optional.empty();
+        }
+        return Optional.of(new Occurrence(number, dueDate(number)));
+    }
+
+    /**
+     * Parcelas com vencimento em [from, to), geradas sob demanda
+     */
+    public Iterator<Occurrence> iterator(LocalDate from, LocalDate to) {
+        int first = firstOnOrAfter(from);
+        return new Iterator<>() {
+            private int next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next <= total && dueDate(next).isBefore(to);
+            }
+
+            @Override
+            public Occurrence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence occurrence = new Occurrence(next, dueDate(next));
+                next++;
+                return occurrence;
+            }
+        };
+    }
+
+    public Stream<Occurrence> between(LocalDate from, LocalDate to) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator(from, to), Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    public Stream<Occurrence> all() {
+        if (total == 0) {
+            return Stream.empty();
+        }
+        return between(start, dueDate(total).plusDays(1));
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Menor número de parcela cujo vencimento é >= date (pode ser total + 1)
+     */
+    private int firstOnOrAfter(LocalDate date) {
+        if (!date.isAfter(start)) {
+            return 1;
+        }
+        long offset = YearMonth.from(start).until(YearMonth.from(date), ChronoUnit.MONTHS);
+        int number = (int) Math.min(offset + 1, (long) total + 1);
+        if (number <= total && dueDate(number).isBefore(date)) {
+            number++;
+        }
+        return number;
+    }
+}
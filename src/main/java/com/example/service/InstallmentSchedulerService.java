@@ -2,59 +2,409 @@ package com.example.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.models.BalanceEntry;
 import com.example.models.Expenses;
-import com.example.models.User;
+import com.example.models.Installment;
+import com.example.models.JobRun;
+import com.example.models.JobWatermark;
 import com.example.repository.ExpensesRepository;
-import com.example.repository.UserRepository;
+import com.example.repository.InstallmentRepository;
+import com.example.repository.JobRunRepository;
+import com.example.repository.JobWatermarkRepository;
+import com.example.service.AnalyticsService.AnalyticsRow;
+import com.example.service.ForecastService.ForecastEntry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class InstallmentSchedulerService {
 
     private final ExpensesRepository expensesRepository;
-    private final UserRepository userRepository;
+    private final InstallmentRepository installmentRepository;
+    private final InstallmentService installmentService;
+    private final SummaryService summaryService;
+    private final BalanceService balanceService;
+    private final ForecastService forecastService;
+    private final AnalyticsService analyticsService;
+    private final JobWatermarkRepository jobWatermarkRepository;
+    private final JobRunRepository jobRunRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter rowsReset;
+    private final Counter rowsPaid;
+    private final Counter rowsCompleted;
+    private final Counter chunkRetries;
+
+    // Modo "chunked": as despesas devidas no dia são divididas em blocos de chunkSize,
+    // cada um na sua transação, até parallelism blocos ao mesmo tempo
+    private final boolean chunked;
+    private final int chunkSize;
+    private final int maxChunkRetries;
+    private final SimpleAsyncTaskExecutor chunkExecutor;
 
     private static final List<String> RECURRING_TYPES = Arrays.asList("PARCELADO", "FIXO");
 
-    public InstallmentSchedulerService(ExpensesRepository expensesRepository, UserRepository userRepository) {
+    public static final String PAYMENTS_JOB = "recurring-payments";
+
+    public InstallmentSchedulerService(ExpensesRepository expensesRepository,
+            InstallmentRepository installmentRepository, InstallmentService installmentService,
+            SummaryService summaryService, BalanceService balanceService, ForecastService forecastService,
+            AnalyticsService analyticsService,
+            JobWatermarkRepository jobWatermarkRepository,
+            JobRunRepository jobRunRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.payments.mode:single}") String mode,
+            @Value("${app.payments.chunk-size:500}") int chunkSize,
+            @Value("${app.payments.parallelism:4}") int parallelism,
+            @Value("${app.payments.chunk-retries:3}") int maxChunkRetries) {
         this.expensesRepository = expensesRepository;
-        this.userRepository = userRepository;
+        this.installmentRepository = installmentRepository;
+        this.installmentService = installmentService;
+        this.summaryService = summaryService;
+        this.balanceService = balanceService;
+        this.forecastService = forecastService;
+        this.analyticsService = analyticsService;
+        this.jobWatermarkRepository = jobWatermarkRepository;
+        this.jobRunRepository = jobRunRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.rowsReset = rowsCounter(meterRegistry, "reset");
+        this.rowsPaid = rowsCounter(meterRegistry, "paid");
+        this.rowsCompleted = rowsCounter(meterRegistry, "completed");
+        this.chunkRetries = Counter.builder("payments.job.chunk.retries")
+                .description("Blocos do job de pagamentos repetidos após falha")
+                .register(meterRegistry);
+
+        this.chunked = "chunked".equalsIgnoreCase(mode);
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxChunkRetries = Math.max(maxChunkRetries, 0);
+        this.chunkExecutor = new SimpleAsyncTaskExecutor("payments-");
+        this.chunkExecutor.setConcurrencyLimit(Math.max(parallelism, 1));
+        // Threads virtuais só existem a partir do Java 21
+        if (Runtime.version().feature() >= 21) {
+            this.chunkExecutor.setVirtualThreads(true);
+        }
+    }
+
+    private static Counter rowsCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("payments.job.rows")
+                .description("Despesas alteradas pelo job de pagamentos")
+                .tag("action", action)
+                .register(meterRegistry);
     }
 
     /**
-     * Scheduler que roda todo dia 1 de cada mês às 00:00
-     * Processa as despesas parceladas e fixas com status PENDENTE
-     * Também muda status de PAGO para PENDENTE quando há parcelas restantes
+     * Roda uma vez por dia (app.payments.cron) e na subida da aplicação.
+     * Processa, em ordem, cada dia após a marca d'água persistida até hoje,
+     * cada um na sua própria transação: um dia nunca é processado duas vezes
+     * e dias perdidos com a aplicação parada são recuperados.
+     * Com app.payments.mode=chunked cada dia é processado em blocos
+     * (processNextDayInChunks). Os UPDATEs em lote cobrem todos os usuários
+     * de uma vez; saldos e contadores são ajustados por usuário.
      */
-    @Scheduled(fixedRate = 15000)
-    @Transactional
+    @Scheduled(cron = "${app.payments.cron:0 5 0 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
     public void processMonthlyPayments() {
-        int today = LocalDate.now().getDayOfMonth();
+        processarAte(LocalDate.now());
+    }
+
+    /**
+     * Processa os dias pendentes até today, inclusive; processMonthlyPayments
+     * passa a data atual
+     */
+    public void processarAte(LocalDate today) {
+        while (true) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            JobRun run;
+            try {
+                run = chunked
+                        ? processNextDayInChunks(today)
+                        : transactionTemplate.execute(status -> processNextDay(today));
+            } catch (RuntimeException e) {
+                registrarFalha(startedAt, start, e);
+                return;
+            }
+            if (run == null) {
+                return;
+            }
+            run.setStartedAt(startedAt);
+            run.setDurationMs((System.nanoTime() - start) / 1_000_000);
+            jobRunRepository.save(run);
+            registrarMetricas(run, System.nanoTime() - start);
+        }
+    }
+
+    // Um registro por dia processado; rows só conta dias que tiveram commit
+    private void registrarMetricas(JobRun run, long elapsedNanos) {
+        dayTimer(run.getStatus()).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if ("SUCESSO".equals(run.getStatus())) {
+            rowsReset.increment(run.getRowsReset());
+            rowsPaid.increment(run.getRowsPaid());
+            rowsCompleted.increment(run.getRowsCompleted());
+        }
+    }
+
+    private Timer dayTimer(String status) {
+        return Timer.builder("payments.job.day")
+                .description("Duração do processamento de um dia pelo job de pagamentos")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Processa o dia seguinte à marca d'água (se <= today) e avança a marca na
+     * mesma transação. Retorna null quando não há dia pendente.
+     */
+    private JobRun processNextDay(LocalDate today) {
+        JobWatermark watermark = travarMarca(today);
+        LocalDate day = watermark.getLastProcessedDate().plusDays(1);
+        if (day.isAfter(today)) {
+            return null;
+        }
+
+        int reset = 0;
+        // Dia 1: despesas recorrentes pagas no mês anterior voltam a PENDENTE
+        if (day.getDayOfMonth() == 1) {
+            reset = resetarRecorrentes(day);
+        }
+
+        List<Integer> dueDays = dueDaysOf(day);
+        List<Object[]> dueInstallments = installmentRepository.sumAndCountDue(RECURRING_TYPES, dueDays, day);
+
+        // O débito e a parcela precisam ser registrados antes de payDue avançar currentInstallment
+        Map<Long, BigDecimal> debited = balanceService.debitarParcelasDoDia(RECURRING_TYPES, dueDays, day);
+        installmentRepository.markDuePaid(RECURRING_TYPES, dueDays, day);
+        int paid = expensesRepository.payDue(RECURRING_TYPES, dueDays, day);
+        int completed = expensesRepository.completeFinished(RECURRING_TYPES, day);
+        // Dia sem cobranças não avança a versão dos dados (ETag das listagens)
+        if (paid > 0 || completed > 0) {
+            summaryService.aplicarTodos(deltasDoDia(debited, dueInstallments));
+            forecastService.invalidar(debited.keySet());
+            analyticsService.invalidar(debited.keySet());
+        }
+
+        watermark.setLastProcessedDate(day);
+        jobWatermarkRepository.save(watermark);
+
+        JobRun run = new JobRun();
+        run.setName(PAYMENTS_JOB);
+        run.setProcessedDay(day);
+        run.setRowsReset(reset);
+        run.setRowsPaid(paid);
+        run.setRowsCompleted(completed);
+        run.setStatus("SUCESSO");
+        return run;
+    }
+
+    /**
+     * Trava a linha da marca d'água até o fim da transação, criando-a na
+     * primeira execução (ontem como último dia processado). Uma segunda
+     * instância espera aqui e depois encontra a marca já avançada.
+     */
+    private JobWatermark travarMarca(LocalDate today) {
+        jobWatermarkRepository.insertIfAbsent(PAYMENTS_JOB, today.minusDays(1));
+        return jobWatermarkRepository.findForUpdate(PAYMENTS_JOB)
+                .orElseThrow(() -> new IllegalStateException("Marca d'água não encontrada: " + PAYMENTS_JOB));
+    }
+
+    private int resetarRecorrentes(LocalDate day) {
+        List<Object[]> resetAmounts = expensesRepository.sumInstallmentAmountToResetByUser(RECURRING_TYPES, day);
+        int reset = expensesRepository.resetPaidRecurring(RECURRING_TYPES, day);
+        if (reset > 0) {
+            Map<Long, SummaryDelta> deltas = new LinkedHashMap<>();
+            for (Object[] row : resetAmounts) {
+                deltas.put((Long) row[0], SummaryDelta.ofExpensesPending((BigDecimal) row[1]));
+            }
+            summaryService.aplicarTodos(deltas);
+            // O status das despesas faz parte do snapshot de análise
+            analyticsService.invalidar(deltas.keySet());
+        }
+        return reset;
+    }
 
-        // Primeiro: muda status de PAGO para PENDENTE para despesas não concluídas
-        List<Expenses> paidExpenses = expensesRepository
-                .findByActiveTrueAndStatusAndTypeIn("PAGO", RECURRING_TYPES);
+    /**
+     * Ajuste dos contadores de cada usuário cobrado no dia: o total debitado
+     * sai das despesas pendentes e as linhas [userId, soma, quantidade] das
+     * parcelas passam de pendentes a pagas
+     */
+    private static Map<Long, SummaryDelta> deltasDoDia(Map<Long, BigDecimal> debited,
+            List<Object[]> dueInstallments) {
+        Map<Long, SummaryDelta> deltas = new LinkedHashMap<>();
+        debited.forEach((userId, amount) -> deltas.merge(userId,
+                SummaryDelta.ofExpensesPending(amount.negate()), SummaryDelta::plus));
+        for (Object[] row : dueInstallments) {
+            deltas.merge((Long) row[0], SummaryDelta.ofInstallmentsPaid((BigDecimal) row[1], (Long) row[2]),
+                    SummaryDelta::plus);
+        }
+        return deltas;
+    }
+
+    private record ChunkResult(int paid, int completed) {
+    }
 
-        for (Expenses expense : paidExpenses) {
-            if (!Boolean.TRUE.equals(expense.getCompleted())) {
-                expense.setStatus("PENDENTE");
-                expensesRepository.save(expense);
+    /**
+     * Modo em blocos: o reset do dia 1 e cada bloco de despesas devidas rodam
+     * em transações curtas e independentes, em paralelo no chunkExecutor.
+     * Enquanto isso a transação deste método segura o lock da marca d'água,
+     * que só avança quando todos os blocos terminam: uma segunda instância
+     * espera pelo lock e encontra o dia concluído, em vez de distribuir os
+     * mesmos blocos. Um bloco que falha é repetido até maxChunkRetries vezes;
+     * se ainda falhar, o dia fica pendente e a próxima execução retoma apenas
+     * o que não foi cobrado, porque cada bloco trava as suas despesas e
+     * revalida DUE_PREDICATE.
+     */
+    private JobRun processNextDayInChunks(LocalDate today) {
+        return transactionTemplate.execute(status -> {
+            JobWatermark watermark = travarMarca(today);
+            LocalDate day = watermark.getLastProcessedDate().plusDays(1);
+            if (day.isAfter(today)) {
+                return null;
+            }
+
+            int reset = 0;
+            if (day.getDayOfMonth() == 1) {
+                // Confirmado antes dos blocos, que travam as mesmas linhas em outras conexões
+                reset = newTransactionTemplate.execute(inner -> resetarRecorrentes(day));
+            }
+
+            List<Integer> dueDays = dueDaysOf(day);
+            List<Long> dueIds = expensesRepository.findDueIds(RECURRING_TYPES, dueDays, day);
+            List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+            for (int from = 0; from < dueIds.size(); from += chunkSize) {
+                List<Long> ids = dueIds.subList(from, Math.min(from + chunkSize, dueIds.size()));
+                chunks.add(CompletableFuture.supplyAsync(() -> processarBloco(ids, dueDays, day), chunkExecutor));
+            }
+
+            int paid = 0;
+            int completed = 0;
+            try {
+                for (CompletableFuture<ChunkResult> chunk : chunks) {
+                    ChunkResult result = chunk.join();
+                    paid += result.paid();
+                    completed += result.completed();
+                }
+            } catch (CompletionException e) {
+                // Espera os demais blocos antes de registrar a falha do dia
+                CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).exceptionally(t -> null).join();
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+
+            watermark.setLastProcessedDate(day);
+            jobWatermarkRepository.save(watermark);
+
+            JobRun run = new JobRun();
+            run.setName(PAYMENTS_JOB);
+            run.setProcessedDay(day);
+            run.setRowsReset(reset);
+            run.setRowsPaid(paid);
+            run.setRowsCompleted(completed);
+            run.setStatus("SUCESSO");
+            return run;
+        });
+    }
+
+    private ChunkResult processarBloco(List<Long> ids, List<Integer> dueDays, LocalDate day) {
+        for (int attempt = 0;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> pagarBloco(ids, dueDays, day));
+            } catch (RuntimeException e) {
+                if (attempt >= maxChunkRetries) {
+                    throw e;
+                }
+                chunkRetries.increment();
+                try {
+                    Thread.sleep(100L << attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
             }
         }
+    }
 
-        // Segundo: busca despesas ativas com status PENDENTE e tipo PARCELADO ou FIXO
-        List<Expenses> pendingExpenses = expensesRepository
-                .findByActiveTrueAndStatusAndTypeInAndDueDay("PENDENTE", RECURRING_TYPES, today);
+    // Mesmos passos de processNextDay, restritos às despesas do bloco que continuam devidas
+    private ChunkResult pagarBloco(List<Long> ids, List<Integer> dueDays, LocalDate day) {
+        List<Long> due = expensesRepository.lockDue(ids, RECURRING_TYPES, dueDays, day);
+        if (due.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
 
-        for (Expenses expense : pendingExpenses) {
-            processPayment(expense);
+        List<Object[]> dueInstallments = installmentRepository.sumAndCountDueIn(due, RECURRING_TYPES, dueDays, day);
+        List<BalanceEntry> movements = balanceService.parcelasDoBloco(due, RECURRING_TYPES, dueDays, day);
+        installmentRepository.markDuePaidIn(due, RECURRING_TYPES, dueDays, day);
+        int paid = expensesRepository.payDueIn(due, RECURRING_TYPES, dueDays, day);
+        int completed = expensesRepository.completeFinishedIn(due, RECURRING_TYPES, day);
+
+        // Saldo e contadores são uma linha por usuário: atualizados por último para segurar o lock o mínimo
+        Map<Long, BigDecimal> debited = new LinkedHashMap<>();
+        BalanceService.totaisPorUsuario(movements).forEach((userId, total) -> debited.put(userId, total.negate()));
+        balanceService.lancarTodos(movements);
+        summaryService.aplicarTodos(deltasDoDia(debited, dueInstallments));
+        forecastService.invalidar(debited.keySet());
+        analyticsService.invalidar(debited.keySet());
+        return new ChunkResult(paid, completed);
+    }
+
+    /**
+     * Dias de vencimento cobrados em day: o próprio dia e, no último dia do
+     * mês, os dias que não existem nele (ex.: 29, 30 e 31 em fevereiro)
+     */
+    private static List<Integer> dueDaysOf(LocalDate day) {
+        List<Integer> dueDays = new ArrayList<>();
+        dueDays.add(day.getDayOfMonth());
+        if (day.getDayOfMonth() == day.lengthOfMonth()) {
+            for (int d = day.getDayOfMonth() + 1; d <= 31; d++) {
+                dueDays.add(d);
+            }
         }
+        return dueDays;
+    }
+
+    private void registrarFalha(LocalDateTime startedAt, long start, RuntimeException e) {
+        LocalDate day = jobWatermarkRepository.findById(PAYMENTS_JOB)
+                .map(w -> w.getLastProcessedDate().plusDays(1))
+                .orElse(LocalDate.now());
+        JobRun run = new JobRun();
+        run.setName(PAYMENTS_JOB);
+        run.setProcessedDay(day);
+        run.setStartedAt(startedAt);
+        run.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        run.setStatus("FALHA");
+        String message = String.valueOf(e.getMessage());
+        run.setError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        jobRunRepository.save(run);
+        registrarMetricas(run, System.nanoTime() - start);
+    }
+
+    public List<JobRun> listarExecucoes() {
+        return jobRunRepository.findTop50ByNameOrderByStartedAtDesc(PAYMENTS_JOB);
     }
 
     /**
@@ -67,17 +417,24 @@ public class InstallmentSchedulerService {
             return;
         }
 
-        // Desconta do saldo do usuário
-        descontarDoSaldo(expense.getInstallmentAmount());
+        SummaryDelta before = SummaryDelta.ofExpense(expense);
+        ForecastEntry forecastBefore = ForecastEntry.of(expense);
+        AnalyticsRow analyticsBefore = AnalyticsRow.of(expense);
 
         // Registra a data do pagamento
-        expense.setLastPaymentDate(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        expense.setLastPaymentDate(today);
 
-        // Incrementa a parcela atual
+        // Incrementa a parcela atual e marca a parcela correspondente como paga
         int currentInstallment = expense.getCurrentInstallment() != null
                 ? expense.getCurrentInstallment()
                 : 0;
         expense.setCurrentInstallment(currentInstallment + 1);
+        Long installmentId = installmentService.marcarPaga(expense, today);
+
+        // Desconta do saldo do usuário
+        balanceService.debitarParcela(expense.getUserId(), expense.getId(), installmentId,
+                expense.getInstallmentAmount());
 
         // Verifica se todas as parcelas foram pagas
         if (expense.getCurrentInstallment() >= expense.getTotalInstallments()) {
@@ -90,6 +447,9 @@ public class InstallmentSchedulerService {
         expense.setStatus("PAGO");
 
         expensesRepository.save(expense);
+        summaryService.aplicar(expense.getUserId(), SummaryDelta.ofExpense(expense).minus(before));
+        forecastService.aplicar(forecastBefore, ForecastEntry.of(expense));
+        analyticsService.aplicar(analyticsBefore, AnalyticsRow.of(expense));
     }
 
     /**
@@ -106,20 +466,34 @@ public class InstallmentSchedulerService {
     }
 
     /**
-     * Desconta o valor do saldo do usuário
+     * Paga a parcela informada, que precisa ser a próxima da despesa
+     * (currentInstallment + 1); parcela já paga não faz nada. A despesa é
+     * travada antes da conferência, então dois pagamentos da mesma parcela
+     * não cobram duas vezes.
+     *
+     * @throws IllegalStateException se houver parcela anterior em aberto
      */
-    private void descontarDoSaldo(BigDecimal value) {
-        User usuario = userRepository.findById(1L)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-
-        // ✅ Simplificado - sempre subtrai o valor (o if/else fazia a mesma coisa)
-        usuario.setMonthlySalary(usuario.getMonthlySalary().subtract(value));
-        userRepository.save(usuario);
+    @Transactional
+    public void processInstallmentPayment(Long userId, Long installmentId) {
+        Installment installment = installmentRepository.findByIdAndUserId(installmentId, userId)
+                .orElseThrow(() -> new RuntimeException("Parcela não encontrada"));
+        Expenses expense = expensesRepository.findByIdAndUserIdForUpdate(installment.getExpense().getId(), userId)
+                .orElseThrow(() -> new RuntimeException("Despesa não encontrada"));
+        // Conferido pelo contador da despesa, lido depois do lock (a parcela foi lida antes)
+        int paid = expense.getCurrentInstallment() != null ? expense.getCurrentInstallment() : 0;
+        if (installment.getNumber() <= paid) {
+            return;
+        }
+        if (installment.getNumber() != paid + 1) {
+            throw new IllegalStateException("Parcela " + installment.getNumber() + " não é a próxima a pagar ("
+                    + (paid + 1) + ")");
+        }
+        processPayment(expense);
     }
 
     @Transactional
-    public void processPaymentManual(Long expenseId) {
-        Expenses expense = expensesRepository.findById(expenseId)
+    public void processPaymentManual(Long userId, Long expenseId) {
+        Expenses expense = expensesRepository.findByIdAndUserIdForUpdate(expenseId, userId)
                 .orElseThrow(() -> new RuntimeException("Despesa não encontrada"));
 
         processPayment(expense);
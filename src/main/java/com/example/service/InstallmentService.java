@@ -0,0 +1,176 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.models.Expenses;
+import com.example.models.Installment;
+import com.example.repository.InstallmentRepository;
+
+@Service
+public class InstallmentService {
+
+    private static final List<String> RECURRING_TYPES = Arrays.asList("PARCELADO", "FIXO");
+
+    private final InstallmentRepository installmentRepository;
+    private final SummaryService summaryService;
+
+    public InstallmentService(InstallmentRepository installmentRepository, SummaryService summaryService) {
+        this.installmentRepository = installmentRepository;
+        this.summaryService = summaryService;
+    }
+
+    public static boolean isRecurring(Expenses expense) {
+        return RECURRING_TYPES.contains(expense.getType());
+    }
+
+    /**
+     * Gera o cronograma de parcelas de uma despesa PARCELADO/FIXO a partir de
+     * InstallmentRecurrence; parcelas até currentInstallment já nascem pagas.
+     */
+    @Transactional
+    public void gerarParcelas(Expenses expense) {
+        gerarParcelas(List.of(expense));
+    }
+
+    /**
+     * Gera os cronogramas de várias despesas com um único saveAll (inserts em
+     * lote) e um único ajuste nos contadores de cada usuário
+     */
+    @Transactional
+    public void gerarParcelas(List<Expenses> expenses) {
+        List<Installment> schedule = new ArrayList<>();
+        for (Expenses expense : expenses) {
+            montarParcelas(expense, schedule);
+        }
+        if (schedule.isEmpty()) {
+            return;
+        }
+        installmentRepository.saveAll(schedule);
+        summaryService.aplicarTodos(sumByUser(schedule));
+    }
+
+    static void montarParcelas(Expenses expense, List<Installment> schedule) {
+        if (!isRecurring(expense) || expense.getRegisteredAt() == null) {
+            return;
+        }
+        int current = expense.getCurrentInstallment() != null ? expense.getCurrentInstallment() : 0;
+        BigDecimal amount = expense.getInstallmentAmount() != null ? expense.getInstallmentAmount() : BigDecimal.ZERO;
+
+        InstallmentRecurrence.of(expense).all().forEach(occurrence -> {
+            Installment installment = new Installment();
+            installment.setExpense(expense);
+            installment.setUserId(expense.getUserId());
+            installment.setNumber(occurrence.number());
+            installment.setDueDate(occurrence.dueDate());
+            installment.setAmount(amount);
+            installment.setPaid(occurrence.number() <= current);
+            schedule.add(installment);
+        });
+    }
+
+    /**
+     * Ajusta o cronograma após alteração de valor, tipo ou quantidade de
+     * parcelas sem recriá-lo: as parcelas que continuam existindo são
+     * atualizadas no lugar (as pagas mantêm valor, vencimento e paidAt), as
+     * que passam do novo total são excluídas e as que faltam, incluídas.
+     */
+    @Transactional
+    public void sincronizar(Expenses expense) {
+        List<Installment> existing = installmentRepository.findByExpenseId(expense.getId());
+        SummaryDelta before = sum(existing);
+        Map<Integer, Installment> byNumber = new LinkedHashMap<>();
+        for (Installment installment : existing) {
+            byNumber.put(installment.getNumber(), installment);
+        }
+
+        List<Installment> schedule = new ArrayList<>();
+        montarParcelas(expense, schedule);
+        List<Installment> kept = new ArrayList<>();
+        for (Installment target : schedule) {
+            Installment installment = byNumber.remove(target.getNumber());
+            if (installment == null) {
+                kept.add(target);
+                continue;
+            }
+            if (!Boolean.TRUE.equals(installment.getPaid()) || !target.getPaid()) {
+                installment.setDueDate(target.getDueDate());
+                installment.setAmount(target.getAmount());
+                installment.setPaid(target.getPaid());
+                if (!target.getPaid()) {
+                    installment.setPaidAt(null);
+                }
+            }
+            kept.add(installment);
+        }
+
+        if (!byNumber.isEmpty()) {
+            installmentRepository.deleteAllInBatch(byNumber.values());
+        }
+        installmentRepository.saveAll(kept);
+        summaryService.aplicar(expense.getUserId(), sum(kept).minus(before));
+    }
+
+    /**
+     * Marca como paga a parcela correspondente a currentInstallment e retorna
+     * o id dela (null se a despesa não tem cronograma)
+     */
+    @Transactional
+    public Long marcarPaga(Expenses expense, LocalDate paidAt) {
+        return installmentRepository.findByExpenseIdAndNumber(expense.getId(), expense.getCurrentInstallment())
+                .map(installment -> {
+                    SummaryDelta before = SummaryDelta.ofInstallment(installment);
+                    installment.setPaid(true);
+                    installment.setPaidAt(paidAt);
+                    installmentRepository.save(installment);
+                    summaryService.aplicar(expense.getUserId(), SummaryDelta.ofInstallment(installment).minus(before));
+                    return installment.getId();
+                })
+                .orElse(null);
+    }
+
+    @Transactional
+    public void excluirParcelas(Expenses expense) {
+        List<Installment> schedule = installmentRepository.findByExpenseId(expense.getId());
+        installmentRepository.deleteByExpenseId(expense.getId());
+        summaryService.aplicar(expense.getUserId(), sum(schedule).negate());
+    }
+
+    /**
+     * Gera o cronograma das despesas recorrentes cadastradas antes da
+     * existência da tabela de parcelas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void gerarParcelasFaltantes() {
+        for (Expenses expense : installmentRepository.findRecurringWithoutSchedule(RECURRING_TYPES)) {
+            gerarParcelas(expense);
+        }
+    }
+
+    private static Map<Long, SummaryDelta> sumByUser(List<Installment> installments) {
+        Map<Long, SummaryDelta> totals = new LinkedHashMap<>();
+        for (Installment installment : installments) {
+            totals.merge(installment.getUserId(), SummaryDelta.ofInstallment(installment), SummaryDelta::plus);
+        }
+        return totals;
+    }
+
+    private static SummaryDelta sum(List<Installment> installments) {
+        SummaryDelta total = SummaryDelta.ZERO;
+        for (Installment installment : installments) {
+            total = total.plus(SummaryDelta.ofInstallment(installment));
+        }
+        return total;
+    }
+}
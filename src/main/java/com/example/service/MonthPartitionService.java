@@ -0,0 +1,68 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Mantém as partições mensais de expenses e revenues (ver a migração
+ * V2__particiona_despesas_receitas.sql). Uma vez por dia e na subida cria as
+ * partições do mês atual e dos app.partitions.months-ahead seguintes, e as
+ * dos meses que tiverem linhas na partição default (importações com datas
+ * fora das partições existentes), que são movidas para elas. A partição de
+ * um mês que foi desanexada é anexada de novo (V4__reanexa_particao_mensal.sql).
+ */
+@Service
+public class MonthPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthPartitionService.class);
+
+    // tabela particionada, coluna de partição
+    private static final String[][] TABLES = {
+            { "expenses", "expens_dt_registered_at" },
+            { "revenues", "reven_dt_registered_at" },
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public MonthPartitionService(JdbcTemplate jdbcTemplate,
+            @Value("${app.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = Math.max(monthsAhead, 0);
+    }
+
+    @Scheduled(cron = "${app.partitions.cron:0 0 1 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    public void criarParticoes() {
+        YearMonth current = YearMonth.now();
+        for (String[] table : TABLES) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                criar(table, current.plusMonths(i).atDay(1));
+            }
+            List<LocalDate> outside = jdbcTemplate.queryForList("SELECT DISTINCT date_trunc('month', " + table[1]
+                    + ")::date FROM " + table[0] + "_default", LocalDate.class);
+            for (LocalDate month : outside) {
+                criar(table, month);
+            }
+        }
+    }
+
+    // Cada partição na sua transação: criar a de um mês não depende das outras
+    private void criar(String[] table, LocalDate month) {
+        Boolean created = jdbcTemplate.queryForObject("SELECT criar_particao_mensal(?, ?, ?)", Boolean.class,
+                table[0], table[1], month);
+        if (Boolean.TRUE.equals(created)) {
+            log.info("Partição de {} criada ou anexada para {}", table[0], YearMonth.from(month));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.models.Expenses;
+import com.example.models.MonthlyRollup;
+import com.example.models.Revenue;
+import com.example.repository.MonthlyRollupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Mantém os totais mensais por usuário e tipo (monthly_rollups) e um cache em
+ * memória do resumo de cada (usuário, mês) usado pelo dashboard, limitado a
+ * MAX_CACHED meses.
+ *
+ * O cache é do processo e só é invalidado pelas escritas que passam por esta
+ * instância: a aplicação roda como instância única (render.yaml). Com mais de
+ * uma réplica, os resumos em cache precisariam de invalidação entre elas
+ * (por exemplo LISTEN/NOTIFY no Postgres) ou de um cache compartilhado.
+ */
+@Service
+public class MonthlyRollupService {
+
+    private static final int MAX_CACHED = 5000;
+
+    /**
+     * Contribuição de uma receita ou despesa para o rollup do seu mês
+     */
+    public record RollupEntry(Long userId, YearMonth month, String type, BigDecimal revenue, BigDecimal expense) {
+
+        public static RollupEntry of(Expenses expense) {
+            if (expense.getRegisteredAt() == null || expense.getAmount() == null) {
+                return null;
+            }
+            return new RollupEntry(expense.getUserId(), YearMonth.from(expense.getRegisteredAt()),
+                    expense.getType(), BigDecimal.ZERO, expense.getAmount());
+        }
+
+        public static RollupEntry of(Revenue revenue) {
+            boolean expected = "FIXO".equals(revenue.getType()) || "AVULSO".equals(revenue.getType());
+            if (!expected || revenue.getRegisteredAt() == null || revenue.getAmount() == null) {
+                return null;
+            }
+            return new RollupEntry(revenue.getUserId(), YearMonth.from(revenue.getRegisteredAt()),
+                    revenue.getType(), revenue.getAmount(), BigDecimal.ZERO);
+        }
+    }
+
+    public record MonthlySummary(BigDecimal totalRevenue, BigDecimal totalExpenses) {
+
+        public BigDecimal balance() {
+            return totalRevenue.subtract(totalExpenses);
+        }
+    }
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+
+    private record Chave(Long userId, YearMonth month) {
+    }
+
+    private final Cache<Chave, MonthlySummary> cache = Caffeine.newBuilder().maximumSize(MAX_CACHED).build();
+
+    // Incrementada a cada invalidação; uma leitura só entra no cache se nenhuma
+    // invalidação aconteceu enquanto ela consultava o banco (conferido sob lock)
+    private final Object lock = new Object();
+    private long generation;
+
+    public MonthlyRollupService(MonthlyRollupRepository monthlyRollupRepository) {
+        this.monthlyRollupRepository = monthlyRollupRepository;
+    }
+
+    /**
+     * Aplica a troca de contribuição antes -> depois (null em criação/exclusão)
+     */
+    @Transactional
+    public void aplicar(RollupEntry before, RollupEntry after) {
+        if (before != null && after != null && before.userId().equals(after.userId())
+                && before.month().equals(after.month()) && before.type().equals(after.type())) {
+            incrementar(after.userId(), after.month(), after.type(),
+                    after.revenue().subtract(before.revenue()), after.expense().subtract(before.expense()));
+            return;
+        }
+        if (before != null) {
+            incrementar(before.userId(), before.month(), before.type(),
+                    before.revenue().negate(), before.expense().negate());
+        }
+        if (after != null) {
+            incrementar(after.userId(), after.month(), after.type(), after.revenue(), after.expense());
+        }
+    }
+
+    /**
+     * Aplica várias contribuições novas somando antes as de mesmo usuário, mês
+     * e tipo, com um upsert por grupo
+     */
+    @Transactional
+    public void aplicar(List<RollupEntry> entries) {
+        Map<RollupEntry, BigDecimal[]> grouped = new LinkedHashMap<>();
+        for (RollupEntry entry : entries) {
+            if (entry == null) {
+                continue;
+            }
+            BigDecimal[] totals = grouped.computeIfAbsent(
+                    new RollupEntry(entry.userId(), entry.month(), entry.type(), null, null),
+                    key -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            totals[0] = totals[0].add(entry.revenue());
+            totals[1] = totals[1].add(entry.expense());
+        }
+        grouped.forEach((key, totals) -> incrementar(key.userId(), key.month(), key.type(), totals[0], totals[1]));
+    }
+
+    public MonthlySummary consultar(Long userId, YearMonth month) {
+        Chave key = new Chave(userId, month);
+        long seen;
+        synchronized (lock) {
+            seen = generation;
+        }
+        MonthlySummary cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        for (MonthlyRollup rollup : monthlyRollupRepository.findByMonth(userId, month.getYear(),
+                month.getMonthValue())) {
+            revenue = revenue.add(rollup.getRevenue());
+            expense = expense.add(rollup.getExpense());
+        }
+        MonthlySummary summary = new MonthlySummary(revenue, expense);
+        synchronized (lock) {
+            if (generation == seen) {
+                cache.asMap().putIfAbsent(key, summary);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Recalcula todos os rollups a partir das tabelas de receitas e despesas
+     */
+    @Transactional
+    public void recalcular() {
+        monthlyRollupRepository.deleteAllInBatch();
+        for (Object[] row : monthlyRollupRepository.aggregateExpenses()) {
+            monthlyRollupRepository.increment((Long) row[0], (Integer) row[1], (Integer) row[2], (String) row[3],
+                    BigDecimal.ZERO, (BigDecimal) row[4]);
+        }
+        for (Object[] row : monthlyRollupRepository.aggregateRevenues()) {
+            monthlyRollupRepository.increment((Long) row[0], (Integer) row[1], (Integer) row[2], (String) row[3],
+                    (BigDecimal) row[4], BigDecimal.ZERO);
+        }
+        invalidarAposCommit(cache::invalidateAll);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        if (monthlyRollupRepository.count() == 0) {
+            recalcular();
+        }
+    }
+
+    private void incrementar(Long userId, YearMonth month, String type, BigDecimal revenue, BigDecimal expense) {
+        if (revenue.signum() == 0 && expense.signum() == 0) {
+            return;
+        }
+        monthlyRollupRepository.increment(userId, month.getYear(), month.getMonthValue(), type, revenue, expense);
+        Chave key = new Chave(userId, month);
+        invalidarAposCommit(() -> cache.invalidate(key));
+    }
+
+    /**
+     * Descarta todos os meses dos usuários informados, agora e quando a
+     * transação terminar
+     */
+    public void invalidar(Collection<Long> userIds) {
+        invalidarAposCommit(() -> cache.asMap().keySet().removeIf(key -> userIds.contains(key.userId())));
+    }
+
+    /**
+     * Aplica a remoção no cache agora e de novo quando a transação terminar
+     */
+    private void invalidarAposCommit(Runnable remove) {
+        Runnable evict = () -> {
+            synchronized (lock) {
+                generation++;
+                remove.run();
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
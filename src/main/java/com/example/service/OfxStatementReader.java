@@ -0,0 +1,96 @@
+package com.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Extrato OFX (1.x em SGML ou 2.x em XML). Lê as tags uma a uma e devolve um
+ * lançamento a cada </STMTTRN>; o restante do arquivo (cabeçalho, saldos,
+ * dados da conta) é ignorado. A descrição é o MEMO ou, na falta dele, o NAME.
+ */
+class OfxStatementReader implements StatementReader {
+
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private String[] pieces = new String[0];
+    private int nextPiece;
+
+    // Lançamento em leitura
+    private long transactionLine;
+    private String posted;
+    private String amount;
+    private String memo;
+    private String name;
+
+    OfxStatementReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementLine next() throws IOException {
+        while (true) {
+            while (nextPiece < pieces.length) {
+                String piece = pieces[nextPiece++];
+                int end = piece.indexOf('>');
+                if (end < 0) {
+                    continue;
+                }
+                String tag = piece.substring(0, end).trim().toUpperCase();
+                String value = piece.substring(end + 1).trim();
+                switch (tag) {
+                    case "STMTTRN" -> {
+                        transactionLine = lineNumber;
+                        posted = amount = memo = name = null;
+                    }
+                    case "DTPOSTED" -> posted = value;
+                    case "TRNAMT" -> amount = value;
+                    case "MEMO" -> memo = value;
+                    case "NAME" -> name = value;
+                    case "/STMTTRN" -> {
+                        return build();
+                    }
+                    default -> {
+                    }
+                }
+            }
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            pieces = line.split("<");
+            nextPiece = 0;
+        }
+    }
+
+    private StatementLine build() {
+        String description = memo != null && !memo.isEmpty() ? memo : name;
+        if (posted == null || posted.length() < 8 || amount == null || description == null || description.isEmpty()) {
+            throw new StatementReader.InvalidLineException(transactionLine,
+                    "Lançamento sem DTPOSTED, TRNAMT ou MEMO/NAME");
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(posted.substring(0, 8), OFX_DATE);
+        } catch (DateTimeParseException e) {
+            throw new StatementReader.InvalidLineException(transactionLine, "Data inválida: " + posted);
+        }
+        BigDecimal value;
+        try {
+            value = StatementReader.parseAmount(amount);
+        } catch (NumberFormatException e) {
+            throw new StatementReader.InvalidLineException(transactionLine, "Valor inválido: " + amount);
+        }
+        return new StatementLine(transactionLine, date, unescape(description), value, null);
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
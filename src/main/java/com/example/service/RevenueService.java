@@ -2,73 +2,184 @@ package com.example.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.Dto.CursorPage;
+import com.example.Dto.RevenueView;
+import com.example.Dto.PageCursor;
 import com.example.Dto.RevenueDTO;
+import com.example.models.BalanceEntry;
 import com.example.models.Category;
 import com.example.models.Revenue;
-import com.example.models.User;
-import com.example.repository.CategoryRepository;
 import com.example.repository.RevenuesRepository;
-import com.example.repository.UserRepository;
+import com.example.service.AnalyticsService.AnalyticsRow;
+import com.example.service.ForecastService.ForecastEntry;
+import com.example.service.MonthlyRollupService.RollupEntry;
+
+import jakarta.persistence.EntityManager;
 
 @Service
 public class RevenueService {
 
-    private UserRepository userRepository;
     private RevenuesRepository revenueRepository;
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
+    private SummaryService summaryService;
+    private MonthlyRollupService monthlyRollupService;
+    private BalanceService balanceService;
+    private ForecastService forecastService;
+    private AnalyticsService analyticsService;
+    private EntityManager entityManager;
 
     public RevenueService(
-            UserRepository userRepository,
             RevenuesRepository revenueRepository,
-            CategoryRepository categoryRepository) {
-        this.userRepository = userRepository;
+            CategoryService categoryService,
+            SummaryService summaryService,
+            MonthlyRollupService monthlyRollupService,
+            BalanceService balanceService,
+            ForecastService forecastService,
+            AnalyticsService analyticsService,
+            EntityManager entityManager) {
         this.revenueRepository = revenueRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryService = categoryService;
+        this.summaryService = summaryService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceService = balanceService;
+        this.forecastService = forecastService;
+        this.analyticsService = analyticsService;
+        this.entityManager = entityManager;
     }
 
-    public void registrarReceitas(RevenueDTO dto) {
-        Category category = categoryRepository.findByNameIgnoreCase(dto.nomeCategoria()).orElseGet(() -> {
-            Category nova = new Category();
-            nova.setName(dto.nomeCategoria());
-            return categoryRepository.save(nova);
-        });
+    @Transactional
+    public void registrarReceitas(Long userId, RevenueDTO dto) {
+        Category category = categoryService.resolver(userId, dto.nomeCategoria());
 
-        Revenue revenue = mapToEntity(dto, category);
+        Revenue revenue = mapToEntity(userId, dto, category, LocalDate.now());
         revenueRepository.save(revenue);
+        summaryService.aplicar(userId, SummaryDelta.ofRevenue(revenue));
+        monthlyRollupService.aplicar(null, RollupEntry.of(revenue));
+        forecastService.aplicar(null, ForecastEntry.of(revenue));
+        analyticsService.aplicar(null, AnalyticsRow.of(revenue));
         if ("AVULSO".equals(dto.tipo())) {
-            adicionarAoSaldo(revenue.getAmount());
+            balanceService.creditarReceita(userId, revenue.getId(), revenue.getAmount());
 
         } else if ("FIXO".equals(dto.tipo()) && dto.dataRecebimento() != null) {
-            adicionarAoSaldo(revenue.getAmount());
+            balanceService.creditarReceita(userId, revenue.getId(), revenue.getAmount());
+        }
+    }
+
+    /**
+     * Grava um bloco de receitas novas com saveAll e um único ajuste nos
+     * contadores, rollups e saldo (receitas AVULSO entram no saldo, como em
+     * registrarReceitas). Usado pela importação de extratos; todas as
+     * receitas são do usuário informado.
+     */
+    @Transactional
+    public void salvarLote(Long userId, List<Revenue> revenues) {
+        SummaryDelta delta = SummaryDelta.ZERO;
+        List<RollupEntry> rollups = new ArrayList<>(revenues.size());
+        List<ForecastEntry> forecasts = new ArrayList<>(revenues.size());
+        for (Revenue revenue : revenues) {
+            delta = delta.plus(SummaryDelta.ofRevenue(revenue));
+            rollups.add(RollupEntry.of(revenue));
+            forecasts.add(ForecastEntry.of(revenue));
+        }
+
+        revenueRepository.saveAll(revenues);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BalanceEntry> movements = new ArrayList<>();
+        List<AnalyticsRow> rows = new ArrayList<>(revenues.size());
+        for (Revenue revenue : revenues) {
+            rows.add(AnalyticsRow.of(revenue));
+            if ("AVULSO".equals(revenue.getType())) {
+                movements.add(BalanceService.novaReceita(userId, revenue.getId(), revenue.getAmount()));
+            }
+        }
+
+        summaryService.aplicar(userId, delta);
+        monthlyRollupService.aplicar(rollups);
+        forecastService.aplicar(forecasts);
+        analyticsService.aplicar(rows);
+        if (!movements.isEmpty()) {
+            balanceService.lancarTodos(movements);
         }
     }
 
-    public void adicionarAoSaldo(BigDecimal value) {
-        User usuario = userRepository.findById(1L)
-                .orElseGet(() -> {
-                    // Criar usuário padrão se não existir
-                    User newUser = new User();
-                    newUser.setName("Usuário Padrão");
-                    newUser.setMonthlySalary(BigDecimal.ZERO);
-                    return userRepository.save(newUser);
+    @Transactional
+    public Optional<Revenue> atualizarReceita(Long userId, Long id, RevenueDTO dto) {
+        return revenueRepository.findByIdAndUserId(id, userId)
+                .map(revenue -> {
+                    SummaryDelta before = SummaryDelta.ofRevenue(revenue);
+                    RollupEntry rollupBefore = RollupEntry.of(revenue);
+                    ForecastEntry forecastBefore = ForecastEntry.of(revenue);
+                    AnalyticsRow analyticsBefore = AnalyticsRow.of(revenue);
+                    revenue.setName(dto.nome());
+                    revenue.setAmount(dto.valor());
+                    revenue.setType(dto.tipo());
+                    if (dto.diaVencimento() != null) {
+                        revenue.setDueDay(dto.diaVencimento());
+                    }
+                    Revenue updated = revenueRepository.save(revenue);
+                    summaryService.aplicar(userId, SummaryDelta.ofRevenue(updated).minus(before));
+                    monthlyRollupService.aplicar(rollupBefore, RollupEntry.of(updated));
+                    forecastService.aplicar(forecastBefore, ForecastEntry.of(updated));
+                    analyticsService.aplicar(analyticsBefore, AnalyticsRow.of(updated));
+                    return updated;
                 });
-        BigDecimal currentSalary = usuario.getMonthlySalary();
-        if (currentSalary == null) {
-            currentSalary = BigDecimal.ZERO;
+    }
+
+    @Transactional
+    public boolean excluirReceita(Long userId, Long id) {
+        Optional<Revenue> revenue = revenueRepository.findByIdAndUserId(id, userId);
+        if (revenue.isEmpty()) {
+            return false;
         }
-        usuario.setMonthlySalary(currentSalary.add(value));
-        userRepository.save(usuario);
+        revenueRepository.delete(revenue.get());
+        summaryService.aplicar(userId, SummaryDelta.ofRevenue(revenue.get()).negate());
+        monthlyRollupService.aplicar(RollupEntry.of(revenue.get()), null);
+        forecastService.aplicar(ForecastEntry.of(revenue.get()), null);
+        analyticsService.aplicar(AnalyticsRow.of(revenue.get()), null);
+        balanceService.estornarReceita(userId, id);
+        return true;
+    }
+
+    /**
+     * Lista receitas paginadas por cursor sobre (registeredAt, id), depois de after (null: primeira página).
+     * Em DESC os mais recentes primeiro; o cursor devolvido leva a ordem.
+     */
+    public CursorPage<RevenueView> listarPagina(Long userId, PageCursor after, Integer size, PageCursor.Ordem ordem) {
+        int pageSize = CursorPage.normalizeSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        boolean ascending = ordem == PageCursor.Ordem.ASC;
+
+        List<RevenueView> rows;
+        if (after == null) {
+            rows = ascending
+                    ? revenueRepository.findFirstPageAsc(userId, limit)
+                    : revenueRepository.findFirstPageDesc(userId, limit);
+        } else {
+            rows = ascending
+                    ? revenueRepository.findPageAscAfter(userId, after.registeredAt(), after.id(), limit)
+                    : revenueRepository.findPageDescAfter(userId, after.registeredAt(), after.id(), limit);
+        }
+
+        return CursorPage.of(rows, pageSize, r -> new PageCursor(ordem, r.registeredAt(), r.id()));
     }
 
-    private Revenue mapToEntity(RevenueDTO dto, Category category) {
+    Revenue mapToEntity(Long userId, RevenueDTO dto, Category category, LocalDate registeredAt) {
         Revenue revenue = new Revenue();
+        revenue.setUserId(userId);
         revenue.setName(dto.nome());
         revenue.setAmount(dto.valor());
         revenue.setCategory(category);
-        revenue.setRegisteredAt(LocalDate.now());
+        revenue.setRegisteredAt(registeredAt);
         revenue.setType(dto.tipo());
         revenue.setActive(dto.ativa() != null ? dto.ativa() : true);
         revenue.setDueDay(dto.diaVencimento());
@@ -78,7 +189,7 @@ public class RevenueService {
 
         if ("AVULSO".equals(dto.tipo())) {
             revenue.setStatus(("RECEBIDO"));
-            revenue.setReceivedDate(hoje);
+            revenue.setReceivedDate(registeredAt);
 
         } else if ("FIXO".equals(dto.tipo())) {
             if (dataRecebimento != null && !dataRecebimento.isAfter(hoje)) {
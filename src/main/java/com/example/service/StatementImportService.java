@@ -0,0 +1,160 @@
+package com.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Dto.ExpensesDTO;
+import com.example.Dto.ImportResult;
+import com.example.Dto.ImportResult.LineError;
+import com.example.Dto.RevenueDTO;
+import com.example.models.Category;
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.example.service.StatementReader.StatementLine;
+
+/**
+ * Importa extratos bancários (CSV ou OFX) lidos em fluxo do corpo da
+ * requisição. Débitos viram despesas AVULSO e créditos viram receitas
+ * AVULSO, na data do lançamento. A cada CHUNK_SIZE lançamentos o bloco é
+ * gravado na sua própria transação, então a memória usada é a de um bloco e
+ * a leitura do upload só avança quando o bloco anterior foi gravado. Linhas
+ * inválidas são reportadas e não impedem o restante da importação.
+ *
+ * Pendente: a meta é importar 1 milhão de linhas em bem menos de um minuto;
+ * a única medição até agora (1 vCPU dividida com o Postgres) levou 143 s,
+ * com memória estável. Falta perfilar a gravação dos blocos (salvarLote)
+ * num ambiente com CPU própria para o banco.
+ */
+@Service
+public class StatementImportService {
+
+    public static final int CHUNK_SIZE = 1000;
+    public static final int MAX_REPORTED_ERRORS = 100;
+    public static final String DEFAULT_CATEGORY = "Importado";
+
+    // Tamanho de reven_ds_name/expens_ds_name
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final ExpensesService expensesService;
+    private final RevenueService revenueService;
+    private final CategoryService categoryService;
+    private final TransactionTemplate transactionTemplate;
+
+    public StatementImportService(ExpensesService expensesService, RevenueService revenueService,
+            CategoryService categoryService, PlatformTransactionManager transactionManager) {
+        this.expensesService = expensesService;
+        this.revenueService = revenueService;
+        this.categoryService = categoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportResult importar(Long userId, InputStream input, String format, Charset charset)
+            throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset), 64 * 1024);
+        StatementReader statement = StatementReader.of(format, reader);
+        Progress progress = new Progress();
+
+        List<StatementLine> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (true) {
+            StatementLine line;
+            try {
+                line = statement.next();
+            } catch (StatementReader.InvalidLineException e) {
+                progress.lines++;
+                progress.erro(e.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+            progress.lines++;
+            if (line.amount().signum() == 0) {
+                progress.erro(line.lineNumber(), "Lançamento com valor zero");
+                continue;
+            }
+            chunk.add(line);
+            if (chunk.size() == CHUNK_SIZE) {
+                gravar(userId, chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            gravar(userId, chunk, progress);
+        }
+
+        return new ImportResult(progress.lines, progress.expenses, progress.revenues, progress.errorCount,
+                progress.errors, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void gravar(Long userId, List<StatementLine> chunk, Progress progress) {
+        try {
+            int[] saved = transactionTemplate.execute(status -> {
+                Map<String, Category> categories = categoryService.resolverTodos(userId,
+                        chunk.stream().map(StatementImportService::categoria).distinct().toList());
+                List<Expenses> expenses = new ArrayList<>();
+                List<Revenue> revenues = new ArrayList<>();
+                for (StatementLine line : chunk) {
+                    String categoryName = categoria(line);
+                    Category category = categories.get(CategoryService.normalizar(categoryName));
+                    String name = line.description().length() > MAX_NAME_LENGTH
+                            ? line.description().substring(0, MAX_NAME_LENGTH)
+                            : line.description();
+                    if (line.amount().signum() < 0) {
+                        BigDecimal value = line.amount().negate();
+                        ExpensesDTO dto = new ExpensesDTO(name, "AVULSO", value, categoryName, 1, value, 1, 0,
+                                true, null);
+                        expenses.add(expensesService.mapToEntity(userId, dto, category, line.date()));
+                    } else {
+                        RevenueDTO dto = new RevenueDTO(name, "AVULSO", line.amount(), categoryName, null, true,
+                                null);
+                        revenues.add(revenueService.mapToEntity(userId, dto, category, line.date()));
+                    }
+                }
+                if (!expenses.isEmpty()) {
+                    expensesService.salvarLote(userId, expenses);
+                }
+                if (!revenues.isEmpty()) {
+                    revenueService.salvarLote(userId, revenues);
+                }
+                return new int[] { expenses.size(), revenues.size() };
+            });
+            progress.expenses += saved[0];
+            progress.revenues += saved[1];
+        } catch (RuntimeException e) {
+            long first = chunk.get(0).lineNumber();
+            long last = chunk.get(chunk.size() - 1).lineNumber();
+            progress.erro(first, "Bloco das linhas " + first + " a " + last + " não gravado: " + e.getMessage());
+        }
+    }
+
+    private static String categoria(StatementLine line) {
+        return line.category() != null ? line.category() : DEFAULT_CATEGORY;
+    }
+
+    private static class Progress {
+        private long lines;
+        private long expenses;
+        private long revenues;
+        private long errorCount;
+        private final List<LineError> errors = new ArrayList<>();
+
+        private void erro(long line, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new LineError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Leitura em fluxo dos lançamentos de um extrato bancário: cada chamada de
+ * next() consome só o necessário do arquivo, então a memória não depende do
+ * tamanho do extrato.
+ */
+public interface StatementReader {
+
+    /**
+     * Lançamento do extrato; amount negativo é débito (despesa) e positivo é
+     * crédito (receita). category pode ser null.
+     */
+    record StatementLine(long lineNumber, LocalDate date, String description, BigDecimal amount, String category) {
+    }
+
+    /**
+     * Linha que não pôde ser lida; a leitura continua na seguinte
+     */
+    class InvalidLineException extends RuntimeException {
+        private final long lineNumber;
+
+        public InvalidLineException(long lineNumber, String message) {
+            super(message);
+            this.lineNumber = lineNumber;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * Próximo lançamento ou null no fim do arquivo
+     *
+     * @throws InvalidLineException se o lançamento atual for inválido
+     */
+    StatementLine next() throws IOException;
+
+    static StatementReader of(String format, BufferedReader reader) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return new CsvStatementReader(reader);
+        }
+        if ("ofx".equalsIgnoreCase(format)) {
+            return new OfxStatementReader(reader);
+        }
+        throw new IllegalArgumentException("Formato de extrato não suportado: " + format);
+    }
+
+    /**
+     * Valor no formato brasileiro (1.234,56) ou internacional (1,234.56 / 1234.56),
+     * com sinal e prefixo R$ opcionais
+     */
+    static BigDecimal parseAmount(String raw) {
+        String value = raw.replace("R$", "").replace(" ", "").replace("\u00A0", "");
+        int comma = value.lastIndexOf(',');
+        int dot = value.lastIndexOf('.');
+        if (comma > dot) {
+            value = value.replace(".", "").replace(',', '.');
+        } else if (dot > comma && comma >= 0) {
+            value = value.replace(",", "");
+        }
+        return new BigDecimal(value);
+    }
+
+    DateTimeFormatter BR_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    static LocalDate parseDate(String raw) {
+        String value = raw.trim();
+        try {
+            return value.indexOf('/') > 0 ? LocalDate.parse(value, BR_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida: " + value);
+        }
+    }
+}
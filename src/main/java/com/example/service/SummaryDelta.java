@@ -0,0 +1,121 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+
+import com.example.models.Expenses;
+import com.example.models.Installment;
+import com.example.models.Revenue;
+
+/**
+ * Contribuição de uma ou mais linhas para os contadores de resumo.
+ * Uma alteração é aplicada como contribuição(depois) - contribuição(antes).
+ */
+public record SummaryDelta(
+        BigDecimal expensesTotal,
+        BigDecimal expensesRecurring,
+        BigDecimal expensesPending,
+        BigDecimal revenuesTotal,
+        BigDecimal revenuesFixed,
+        BigDecimal revenuesPending,
+        BigDecimal revenuesMiscellaneous,
+        BigDecimal installmentsPending,
+        BigDecimal installmentsPaid,
+        long installmentsPendingCount) {
+
+    public static final SummaryDelta ZERO = new SummaryDelta(
+            BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+            BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+            BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    public static SummaryDelta ofExpense(Expenses expense) {
+        BigDecimal amount = orZero(expense.getAmount());
+        boolean recurring = "PARCELADO".equals(expense.getType()) || "FIXO".equals(expense.getType());
+        boolean pending = "PENDENTE".equals(expense.getStatus());
+        return new SummaryDelta(
+                amount,
+                recurring ? amount : BigDecimal.ZERO,
+                pending ? orZero(expense.getInstallmentAmount()) : BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, 0);
+    }
+
+    public static SummaryDelta ofRevenue(Revenue revenue) {
+        BigDecimal amount = orZero(revenue.getAmount());
+        return new SummaryDelta(
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                amount,
+                "FIXO".equals(revenue.getType()) ? amount : BigDecimal.ZERO,
+                "PENDENTE".equals(revenue.getStatus()) ? amount : BigDecimal.ZERO,
+                "AVULSO".equals(revenue.getType()) ? amount : BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, 0);
+    }
+
+    public static SummaryDelta ofInstallment(Installment installment) {
+        BigDecimal amount = orZero(installment.getAmount());
+        boolean paid = Boolean.TRUE.equals(installment.getPaid());
+        return new SummaryDelta(
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                paid ? BigDecimal.ZERO : amount,
+                paid ? amount : BigDecimal.ZERO,
+                paid ? 0 : 1);
+    }
+
+    /**
+     * Variação do total de parcelas pendentes das despesas (reinício/pagamento em lote)
+     */
+    public static SummaryDelta ofExpensesPending(BigDecimal amount) {
+        return new SummaryDelta(
+                BigDecimal.ZERO, BigDecimal.ZERO, amount,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, 0);
+    }
+
+    /**
+     * Parcelas que passaram de pendentes a pagas (pagamento em lote)
+     */
+    public static SummaryDelta ofInstallmentsPaid(BigDecimal amount, long count) {
+        return new SummaryDelta(
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                amount.negate(), amount, -count);
+    }
+
+    public SummaryDelta plus(SummaryDelta other) {
+        return new SummaryDelta(
+                expensesTotal.add(other.expensesTotal),
+                expensesRecurring.add(other.expensesRecurring),
+                expensesPending.add(other.expensesPending),
+                revenuesTotal.add(other.revenuesTotal),
+                revenuesFixed.add(other.revenuesFixed),
+                revenuesPending.add(other.revenuesPending),
+                revenuesMiscellaneous.add(other.revenuesMiscellaneous),
+                installmentsPending.add(other.installmentsPending),
+                installmentsPaid.add(other.installmentsPaid),
+                installmentsPendingCount + other.installmentsPendingCount);
+    }
+
+    public SummaryDelta minus(SummaryDelta other) {
+        return plus(other.negate());
+    }
+
+    public SummaryDelta negate() {
+        return new SummaryDelta(
+                expensesTotal.negate(), expensesRecurring.negate(), expensesPending.negate(),
+                revenuesTotal.negate(), revenuesFixed.negate(), revenuesPending.negate(),
+                revenuesMiscellaneous.negate(),
+                installmentsPending.negate(), installmentsPaid.negate(), -installmentsPendingCount);
+    }
+
+    public boolean isZero() {
+        return expensesTotal.signum() == 0 && expensesRecurring.signum() == 0 && expensesPending.signum() == 0
+                && revenuesTotal.signum() == 0 && revenuesFixed.signum() == 0 && revenuesPending.signum() == 0
+                && revenuesMiscellaneous.signum() == 0
+                && installmentsPending.signum() == 0 && installmentsPaid.signum() == 0
+                && installmentsPendingCount == 0;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.models.SummaryCounters;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.InstallmentRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.repository.SummaryCountersRepository;
+import com.example.repository.UserRepository;
+
+/**
+ * Mantém os contadores de resumo (uma linha por usuário em summary_counters,
+ * com summar_id = users_id). Os fluxos de escrita chamam aplicar() na mesma
+ * transação da alteração, então os endpoints de resumo leem uma linha em vez
+ * de agregar as tabelas. A mesma linha guarda a versão dos dados do usuário,
+ * que vira o ETag dos GETs de listagem e resumo (ver etag(Long, String)).
+ */
+@Service
+public class SummaryService {
+
+    private final SummaryCountersRepository summaryCountersRepository;
+    private final ExpensesRepository expensesRepository;
+    private final RevenuesRepository revenuesRepository;
+    private final InstallmentRepository installmentRepository;
+    private final UserRepository userRepository;
+
+    public SummaryService(
+            SummaryCountersRepository summaryCountersRepository,
+            ExpensesRepository expensesRepository,
+            RevenuesRepository revenuesRepository,
+            InstallmentRepository installmentRepository,
+            UserRepository userRepository) {
+        this.summaryCountersRepository = summaryCountersRepository;
+        this.expensesRepository = expensesRepository;
+        this.revenuesRepository = revenuesRepository;
+        this.installmentRepository = installmentRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    public void aplicar(Long userId, SummaryDelta delta) {
+        if (delta.isZero()) {
+            marcarAlteracao(userId);
+            return;
+        }
+        summaryCountersRepository.increment(userId,
+                delta.expensesTotal(), delta.expensesRecurring(), delta.expensesPending(),
+                delta.revenuesTotal(), delta.revenuesFixed(), delta.revenuesPending(),
+                delta.revenuesMiscellaneous(),
+                delta.installmentsPending(), delta.installmentsPaid(), delta.installmentsPendingCount());
+    }
+
+    /**
+     * Aplica deltas de vários usuários (job diário), um UPDATE por usuário
+     */
+    @Transactional
+    public void aplicarTodos(Map<Long, SummaryDelta> deltas) {
+        deltas.forEach(this::aplicar);
+    }
+
+    /**
+     * Avança a versão dos dados sem mexer nos totais, para escritas que não
+     * passam por aplicar() (ex.: renomear ou excluir categoria)
+     */
+    @Transactional
+    public void marcarAlteracao(Long userId) {
+        summaryCountersRepository.incrementDataVersion(userId);
+    }
+
+    /**
+     * ETag das listagens e resumos (ver ConditionalGet). Os controllers leem
+     * a versão antes da consulta: uma escrita concorrente no máximo faz um
+     * corpo novo sair com o ETag antigo (a próxima requisição recebe 200),
+     * nunca um 304 indevido. Leva o id do usuário, para que dois usuários com
+     * a mesma versão nunca compartilhem uma resposta em cache, e a variante
+     * da representação (codificação negociada e, no dashboard, o mês
+     * resolvido). Fraco (W/) porque o corpo pode sair com ou sem gzip.
+     */
+    public String etag(Long userId, String variant) {
+        return "W/\"" + userId + "-" + summaryCountersRepository.findDataVersion(userId).orElse(0L) + "-" + variant
+                + "\"";
+    }
+
+    public SummaryCounters consultar(Long userId) {
+        return summaryCountersRepository.findById(userId).orElseGet(() -> {
+            SummaryCounters empty = new SummaryCounters();
+            empty.setId(userId);
+            return empty;
+        });
+    }
+
+    /**
+     * Recalcula os contadores a partir das tabelas, compara com os valores
+     * incrementais e grava o resultado recalculado.
+     */
+    @Transactional
+    public Map<String, Object> recalcular(Long userId) {
+        // Linha travada antes das somas: um increment() concorrente ou já terminou (e as somas veem a escrita
+        // dele) ou espera este commit e soma sobre o valor gravado aqui; sem o lock ele poderia ser sobrescrito
+        SummaryCounters stored = summaryCountersRepository.findByIdForUpdate(userId).orElse(null);
+        SummaryCounters rebuilt = stored != null ? stored : new SummaryCounters();
+        SummaryCounters incremental = copyOf(stored);
+
+        rebuilt.setId(userId);
+        rebuilt.setExpensesTotal(expensesRepository.sumAllAmounts(userId));
+        rebuilt.setExpensesRecurring(expensesRepository.sumRecurringAmount(userId));
+        rebuilt.setExpensesPending(expensesRepository.sumPendingInstallmentAmount(userId));
+        rebuilt.setRevenuesTotal(revenuesRepository.sumAllAmounts(userId));
+        rebuilt.setRevenuesFixed(revenuesRepository.sumFixedAmount(userId));
+        rebuilt.setRevenuesPending(revenuesRepository.sumPendingAmount(userId));
+        rebuilt.setRevenuesMiscellaneous(revenuesRepository.sumMiscellaneousAmount(userId));
+        rebuilt.setInstallmentsPending(BigDecimal.ZERO);
+        rebuilt.setInstallmentsPaid(BigDecimal.ZERO);
+        rebuilt.setInstallmentsPendingCount(0L);
+        for (Object[] row : installmentRepository.sumAndCountByPaid(userId)) {
+            if (Boolean.TRUE.equals(row[0])) {
+                rebuilt.setInstallmentsPaid((BigDecimal) row[1]);
+            } else {
+                rebuilt.setInstallmentsPending((BigDecimal) row[1]);
+                rebuilt.setInstallmentsPendingCount((Long) row[2]);
+            }
+        }
+
+        List<Map<String, Object>> mismatches = new ArrayList<>();
+        compare(mismatches, "expensesTotal", incremental.getExpensesTotal(), rebuilt.getExpensesTotal());
+        compare(mismatches, "expensesRecurring", incremental.getExpensesRecurring(), rebuilt.getExpensesRecurring());
+        compare(mismatches, "expensesPending", incremental.getExpensesPending(), rebuilt.getExpensesPending());
+        compare(mismatches, "revenuesTotal", incremental.getRevenuesTotal(), rebuilt.getRevenuesTotal());
+        compare(mismatches, "revenuesFixed", incremental.getRevenuesFixed(), rebuilt.getRevenuesFixed());
+        compare(mismatches, "revenuesPending", incremental.getRevenuesPending(), rebuilt.getRevenuesPending());
+        compare(mismatches, "revenuesMiscellaneous", incremental.getRevenuesMiscellaneous(),
+                rebuilt.getRevenuesMiscellaneous());
+        compare(mismatches, "installmentsPending", incremental.getInstallmentsPending(),
+                rebuilt.getInstallmentsPending());
+        compare(mismatches, "installmentsPaid", incremental.getInstallmentsPaid(), rebuilt.getInstallmentsPaid());
+        compare(mismatches, "installmentsPendingCount",
+                BigDecimal.valueOf(incremental.getInstallmentsPendingCount()),
+                BigDecimal.valueOf(rebuilt.getInstallmentsPendingCount()));
+
+        rebuilt.setRebuiltAt(LocalDateTime.now());
+        summaryCountersRepository.save(rebuilt);
+        marcarAlteracao(userId);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("consistent", mismatches.isEmpty());
+        report.put("mismatches", mismatches);
+        report.put("rebuiltAt", rebuilt.getRebuiltAt());
+        return report;
+    }
+
+    /**
+     * Cria a linha de contadores dos usuários que ainda não têm uma, na
+     * subida (usuários anteriores aos contadores ou linha perdida)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        for (Long userId : userRepository.findIdsWithoutSummary()) {
+            recalcular(userId);
+        }
+    }
+
+    /**
+     * Linha de contadores zerada de um usuário novo, na mesma transação do
+     * cadastro: os UPDATEs de aplicar() pressupõem que a linha existe
+     */
+    @Transactional
+    public void inicializar(Long userId) {
+        if (!summaryCountersRepository.existsById(userId)) {
+            SummaryCounters empty = new SummaryCounters();
+            empty.setId(userId);
+            empty.setRebuiltAt(LocalDateTime.now());
+            summaryCountersRepository.save(empty);
+        }
+    }
+
+    /**
+     * Remove a linha de contadores de um usuário excluído
+     */
+    @Transactional
+    public void excluir(Long userId) {
+        summaryCountersRepository.deleteById(userId);
+    }
+
+    private static SummaryCounters copyOf(SummaryCounters source) {
+        SummaryCounters copy = new SummaryCounters();
+        if (source != null) {
+            copy.setExpensesTotal(source.getExpensesTotal());
+            copy.setExpensesRecurring(source.getExpensesRecurring());
+            copy.setExpensesPending(source.getExpensesPending());
+            copy.setRevenuesTotal(source.getRevenuesTotal());
+            copy.setRevenuesFixed(source.getRevenuesFixed());
+            copy.setRevenuesPending(source.getRevenuesPending());
+            copy.setRevenuesMiscellaneous(source.getRevenuesMiscellaneous());
+            copy.setInstallmentsPending(source.getInstallmentsPending());
+            copy.setInstallmentsPaid(source.getInstallmentsPaid());
+            copy.setInstallmentsPendingCount(source.getInstallmentsPendingCount());
+        }
+        return copy;
+    }
+
+    private static void compare(List<Map<String, Object>> mismatches, String counter,
+            BigDecimal incremental, BigDecimal recomputed) {
+        if (incremental.compareTo(recomputed) != 0) {
+            Map<String, Object> mismatch = new LinkedHashMap<>();
+            mismatch.put("counter", counter);
+            mismatch.put("incremental", incremental);
+            mismatch.put("recomputed", recomputed);
+            mismatches.add(mismatch);
+        }
+    }
+}
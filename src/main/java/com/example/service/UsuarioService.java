@@ -1,5 +1,148 @@
 package com.example.service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.models.User;
+import com.example.repository.BalanceEntryRepository;
+import com.example.repository.CategoryRepository;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.repository.UserRepository;
+
+/**
+ * Cadastro e login. Cada usuário é identificado pelo e-mail (em minúsculas)
+ * e tem os próprios dados: as consultas filtram pelo id resolvido do token
+ * (ver OwnerInterceptor). A senha é guardada como hash BCrypt.
+ */
+@Service
 public class UsuarioService {
-    
+
+    public static final int MIN_PASSWORD_LENGTH = 6;
+
+    /**
+     * Resultado de assumirLegado; user só é preenchido em ASSUMIDO
+     */
+    public record Reivindicacao(Status status, User user) {
+
+        public enum Status {
+            ASSUMIDO, DESATIVADO, CODIGO_INVALIDO, SEM_LEGADO, CONTA_COM_DADOS
+        }
+
+        static Reivindicacao falha(Status status) {
+            return new Reivindicacao(status, null);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final SummaryService summaryService;
+    private final ExpensesRepository expensesRepository;
+    private final RevenuesRepository revenuesRepository;
+    private final CategoryRepository categoryRepository;
+    private final BalanceEntryRepository balanceEntryRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final String legacyClaimCode;
+    // Comparado quando o e-mail não existe, para o login levar o mesmo tempo nos dois casos
+    private final String dummyHash;
+
+    public UsuarioService(UserRepository userRepository, SummaryService summaryService,
+            ExpensesRepository expensesRepository, RevenuesRepository revenuesRepository,
+            CategoryRepository categoryRepository, BalanceEntryRepository balanceEntryRepository,
+            PasswordEncoder passwordEncoder,
+            @Value("${app.auth.legacy-claim-code:}") String legacyClaimCode) {
+        this.userRepository = userRepository;
+        this.summaryService = summaryService;
+        this.expensesRepository = expensesRepository;
+        this.revenuesRepository = revenuesRepository;
+        this.categoryRepository = categoryRepository;
+        this.balanceEntryRepository = balanceEntryRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.legacyClaimCode = legacyClaimCode;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    public static String normalizarEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Usuário do e-mail se a senha confere; vazio para e-mail desconhecido,
+     * senha errada ou usuário sem senha cadastrada
+     */
+    @Transactional(readOnly = true)
+    public Optional<User> entrar(String email, String password) {
+        Optional<User> user = userRepository.findByEmail(normalizarEmail(email));
+        String hash = user.map(User::getPasswordHash).orElse(null);
+        boolean matches = passwordEncoder.matches(password, hash != null ? hash : dummyHash);
+        return hash != null && matches ? user : Optional.empty();
+    }
+
+    /**
+     * Cria o usuário com o hash da senha; vazio se o e-mail já estiver cadastrado
+     */
+    @Transactional
+    public Optional<User> registrar(String name, String email, String password) {
+        String normalized = normalizarEmail(email);
+        if (userRepository.existsByEmail(normalized)) {
+            return Optional.empty();
+        }
+        return Optional.of(criar(name, normalized, passwordEncoder.encode(password)));
+    }
+
+    /**
+     * Passo explícito para bases anteriores ao login por e-mail: o usuário
+     * autenticado, com a conta ainda vazia, assume o usuário sem e-mail de
+     * menor id (que fica com o e-mail e a senha dele) e a conta vazia é
+     * excluída. Só funciona com app.auth.legacy-claim-code configurado e
+     * informado pelo chamador.
+     */
+    @Transactional
+    public Reivindicacao assumirLegado(Long userId, String code) {
+        if (legacyClaimCode.isBlank()) {
+            return Reivindicacao.falha(Reivindicacao.Status.DESATIVADO);
+        }
+        if (code == null || !MessageDigest.isEqual(code.getBytes(StandardCharsets.UTF_8),
+                legacyClaimCode.getBytes(StandardCharsets.UTF_8))) {
+            return Reivindicacao.falha(Reivindicacao.Status.CODIGO_INVALIDO);
+        }
+        Optional<User> legacy = userRepository.findFirstByEmailIsNullOrderByIdAsc();
+        Optional<User> caller = userRepository.findById(userId);
+        if (legacy.isEmpty() || caller.isEmpty()) {
+            return Reivindicacao.falha(Reivindicacao.Status.SEM_LEGADO);
+        }
+        if (expensesRepository.existsByUserId(userId) || revenuesRepository.existsByUserId(userId)
+                || categoryRepository.existsByUserId(userId) || balanceEntryRepository.existsByUserId(userId)) {
+            return Reivindicacao.falha(Reivindicacao.Status.CONTA_COM_DADOS);
+        }
+        User account = caller.get();
+        User target = legacy.get();
+        // Remove a conta vazia antes de repassar o e-mail (único)
+        userRepository.delete(account);
+        userRepository.flush();
+        summaryService.excluir(userId);
+        target.setEmail(account.getEmail());
+        target.setPasswordHash(account.getPasswordHash());
+        return new Reivindicacao(Reivindicacao.Status.ASSUMIDO, userRepository.save(target));
+    }
+
+    private User criar(String name, String email, String passwordHash) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPasswordHash(passwordHash);
+        user.setCode(System.currentTimeMillis());
+        user.setMonthlySalary(BigDecimal.ZERO);
+        User saved = userRepository.saveAndFlush(user);
+        summaryService.inicializar(saved.getId());
+        return saved;
+    }
 }
@@ -0,0 +1,112 @@
+package com.example.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Escreve listagens grandes (hoje as de parcelas) como um array JSON, Smile
+ * ou CBOR direto na resposta. As views vêm de uma query em stream (fetch
+ * size no repository) e cada uma é serializada assim que lida, então nem a
+ * lista nem o corpo ficam inteiros em memória.
+ */
+@Service
+public class ViewStreamService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Codificacao {
+        JSON(MediaType.APPLICATION_JSON),
+        SMILE(new MediaType("application", "x-jackson-smile")),
+        CBOR(MediaType.APPLICATION_CBOR);
+
+        private final MediaType mediaType;
+
+        Codificacao(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Primeira codificação aceita pelo Accept, na ordem de qualidade (q);
+         * JSON quando o Accept não é informado ou aceita qualquer tipo
+         */
+        public static Codificacao negociar(String accept) {
+            if (accept == null || accept.isBlank()) {
+                return JSON;
+            }
+            List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+            for (MediaType type : accepted) {
+                if (type.getQualityValue() == 0) {
+                    continue;
+                }
+                for (Codificacao codificacao : values()) {
+                    if (type.includes(codificacao.mediaType)) {
+                        return codificacao;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Tipo não suportado: " + accept);
+        }
+    }
+
+    private final Map<Codificacao, ObjectWriter> writers = new EnumMap<>(Codificacao.class);
+
+    public ViewStreamService(ObjectMapper objectMapper,
+            MappingJackson2SmileHttpMessageConverter smileConverter,
+            MappingJackson2CborHttpMessageConverter cborConverter) {
+        writers.put(Codificacao.JSON, writer(objectMapper));
+        writers.put(Codificacao.SMILE, writer(smileConverter.getObjectMapper()));
+        writers.put(Codificacao.CBOR, writer(cborConverter.getObjectMapper()));
+    }
+
+    // Sem flush a cada linha (o buffer decide quando enviar) e sem fechar o
+    // stream da resposta ao fechar o array
+    private static ObjectWriter writer(ObjectMapper mapper) {
+        return mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Executa a query dentro da transação (o stream precisa da conexão
+     * aberta) e escreve cada linha no array da resposta
+     */
+    @Transactional(readOnly = true)
+    public <T> void escrever(Supplier<Stream<T>> query, Codificacao codificacao, OutputStream out)
+            throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        try (Stream<T> rows = query.get();
+                SequenceWriter sequence = writers.get(codificacao).writeValuesAsArray(buffered)) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+            }
+        }
+        buffered.flush();
+    }
+}
@@ -0,0 +1,244 @@
+-- Esquema até aqui gerado pelo ddl-auto=update e completado na subida por
+-- OwnerColumns, CategoryNameIndex e SequenceAlignment. Idempotente: cria o
+-- que falta numa base vazia e, numa base de uma versão anterior (registrada
+-- pelo baseline na versão 0), só completa colunas, dados e índices.
+
+-- Sequences dos ids (allocationSize = 50 nas entidades)
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS categories_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS expenses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS revenues_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS installments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS balance_entries_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS job_runs_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    users_id bigint NOT NULL,
+    users_cd bigint,
+    users_ds_name varchar(255),
+    users_ds_email varchar(255),
+    users_vl_monthly_salary numeric(38,2),
+    users_dt_created_at timestamp(6),
+    CONSTRAINT users_pkey PRIMARY KEY (users_id)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    catego_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    catego_ds_name varchar(255),
+    CONSTRAINT categories_pkey PRIMARY KEY (catego_id)
+);
+
+CREATE TABLE IF NOT EXISTS expenses (
+    expens_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    expens_ds_type varchar(255) NOT NULL,
+    expens_ds_name varchar(255) NOT NULL,
+    expens_vl_amount numeric(38,2) NOT NULL,
+    expens_st_status varchar(255) NOT NULL,
+    expens_dt_registered_at date NOT NULL,
+    catego_id bigint NOT NULL,
+    expens_nr_due_day integer,
+    expens_fl_active boolean,
+    expens_nr_current_installment integer,
+    expens_nr_total_installments integer,
+    expens_vl_installment_amount numeric(38,2),
+    expens_dt_last_payment date,
+    expens_fl_completed boolean,
+    CONSTRAINT expenses_pkey PRIMARY KEY (expens_id),
+    CONSTRAINT fk_expenses_category FOREIGN KEY (catego_id) REFERENCES categories
+);
+
+CREATE TABLE IF NOT EXISTS revenues (
+    reven_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    reven_ds_name varchar(255),
+    reven_vl_amount numeric(38,2),
+    reven_st_status varchar(255),
+    reven_ds_type varchar(255),
+    reven_dt_registered_at date,
+    reven_dt_received_at date,
+    catego_id bigint,
+    reven_fl_active boolean,
+    reven_nr_due_day integer,
+    CONSTRAINT revenues_pkey PRIMARY KEY (reven_id),
+    CONSTRAINT fk_revenues_category FOREIGN KEY (catego_id) REFERENCES categories
+);
+
+CREATE TABLE IF NOT EXISTS installments (
+    instal_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    expens_id bigint NOT NULL,
+    instal_nr_number integer NOT NULL,
+    instal_vl_amount numeric(38,2) NOT NULL,
+    instal_dt_due_date date NOT NULL,
+    instal_fl_paid boolean NOT NULL,
+    instal_dt_paid_at date,
+    CONSTRAINT installments_pkey PRIMARY KEY (instal_id),
+    CONSTRAINT fk_installments_expense FOREIGN KEY (expens_id) REFERENCES expenses
+);
+
+CREATE TABLE IF NOT EXISTS balance_entries (
+    balent_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    balent_vl_amount numeric(38,2) NOT NULL,
+    balent_ds_source varchar(255) NOT NULL,
+    expens_id bigint,
+    instal_id bigint,
+    reven_id bigint,
+    balent_dt_created_at timestamp(6) NOT NULL,
+    CONSTRAINT balance_entries_pkey PRIMARY KEY (balent_id)
+);
+
+CREATE TABLE IF NOT EXISTS summary_counters (
+    summar_id bigint NOT NULL,
+    summar_vl_expenses_total numeric(38,2) NOT NULL,
+    summar_vl_expenses_recurring numeric(38,2) NOT NULL,
+    summar_vl_expenses_pending numeric(38,2) NOT NULL,
+    summar_vl_installments_paid numeric(38,2) NOT NULL,
+    summar_vl_installments_pending numeric(38,2) NOT NULL,
+    summar_nr_installments_pending bigint NOT NULL,
+    summar_vl_revenues_total numeric(38,2) NOT NULL,
+    summar_vl_revenues_fixed numeric(38,2) NOT NULL,
+    summar_vl_revenues_miscellaneous numeric(38,2) NOT NULL,
+    summar_vl_revenues_pending numeric(38,2) NOT NULL,
+    summar_nr_data_version bigint,
+    summar_dt_rebuilt_at timestamp(6),
+    CONSTRAINT summary_counters_pkey PRIMARY KEY (summar_id)
+);
+
+CREATE TABLE IF NOT EXISTS monthly_rollups (
+    users_id bigint NOT NULL,
+    rollup_nr_year integer NOT NULL,
+    rollup_nr_month integer NOT NULL,
+    rollup_ds_type varchar(255) NOT NULL,
+    rollup_vl_revenue numeric(38,2) NOT NULL,
+    rollup_vl_expense numeric(38,2) NOT NULL,
+    CONSTRAINT monthly_rollups_pkey PRIMARY KEY (users_id, rollup_nr_year, rollup_nr_month, rollup_ds_type)
+);
+
+CREATE TABLE IF NOT EXISTS job_runs (
+    jobrun_id bigint NOT NULL,
+    jobrun_ds_name varchar(255) NOT NULL,
+    jobrun_dt_processed_day date NOT NULL,
+    jobrun_st_status varchar(255) NOT NULL,
+    jobrun_nr_rows_reset integer,
+    jobrun_nr_rows_paid integer,
+    jobrun_nr_rows_completed integer,
+    jobrun_dt_started_at timestamp(6) NOT NULL,
+    jobrun_nr_duration_ms bigint,
+    jobrun_ds_error varchar(1000),
+    CONSTRAINT job_runs_pkey PRIMARY KEY (jobrun_id)
+);
+
+CREATE TABLE IF NOT EXISTS job_watermarks (
+    jobwat_ds_name varchar(255) NOT NULL,
+    jobwat_dt_last_processed date NOT NULL,
+    CONSTRAINT job_watermarks_pkey PRIMARY KEY (jobwat_ds_name)
+);
+
+-- Bases de quando havia um único usuário: sem e-mail e sem coluna de dono
+ALTER TABLE users ADD COLUMN IF NOT EXISTS users_ds_email varchar(255);
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS users_id bigint;
+ALTER TABLE revenues ADD COLUMN IF NOT EXISTS users_id bigint;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS users_id bigint;
+ALTER TABLE installments ADD COLUMN IF NOT EXISTS users_id bigint;
+
+-- Linhas sem dono passam ao usuário 1 (o usuário fixo de antes) ou, sem
+-- ele, ao de menor id; sem nenhum usuário, cria-se um
+INSERT INTO users (users_id, users_ds_name, users_vl_monthly_salary, users_dt_created_at)
+SELECT nextval('users_seq'), 'Usuário Padrão', 0, now()
+WHERE NOT EXISTS (SELECT 1 FROM users)
+  AND (EXISTS (SELECT 1 FROM expenses WHERE users_id IS NULL)
+    OR EXISTS (SELECT 1 FROM revenues WHERE users_id IS NULL)
+    OR EXISTS (SELECT 1 FROM categories WHERE users_id IS NULL));
+
+UPDATE expenses SET users_id = COALESCE((SELECT users_id FROM users WHERE users_id = 1), (SELECT MIN(users_id) FROM users))
+WHERE users_id IS NULL;
+UPDATE revenues SET users_id = COALESCE((SELECT users_id FROM users WHERE users_id = 1), (SELECT MIN(users_id) FROM users))
+WHERE users_id IS NULL;
+UPDATE categories SET users_id = COALESCE((SELECT users_id FROM users WHERE users_id = 1), (SELECT MIN(users_id) FROM users))
+WHERE users_id IS NULL;
+UPDATE installments i SET users_id = e.users_id FROM expenses e
+WHERE e.expens_id = i.expens_id AND i.users_id IS NULL;
+
+ALTER TABLE expenses ALTER COLUMN users_id SET NOT NULL;
+ALTER TABLE revenues ALTER COLUMN users_id SET NOT NULL;
+ALTER TABLE categories ALTER COLUMN users_id SET NOT NULL;
+ALTER TABLE installments ALTER COLUMN users_id SET NOT NULL;
+
+-- Chave de monthly_rollups começando pelo dono; os totais antigos, sem dono,
+-- são descartados e MonthlyRollupService os recalcula por usuário
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'monthly_rollups'
+                     AND column_name = 'users_id') THEN
+        TRUNCATE monthly_rollups;
+        ALTER TABLE monthly_rollups ADD COLUMN users_id bigint NOT NULL;
+    END IF;
+    IF (SELECT a.attname FROM pg_index x
+        JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = x.indkey[0]
+        WHERE x.indrelid = 'monthly_rollups'::regclass AND x.indisprimary) IS DISTINCT FROM 'users_id' THEN
+        ALTER TABLE monthly_rollups DROP CONSTRAINT IF EXISTS monthly_rollups_pkey;
+        ALTER TABLE monthly_rollups ADD CONSTRAINT monthly_rollups_pkey
+            PRIMARY KEY (users_id, rollup_nr_year, rollup_nr_month, rollup_ds_type);
+    END IF;
+END $$;
+
+-- Contadores de resumo são por usuário (summar_id = users_id)
+DELETE FROM summary_counters s WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.users_id = s.summar_id);
+
+-- Categorias de um mesmo usuário duplicadas por maiúsculas/minúsculas são
+-- unidas na de menor id antes do índice único
+UPDATE expenses t SET catego_id = k.canonical
+FROM (SELECT c.catego_id, MIN(c.catego_id) OVER (PARTITION BY c.users_id, lower(c.catego_ds_name)) AS canonical
+      FROM categories c) k
+WHERE k.catego_id = t.catego_id AND k.canonical <> k.catego_id;
+UPDATE revenues t SET catego_id = k.canonical
+FROM (SELECT c.catego_id, MIN(c.catego_id) OVER (PARTITION BY c.users_id, lower(c.catego_ds_name)) AS canonical
+      FROM categories c) k
+WHERE k.catego_id = t.catego_id AND k.canonical <> k.catego_id;
+DELETE FROM categories c
+USING (SELECT c2.catego_id, MIN(c2.catego_id) OVER (PARTITION BY c2.users_id, lower(c2.catego_ds_name)) AS canonical
+       FROM categories c2) k
+WHERE k.catego_id = c.catego_id AND k.canonical <> k.catego_id;
+
+-- Índices que não começavam pelo dono, substituídos pelos de baixo
+DROP INDEX IF EXISTS idx_expenses_registered_at_id;
+DROP INDEX IF EXISTS idx_expenses_type_registered_at;
+DROP INDEX IF EXISTS idx_revenues_registered_at_id;
+DROP INDEX IF EXISTS idx_revenues_type_registered_at;
+DROP INDEX IF EXISTS idx_installments_due_date_paid;
+DROP INDEX IF EXISTS uk_categories_lower_name;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email ON users (users_ds_email);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_categories_user_lower_name ON categories (users_id, lower(catego_ds_name));
+CREATE UNIQUE INDEX IF NOT EXISTS uk_installments_expense_number ON installments (expens_id, instal_nr_number);
+CREATE INDEX IF NOT EXISTS idx_expenses_user_registered_at_id ON expenses (users_id, expens_dt_registered_at, expens_id);
+CREATE INDEX IF NOT EXISTS idx_expenses_user_type_registered_at ON expenses (users_id, expens_ds_type, expens_dt_registered_at);
+CREATE INDEX IF NOT EXISTS idx_revenues_user_registered_at_id ON revenues (users_id, reven_dt_registered_at, reven_id);
+CREATE INDEX IF NOT EXISTS idx_revenues_user_type_registered_at ON revenues (users_id, reven_ds_type, reven_dt_registered_at);
+CREATE INDEX IF NOT EXISTS idx_installments_user_due_date_paid ON installments (users_id, instal_dt_due_date, instal_fl_paid);
+CREATE INDEX IF NOT EXISTS idx_balance_entries_user_created_at ON balance_entries (users_id, balent_dt_created_at);
+CREATE INDEX IF NOT EXISTS idx_job_runs_name_started_at ON job_runs (jobrun_ds_name, jobrun_dt_started_at);
+
+-- O índice único de e-mail gerado pelo ddl-auto, agora uk_users_email
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_49o3222n7m03l1nt85b5p2yjo;
+
+-- Tabelas de quando os ids eram IDENTITY: as sequences começam depois do
+-- maior id existente (com o otimizador pooled, o próximo bloco é (max, max + 50])
+SELECT setval('users_seq', m) FROM (SELECT MAX(users_id) AS m FROM users) t
+WHERE m >= (SELECT last_value FROM users_seq);
+SELECT setval('categories_seq', m) FROM (SELECT MAX(catego_id) AS m FROM categories) t
+WHERE m >= (SELECT last_value FROM categories_seq);
+SELECT setval('expenses_seq', m) FROM (SELECT MAX(expens_id) AS m FROM expenses) t
+WHERE m >= (SELECT last_value FROM expenses_seq);
+SELECT setval('revenues_seq', m) FROM (SELECT MAX(reven_id) AS m FROM revenues) t
+WHERE m >= (SELECT last_value FROM revenues_seq);
+SELECT setval('installments_seq', m) FROM (SELECT MAX(instal_id) AS m FROM installments) t
+WHERE m >= (SELECT last_value FROM installments_seq);
+SELECT setval('balance_entries_seq', m) FROM (SELECT MAX(balent_id) AS m FROM balance_entries) t
+WHERE m >= (SELECT last_value FROM balance_entries_seq);
+SELECT setval('job_runs_seq', m) FROM (SELECT MAX(jobrun_id) AS m FROM job_runs) t
+WHERE m >= (SELECT last_value FROM job_runs_seq);
@@ -0,0 +1,134 @@
+-- expenses e revenues particionadas por mês de registro (RANGE sobre a data
+-- de registro): as consultas de um mês só leem a partição dele, e arquivar
+-- um mês é desanexá-la (ALTER TABLE expenses DETACH PARTITION expenses_p2024_01).
+--
+-- Partições: <tabela>_pAAAA_MM para cada mês e <tabela>_default para o que
+-- cair fora delas. MonthPartitionService cria as dos meses seguintes e as dos
+-- meses que aparecerem na default (importações de datas antigas).
+--
+-- A chave primária de uma tabela particionada precisa conter a coluna de
+-- partição: passa a ser (id, data de registro). O id continua único pela
+-- sequence, mas não há mais restrição que o garanta sozinho, e por isso a
+-- FK installments -> expenses deixa de existir (InstallmentService exclui as
+-- parcelas junto com a despesa).
+
+-- Cria a partição do mês de "mes" em "tabela", se ainda não existir, movendo
+-- para ela as linhas do mês que estiverem na partição default
+CREATE OR REPLACE FUNCTION criar_particao_mensal(tabela text, coluna text, mes date) RETURNS boolean
+LANGUAGE plpgsql AS $$
+DECLARE
+    inicio date := date_trunc('month', mes)::date;
+    fim date := (date_trunc('month', mes) + interval '1 month')::date;
+    particao text := tabela || '_p' || to_char(mes, 'YYYY_MM');
+BEGIN
+    -- Instâncias concorrentes criando a mesma partição
+    PERFORM pg_advisory_xact_lock(hashtext(particao));
+    IF to_regclass(particao) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', particao, tabela);
+    EXECUTE format('WITH movidas AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM movidas',
+                   tabela || '_default', coluna, inicio, coluna, fim, particao);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   tabela, particao, inicio, fim);
+    RETURN true;
+END $$;
+
+-- expenses
+
+ALTER TABLE expenses RENAME TO expenses_legado;
+ALTER INDEX IF EXISTS expenses_pkey RENAME TO expenses_legado_pkey;
+DROP INDEX IF EXISTS idx_expenses_user_registered_at_id;
+DROP INDEX IF EXISTS idx_expenses_user_type_registered_at;
+
+CREATE TABLE expenses (
+    expens_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    expens_ds_type varchar(255) NOT NULL,
+    expens_ds_name varchar(255) NOT NULL,
+    expens_vl_amount numeric(38,2) NOT NULL,
+    expens_st_status varchar(255) NOT NULL,
+    expens_dt_registered_at date NOT NULL,
+    catego_id bigint NOT NULL,
+    expens_nr_due_day integer,
+    expens_fl_active boolean,
+    expens_nr_current_installment integer,
+    expens_nr_total_installments integer,
+    expens_vl_installment_amount numeric(38,2),
+    expens_dt_last_payment date,
+    expens_fl_completed boolean,
+    CONSTRAINT expenses_pkey PRIMARY KEY (expens_id, expens_dt_registered_at),
+    CONSTRAINT fk_expenses_category FOREIGN KEY (catego_id) REFERENCES categories
+) PARTITION BY RANGE (expens_dt_registered_at);
+
+CREATE INDEX idx_expenses_user_registered_at_id ON expenses (users_id, expens_dt_registered_at, expens_id);
+CREATE INDEX idx_expenses_user_type_registered_at ON expenses (users_id, expens_ds_type, expens_dt_registered_at);
+
+CREATE TABLE expenses_default PARTITION OF expenses DEFAULT;
+
+-- Um mês por partição, do primeiro registro até três meses à frente
+SELECT criar_particao_mensal('expenses', 'expens_dt_registered_at', m::date)
+FROM generate_series(
+        date_trunc('month', COALESCE((SELECT MIN(expens_dt_registered_at) FROM expenses_legado), CURRENT_DATE)),
+        date_trunc('month', GREATEST((SELECT MAX(expens_dt_registered_at) FROM expenses_legado),
+                CURRENT_DATE + interval '3 months')),
+        interval '1 month') AS m;
+
+INSERT INTO expenses (expens_id, users_id, expens_ds_type, expens_ds_name, expens_vl_amount, expens_st_status,
+        expens_dt_registered_at, catego_id, expens_nr_due_day, expens_fl_active, expens_nr_current_installment,
+        expens_nr_total_installments, expens_vl_installment_amount, expens_dt_last_payment, expens_fl_completed)
+SELECT expens_id, users_id, expens_ds_type, expens_ds_name, expens_vl_amount, expens_st_status,
+        expens_dt_registered_at, catego_id, expens_nr_due_day, expens_fl_active, expens_nr_current_installment,
+        expens_nr_total_installments, expens_vl_installment_amount, expens_dt_last_payment, expens_fl_completed
+FROM expenses_legado;
+
+-- Leva junto a FK installments -> expenses
+DROP TABLE expenses_legado CASCADE;
+
+-- revenues
+
+-- Receitas antigas sem data de registro: a de recebimento ou, sem ela, hoje
+UPDATE revenues SET reven_dt_registered_at = COALESCE(reven_dt_received_at, CURRENT_DATE)
+WHERE reven_dt_registered_at IS NULL;
+
+ALTER TABLE revenues RENAME TO revenues_legado;
+ALTER INDEX IF EXISTS revenues_pkey RENAME TO revenues_legado_pkey;
+DROP INDEX IF EXISTS idx_revenues_user_registered_at_id;
+DROP INDEX IF EXISTS idx_revenues_user_type_registered_at;
+
+CREATE TABLE revenues (
+    reven_id bigint NOT NULL,
+    users_id bigint NOT NULL,
+    reven_ds_name varchar(255),
+    reven_vl_amount numeric(38,2),
+    reven_st_status varchar(255),
+    reven_ds_type varchar(255),
+    reven_dt_registered_at date NOT NULL,
+    reven_dt_received_at date,
+    catego_id bigint,
+    reven_fl_active boolean,
+    reven_nr_due_day integer,
+    CONSTRAINT revenues_pkey PRIMARY KEY (reven_id, reven_dt_registered_at),
+    CONSTRAINT fk_revenues_category FOREIGN KEY (catego_id) REFERENCES categories
+) PARTITION BY RANGE (reven_dt_registered_at);
+
+CREATE INDEX idx_revenues_user_registered_at_id ON revenues (users_id, reven_dt_registered_at, reven_id);
+CREATE INDEX idx_revenues_user_type_registered_at ON revenues (users_id, reven_ds_type, reven_dt_registered_at);
+
+CREATE TABLE revenues_default PARTITION OF revenues DEFAULT;
+
+SELECT criar_particao_mensal('revenues', 'reven_dt_registered_at', m::date)
+FROM generate_series(
+        date_trunc('month', COALESCE((SELECT MIN(reven_dt_registered_at) FROM revenues_legado), CURRENT_DATE)),
+        date_trunc('month', GREATEST((SELECT MAX(reven_dt_registered_at) FROM revenues_legado),
+                CURRENT_DATE + interval '3 months')),
+        interval '1 month') AS m;
+
+INSERT INTO revenues (reven_id, users_id, reven_ds_name, reven_vl_amount, reven_st_status, reven_ds_type,
+        reven_dt_registered_at, reven_dt_received_at, catego_id, reven_fl_active, reven_nr_due_day)
+SELECT reven_id, users_id, reven_ds_name, reven_vl_amount, reven_st_status, reven_ds_type,
+        reven_dt_registered_at, reven_dt_received_at, catego_id, reven_fl_active, reven_nr_due_day
+FROM revenues_legado;
+
+DROP TABLE revenues_legado CASCADE;
@@ -0,0 +1,4 @@
+-- Hash BCrypt da senha (UsuarioService). Usuários anteriores ficam sem hash e
+-- não entram até que um operador grave um; o usuário sem e-mail de bases
+-- anteriores ao login só é assumido por POST /api/users/me/claim-legacy.
+ALTER TABLE users ADD COLUMN users_ds_password_hash varchar(100);
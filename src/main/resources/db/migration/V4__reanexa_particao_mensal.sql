@@ -0,0 +1,29 @@
+-- criar_particao_mensal respondia false sempre que a tabela do mês existia,
+-- inclusive desanexada (ALTER TABLE ... DETACH PARTITION): as linhas do mês
+-- continuavam caindo na partição default sem que a partição voltasse. Agora
+-- só a partição anexada a "tabela" (pg_inherits) conta como existente; a
+-- desanexada recebe as linhas do mês que estiverem na default e é anexada de
+-- novo. Para arquivar um mês sem que ele volte, desanexe e renomeie a tabela
+-- (ou mova-a para outro schema).
+CREATE OR REPLACE FUNCTION criar_particao_mensal(tabela text, coluna text, mes date) RETURNS boolean
+LANGUAGE plpgsql AS $$
+DECLARE
+    inicio date := date_trunc('month', mes)::date;
+    fim date := (date_trunc('month', mes) + interval '1 month')::date;
+    particao text := tabela || '_p' || to_char(mes, 'YYYY_MM');
+BEGIN
+    -- Instâncias concorrentes criando a mesma partição
+    PERFORM pg_advisory_xact_lock(hashtext(particao));
+    IF to_regclass(particao) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', particao, tabela);
+    ELSIF EXISTS (SELECT 1 FROM pg_inherits
+                  WHERE inhrelid = to_regclass(particao) AND inhparent = to_regclass(tabela)) THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('WITH movidas AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM movidas',
+                   tabela || '_default', coluna, inicio, coluna, fim, particao);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   tabela, particao, inicio, fim);
+    RETURN true;
+END $$;
@@ -0,0 +1,15 @@
+-- O saldo corrente (BalanceService) era acumulado em users_vl_monthly_salary,
+-- que deixava de ser o salário assim que o primeiro movimento entrava. Agora
+-- o saldo tem coluna própria e o salário volta a ser só o salário: o valor
+-- de abertura do diário (ABERTURA) para quem já tem movimentos, o valor atual
+-- para quem ainda não tem nenhum.
+ALTER TABLE users ADD COLUMN users_vl_balance numeric(38,2) NOT NULL DEFAULT 0;
+
+UPDATE users u
+SET users_vl_balance = COALESCE(u.users_vl_monthly_salary, 0),
+    users_vl_monthly_salary = CASE
+        WHEN EXISTS (SELECT 1 FROM balance_entries b WHERE b.users_id = u.users_id)
+            THEN COALESCE((SELECT sum(b.balent_vl_amount) FROM balance_entries b
+                           WHERE b.users_id = u.users_id AND b.balent_ds_source = 'ABERTURA'), 0)
+        ELSE u.users_vl_monthly_salary
+    END;
@@ -0,0 +1,111 @@
+package com.example.Config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.example.repository.CategoryRepository;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.service.AnalyticsService;
+import com.example.service.BalanceService;
+import com.example.service.ExpensesService;
+import com.example.service.ForecastService;
+import com.example.service.MonthlyRollupService;
+import com.example.service.RevenueService;
+import com.example.service.SummaryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class StartupWarmupTest {
+
+    private final ExpensesService expensesService = mock(ExpensesService.class);
+    private final ForecastService forecastService = mock(ForecastService.class);
+    private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+    private final MonthlyRollupService monthlyRollupService = mock(MonthlyRollupService.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final Cache hibernateCache = mock(Cache.class);
+
+    // Caminho e Authorization de cada requisição recebida
+    private final Set<String> received = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+
+    @AfterEach
+    void pararServidor() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private ApplicationReadyEvent evento() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            received.add(exchange.getRequestURI().getPath() + " "
+                    + exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+        });
+        server.start();
+
+        ConfigurableApplicationContext context = mock(ConfigurableApplicationContext.class);
+        when(context.getEnvironment()).thenReturn(
+                new MockEnvironment().withProperty("local.server.port", String.valueOf(server.getAddress().getPort())));
+        ApplicationReadyEvent event = mock(ApplicationReadyEvent.class);
+        when(event.getApplicationContext()).thenReturn(context);
+        return event;
+    }
+
+    @Test
+    void aqueceSemTokenESoComODonoSintetico() throws Exception {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getCache()).thenReturn(hibernateCache);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        StartupWarmup warmup = new StartupWarmup(expensesService, mock(RevenueService.class),
+                mock(SummaryService.class), monthlyRollupService, mock(BalanceService.class),
+                forecastService, analyticsService, categoryRepository, mock(ExpensesRepository.class),
+                mock(RevenuesRepository.class), new ObjectMapper(), entityManagerFactory, true, 2,
+                Duration.ofSeconds(10));
+
+        warmup.aquecer(evento());
+
+        // Só rotas sem token pela porta HTTP
+        assertEquals(Set.of("/actuator/health null", "/api/categories null"), received);
+
+        // Consultas só para o dono sintético, que sai dos caches ao final
+        Long owner = StartupWarmup.DONO_SINTETICO;
+        verify(categoryRepository, atLeastOnce()).findByUserId(owner);
+        verify(expensesService, atLeastOnce()).listarPagina(eq(owner), any(), any(), any());
+        verify(forecastService, atLeastOnce()).projetar(eq(owner), anyInt());
+        verify(categoryRepository, never()).findByUserId(longThat(id -> !owner.equals(id)));
+        verify(expensesService, never()).listarPagina(longThat(id -> !owner.equals(id)), any(), any(), any());
+        verify(forecastService, never()).projetar(longThat(id -> !owner.equals(id)), anyInt());
+        verify(forecastService).invalidar(List.of(owner));
+        verify(analyticsService).invalidar(List.of(owner));
+        verify(monthlyRollupService).invalidar(List.of(owner));
+        verify(hibernateCache).evictDefaultQueryRegion();
+    }
+}
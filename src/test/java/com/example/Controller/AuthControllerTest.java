@@ -0,0 +1,147 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.IntegrationTestBase;
+import com.example.models.User;
+import com.example.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class AuthControllerTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static String novoEmail() {
+        return "auth-" + UUID.randomUUID() + "@exemplo.com";
+    }
+
+    @Test
+    void cadastroGuardaHashEOLoginConfereASenha() {
+        String email = novoEmail();
+        assertEquals(HttpStatus.OK, post("/api/auth/register", null,
+                Map.of("name", "Ana", "email", email, "password", "senha-123")).getStatusCode());
+
+        User saved = userRepository.findByEmail(email).orElseThrow();
+        assertTrue(saved.getPasswordHash().startsWith("$2"));
+        assertFalse(saved.getPasswordHash().contains("senha-123"));
+
+        ResponseEntity<Map<String, Object>> ok = post("/api/auth/login", null,
+                Map.of("email", email.toUpperCase(), "password", "senha-123"));
+        assertEquals(HttpStatus.OK, ok.getStatusCode());
+        assertEquals(saved.getId(), ((Number) ok.getBody().get("id")).longValue());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, post("/api/auth/login", null,
+                Map.of("email", email, "password", "outra-senha")).getStatusCode());
+    }
+
+    @Test
+    void loginDeEmailDesconhecidoResponde401SemCriarUsuario() {
+        String email = novoEmail();
+        assertEquals(HttpStatus.UNAUTHORIZED, post("/api/auth/login", null,
+                Map.of("email", email, "password", "qualquer-senha")).getStatusCode());
+        assertTrue(userRepository.findByEmail(email).isEmpty());
+    }
+
+    @Test
+    void usuarioSemSenhaNaoEntra() {
+        User legacy = usuarioSemSenha(novoEmail());
+        assertEquals(HttpStatus.UNAUTHORIZED, post("/api/auth/login", null,
+                Map.of("email", legacy.getEmail(), "password", "qualquer-senha")).getStatusCode());
+    }
+
+    @Test
+    void cadastroExigeSenha() {
+        assertEquals(HttpStatus.BAD_REQUEST, post("/api/auth/register", null,
+                Map.of("email", novoEmail(), "password", "123")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, post("/api/auth/register", null,
+                Map.of("email", novoEmail())).getStatusCode());
+    }
+
+    @Test
+    void dadosLegadosSoSaoAssumidosPeloPassoExplicito() {
+        usuarioSemSenha(null);
+        // O assumido é o sem e-mail de menor id, que pode ter sobrado de outro teste
+        User legacy = userRepository.findFirstByEmailIsNullOrderByIdAsc().orElseThrow();
+        String email = novoEmail();
+        String token = (String) post("/api/auth/register", null,
+                Map.of("email", email, "password", "senha-123")).getBody().get("token");
+        Long accountId = userRepository.findByEmail(email).orElseThrow().getId();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, post("/api/users/me/claim-legacy", null,
+                Map.of("code", "codigo-dos-testes")).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, post("/api/users/me/claim-legacy", token,
+                Map.of("code", "errado")).getStatusCode());
+        assertNull(userRepository.findById(legacy.getId()).orElseThrow().getEmail());
+
+        ResponseEntity<Map<String, Object>> claimed = post("/api/users/me/claim-legacy", token,
+                Map.of("code", "codigo-dos-testes"));
+        assertEquals(HttpStatus.OK, claimed.getStatusCode());
+        assertEquals(legacy.getId(), ((Number) claimed.getBody().get("id")).longValue());
+        assertTrue(userRepository.findById(accountId).isEmpty());
+
+        // A senha da conta vazia passa para o usuário legado; o token antigo deixa de valer
+        ResponseEntity<Map<String, Object>> login = post("/api/auth/login", null,
+                Map.of("email", email, "password", "senha-123"));
+        assertEquals(legacy.getId(), ((Number) login.getBody().get("id")).longValue());
+        assertNotEquals(token, claimed.getBody().get("token"));
+        assertEquals(HttpStatus.UNAUTHORIZED, get("/api/users/me", token, Map.class).getStatusCode());
+    }
+
+    @Test
+    void contaComDadosNaoAssumeOLegado() {
+        usuarioSemSenha(null);
+        String token = cadastrar();
+        post("/api/categories", token, Map.of("name", "Casa"), String.class);
+
+        assertEquals(HttpStatus.CONFLICT, post("/api/users/me/claim-legacy", token,
+                Map.of("code", "codigo-dos-testes")).getStatusCode());
+    }
+
+    @Test
+    void donoDeCadaRequisicaoVemDoCacheSemConsultarUsers() {
+        String token = cadastrar();
+        // Primeira requisição coloca o usuário no cache, se o cadastro ainda não o fez
+        assertEquals(HttpStatus.OK, get("/api/expenses/summary", token, String.class).getStatusCode());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheRegionStatistics users = statistics.getDomainDataRegionStatistics("users");
+        long hits = users.getHitCount();
+        long loads = statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.OK, get("/api/expenses/summary", token, String.class).getStatusCode());
+        }
+        // OwnerInterceptor.preHandle faz um findById por requisição; nenhum vai ao banco
+        assertEquals(3, users.getHitCount() - hits);
+        assertEquals(loads, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    private User usuarioSemSenha(String email) {
+        User user = new User();
+        user.setName("Legado");
+        user.setEmail(email);
+        user.setCode(System.currentTimeMillis());
+        user.setMonthlySalary(BigDecimal.ZERO);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.IntegrationTestBase;
+import com.example.service.ExpensesService;
+
+/**
+ * POST /api/expenses/bulk: um lote maior que ExpensesService.BULK_CHUNK_SIZE
+ * chega inteiro aos contadores de resumo, ao rollup do mês e ao saldo; lote
+ * vazio, acima do limite ou com um item inválido responde 400 sem gravar
+ * nada.
+ */
+class BulkExpensesTest extends IntegrationTestBase {
+
+    // Mesmo limite de ExpensesController.BULK_MAX_SIZE
+    private static final int BULK_MAX_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // AVULSO de 10,00; a cada dez, PARCELADO de 30,00 em três parcelas
+    private static List<Map<String, Object>> lote(int count) {
+        List<Map<String, Object>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(i % 10 == 0
+                    ? item("parcelada " + i, "PARCELADO", "30.00", 3)
+                    : item("avulsa " + i, "AVULSO", "10.00", 1));
+        }
+        return items;
+    }
+
+    private static Map<String, Object> item(String name, String type, String amount, int installments) {
+        Map<String, Object> item = new HashMap<>(Map.of("nome", name, "tipo", type, "valorPago", amount,
+                "nomeCategoria", "Casa", "totalParcelas", installments));
+        if ("PARCELADO".equals(type)) {
+            item.put("diaVencimento", 10);
+        }
+        return item;
+    }
+
+    private int despesas(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM expenses WHERE users_id = ?", Integer.class, userId);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Map corpo(String path, String token) {
+        ResponseEntity<Map> response = get(path, token, Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+        return response.getBody();
+    }
+
+    private static void assertValor(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(new BigDecimal(String.valueOf(actual))),
+                expected + " != " + actual);
+    }
+
+    @Test
+    void loteEmVariosBlocosAtualizaResumoRollupESaldo() {
+        String token = cadastrar();
+        Long userId = usuario(token);
+        int count = 2 * ExpensesService.BULK_CHUNK_SIZE + 203;
+        int parceladas = (count + 9) / 10;
+        int avulsas = count - parceladas;
+
+        ResponseEntity<Map<String, Object>> response = post("/api/expenses/bulk", token, lote(count));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(count, response.getBody().get("inserted"));
+        assertTrue(((Number) response.getBody().get("elapsedMs")).longValue() >= 1);
+        assertEquals(count, despesas(userId));
+
+        BigDecimal avulsasTotal = BigDecimal.TEN.multiply(BigDecimal.valueOf(avulsas));
+        BigDecimal parceladasTotal = new BigDecimal("30.00").multiply(BigDecimal.valueOf(parceladas));
+        String total = avulsasTotal.add(parceladasTotal).toPlainString();
+
+        Map<?, ?> summary = corpo("/api/expenses/summary", token);
+        assertValor(total, summary.get("totalExpenses"));
+        assertValor(parceladasTotal.toPlainString(), summary.get("totalInstallments"));
+        assertValor(BigDecimal.TEN.multiply(BigDecimal.valueOf(parceladas)).toPlainString(),
+                summary.get("pendingInstallments"));
+
+        Map<?, ?> month = corpo("/api/dashboard/monthly-summary", token);
+        assertValor(total, month.get("totalExpenses"));
+        assertValor("0", month.get("totalRevenue"));
+
+        // Só as avulsas debitam no registro
+        Map<?, ?> balance = corpo("/api/users/me/balance", token);
+        assertValor(avulsasTotal.negate().toPlainString(), balance.get("balance"));
+        assertEquals(true, balance.get("consistent"));
+        assertEquals(3 * parceladas, jdbcTemplate.queryForObject("SELECT count(*) FROM installments i "
+                + "JOIN expenses e ON e.expens_id = i.expens_id WHERE e.users_id = ? AND e.expens_ds_type = 'PARCELADO'",
+                Integer.class, userId));
+    }
+
+    @Test
+    void loteVazioOuAcimaDoLimiteResponde400() {
+        String token = cadastrar();
+        Long userId = usuario(token);
+
+        assertEquals(HttpStatus.BAD_REQUEST, post("/api/expenses/bulk", token, List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                post("/api/expenses/bulk", token, lote(BULK_MAX_SIZE + 1)).getStatusCode());
+        assertEquals(0, despesas(userId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void itemInvalidoRejeitaOLoteInteiro() {
+        String token = cadastrar();
+        Long userId = usuario(token);
+        List<Map<String, Object>> items = lote(5);
+        items.get(3).put("valorPago", "-1");
+        items.get(3).put("nome", "");
+
+        ResponseEntity<Map<String, Object>> response = post("/api/expenses/bulk", token, items);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        List<String> errors = (List<String>) response.getBody().get("errors");
+        assertEquals(2, errors.size(), errors::toString);
+        assertTrue(errors.stream().allMatch(error -> error.startsWith("[3] ")), errors::toString);
+        assertTrue(errors.stream().anyMatch(error -> error.startsWith("[3] valorPago: ")), errors::toString);
+        assertTrue(errors.stream().anyMatch(error -> error.startsWith("[3] nome: ")), errors::toString);
+
+        // Nada gravado: nem despesas, nem contadores, nem saldo
+        assertEquals(0, despesas(userId));
+        assertValor("0", corpo("/api/expenses/summary", token).get("totalExpenses"));
+        assertValor("0", corpo("/api/users/me/balance", token).get("balance"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.IntegrationTestBase;
+
+/**
+ * If-None-Match: o ETag leva a codificação negociada e, no dashboard, o mês
+ * resolvido; entrada inválida responde 400 (ou 404) mesmo quando o ETag
+ * enviado é o atual
+ */
+class ConditionalGetTest extends IntegrationTestBase {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private ResponseEntity<byte[]> pedir(String path, String token, String accept, String etag) {
+        HttpHeaders headers = json(token);
+        if (accept != null) {
+            headers.set(HttpHeaders.ACCEPT, accept);
+        }
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private ResponseEntity<byte[]> condicional(String path, String token, String etag) {
+        return pedir(path, token, null, etag);
+    }
+
+    private String etag(String path, String token) {
+        return etag(path, token, null);
+    }
+
+    private String etag(String path, String token, String accept) {
+        ResponseEntity<byte[]> response = pedir(path, token, accept, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getHeaders().getETag();
+    }
+
+    @Test
+    void dashboardSemPeriodoLevaOMesAtualNoEtag() {
+        String token = cadastrar();
+        String implicit = etag("/api/dashboard/monthly-summary", token);
+        assertTrue(implicit.contains(YearMonth.now().toString()), implicit);
+
+        String other = etag("/api/dashboard/monthly-summary?year=2020&month=1", token);
+        assertNotEquals(implicit, other);
+        assertEquals(HttpStatus.OK, condicional("/api/dashboard/monthly-summary", token, other).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                condicional("/api/dashboard/monthly-summary", token, implicit).getStatusCode());
+    }
+
+    @Test
+    void dashboardValidaOPeriodoAntesDo304() {
+        String token = cadastrar();
+        String etag = etag("/api/dashboard/monthly-summary?year=2024&month=12", token);
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                condicional("/api/dashboard/monthly-summary?year=2024&month=13", token, etag).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                condicional("/api/dashboard/monthly-summary?month=5", token, etag).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                condicional("/api/dashboard/monthly-summary?year=2024", token, etag).getStatusCode());
+    }
+
+    @Test
+    void listagensValidamAEntradaAntesDo304() {
+        String token = cadastrar();
+        String etag = etag("/api/expenses", token);
+
+        for (String path : new String[] { "/api/expenses/month/2024/13", "/api/revenues/month/2024/0",
+                "/api/installments/month/2024/13", "/api/expenses?cursor=invalido", "/api/revenues?cursor=invalido" }) {
+            assertEquals(HttpStatus.BAD_REQUEST, condicional(path, token, etag).getStatusCode(), path);
+        }
+        assertEquals(HttpStatus.NOT_FOUND,
+                condicional("/api/installments/expense/" + Long.MAX_VALUE, token, etag).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, condicional("/api/expenses/month/2024/12", token, etag).getStatusCode());
+    }
+
+    @Test
+    void cadaCodificacaoTemOProprioEtagEO304DeclaraVary() {
+        String token = cadastrar();
+        for (String path : new String[] { "/api/installments", "/api/expenses/summary" }) {
+            String json = etag(path, token, "application/json");
+            String smile = etag(path, token, SMILE);
+            String cbor = etag(path, token, "application/cbor");
+            assertNotEquals(json, smile, path);
+            assertNotEquals(json, cbor, path);
+            assertNotEquals(smile, cbor, path);
+
+            // ETag do JSON com Accept Smile: outra representação, corpo novo em Smile
+            ResponseEntity<byte[]> other = pedir(path, token, SMILE, json);
+            assertEquals(HttpStatus.OK, other.getStatusCode(), path);
+            assertEquals(SMILE, other.getHeaders().getContentType().toString(), path);
+            // A compressão do Tomcat reescreve o Vary em minúsculas
+            assertEquals(1, other.getHeaders().getVary().stream().filter(HttpHeaders.ACCEPT::equalsIgnoreCase).count(),
+                    path);
+
+            ResponseEntity<byte[]> notModified = pedir(path, token, SMILE, smile);
+            assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode(), path);
+            assertTrue(notModified.getHeaders().getVary().stream().anyMatch(HttpHeaders.ACCEPT::equalsIgnoreCase), path);
+        }
+    }
+
+    @Test
+    void acceptSemCodificacaoAceitaResponde406MesmoComEtag() {
+        String token = cadastrar();
+        String etag = etag("/api/installments", token);
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, pedir("/api/installments", token, "text/csv", etag).getStatusCode());
+    }
+}
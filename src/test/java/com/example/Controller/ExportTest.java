@@ -0,0 +1,122 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.IntegrationTestBase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * GET /api/expenses/export em CSV e NDJSON com mais linhas que o fetch size
+ * do cursor (ExpensesRepository.streamAllForExport): todas as despesas do
+ * dono, só as dele, em ordem de id, com aspas e quebras de linha escapadas.
+ */
+class ExportTest extends IntegrationTestBase {
+
+    // Acima do fetch size de 1000: o cursor busca mais de um lote
+    private static final int LINHAS = 1205;
+
+    private static final String NOME_COM_ASPAS = "Feira, \"orgânica\"";
+    private static final String NOME_COM_QUEBRA = "linha 1\nlinha 2";
+    private static final String CATEGORIA = "Casa, lar";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private void registrar(String token, int count, String prefix) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = i == 0 ? NOME_COM_ASPAS : i == 1 ? NOME_COM_QUEBRA : prefix + i;
+            items.add(Map.of("nome", name, "tipo", "AVULSO", "valorPago", "12.50", "nomeCategoria", CATEGORIA,
+                    "totalParcelas", 1));
+        }
+        ResponseEntity<Map<String, Object>> response = post("/api/expenses/bulk", token, items);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(count, response.getBody().get("inserted"));
+    }
+
+    private List<Long> ids(Long userId) {
+        return jdbcTemplate.queryForList("SELECT expens_id FROM expenses WHERE users_id = ? ORDER BY expens_id",
+                Long.class, userId);
+    }
+
+    private ResponseEntity<String> exportar(String token, String format) {
+        ResponseEntity<String> response = get("/api/expenses/export?format=" + format, token, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), format);
+        return response;
+    }
+
+    @Test
+    void csvTrazTodasAsLinhasDoDonoEscapadas() {
+        String token = cadastrar();
+        registrar(token, LINHAS, "item ");
+        registrar(cadastrar(), 3, "outro ");
+        List<Long> expected = ids(usuario(token));
+        assertEquals(LINHAS, expected.size());
+
+        ResponseEntity<String> response = exportar(token, "csv");
+        assertTrue(response.getHeaders().getContentType().toString().startsWith("text/csv"));
+        // Quebras de linha dentro de campos são só \n; as linhas do CSV terminam em \r\n
+        String[] lines = response.getBody().split("\r\n");
+        assertEquals(LINHAS + 1, lines.length);
+        assertEquals("id,nome,tipo,status,valor,valorParcela,parcelaAtual,totalParcelas,diaVencimento,categoria,"
+                + "registradoEm,ultimoPagamento,ativa,concluida", lines[0]);
+
+        List<Long> exported = new ArrayList<>();
+        List<String> escaped = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            exported.add(Long.valueOf(lines[i].substring(0, lines[i].indexOf(','))));
+            if (lines[i].contains("\"\"orgânica\"\"") || lines[i].contains("\n")) {
+                escaped.add(lines[i].substring(lines[i].indexOf(',') + 1));
+            }
+        }
+        assertEquals(expected, exported);
+        assertEquals(2, escaped.size(), escaped::toString);
+        for (String line : escaped) {
+            assertTrue(line.startsWith("\"Feira, \"\"orgânica\"\"\",AVULSO,PAGO,12.50,")
+                    || line.startsWith("\"linha 1\nlinha 2\",AVULSO,PAGO,12.50,"), line);
+            assertTrue(line.contains(",\"" + CATEGORIA + "\","), line);
+        }
+    }
+
+    @Test
+    void ndjsonTrazUmObjetoPorDespesaDoDono() throws Exception {
+        String token = cadastrar();
+        registrar(token, LINHAS, "item ");
+        registrar(cadastrar(), 3, "outro ");
+        List<Long> expected = ids(usuario(token));
+
+        ResponseEntity<String> response = exportar(token, "ndjson");
+        assertTrue(response.getHeaders().getContentType().toString().startsWith("application/x-ndjson"));
+        String body = response.getBody();
+        assertTrue(body.endsWith("\n"));
+        String[] lines = body.split("\n");
+        assertEquals(LINHAS, lines.length);
+
+        List<Long> exported = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            exported.add(node.get("id").asLong());
+            names.add(node.get("name").asText());
+            assertEquals(CATEGORIA, node.get("category").get("name").asText());
+        }
+        assertEquals(expected, exported);
+        assertTrue(names.contains(NOME_COM_ASPAS));
+        assertTrue(names.contains(NOME_COM_QUEBRA));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.example.Dto.InstallmentView;
+import com.example.IntegrationTestBase;
+
+class InstallmentsControllerTest extends IntegrationTestBase {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<InstallmentView> parcelas(String token, Long expenseId) {
+        return Arrays.asList(get("/api/installments/expense/" + expenseId, token, InstallmentView[].class).getBody());
+    }
+
+    // Despesa parcelada em 3 x 100; devolve as parcelas em ordem
+    private List<InstallmentView> parcelado(String token) {
+        assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", "parcelado", "tipo", "PARCELADO",
+                "valorPago", 300, "nomeCategoria", "Casa", "totalParcelas", 3, "diaVencimento", 5), String.class).getStatusCode());
+        Long expenseId = get("/api/installments/pending", token, InstallmentView[].class).getBody()[0].expenseId();
+        List<InstallmentView> schedule = new ArrayList<>(parcelas(token, expenseId));
+        schedule.sort(Comparator.comparing(InstallmentView::installmentNumber));
+        assertEquals(3, schedule.size());
+        return schedule;
+    }
+
+    private BigDecimal saldo(String token) {
+        return new BigDecimal(get("/api/users/me/balance", token, Map.class).getBody().get("balance").toString());
+    }
+
+    private HttpStatus pagar(String token, Long installmentId) {
+        return HttpStatus.valueOf(post("/api/installments/" + installmentId + "/pay", token, null, String.class)
+                .getStatusCode().value());
+    }
+
+    @Test
+    void pagaAParcelaInformadaERejeitaAsQueNaoSaoAProxima() {
+        String token = cadastrar();
+        List<InstallmentView> schedule = parcelado(token);
+        BigDecimal opening = saldo(token);
+
+        assertEquals(HttpStatus.CONFLICT, pagar(token, schedule.get(2).id()));
+        assertEquals(opening, saldo(token));
+
+        assertEquals(HttpStatus.OK, pagar(token, schedule.get(0).id()));
+        List<InstallmentView> after = parcelas(token, schedule.get(0).expenseId());
+        assertTrue(after.stream().filter(i -> i.installmentNumber() == 1).findFirst().orElseThrow().paid());
+        assertFalse(after.stream().filter(i -> i.installmentNumber() == 2).findFirst().orElseThrow().paid());
+        assertEquals(0, opening.subtract(new BigDecimal("100")).compareTo(saldo(token)));
+
+        // Repetir o pagamento de uma parcela paga não cobra de novo
+        assertEquals(HttpStatus.OK, pagar(token, schedule.get(0).id()));
+        assertEquals(0, opening.subtract(new BigDecimal("100")).compareTo(saldo(token)));
+    }
+
+    @Test
+    void pagamentosConcorrentesDaMesmaParcelaCobramUmaVez() throws Exception {
+        String token = cadastrar();
+        List<InstallmentView> schedule = parcelado(token);
+        BigDecimal opening = saldo(token);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<HttpStatus>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(() -> pagar(token, schedule.get(0).id()));
+            }
+            for (Future<HttpStatus> result : executor.invokeAll(calls)) {
+                assertEquals(HttpStatus.OK, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, opening.subtract(new BigDecimal("100")).compareTo(saldo(token)));
+        assertEquals(1, parcelas(token, schedule.get(0).expenseId()).stream().filter(InstallmentView::paid).count());
+    }
+
+    private HttpStatus editar(String token, Long expenseId, String nome, int totalParcelas) {
+        return HttpStatus.valueOf(rest.exchange("/api/expenses/" + expenseId, HttpMethod.PUT,
+                new HttpEntity<>(Map.of("nome", nome, "tipo", "PARCELADO", "valorPago", 300, "nomeCategoria", "Casa",
+                        "totalParcelas", totalParcelas, "diaVencimento", 5), json(token)), String.class)
+                .getStatusCode().value());
+    }
+
+    // Número da parcela -> data de pagamento (null se em aberto)
+    private Map<Integer, LocalDate> pagamentos(Long expenseId) {
+        Map<Integer, LocalDate> paidAt = new TreeMap<>();
+        jdbcTemplate.query("SELECT instal_nr_number, instal_dt_paid_at FROM installments WHERE expens_id = ?",
+                (RowCallbackHandler) row -> paidAt.put(row.getInt(1), row.getObject(2, LocalDate.class)), expenseId);
+        return paidAt;
+    }
+
+    @Test
+    void editarADespesaMantemAsParcelasPagasEAjustaSoOFinal() {
+        String token = cadastrar();
+        List<InstallmentView> schedule = parcelado(token);
+        Long expenseId = schedule.get(0).expenseId();
+        assertEquals(HttpStatus.OK, pagar(token, schedule.get(0).id()));
+        LocalDate paidAt = pagamentos(expenseId).get(1);
+        assertNotNull(paidAt);
+
+        // Só o nome: mesmas linhas, a paga continua com a data de pagamento
+        assertEquals(HttpStatus.OK, editar(token, expenseId, "renomeado", 3));
+        assertEquals(schedule.stream().map(InstallmentView::id).sorted().toList(),
+                parcelas(token, expenseId).stream().map(InstallmentView::id).sorted().toList());
+        assertEquals(paidAt, pagamentos(expenseId).get(1));
+
+        // Mais parcelas: as existentes ficam, entram 4 e 5
+        assertEquals(HttpStatus.OK, editar(token, expenseId, "renomeado", 5));
+        List<InstallmentView> longer = parcelas(token, expenseId);
+        assertEquals(5, longer.size());
+        assertTrue(longer.stream().map(InstallmentView::id).toList()
+                .containsAll(schedule.stream().map(InstallmentView::id).toList()));
+        assertEquals(paidAt, pagamentos(expenseId).get(1));
+
+        // Menos parcelas: sai só o final
+        assertEquals(HttpStatus.OK, editar(token, expenseId, "renomeado", 2));
+        Map<Integer, LocalDate> shorter = pagamentos(expenseId);
+        assertEquals(List.of(1, 2), List.copyOf(shorter.keySet()));
+        assertEquals(paidAt, shorter.get(1));
+        assertNull(shorter.get(2));
+
+        Map<?, ?> summary = get("/api/installments/summary", token, Map.class).getBody();
+        assertEquals(1, ((Number) summary.get("pendingCount")).intValue());
+    }
+}
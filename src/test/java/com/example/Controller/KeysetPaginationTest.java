@@ -0,0 +1,107 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Dto.PageCursor;
+import com.example.IntegrationTestBase;
+
+/**
+ * Listagens por cursor de /api/expenses e /api/revenues: as páginas
+ * percorrem (registeredAt, id) sem repetir nem pular registros com datas
+ * iguais, nos dois sentidos; sort desconhecido e cursor de outro sentido
+ * respondem 400.
+ */
+class KeysetPaginationTest extends IntegrationTestBase {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Sete despesas e receitas em três datas, várias na mesma data
+    private void registrar(String token, Long userId) {
+        LocalDate[] dates = { LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 10),
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 5) };
+        for (int i = 0; i < dates.length; i++) {
+            String name = "item " + i;
+            assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", name, "tipo", "AVULSO",
+                    "valorPago", 10, "nomeCategoria", "Casa", "totalParcelas", 1), String.class).getStatusCode());
+            assertEquals(HttpStatus.OK, post("/api/revenues", token, Map.of("nome", name, "tipo", "AVULSO",
+                    "valor", 10, "nomeCategoria", "Casa"), String.class).getStatusCode());
+            jdbcTemplate.update("UPDATE expenses SET expens_dt_registered_at = ? WHERE users_id = ? AND expens_ds_name = ?",
+                    dates[i], userId, name);
+            jdbcTemplate.update("UPDATE revenues SET reven_dt_registered_at = ? WHERE users_id = ? AND reven_ds_name = ?",
+                    dates[i], userId, name);
+        }
+    }
+
+    // (registeredAt, id) de cada item, página a página
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private List<String> percorrer(String resource, String token, String sort) {
+        List<String> keys = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = "/api/" + resource + "?size=2&sort=" + sort + (cursor != null ? "&cursor=" + cursor : "");
+            ResponseEntity<Map> page = get(path, token, Map.class);
+            assertEquals(HttpStatus.OK, page.getStatusCode(), path);
+            for (Map<String, Object> item : (List<Map<String, Object>>) page.getBody().get("items")) {
+                keys.add(item.get("registeredAt") + "#" + String.format("%019d", ((Number) item.get("id")).longValue()));
+            }
+            cursor = (String) page.getBody().get("nextCursor");
+        } while (cursor != null);
+        return keys;
+    }
+
+    @Test
+    void paginasPercorremTudoNosDoisSentidos() {
+        String token = cadastrar();
+        registrar(token, usuario(token));
+
+        for (String resource : List.of("expenses", "revenues")) {
+            List<String> ascending = percorrer(resource, token, "asc");
+            assertEquals(7, ascending.size(), resource);
+            assertEquals(ascending.stream().sorted().toList(), ascending, resource);
+            List<String> descending = new ArrayList<>(ascending);
+            Collections.reverse(descending);
+            assertEquals(descending, percorrer(resource, token, "desc"), resource);
+            assertEquals(descending, percorrer(resource, token, "DESC"), resource);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void ordemDesconhecidaOuCursorDeOutraOrdemResponde400() {
+        String token = cadastrar();
+        registrar(token, usuario(token));
+
+        for (String resource : List.of("expenses", "revenues")) {
+            assertEquals(HttpStatus.BAD_REQUEST,
+                    get("/api/" + resource + "?sort=nome", token, String.class).getStatusCode(), resource);
+
+            String desc = (String) get("/api/" + resource + "?size=2", token, Map.class).getBody().get("nextCursor");
+            assertEquals(PageCursor.Ordem.DESC, PageCursor.decode(desc).ordem());
+            assertEquals(HttpStatus.OK,
+                    get("/api/" + resource + "?size=2&cursor=" + desc, token, String.class).getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST,
+                    get("/api/" + resource + "?size=2&sort=asc&cursor=" + desc, token, String.class).getStatusCode());
+
+            String asc = (String) get("/api/" + resource + "?size=2&sort=asc", token, Map.class).getBody()
+                    .get("nextCursor");
+            assertEquals(HttpStatus.BAD_REQUEST,
+                    get("/api/" + resource + "?size=2&sort=desc&cursor=" + asc, token, String.class).getStatusCode());
+        }
+        // Cursor no formato antigo, sem a ordem ("data|id")
+        assertEquals(HttpStatus.BAD_REQUEST, get("/api/expenses?cursor=MjAyNC0wMS0xMHwx", token, String.class)
+                .getStatusCode());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.IntegrationTestBase;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Comandos SQL por GET das listagens servidas pelas projeções, contados pelo
+ * Statistics do Hibernate: o mesmo número com poucas e com muitas
+ * categorias, despesas e parcelas (sem um SELECT por categoria ou por
+ * despesa). Os endpoints com ETag somam a leitura da versão dos dados.
+ */
+class ListStatementsTest extends IntegrationTestBase {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long comandos(String path, String token) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ResponseEntity<String> response = get(path, token, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Cada categoria nova recebe uma despesa avulsa, uma parcelada em 3 e uma receita
+    private void registrar(String token, int from, int to) {
+        for (int c = from; c < to; c++) {
+            String category = "Categoria " + c;
+            assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", "avulsa " + c, "tipo", "AVULSO",
+                    "valorPago", 10 + c, "nomeCategoria", category, "totalParcelas", 1), String.class).getStatusCode());
+            assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", "parcelada " + c,
+                    "tipo", "PARCELADO", "valorPago", 300, "nomeCategoria", category, "totalParcelas", 3,
+                    "diaVencimento", 28), String.class).getStatusCode());
+            assertEquals(HttpStatus.OK, post("/api/revenues", token, Map.of("nome", "receita " + c, "tipo", "AVULSO",
+                    "valor", 100 + c, "nomeCategoria", category), String.class).getStatusCode());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> itens(ResponseEntity<Map> page) {
+        return (List<Map<String, Object>>) page.getBody().get("items");
+    }
+
+    /**
+     * Comandos esperados por endpoint, com os ids e o cursor atuais do usuário
+     */
+    @SuppressWarnings("rawtypes")
+    private Map<String, Long> esperados(String token) {
+        ResponseEntity<Map> expenses = get("/api/expenses?size=2", token, Map.class);
+        Object expenseId = itens(expenses).stream()
+                .filter(item -> "PARCELADO".equals(item.get("type")))
+                .findFirst()
+                .orElseThrow()
+                .get("id");
+        Object revenueId = itens(get("/api/revenues?size=1", token, Map.class)).get(0).get("id");
+        YearMonth month = YearMonth.now();
+        String mes = month.getYear() + "/" + month.getMonthValue();
+
+        Map<String, Long> expected = new LinkedHashMap<>();
+        // Versão (ETag) + lista com a categoria no mesmo SELECT
+        expected.put("/api/expenses?size=2", 2L);
+        expected.put("/api/expenses?size=2&cursor=" + expenses.getBody().get("nextCursor"), 2L);
+        expected.put("/api/expenses/month/" + mes, 2L);
+        expected.put("/api/revenues?size=2", 2L);
+        expected.put("/api/revenues/month/" + mes, 2L);
+        expected.put("/api/installments", 2L);
+        expected.put("/api/installments/pending", 2L);
+        expected.put("/api/installments/month/" + mes, 2L);
+        // Existência da despesa + versão + lista
+        expected.put("/api/installments/expense/" + expenseId, 3L);
+        // Sem ETag: só a projeção
+        expected.put("/api/expenses/" + expenseId, 1L);
+        expected.put("/api/revenues/" + revenueId, 1L);
+        expected.put("/api/expenses/export?format=ndjson", 1L);
+        expected.put("/api/revenues/export?format=ndjson", 1L);
+        return expected;
+    }
+
+    private void conferir(String token) {
+        esperados(token).forEach((path, expected) -> assertEquals(expected, comandos(path, token), path));
+    }
+
+    @Test
+    void listagensNaoCrescemComOsDados() {
+        String token = cadastrar();
+        registrar(token, 0, 2);
+        conferir(token);
+
+        registrar(token, 2, 12);
+        conferir(token);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.IntegrationTestBase;
+import com.example.service.MonthPartitionService;
+
+/**
+ * Planos (EXPLAIN) do SQL das consultas mensais de ExpensesRepository e
+ * RevenuesRepository: com o plano genérico de um PreparedStatement (poda na
+ * execução) e com o plano para os valores, a consulta de um mês lê só a
+ * partição dele, por índice ou não, e nenhuma outra (nem a default).
+ */
+class MonthQueryPlanTest extends IntegrationTestBase {
+
+    // SQL gerado pelo Hibernate para findByMonth/sumByMonth/sumExpectedByMonth, com parâmetros posicionais
+    private static final Map<String, String> CONSULTAS = Map.of(
+            "ExpensesRepository.findByMonth", "SELECT e.expens_id, e.expens_ds_name, e.expens_vl_amount, c.catego_id, "
+                    + "c.catego_ds_name FROM expenses e JOIN categories c ON c.catego_id = e.catego_id "
+                    + "WHERE e.users_id = $1 AND e.expens_dt_registered_at >= $2 AND e.expens_dt_registered_at < $3 "
+                    + "ORDER BY e.expens_dt_registered_at, e.expens_id",
+            "ExpensesRepository.sumByMonth", "SELECT COALESCE(SUM(e.expens_vl_amount), 0) FROM expenses e "
+                    + "WHERE e.users_id = $1 AND e.expens_dt_registered_at >= $2 AND e.expens_dt_registered_at < $3",
+            "RevenuesRepository.findByMonth", "SELECT r.reven_id, r.reven_ds_name, r.reven_vl_amount, c.catego_id, "
+                    + "c.catego_ds_name FROM revenues r LEFT JOIN categories c ON c.catego_id = r.catego_id "
+                    + "WHERE r.users_id = $1 AND r.reven_dt_registered_at >= $2 AND r.reven_dt_registered_at < $3 "
+                    + "ORDER BY r.reven_dt_registered_at, r.reven_id",
+            "RevenuesRepository.sumExpectedByMonth", "SELECT COALESCE(SUM(r.reven_vl_amount), 0) FROM revenues r "
+                    + "WHERE r.users_id = $1 AND r.reven_dt_registered_at >= $2 AND r.reven_dt_registered_at < $3 "
+                    + "AND r.reven_ds_type IN ('FIXO', 'AVULSO')");
+
+    // Tabela lida por um nó de varredura do plano ("Seq Scan on expenses_p2024_02 e", "Index Scan using ... on ...");
+    // o \b deixa de fora os índices das partições (Bitmap Index Scan on expenses_p2024_02_users_id_..._idx)
+    private static final Pattern VARREDURA = Pattern.compile(
+            "Scan(?: Backward)?(?: using \\S+)? on ((?:expenses|revenues)(?:_p\\d{4}_\\d{2}|_default)?)\\b");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MonthPartitionService monthPartitionService;
+
+    // Uma despesa e uma receita por dia 1 e 15 dos meses indicados, movidas para as partições deles
+    private void registrarMeses(String token, Long userId, YearMonth... months) {
+        for (YearMonth month : months) {
+            for (LocalDate date : new LocalDate[] { month.atDay(1), month.atDay(15) }) {
+                assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", date.toString(),
+                        "tipo", "AVULSO", "valorPago", 10, "nomeCategoria", "Casa", "totalParcelas", 1),
+                        String.class).getStatusCode());
+                assertEquals(HttpStatus.OK, post("/api/revenues", token, Map.of("nome", date.toString(),
+                        "tipo", "AVULSO", "valor", 10, "nomeCategoria", "Casa"), String.class).getStatusCode());
+                jdbcTemplate.update("UPDATE expenses SET expens_dt_registered_at = ? WHERE users_id = ? AND expens_ds_name = ?",
+                        date, userId, date.toString());
+                jdbcTemplate.update("UPDATE revenues SET reven_dt_registered_at = ? WHERE users_id = ? AND reven_ds_name = ?",
+                        date, userId, date.toString());
+            }
+        }
+        monthPartitionService.criarParticoes();
+        jdbcTemplate.execute("ANALYZE expenses");
+        jdbcTemplate.execute("ANALYZE revenues");
+    }
+
+    private static String plano(Statement statement, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static Set<String> relacoesLidas(String plan) {
+        Set<String> relations = new TreeSet<>();
+        Matcher matcher = VARREDURA.matcher(plan);
+        while (matcher.find()) {
+            relations.add(matcher.group(1));
+        }
+        return relations;
+    }
+
+    /**
+     * Planos genérico e específico da consulta para o mês, na mesma conexão (PREPARE é por sessão)
+     */
+    private Map<String, String> planos(String sql, Long userId, YearMonth month) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, String>>) (Connection connection) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PREPARE consulta_mes(bigint, date, date) AS " + sql);
+                try {
+                    String execute = "EXPLAIN EXECUTE consulta_mes(" + userId + ", '" + month.atDay(1) + "', '"
+                            + month.plusMonths(1).atDay(1) + "')";
+                    statement.execute("SET plan_cache_mode = force_generic_plan");
+                    String generic = plano(statement, execute);
+                    statement.execute("SET plan_cache_mode = force_custom_plan");
+                    String custom = plano(statement, execute);
+                    return Map.of("genérico", generic, "específico", custom);
+                } finally {
+                    statement.execute("RESET plan_cache_mode");
+                    statement.execute("DEALLOCATE consulta_mes");
+                }
+            }
+        });
+    }
+
+    @Test
+    void consultaDoMesLeSoAParticaoDoMes() {
+        String token = cadastrar();
+        Long userId = usuario(token);
+        YearMonth month = YearMonth.now().minusMonths(2);
+        registrarMeses(token, userId, month.minusMonths(1), month, month.plusMonths(1));
+        String suffix = String.format("_p%04d_%02d", month.getYear(), month.getMonthValue());
+
+        CONSULTAS.forEach((query, sql) -> {
+            String table = query.startsWith("Expenses") ? "expenses" : "revenues";
+            planos(sql, userId, month).forEach((kind, plan) -> assertEquals(Set.of(table + suffix),
+                    relacoesLidas(plan), query + ", plano " + kind + ":\n" + plan));
+        });
+    }
+}
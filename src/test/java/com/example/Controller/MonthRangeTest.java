@@ -0,0 +1,115 @@
+package com.example.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.IntegrationTestBase;
+
+/**
+ * Endpoints por mês com o intervalo semiaberto [dia 1, dia 1 do mês
+ * seguinte): o último dia entra, o primeiro do mês seguinte não, inclusive
+ * na virada de dezembro para janeiro e em fevereiro de ano bissexto
+ */
+class MonthRangeTest extends IntegrationTestBase {
+
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> LISTA =
+            new ParameterizedTypeReference<>() {
+            };
+
+    // Datas nas bordas dos meses; o nome de cada registro é a própria data
+    private static final List<LocalDate> DATAS = List.of(
+            LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 11, 30), LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 31),
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 1));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Map<String, Object>> listar(String path, String token) {
+        ResponseEntity<List<Map<String, Object>>> response = rest.exchange(path, HttpMethod.GET,
+                new HttpEntity<>(json(token)), LISTA);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+        return response.getBody();
+    }
+
+    private List<Object> campo(List<Map<String, Object>> rows, String field) {
+        return rows.stream().map(row -> row.get(field)).toList();
+    }
+
+    // Registra uma despesa e uma receita por data e move a data de registro para ela
+    private void registrarNasBordas(String token, Long userId) {
+        for (LocalDate date : DATAS) {
+            assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", date.toString(), "tipo", "AVULSO",
+                    "valorPago", 10, "nomeCategoria", "Casa", "totalParcelas", 1), String.class).getStatusCode());
+            assertEquals(HttpStatus.OK, post("/api/revenues", token, Map.of("nome", date.toString(), "tipo", "AVULSO",
+                    "valor", 10, "nomeCategoria", "Casa"), String.class).getStatusCode());
+            jdbcTemplate.update("UPDATE expenses SET expens_dt_registered_at = ? WHERE users_id = ? AND expens_ds_name = ?",
+                    date, userId, date.toString());
+            jdbcTemplate.update("UPDATE revenues SET reven_dt_registered_at = ? WHERE users_id = ? AND reven_ds_name = ?",
+                    date, userId, date.toString());
+        }
+    }
+
+    @Test
+    void despesasEReceitasDoMesIncluemOUltimoDia() {
+        String token = cadastrar();
+        registrarNasBordas(token, usuario(token));
+
+        Map<String, List<String>> expected = Map.of(
+                "2024/2", List.of("2024-02-01", "2024-02-29"),
+                "2024/12", List.of("2024-12-01", "2024-12-31"),
+                "2025/1", List.of("2025-01-01", "2025-01-31"),
+                "2024/6", List.of());
+        expected.forEach((month, names) -> {
+            assertEquals(names, campo(listar("/api/expenses/month/" + month, token), "name"), "despesas " + month);
+            assertEquals(names, campo(listar("/api/revenues/month/" + month, token), "name"), "receitas " + month);
+        });
+    }
+
+    @Test
+    void parcelasDoMesPelaDataDeVencimento() {
+        String token = cadastrar();
+        Long userId = usuario(token);
+        assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", "parcelada", "tipo", "PARCELADO",
+                "valorPago", 300, "nomeCategoria", "Casa", "totalParcelas", 3, "diaVencimento", 10),
+                String.class).getStatusCode());
+        // Vencimentos nas bordas de dezembro/janeiro
+        List<LocalDate> dueDates = List.of(LocalDate.of(2024, 12, 31), LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 1, 31));
+        for (int number = 1; number <= dueDates.size(); number++) {
+            assertEquals(1, jdbcTemplate.update(
+                    "UPDATE installments SET instal_dt_due_date = ? WHERE users_id = ? AND instal_nr_number = ?",
+                    dueDates.get(number - 1), userId, number));
+        }
+
+        assertEquals(List.of("2024-12-31"), campo(listar("/api/installments/month/2024/12", token), "dueDate"));
+        assertEquals(List.of("2025-01-01", "2025-01-31"),
+                campo(listar("/api/installments/month/2025/1", token), "dueDate"));
+        assertEquals(List.of(), listar("/api/installments/month/2025/2", token));
+    }
+
+    @Test
+    void mesInvalidoResponde400() {
+        String token = cadastrar();
+        for (String resource : List.of("expenses", "revenues", "installments")) {
+            for (String month : List.of("2024/0", "2024/13", "2024/-1")) {
+                String path = "/api/" + resource + "/month/" + month;
+                assertEquals(HttpStatus.BAD_REQUEST, get(path, token, String.class).getStatusCode(), path);
+            }
+        }
+        assertEquals(HttpStatus.BAD_REQUEST,
+                get("/api/dashboard/monthly-summary?year=2024&month=13", token, String.class).getStatusCode());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Aplicação inteira numa porta aleatória sobre o banco de TestDatabase, com
+ * as migrações do Flyway. Cada teste cadastra os próprios usuários
+ * (cadastrar()), então os dados de um não interferem nos outros.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public abstract class IntegrationTestBase {
+
+    protected static final ParameterizedTypeReference<Map<String, Object>> JSON =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    protected TestRestTemplate rest;
+
+    @BeforeAll
+    static void exigirBanco() {
+        assumeTrue(TestDatabase.disponivel(), "Sem TEST_DB_URL nem Docker para o Postgres dos testes");
+    }
+
+    // O cliente padrão (HttpURLConnection) não lê respostas 401 a POSTs
+    @BeforeEach
+    void clienteHttp() {
+        rest.getRestTemplate().setRequestFactory(new JdkClientHttpRequestFactory());
+    }
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", TestDatabase::url);
+        registry.add("spring.datasource.username", TestDatabase::username);
+        registry.add("spring.datasource.password", TestDatabase::password);
+    }
+
+    /**
+     * Cadastra um usuário de e-mail único; devolve o token
+     */
+    protected String cadastrar() {
+        String email = "teste-" + UUID.randomUUID() + "@exemplo.com";
+        ResponseEntity<Map<String, Object>> response = rest.exchange("/api/auth/register", HttpMethod.POST,
+                new HttpEntity<>(Map.of("email", email, "password", "senha-123"), json(null)), JSON);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return (String) response.getBody().get("token");
+    }
+
+    // Tokens são "userId.emitidoEm.assinatura" (AuthTokenService)
+    protected static Long usuario(String token) {
+        return Long.valueOf(token.substring(0, token.indexOf('.')));
+    }
+
+    protected static HttpHeaders json(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return headers;
+    }
+
+    protected ResponseEntity<Map<String, Object>> post(String path, String token, Object body) {
+        return rest.exchange(path, HttpMethod.POST, new HttpEntity<>(body, json(token)), JSON);
+    }
+
+    protected <T> ResponseEntity<T> post(String path, String token, Object body, Class<T> type) {
+        return rest.exchange(path, HttpMethod.POST, new HttpEntity<>(body, json(token)), type);
+    }
+
+    protected <T> ResponseEntity<T> get(String path, String token, Class<T> type) {
+        return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(json(token)), type);
+    }
+}
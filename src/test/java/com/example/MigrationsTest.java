@@ -0,0 +1,183 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Migrações do Flyway sobre bancos novos no servidor de TestDatabase: uma
+ * base no esquema V1 com dados passa pelas seguintes na subida da aplicação
+ * e o ddl-auto=validate aceita o resultado; criar_particao_mensal anexa de
+ * novo a partição de um mês desanexada; V5 separa o saldo do salário.
+ */
+class MigrationsTest {
+
+    private static final List<String> bancos = new ArrayList<>();
+
+    @BeforeAll
+    static void exigirBanco() {
+        assumeTrue(TestDatabase.disponivel(), "Sem TEST_DB_URL nem Docker para o Postgres dos testes");
+    }
+
+    @AfterAll
+    static void excluirBancos() throws SQLException {
+        // Também roda quando exigirBanco() ignorou a classe
+        if (bancos.isEmpty()) {
+            return;
+        }
+        try (Connection connection = TestDatabase.conectar(); Statement statement = connection.createStatement()) {
+            for (String database : bancos) {
+                statement.execute("DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+            }
+        }
+    }
+
+    private static String novoBanco() throws SQLException {
+        String database = "mg_migracoes_" + System.nanoTime();
+        try (Connection connection = TestDatabase.conectar(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        }
+        bancos.add(database);
+        return database;
+    }
+
+    // Mesmas opções de baseline de application.properties
+    private static Flyway flyway(String database, String target) {
+        return Flyway.configure()
+                .dataSource(TestDatabase.url(database), TestDatabase.username(), TestDatabase.password())
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .target(target)
+                .load();
+    }
+
+    private static SingleConnectionDataSource dataSource(String database) {
+        return new SingleConnectionDataSource(TestDatabase.url(database), TestDatabase.username(),
+                TestDatabase.password(), true);
+    }
+
+    @Test
+    void esquemaV1ComDadosMigraNaSubidaEPassaNoValidate() throws SQLException {
+        String database = novoBanco();
+        flyway(database, "1").migrate();
+        LocalDate today = LocalDate.now();
+
+        SingleConnectionDataSource dataSource = dataSource(database);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.update("INSERT INTO users (users_id, users_ds_name, users_vl_monthly_salary) VALUES (1, 'Legado', 0)");
+            jdbc.update("INSERT INTO categories (catego_id, users_id, catego_ds_name) VALUES (1, 1, 'Casa')");
+            jdbc.update("INSERT INTO expenses (expens_id, users_id, expens_ds_type, expens_ds_name, expens_vl_amount, "
+                    + "expens_st_status, expens_dt_registered_at, catego_id, expens_nr_total_installments, "
+                    + "expens_nr_current_installment) VALUES "
+                    + "(1, 1, 'AVULSO', 'antiga', 10, 'PAGO', DATE '2019-03-15', 1, 1, 1), "
+                    + "(2, 1, 'PARCELADO', 'atual', 30, 'PENDENTE', ?, 1, 3, 0)", today);
+            jdbc.update("INSERT INTO installments (instal_id, users_id, expens_id, instal_nr_number, instal_vl_amount, "
+                    + "instal_dt_due_date, instal_fl_paid) VALUES (1, 1, 2, 1, 10, ?, false)", today);
+            // Receita sem data de registro: V2 usa a de recebimento
+            jdbc.update("INSERT INTO revenues (reven_id, users_id, reven_ds_name, reven_vl_amount, reven_ds_type, "
+                    + "reven_dt_received_at, catego_id) VALUES (1, 1, 'salário', 100, 'FIXO', DATE '2020-07-05', 1)");
+        } finally {
+            dataSource.destroy();
+        }
+
+        // A subida roda V2 em diante (MigrationConfig) e o Hibernate valida o esquema
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + TestDatabase.url(database),
+                        "--spring.datasource.username=" + TestDatabase.username(),
+                        "--spring.datasource.password=" + TestDatabase.password())) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals(flyway(database, "latest").info().current().getVersion().getVersion(),
+                    jdbc.queryForObject("SELECT max(version::int)::text FROM flyway_schema_history "
+                            + "WHERE success", String.class));
+            assertEquals("expenses_p2019_03", jdbc.queryForObject(
+                    "SELECT tableoid::regclass::text FROM expenses WHERE expens_id = 1", String.class));
+            assertEquals("revenues_p2020_07", jdbc.queryForObject(
+                    "SELECT tableoid::regclass::text FROM revenues WHERE reven_id = 1", String.class));
+            assertEquals(LocalDate.of(2020, 7, 5), jdbc.queryForObject(
+                    "SELECT reven_dt_registered_at FROM revenues WHERE reven_id = 1", LocalDate.class));
+            assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM installments WHERE expens_id = 2", Integer.class));
+            assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM expenses_default", Integer.class));
+        }
+    }
+
+    @Test
+    void particaoDesanexadaEAnexadaDeNovo() throws SQLException {
+        String database = novoBanco();
+        flyway(database, "latest").migrate();
+
+        SingleConnectionDataSource dataSource = dataSource(database);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            String criar = "SELECT criar_particao_mensal('expenses', 'expens_dt_registered_at', DATE '2031-05-01')";
+            String anexada = "SELECT count(*) FROM pg_inherits "
+                    + "WHERE inhrelid = to_regclass('expenses_p2031_05') AND inhparent = 'expenses'::regclass";
+            String despesa = "INSERT INTO expenses (expens_id, users_id, expens_ds_type, expens_ds_name, "
+                    + "expens_vl_amount, expens_st_status, expens_dt_registered_at, catego_id) "
+                    + "VALUES (?, 1, 'AVULSO', 'd', 10, 'PENDENTE', ?, 1)";
+            jdbc.update("INSERT INTO categories (catego_id, users_id, catego_ds_name) VALUES (1, 1, 'Casa')");
+
+            assertTrue(jdbc.queryForObject(criar, Boolean.class));
+            assertFalse(jdbc.queryForObject(criar, Boolean.class));
+            jdbc.update(despesa, 1L, LocalDate.of(2031, 5, 10));
+
+            jdbc.execute("ALTER TABLE expenses DETACH PARTITION expenses_p2031_05");
+            assertEquals(0, jdbc.queryForObject(anexada, Integer.class));
+            // Sem a partição, o mês cai na default
+            jdbc.update(despesa, 2L, LocalDate.of(2031, 5, 31));
+            assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM expenses_default", Integer.class));
+
+            assertTrue(jdbc.queryForObject(criar, Boolean.class));
+            assertEquals(1, jdbc.queryForObject(anexada, Integer.class));
+            assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM expenses_default", Integer.class));
+            assertEquals(List.of("expenses_p2031_05", "expenses_p2031_05"), jdbc.queryForList(
+                    "SELECT tableoid::regclass::text FROM expenses ORDER BY expens_id", String.class));
+            assertFalse(jdbc.queryForObject(criar, Boolean.class));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void saldoSaiDoSalarioParaColunaPropria() throws SQLException {
+        String database = novoBanco();
+        flyway(database, "4").migrate();
+
+        SingleConnectionDataSource dataSource = dataSource(database);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            // 1: abertura de 1000,00 e uma despesa de 150,00; 2: movimentos sem abertura; 3: sem movimentos
+            jdbc.update("INSERT INTO users (users_id, users_ds_name, users_vl_monthly_salary) VALUES "
+                    + "(1, 'Com abertura', 850), (2, 'Sem abertura', -40), (3, 'Sem movimentos', 2500)");
+            jdbc.update("INSERT INTO balance_entries (balent_id, users_id, balent_vl_amount, balent_ds_source, "
+                    + "balent_dt_created_at) VALUES (1, 1, 1000, 'ABERTURA', now()), (2, 1, -150, 'DESPESA', now()), "
+                    + "(3, 2, -40, 'DESPESA', now())");
+
+            flyway(database, "5").migrate();
+            assertEquals(List.of("1:850.00:1000.00", "2:-40.00:0.00", "3:2500.00:2500.00"), jdbc.queryForList(
+                    "SELECT users_id || ':' || users_vl_balance || ':' || users_vl_monthly_salary FROM users "
+                    + "ORDER BY users_id", String.class));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+}
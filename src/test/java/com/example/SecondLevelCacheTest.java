@@ -0,0 +1,86 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.models.Category;
+import com.example.models.User;
+import com.example.repository.CategoryRepository;
+import com.example.repository.UserRepository;
+import com.example.service.CategoryService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Category e User no cache de segundo nível (regiões "categories" e "users"
+ * de application.conf): depois da primeira leitura, findById em outra
+ * sessão é servido pelo cache, sem carregar a entidade do banco.
+ */
+class SecondLevelCacheTest extends IntegrationTestBase {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private record Contagem(long hits, long misses, long loads) {
+    }
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Contagem contagem(String region, Class<?> entity) {
+        CacheRegionStatistics regionStatistics = estatisticas().getDomainDataRegionStatistics(region);
+        return new Contagem(regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                estatisticas().getEntityStatistics(entity.getName()).getLoadCount());
+    }
+
+    // Diferença entre duas contagens da mesma região
+    private static Contagem delta(Contagem before, Contagem after) {
+        return new Contagem(after.hits() - before.hits(), after.misses() - before.misses(),
+                after.loads() - before.loads());
+    }
+
+    @Test
+    void usuarioLidoDuasVezesVemDoCacheNaSegunda() {
+        Long userId = usuario(cadastrar());
+        // Começa fora do cache: a primeira leitura vai ao banco e o preenche
+        entityManagerFactory.getCache().evict(User.class, userId);
+
+        Contagem before = contagem("users", User.class);
+        assertEquals(userId, userRepository.findById(userId).orElseThrow().getId());
+        assertEquals(new Contagem(0, 1, 1), delta(before, contagem("users", User.class)));
+
+        Contagem cached = contagem("users", User.class);
+        assertEquals(userId, userRepository.findById(userId).orElseThrow().getId());
+        assertEquals(new Contagem(1, 0, 0), delta(cached, contagem("users", User.class)));
+    }
+
+    @Test
+    void categoriaLidaDuasVezesVemDoCacheNaSegunda() {
+        Long userId = usuario(cadastrar());
+        Category category = categoryService.resolver(userId, "Cache");
+        entityManagerFactory.getCache().evict(Category.class, category.getId());
+
+        Contagem before = contagem("categories", Category.class);
+        assertEquals("Cache", categoryRepository.findById(category.getId()).orElseThrow().getName());
+        assertEquals(new Contagem(0, 1, 1), delta(before, contagem("categories", Category.class)));
+
+        Contagem cached = contagem("categories", Category.class);
+        assertEquals("Cache", categoryRepository.findById(category.getId()).orElseThrow().getName());
+        assertEquals(new Contagem(1, 0, 0), delta(cached, contagem("categories", Category.class)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Postgres dos testes de integração. Com TEST_DB_URL (variável de ambiente
+ * ou -Dtest.db.url, mais TEST_DB_USERNAME/TEST_DB_PASSWORD) usa esse banco;
+ * sem ele, um container postgres:15.5 iniciado uma vez por execução. Sem os
+ * dois, os testes que dependem do banco são ignorados (disponivel()).
+ */
+public final class TestDatabase {
+
+    private static final String URL = configuracao("test.db.url", "TEST_DB_URL");
+    private static final String USERNAME = configuracao("test.db.username", "TEST_DB_USERNAME");
+    private static final String PASSWORD = configuracao("test.db.password", "TEST_DB_PASSWORD");
+
+    private static PostgreSQLContainer<?> container;
+
+    private TestDatabase() {
+    }
+
+    public static boolean disponivel() {
+        return URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    public static synchronized String url() {
+        return URL != null ? URL : container().getJdbcUrl();
+    }
+
+    public static synchronized String username() {
+        return URL != null ? USERNAME : container().getUsername();
+    }
+
+    public static synchronized String password() {
+        return URL != null ? PASSWORD : container().getPassword();
+    }
+
+    /**
+     * URL do banco informado no mesmo servidor (para testes que precisam de um banco vazio)
+     */
+    public static String url(String database) {
+        return url().replaceFirst("^(jdbc:postgresql://[^/]+/)[^?]*", "$1" + database);
+    }
+
+    public static Connection conectar(String database) throws SQLException {
+        return DriverManager.getConnection(url(database), username(), password());
+    }
+
+    public static Connection conectar() throws SQLException {
+        return DriverManager.getConnection(url(), username(), password());
+    }
+
+    /**
+     * Cria um banco vazio no mesmo servidor, de nome prefix + nanoTime; devolve o nome
+     */
+    public static String criarBanco(String prefix) throws SQLException {
+        String database = prefix + System.nanoTime();
+        try (Connection connection = conectar(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        }
+        return database;
+    }
+
+    public static void excluirBanco(String database) throws SQLException {
+        try (Connection connection = conectar(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+        }
+    }
+
+    private static PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:15.5");
+            container.start();
+        }
+        return container;
+    }
+
+    private static String configuracao(String property, String env) {
+        String value = System.getProperty(property, System.getenv(env));
+        return value != null && !value.isBlank() ? value : null;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.repository.CategoryRepository;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.service.AnalyticsService.AnalyticsRow;
+import com.example.service.AnalyticsSnapshot.Agrupamento;
+import com.example.service.AnalyticsSnapshot.Consulta;
+import com.example.service.AnalyticsSnapshot.Dimensao;
+
+class AnalyticsServiceTest {
+
+    private static final byte DESPESA = AnalyticsSnapshot.DESPESA;
+    private static final byte RECEITA = AnalyticsSnapshot.RECEITA;
+
+    private final ExpensesRepository expensesRepository = mock(ExpensesRepository.class);
+    private final AnalyticsService service = new AnalyticsService(expensesRepository, mock(RevenuesRepository.class),
+            mock(CategoryRepository.class));
+
+    private static AnalyticsRow linha(byte kind, long id, long amount, LocalDate date, Long categoryId, String type,
+            String status) {
+        return new AnalyticsRow(1L, kind, id, amount, (int) date.toEpochDay(), categoryId, type, status);
+    }
+
+    // Quatro despesas (uma sem categoria) e uma receita, gravadas nesta ordem
+    private static AnalyticsSnapshot snapshot() {
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot();
+        snapshot.gravar(linha(DESPESA, 1, 1000, LocalDate.of(2024, 1, 10), 1L, "AVULSO", "PAGO"));
+        snapshot.gravar(linha(DESPESA, 2, 2500, LocalDate.of(2024, 1, 31), 2L, "PARCELADO", "PENDENTE"));
+        snapshot.gravar(linha(DESPESA, 3, 700, LocalDate.of(2024, 3, 1), 1L, "FIXO", "PAGO"));
+        snapshot.gravar(linha(DESPESA, 4, 300, LocalDate.of(2024, 3, 15), null, "AVULSO", "PENDENTE"));
+        snapshot.gravar(linha(RECEITA, 10, 50000, LocalDate.of(2024, 2, 5), 1L, "FIXO", "RECEBIDO"));
+        return snapshot;
+    }
+
+    private static Consulta consulta(byte kind, Dimensao groupBy) {
+        return new Consulta(kind, groupBy, null, null, null, null, null);
+    }
+
+    // chave -> [total, quantidade], na ordem dos grupos
+    private static Map<Object, List<Long>> grupos(Agrupamento groups) {
+        Map<Object, List<Long>> result = new LinkedHashMap<>();
+        for (int g = 0; g < groups.keys().size(); g++) {
+            result.put(groups.keys().get(g), List.of(groups.totals()[g], groups.counts()[g]));
+        }
+        return result;
+    }
+
+    private static Map<Object, List<Long>> mapa(Object... entries) {
+        Map<Object, List<Long>> result = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 3) {
+            result.put(entries[i], List.of((Long) entries[i + 1], (Long) entries[i + 2]));
+        }
+        return result;
+    }
+
+    @Test
+    void agrupaPorCadaDimensao() {
+        AnalyticsSnapshot snapshot = snapshot();
+        assertEquals(mapa(1L, 1700L, 2L, 2L, 2500L, 1L, null, 300L, 1L),
+                grupos(snapshot.agregar(consulta(DESPESA, Dimensao.CATEGORIA))));
+        assertEquals(mapa("AVULSO", 1300L, 2L, "PARCELADO", 2500L, 1L, "FIXO", 700L, 1L),
+                grupos(snapshot.agregar(consulta(DESPESA, Dimensao.TIPO))));
+        // RECEBIDO só aparece na receita: não vira grupo de despesas
+        assertEquals(mapa("PAGO", 1700L, 2L, "PENDENTE", 2800L, 2L),
+                grupos(snapshot.agregar(consulta(DESPESA, Dimensao.STATUS))));
+        // Fevereiro não tem despesas e fica de fora
+        assertEquals(mapa(YearMonth.of(2024, 1), 3500L, 2L, YearMonth.of(2024, 3), 1000L, 2L),
+                grupos(snapshot.agregar(consulta(DESPESA, Dimensao.MES))));
+        assertEquals(mapa(YearMonth.of(2024, 2), 50000L, 1L),
+                grupos(snapshot.agregar(consulta(RECEITA, Dimensao.MES))));
+        assertEquals(3500 + 1000, snapshot.total(DESPESA));
+        assertEquals(50000, snapshot.total(RECEITA));
+    }
+
+    @Test
+    void filtrosDePeriodoTipoStatusECategoria() {
+        AnalyticsSnapshot snapshot = snapshot();
+        // Período inclusivo nas duas pontas
+        assertEquals(mapa(YearMonth.of(2024, 1), 2500L, 1L, YearMonth.of(2024, 3), 700L, 1L),
+                grupos(snapshot.agregar(new Consulta(DESPESA, Dimensao.MES, LocalDate.of(2024, 1, 31),
+                        LocalDate.of(2024, 3, 1), null, null, null))));
+        assertEquals(mapa(null, 300L, 1L), grupos(snapshot.agregar(new Consulta(DESPESA, Dimensao.CATEGORIA, null,
+                null, "AVULSO", "PENDENTE", null))));
+        assertEquals(mapa("AVULSO", 1000L, 1L, "FIXO", 700L, 1L), grupos(snapshot.agregar(new Consulta(DESPESA,
+                Dimensao.TIPO, null, null, null, null, 1L))));
+        assertEquals(mapa("PAGO", 1000L, 1L), grupos(snapshot.agregar(new Consulta(DESPESA, Dimensao.STATUS,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "AVULSO", null, 1L))));
+    }
+
+    @Test
+    void filtroForaDoDicionarioNaoTemGrupos() {
+        AnalyticsSnapshot snapshot = snapshot();
+        List<Consulta> consultas = List.of(
+                new Consulta(DESPESA, Dimensao.TIPO, null, null, "INEXISTENTE", null, null),
+                new Consulta(DESPESA, Dimensao.TIPO, null, null, null, "CANCELADO", null),
+                new Consulta(DESPESA, Dimensao.MES, null, null, null, null, 99L),
+                // No dicionário, mas só em receitas
+                new Consulta(DESPESA, Dimensao.CATEGORIA, null, null, null, "RECEBIDO", null),
+                new Consulta(DESPESA, Dimensao.MES, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1), null, null,
+                        null),
+                new Consulta(DESPESA, Dimensao.MES, LocalDate.of(2025, 1, 1), null, null, null, null));
+        for (Consulta consulta : consultas) {
+            assertEquals(Map.of(), grupos(snapshot.agregar(consulta)), consulta::toString);
+        }
+    }
+
+    @Test
+    void exclusaoMoveAUltimaLinhaParaOLugarDaRemovida() {
+        AnalyticsSnapshot snapshot = snapshot();
+        AnalyticsRow first = linha(DESPESA, 1, 1000, LocalDate.of(2024, 1, 10), 1L, "AVULSO", "PAGO");
+        AnalyticsRow revenue = linha(RECEITA, 10, 50000, LocalDate.of(2024, 2, 5), 1L, "FIXO", "RECEBIDO");
+
+        // A receita, última linha, passa para a posição 0
+        assertTrue(snapshot.substituir(first, null));
+        assertEquals(4, snapshot.size());
+        assertFalse(snapshot.substituir(first, null));
+
+        // A linha movida continua encontrada pelo id
+        AnalyticsRow received = linha(RECEITA, 10, 60000, LocalDate.of(2024, 2, 5), 1L, "FIXO", "RECEBIDO");
+        assertTrue(snapshot.substituir(revenue, received));
+        assertEquals(60000, snapshot.total(RECEITA));
+        assertEquals(2500 + 700 + 300, snapshot.total(DESPESA));
+        assertEquals(mapa(2L, 2500L, 1L, 1L, 700L, 1L, null, 300L, 1L),
+                grupos(snapshot.agregar(consulta(DESPESA, Dimensao.CATEGORIA))));
+
+        // Linha esperada diferente da atual: nada muda
+        assertFalse(snapshot.substituir(revenue, null));
+        assertEquals(60000, snapshot.total(RECEITA));
+
+        assertTrue(snapshot.substituir(received, null));
+        assertEquals(3, snapshot.size());
+        assertEquals(0, snapshot.total(RECEITA));
+        assertTrue(snapshot.substituir(null, first));
+        assertFalse(snapshot.substituir(null, first));
+        assertEquals(4, snapshot.size());
+    }
+
+    @Test
+    void correcaoAtingeOSnapshotEmCache() {
+        when(expensesRepository.findAnalyticsRows(1L)).thenReturn(List.<Object[]>of(
+                new Object[] { 10L, new BigDecimal("12.50"), LocalDate.of(2024, 1, 31), 3L, "AVULSO", "PAGO" }));
+        assertEquals(new BigDecimal("12.50"), service.totalDespesas(1L));
+
+        AnalyticsRow before = new AnalyticsRow(1L, AnalyticsSnapshot.DESPESA, 10L, 1250,
+                (int) LocalDate.of(2024, 1, 31).toEpochDay(), 3L, "AVULSO", "PAGO");
+        service.aplicar(before, null);
+        assertEquals(new BigDecimal("0.00"), service.totalDespesas(1L));
+        verify(expensesRepository, times(1)).findAnalyticsRows(1L);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class AuthTokenServiceTest {
+
+    private static MockEnvironment perfis(String... profiles) {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profiles);
+        return environment;
+    }
+
+    @Test
+    void segredoVazioForaDosPerfisDeDesenvolvimentoImpedeASubida() {
+        assertThrows(IllegalStateException.class,
+                () -> new AuthTokenService("", Duration.ofDays(30), perfis()));
+        assertThrows(IllegalStateException.class,
+                () -> new AuthTokenService(" ", Duration.ofDays(30), perfis("lowmem")));
+    }
+
+    @Test
+    void segredoVazioNosPerfisDeDesenvolvimentoUsaSegredoAleatorio() throws Exception {
+        for (String profile : new String[] { "local", "cds", "test" }) {
+            AuthTokenService service = new AuthTokenService("", Duration.ofDays(30), perfis(profile));
+            assertEquals(Optional.of(7L), service.validar(service.emitir(7L)));
+        }
+    }
+
+    @Test
+    void tokenAssinadoComOSegredoConfigurado() throws Exception {
+        AuthTokenService service = new AuthTokenService("segredo", Duration.ofDays(30), perfis("lowmem"));
+        AuthTokenService other = new AuthTokenService("outro", Duration.ofDays(30), perfis("lowmem"));
+        String token = service.emitir(42L);
+
+        assertEquals(Optional.of(42L), new AuthTokenService("segredo", Duration.ofDays(30), perfis()).validar(token));
+        assertTrue(other.validar(token).isEmpty());
+        assertTrue(service.validar("43" + token.substring(2)).isEmpty());
+        assertTrue(new AuthTokenService("segredo", Duration.ofSeconds(-1), perfis()).validar(token).isEmpty());
+    }
+}
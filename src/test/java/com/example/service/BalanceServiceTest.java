@@ -0,0 +1,157 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.IntegrationTestBase;
+import com.example.Dto.ExpensesDTO;
+import com.example.Dto.RevenueDTO;
+import com.example.models.BalanceEntry;
+import com.example.service.BalanceService.BalanceCheck;
+
+class BalanceServiceTest extends IntegrationTestBase {
+
+    private static final int THREADS = 8;
+    private static final int POR_THREAD = 60;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ExpensesService expensesService;
+
+    @Autowired
+    private RevenueService revenueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BigDecimal saldo(Long userId) {
+        BalanceCheck check = balanceService.consultar(userId);
+        assertTrue(check.consistent(), check::toString);
+        return check.balance();
+    }
+
+    private int estornos(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM balance_entries WHERE users_id = ? "
+                + "AND balent_ds_source = 'ESTORNO'", Integer.class, userId);
+    }
+
+    private Long id(String table, String prefix, Long userId, String name) {
+        return jdbcTemplate.queryForObject("SELECT " + prefix + "_id FROM " + table + " WHERE users_id = ? AND "
+                + prefix + "_ds_name = ?", Long.class, userId, name);
+    }
+
+    // Um movimento sorteado para o usuário; devolve o valor somado ao saldo
+    private BigDecimal movimento(Long userId, Random random, long id) {
+        BigDecimal value = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+        switch (random.nextInt(4)) {
+            case 0 -> {
+                balanceService.debitarDespesa(userId, id, value);
+                return value.negate();
+            }
+            case 1 -> {
+                balanceService.debitarParcela(userId, id, id, value);
+                return value.negate();
+            }
+            case 2 -> {
+                balanceService.creditarReceita(userId, id, value);
+                return value;
+            }
+            default -> {
+                // Lote: vários movimentos e um único UPDATE no saldo
+                List<BalanceEntry> entries = List.of(
+                        BalanceService.novaReceita(userId, id, value),
+                        BalanceService.novaDespesa(userId, id, value.add(BigDecimal.ONE)),
+                        BalanceService.novaReceita(userId, id, BigDecimal.TEN));
+                balanceService.lancarTodos(entries);
+                return BigDecimal.valueOf(9);
+            }
+        }
+    }
+
+    @Test
+    void debitosECreditosConcorrentesBatemComODiario() throws Exception {
+        Long[] users = { usuario(cadastrar()), usuario(cadastrar()) };
+        BigDecimal[] opening = new BigDecimal[users.length];
+        for (int u = 0; u < users.length; u++) {
+            balanceService.creditarReceita(users[u], null, new BigDecimal("1500.00"));
+            BalanceCheck check = balanceService.consultar(users[u]);
+            assertTrue(check.consistent(), check::toString);
+            opening[u] = check.balance();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal[]>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                long seed = 7919L * (t + 1);
+                results.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    BigDecimal[] applied = { BigDecimal.ZERO, BigDecimal.ZERO };
+                    start.await();
+                    for (int i = 0; i < POR_THREAD; i++) {
+                        // Os dois usuários intercalados: os UPDATEs de um não podem vazar para o outro
+                        int u = random.nextInt(users.length);
+                        applied[u] = applied[u].add(movimento(users[u], random, seed + i));
+                    }
+                    return applied;
+                }));
+            }
+            start.countDown();
+
+            BigDecimal[] expected = opening.clone();
+            for (Future<BigDecimal[]> result : results) {
+                BigDecimal[] applied = result.get();
+                for (int u = 0; u < users.length; u++) {
+                    expected[u] = expected[u].add(applied[u]);
+                }
+            }
+
+            for (int u = 0; u < users.length; u++) {
+                BalanceCheck check = balanceService.consultar(users[u]);
+                assertEquals(0, check.balance().compareTo(expected[u]), check + " esperado " + expected[u]);
+                assertTrue(check.consistent(), check::toString);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void excluirDespesaOuReceitaEstornaOLancamento() {
+        Long userId = usuario(cadastrar());
+        BigDecimal opening = saldo(userId);
+
+        expensesService.registrarGasto(userId, new ExpensesDTO("Mercado", "AVULSO", new BigDecimal("120.00"),
+                "Casa", 1, null, null, null, null, null));
+        revenueService.registrarReceitas(userId, new RevenueDTO("Freela", "AVULSO", new BigDecimal("300.00"),
+                "Trabalho", null, null, null));
+        // Parcelada não debita no registro: a exclusão não tem o que estornar
+        expensesService.registrarGasto(userId, new ExpensesDTO("Curso", "PARCELADO", new BigDecimal("90.00"),
+                "Estudo", 3, null, null, null, true, 10));
+        assertEquals(opening.add(new BigDecimal("180.00")), saldo(userId));
+
+        assertTrue(expensesService.excluirDespesa(userId, id("expenses", "expens", userId, "Mercado")));
+        assertEquals(opening.add(new BigDecimal("300.00")), saldo(userId));
+        assertTrue(revenueService.excluirReceita(userId, id("revenues", "reven", userId, "Freela")));
+        assertEquals(opening, saldo(userId));
+        assertTrue(expensesService.excluirDespesa(userId, id("expenses", "expens", userId, "Curso")));
+        assertEquals(opening, saldo(userId));
+        assertEquals(2, estornos(userId));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.IntegrationTestBase;
+import com.example.Dto.ExpensesDTO;
+import com.example.models.Category;
+import com.example.repository.ExpensesRepository;
+
+class CategoryServiceTest extends IntegrationTestBase {
+
+    private static final int THREADS = 8;
+    private static final int RODADAS = 5;
+
+    // Grafias do mesmo nome, iguais depois de trim + minúsculas
+    private static final List<UnaryOperator<String>> GRAFIAS = List.of(name -> name,
+            name -> name.toLowerCase(Locale.ROOT), name -> " " + name.toUpperCase(Locale.ROOT),
+            name -> name + "  ", name -> "\t" + name.toLowerCase(Locale.ROOT) + "\t");
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ExpensesService expensesService;
+
+    @Autowired
+    private ExpensesRepository expensesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int linhas(Long userId, String normalized) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM categories WHERE users_id = ? AND lower(catego_ds_name) = ?", Integer.class,
+                userId, normalized);
+    }
+
+    @Test
+    void resolucoesConcorrentesDoMesmoNomeCriamUmaLinha() throws Exception {
+        Long[] users = { usuario(cadastrar()), usuario(cadastrar()) };
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < RODADAS; round++) {
+                String name = "Mercado " + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Long>> results = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    Long userId = users[t % users.length];
+                    String spelling = GRAFIAS.get(t % GRAFIAS.size()).apply(name);
+                    boolean batch = t % 3 == 0;
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        // Metade pelo caminho de um nome, o resto pelo de vários (importação)
+                        return batch
+                                ? categoryService.resolverTodos(userId, List.of(spelling, "Outra " + spelling))
+                                        .get(CategoryService.normalizar(spelling)).getId()
+                                : categoryService.resolver(userId, spelling).getId();
+                    }));
+                }
+                start.countDown();
+
+                Map<Long, Set<Long>> idsByUser = Map.of(users[0], new HashSet<>(), users[1], new HashSet<>());
+                for (int t = 0; t < THREADS; t++) {
+                    idsByUser.get(users[t % users.length]).add(results.get(t).get());
+                }
+                String normalized = CategoryService.normalizar(name);
+                for (Long userId : users) {
+                    assertEquals(1, idsByUser.get(userId).size(), "ids de " + name + ": " + idsByUser);
+                    assertEquals(1, linhas(userId, normalized), name);
+                    assertEquals(idsByUser.get(userId).iterator().next(),
+                            categoryService.resolver(userId, name.toUpperCase(Locale.ROOT)).getId());
+                }
+                // Cada usuário tem a sua
+                assertNotEquals(idsByUser.get(users[0]), idsByUser.get(users[1]));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void renomearOuExcluirNaoDeixaIdAntigoNoCache() {
+        Long userId = usuario(cadastrar());
+
+        Category travel = categoryService.resolver(userId, "Viagem");
+        assertEquals(travel.getId(), categoryService.resolver(userId, " viagem ").getId());
+        assertTrue(categoryService.atualizar(userId, travel.getId(), "Férias").isPresent());
+        // O nome antigo volta a ser uma categoria nova; o novo aponta para a renomeada
+        Category recreated = categoryService.resolver(userId, "VIAGEM");
+        assertNotEquals(travel.getId(), recreated.getId());
+        assertEquals(travel.getId(), categoryService.resolver(userId, "férias").getId());
+        assertEquals(recreated.getId(),
+                categoryService.resolverTodos(userId, List.of("viagem")).get("viagem").getId());
+
+        Category leisure = categoryService.resolverTodos(userId, List.of("Lazer")).get("lazer");
+        assertEquals(leisure.getId(), categoryService.resolver(userId, "lazer").getId());
+        assertTrue(categoryService.excluir(userId, leisure.getId()));
+        Category again = categoryService.resolver(userId, "Lazer");
+        assertNotEquals(leisure.getId(), again.getId());
+        assertEquals(again.getId(), categoryService.resolverTodos(userId, List.of(" LAZER")).get("lazer").getId());
+        assertEquals(1, linhas(userId, "lazer"));
+        assertEquals(1, linhas(userId, "viagem"));
+    }
+
+    @Test
+    void atualizarDespesaComOutroNomeTrocaACategoria() {
+        Long userId = usuario(cadastrar());
+        expensesService.registrarGasto(userId, new ExpensesDTO("Padaria", "AVULSO", new BigDecimal("15.00"),
+                "Mercado", 1, null, null, null, null, null));
+        Long id = jdbcTemplate.queryForObject("SELECT expens_id FROM expenses WHERE users_id = ?", Long.class, userId);
+        Category market = categoryService.resolver(userId, "mercado");
+
+        // Sem nome de categoria a despesa fica na que já tinha
+        expensesService.atualizarDespesa(userId, id, new ExpensesDTO("Padaria", "AVULSO", new BigDecimal("18.00"),
+                null, 1, null, null, null, null, null));
+        assertEquals(market.getId(), expensesRepository.findViewById(id, userId).orElseThrow().category().id());
+
+        expensesService.atualizarDespesa(userId, id, new ExpensesDTO("Padaria", "AVULSO", new BigDecimal("18.00"),
+                " ALIMENTAÇÃO ", 1, null, null, null, null, null));
+        Category food = categoryService.resolver(userId, "alimentação");
+        assertNotEquals(market.getId(), food.getId());
+        assertEquals(food.getId(), expensesRepository.findViewById(id, userId).orElseThrow().category().id());
+        assertEquals(1, linhas(userId, "alimentação"));
+    }
+}
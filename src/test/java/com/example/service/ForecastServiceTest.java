@@ -0,0 +1,197 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.Dto.ForecastView;
+import com.example.models.Expenses;
+import com.example.models.Revenue;
+import com.example.models.User;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.RevenuesRepository;
+import com.example.repository.UserRepository;
+import com.example.service.ForecastService.ForecastEntry;
+
+class ForecastServiceTest {
+
+    private static final YearMonth INICIO = YearMonth.of(2024, 1);
+
+    private static long[][] copiar(CashFlowProjection projection, int count) {
+        long[] inflows = new long[count];
+        long[] outflows = new long[count];
+        projection.copiar(count, inflows, outflows);
+        return new long[][] { inflows, outflows };
+    }
+
+    private static Expenses despesa(String type, String status, int dueDay, LocalDate registeredAt, String installment,
+            Integer paid, Integer total, LocalDate lastPayment) {
+        Expenses expense = new Expenses();
+        expense.setUserId(1L);
+        expense.setType(type);
+        expense.setStatus(status);
+        expense.setDueDay(dueDay);
+        expense.setRegisteredAt(registeredAt);
+        expense.setInstallmentAmount(new BigDecimal(installment));
+        expense.setCurrentInstallment(paid);
+        expense.setTotalInstallments(total);
+        expense.setLastPaymentDate(lastPayment);
+        return expense;
+    }
+
+    private static Revenue receitaFixa(String amount, LocalDate registeredAt, LocalDate receivedDate) {
+        Revenue revenue = new Revenue();
+        revenue.setUserId(1L);
+        revenue.setType("FIXO");
+        revenue.setAmount(new BigDecimal(amount));
+        revenue.setRegisteredAt(registeredAt);
+        revenue.setReceivedDate(receivedDate);
+        return revenue;
+    }
+
+    @Test
+    void projecaoSomaItensSobrepostosNosMesesDeCadaUm() {
+        CashFlowProjection projection = new CashFlowProjection(INICIO, 12);
+        // Março a junho: termina dentro da janela
+        projection.aplicar(new ForecastEntry(1L, YearMonth.of(2024, 3), 4, 0, 100), 1);
+        // Atrasada desde novembro: começa em janeiro com os mesmos 3 meses
+        projection.aplicar(new ForecastEntry(1L, YearMonth.of(2023, 11), 3, 0, 50), 1);
+        projection.aplicar(new ForecastEntry(1L, YearMonth.of(2024, 2), ForecastEntry.UNBOUNDED, 1000, 0), 1);
+        // Depois da janela: não entra
+        projection.aplicar(new ForecastEntry(1L, YearMonth.of(2025, 1), 2, 0, 999), 1);
+
+        long[][] totals = copiar(projection, 12);
+        assertArrayEquals(new long[] { 0, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000 },
+                totals[0]);
+        assertArrayEquals(new long[] { 50, 50, 150, 100, 100, 100, 0, 0, 0, 0, 0, 0 }, totals[1]);
+        assertArrayEquals(new long[] { 50, 50, 150 }, copiar(projection, 3)[1]);
+    }
+
+    @Test
+    void alteracaoRefazOsMesesAPartirDoPrimeiroAfetado() {
+        CashFlowProjection projection = new CashFlowProjection(INICIO, 12);
+        ForecastEntry parcelada = new ForecastEntry(1L, YearMonth.of(2024, 3), 4, 0, 100);
+        projection.aplicar(parcelada, 1);
+        projection.aplicar(new ForecastEntry(1L, INICIO, 12, 0, 10), 1);
+        copiar(projection, 12);
+
+        // Troca a parcelada (março a junho) pela mesma com uma parcela paga (abril a junho) e
+        // inclui uma de outubro e novembro: só os meses de março em diante mudam
+        projection.aplicar(parcelada, -1);
+        projection.aplicar(new ForecastEntry(1L, YearMonth.of(2024, 4), 3, 0, 100), 1);
+        projection.aplicar(new ForecastEntry(1L, YearMonth.of(2024, 10), 2, 0, 7), 1);
+
+        assertArrayEquals(new long[] { 10, 10, 10, 110, 110, 110, 10, 10, 10, 17, 17, 10 }, copiar(projection, 12)[1]);
+        // Sem alteração, a leitura seguinte devolve os mesmos totais
+        assertArrayEquals(new long[] { 10, 10, 10, 110, 110, 110, 10, 10, 10, 17, 17, 10 }, copiar(projection, 12)[1]);
+
+        projection.aplicar(new ForecastEntry(1L, INICIO, 12, 0, 10), -1);
+        assertArrayEquals(new long[] { 0, 0, 0, 100, 100, 100, 0, 0, 0, 7, 7, 0 }, copiar(projection, 12)[1]);
+    }
+
+    @Test
+    void vencimentoNoDia31EmFevereiroCaiNoFimDoMes() {
+        // Fevereiro de 2024 tem 29 dias: registrada até o dia 29, a primeira parcela vence no próprio mês
+        ForecastEntry entry = ForecastEntry.of(despesa("PARCELADO", "PENDENTE", 31, LocalDate.of(2024, 2, 29),
+                "150.00", 0, 3, null));
+        assertEquals(new ForecastEntry(1L, YearMonth.of(2024, 2), 3, 0, 15000), entry);
+
+        entry = ForecastEntry.of(despesa("FIXO", "PENDENTE", 31, LocalDate.of(2023, 2, 28), "80.10", 0, 12, null));
+        assertEquals(YearMonth.of(2023, 2), entry.from());
+        assertEquals(8010, entry.outflow());
+
+        // Vencimento já passou no mês do registro: começa no seguinte
+        entry = ForecastEntry.of(despesa("PARCELADO", "PENDENTE", 15, LocalDate.of(2024, 2, 20), "10", 0, 2, null));
+        assertEquals(YearMonth.of(2024, 3), entry.from());
+    }
+
+    @Test
+    void despesaPagaOuComPagamentoComecaNoMesSeguinte() {
+        ForecastEntry paid = ForecastEntry.of(despesa("PARCELADO", "PAGO", 31, LocalDate.of(2024, 2, 10), "10", 0, 3,
+                null));
+        assertEquals(YearMonth.of(2024, 3), paid.from());
+
+        // Duas de cinco pagas, a última em abril: faltam três a partir de maio
+        ForecastEntry entry = ForecastEntry.of(despesa("PARCELADO", "PENDENTE", 10, LocalDate.of(2024, 1, 5), "25.50",
+                2, 5, LocalDate.of(2024, 4, 10)));
+        assertEquals(new ForecastEntry(1L, YearMonth.of(2024, 5), 3, 0, 2550), entry);
+    }
+
+    @Test
+    void despesaSemCobrancasRestantesNaoEntra() {
+        assertNull(ForecastEntry.of(despesa("PARCELADO", "PAGO", 10, LocalDate.of(2024, 1, 5), "10", 3, 3,
+                LocalDate.of(2024, 3, 10))));
+        assertNull(ForecastEntry.of(despesa("PARCELADO", "PAGO", 10, LocalDate.of(2024, 1, 5), "10", 4, 3,
+                LocalDate.of(2024, 3, 10))));
+        // Sem total de parcelas conta como uma
+        assertNull(ForecastEntry.of(despesa("FIXO", "PAGO", 10, LocalDate.of(2024, 1, 5), "10", 1, null,
+                LocalDate.of(2024, 1, 10))));
+        assertNull(ForecastEntry.of(despesa("AVULSO", "PENDENTE", 10, LocalDate.of(2024, 1, 5), "10", 0, 1, null)));
+
+        Expenses completed = despesa("PARCELADO", "PENDENTE", 10, LocalDate.of(2024, 1, 5), "10", 1, 3,
+                LocalDate.of(2024, 1, 10));
+        completed.setCompleted(true);
+        assertNull(ForecastEntry.of(completed));
+    }
+
+    @Test
+    void receitaFixaComecaNoRegistroOuDepoisDoUltimoRecebimento() {
+        assertEquals(new ForecastEntry(1L, YearMonth.of(2024, 3), ForecastEntry.UNBOUNDED, 320050, 0),
+                ForecastEntry.of(receitaFixa("3200.50", LocalDate.of(2024, 3, 5), null)));
+        assertEquals(YearMonth.of(2024, 7),
+                ForecastEntry.of(receitaFixa("3200.50", LocalDate.of(2024, 3, 5), LocalDate.of(2024, 6, 5))).from());
+
+        Revenue avulsa = receitaFixa("10", LocalDate.of(2024, 3, 5), null);
+        avulsa.setType("AVULSO");
+        assertNull(ForecastEntry.of(avulsa));
+    }
+
+    @Test
+    void saldoParteDoSaldoAtualNaoDoSalario() {
+        ExpensesRepository expensesRepository = mock(ExpensesRepository.class);
+        RevenuesRepository revenuesRepository = mock(RevenuesRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        ForecastService service = new ForecastService(expensesRepository, revenuesRepository, userRepository, 12);
+
+        YearMonth current = YearMonth.now();
+        User user = new User();
+        user.setId(1L);
+        user.setMonthlySalary(new BigDecimal("4000.00"));
+        user.setBalance(new BigDecimal("1000.00"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        // Duas parcelas de 300,00 restantes: a deste mês (já registrada antes do vencimento) e a do seguinte
+        when(expensesRepository.findRecurringForForecast(eq(1L), anyList())).thenReturn(List.of(
+                despesa("PARCELADO", "PENDENTE", 28, current.atDay(1), "300.00", 1, 3, null)));
+        when(revenuesRepository.findByUserIdAndActiveTrueAndType(1L, "FIXO")).thenReturn(List.of(
+                receitaFixa("250.00", current.minusMonths(2).atDay(5), current.minusMonths(1).atDay(5))));
+
+        ForecastView view = service.projetar(1L, 3);
+        assertEquals(new BigDecimal("1000.00"), view.startingBalance());
+        assertEquals(List.of(
+                new ForecastView.Month(current, new BigDecimal("250.00"), new BigDecimal("300.00"),
+                        new BigDecimal("-50.00"), new BigDecimal("950.00")),
+                new ForecastView.Month(current.plusMonths(1), new BigDecimal("250.00"), new BigDecimal("300.00"),
+                        new BigDecimal("-50.00"), new BigDecimal("900.00")),
+                new ForecastView.Month(current.plusMonths(2), new BigDecimal("250.00"), new BigDecimal("0.00"),
+                        new BigDecimal("250.00"), new BigDecimal("1150.00"))),
+                view.months());
+
+        // Sem saldo o cálculo parte de zero
+        user.setBalance(null);
+        ForecastView withoutBalance = service.projetar(1L, 1);
+        assertEquals(BigDecimal.ZERO, withoutBalance.startingBalance());
+        assertEquals(new BigDecimal("-50.00"), withoutBalance.months().get(0).balance());
+    }
+}
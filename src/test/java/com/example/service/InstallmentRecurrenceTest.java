@@ -0,0 +1,160 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.service.InstallmentRecurrence.Occurrence;
+
+/**
+ * Forma fechada de InstallmentRecurrence contra o cronograma montado mês a
+ * mês, com inícios sorteados que caem sobretudo nos dias 28 a 31 e em anos
+ * bissextos e não bissextos (incluindo 2000 e 2100).
+ */
+class InstallmentRecurrenceTest {
+
+    private static final int CASOS = 2000;
+    private static final int[] ANOS = { 1999, 2000, 2023, 2024, 2025, 2028, 2099, 2100, 2101 };
+
+    private final Random random = new Random(20240229L);
+
+    // Parcela n no mês start + (n - 1), no dia do início ou no último dia do mês, o que vier antes
+    private static List<Occurrence> cronograma(LocalDate start, int total) {
+        List<Occurrence> schedule = new ArrayList<>();
+        YearMonth month = YearMonth.from(start);
+        for (int number = 1; number <= total; number++) {
+            int day = Math.min(start.getDayOfMonth(), month.lengthOfMonth());
+            schedule.add(new Occurrence(number, month.atDay(day)));
+            month = month.plusMonths(1);
+        }
+        return schedule;
+    }
+
+    private LocalDate inicio() {
+        int year = ANOS[random.nextInt(ANOS.length)];
+        int month = random.nextInt(12) + 1;
+        int length = YearMonth.of(year, month).lengthOfMonth();
+        int day = random.nextInt(4) == 0 ? random.nextInt(length) + 1 : Math.max(28, length - random.nextInt(4));
+        return LocalDate.of(year, month, Math.min(day, length));
+    }
+
+    private LocalDate dataProxima(LocalDate start, int total) {
+        return start.plusDays(random.nextInt(31 * (total + 2)) - 40L);
+    }
+
+    @Test
+    void vencimentoIgualAoCronogramaMesAMes() {
+        for (int i = 0; i < CASOS; i++) {
+            LocalDate start = inicio();
+            int total = random.nextInt(60) + 1;
+            InstallmentRecurrence recurrence = new InstallmentRecurrence(start, total);
+            List<Occurrence> schedule = cronograma(start, total);
+
+            for (Occurrence expected : schedule) {
+                assertEquals(expected.dueDate(), recurrence.dueDate(expected.number()), () -> start + " x" + total);
+            }
+            assertEquals(schedule, recurrence.all().toList(), () -> start + " x" + total);
+        }
+    }
+
+    @Test
+    void parcelaDoMesIgualAoCronograma() {
+        for (int i = 0; i < CASOS; i++) {
+            LocalDate start = inicio();
+            int total = random.nextInt(60) + 1;
+            InstallmentRecurrence recurrence = new InstallmentRecurrence(start, total);
+            List<Occurrence> schedule = cronograma(start, total);
+
+            YearMonth first = YearMonth.from(start).minusMonths(2);
+            for (int k = 0; k < total + 4; k++) {
+                YearMonth month = first.plusMonths(k);
+                Optional<Occurrence> expected = schedule.stream()
+                        .filter(o -> YearMonth.from(o.dueDate()).equals(month))
+                        .findFirst();
+                assertEquals(expected, recurrence.in(month), () -> start + " x" + total + " em " + month);
+            }
+        }
+    }
+
+    @Test
+    void intervaloSemiAbertoIgualAoCronograma() {
+        for (int i = 0; i < CASOS; i++) {
+            LocalDate start = inicio();
+            int total = random.nextInt(36) + 1;
+            InstallmentRecurrence recurrence = new InstallmentRecurrence(start, total);
+            List<Occurrence> schedule = cronograma(start, total);
+
+            LocalDate from = dataProxima(start, total);
+            LocalDate to = from.plusDays(random.nextInt(400));
+            List<Occurrence> expected = schedule.stream()
+                    .filter(o -> !o.dueDate().isBefore(from) && o.dueDate().isBefore(to))
+                    .toList();
+            assertEquals(expected, recurrence.between(from, to).toList(),
+                    () -> start + " x" + total + " em [" + from + ", " + to + ")");
+        }
+    }
+
+    @Test
+    void proximaParcelaIgualAoCronograma() {
+        for (int i = 0; i < CASOS; i++) {
+            LocalDate start = inicio();
+            int total = random.nextInt(36) + 1;
+            InstallmentRecurrence recurrence = new InstallmentRecurrence(start, total);
+            List<Occurrence> schedule = cronograma(start, total);
+
+            int paid = random.nextInt(total + 2);
+            LocalDate date = dataProxima(start, total);
+            Optional<Occurrence> expected = schedule.stream()
+                    .filter(o -> o.number() > paid && !o.dueDate().isBefore(date))
+                    .findFirst();
+            assertEquals(expected, recurrence.nextDue(paid, date),
+                    () -> start + " x" + total + " pagas " + paid + " em " + date);
+        }
+    }
+
+    @Test
+    void fimDeMesLimitadoAoTamanhoDoMes() {
+        InstallmentRecurrence bissexto = new InstallmentRecurrence(LocalDate.of(2024, 1, 31), 4);
+        assertEquals(LocalDate.of(2024, 2, 29), bissexto.dueDate(2));
+        assertEquals(LocalDate.of(2024, 3, 31), bissexto.dueDate(3));
+        assertEquals(LocalDate.of(2024, 4, 30), bissexto.dueDate(4));
+
+        InstallmentRecurrence comum = new InstallmentRecurrence(LocalDate.of(2023, 1, 29), 2);
+        assertEquals(LocalDate.of(2023, 2, 28), comum.dueDate(2));
+
+        // 2100 não é bissexto; 2000 é
+        assertEquals(LocalDate.of(2100, 2, 28), new InstallmentRecurrence(LocalDate.of(2100, 1, 30), 2).dueDate(2));
+        assertEquals(LocalDate.of(2000, 2, 29), new InstallmentRecurrence(LocalDate.of(2000, 1, 30), 2).dueDate(2));
+
+        // O dia limitado não passa para as parcelas seguintes
+        InstallmentRecurrence fevereiro = new InstallmentRecurrence(LocalDate.of(2024, 2, 29), 13);
+        assertEquals(LocalDate.of(2024, 3, 29), fevereiro.dueDate(2));
+        assertEquals(LocalDate.of(2025, 2, 28), fevereiro.dueDate(13));
+    }
+
+    @Test
+    void parcelaForaDoCronograma() {
+        InstallmentRecurrence recurrence = new InstallmentRecurrence(LocalDate.of(2024, 1, 31), 3);
+        assertThrows(IllegalArgumentException.class, () -> recurrence.dueDate(0));
+        assertThrows(IllegalArgumentException.class, () -> recurrence.dueDate(4));
+        assertEquals(Optional.empty(), recurrence.in(YearMonth.of(2023, 12)));
+        assertEquals(Optional.empty(), recurrence.in(YearMonth.of(2024, 4)));
+        assertEquals(Optional.empty(), recurrence.nextDue(3, LocalDate.of(2024, 1, 1)));
+
+        Iterator<Occurrence> empty = recurrence.iterator(LocalDate.of(2024, 4, 1), LocalDate.of(2025, 1, 1));
+        assertFalse(empty.hasNext());
+        assertThrows(NoSuchElementException.class, empty::next);
+        assertEquals(List.of(), new InstallmentRecurrence(LocalDate.of(2024, 1, 31), 0).all().toList());
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.Main;
+import com.example.TestDatabase;
+import com.example.Dto.ExpensesDTO;
+import com.example.repository.ExpensesRepository;
+import com.example.repository.InstallmentRepository;
+import com.example.repository.JobRunRepository;
+import com.example.repository.JobWatermarkRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Job diário de pagamentos num banco só dele: os UPDATEs em lote cobrem
+ * todas as despesas do banco, então os dias processados aqui não podem
+ * encontrar as de outras classes de teste. Cada teste desativa as despesas
+ * dos anteriores e posiciona a marca d'água antes dos dias que processa.
+ * O modo em blocos roda em instâncias criadas aqui (emBlocos), que fazem o
+ * papel de réplicas da aplicação disputando o mesmo dia.
+ */
+class InstallmentSchedulerServiceTest {
+
+    private static String database;
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void subir() throws SQLException {
+        assumeTrue(TestDatabase.disponivel(), "Sem TEST_DB_URL nem Docker para o Postgres dos testes");
+        database = TestDatabase.criarBanco("mg_pagamentos_");
+        context = new SpringApplicationBuilder(Main.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + TestDatabase.url(database),
+                        "--spring.datasource.username=" + TestDatabase.username(),
+                        "--spring.datasource.password=" + TestDatabase.password());
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void descer() throws SQLException {
+        if (context != null) {
+            context.close();
+        }
+        if (database != null) {
+            TestDatabase.excluirBanco(database);
+        }
+    }
+
+    @BeforeEach
+    void semDespesasDeOutrosTestes() {
+        jdbc.update("UPDATE expenses SET expens_fl_active = false WHERE expens_fl_active");
+    }
+
+    private record Execucao(LocalDate day, String status, int reset, int paid, int completed) {
+    }
+
+    private record Despesa(int currentInstallment, String status, LocalDate lastPayment, Boolean completed,
+            Boolean active, int paidInstallments, int charges) {
+    }
+
+    private static Long usuario() {
+        return context.getBean(UsuarioService.class)
+                .registrar("Teste", "job-" + UUID.randomUUID() + "@exemplo.com", "senha-123")
+                .orElseThrow()
+                .getId();
+    }
+
+    // PARCELADO de total parcelas de 10,00 vencendo em dueDay; devolve o id
+    private static Long parcelada(Long userId, String name, int total, int dueDay) {
+        context.getBean(ExpensesService.class).registrarGasto(userId, new ExpensesDTO(name, "PARCELADO",
+                BigDecimal.TEN.multiply(BigDecimal.valueOf(total)), "Contas", total, null, null, null, true, dueDay));
+        return jdbc.queryForObject("SELECT expens_id FROM expenses WHERE users_id = ? AND expens_ds_name = ?",
+                Long.class, userId, name);
+    }
+
+    private static void marcaEm(LocalDate lastProcessed) {
+        jdbc.update("UPDATE job_watermarks SET jobwat_dt_last_processed = ? WHERE jobwat_ds_name = ?",
+                lastProcessed, InstallmentSchedulerService.PAYMENTS_JOB);
+    }
+
+    private static LocalDate marca() {
+        return jdbc.queryForObject("SELECT jobwat_dt_last_processed FROM job_watermarks WHERE jobwat_ds_name = ?",
+                LocalDate.class, InstallmentSchedulerService.PAYMENTS_JOB);
+    }
+
+    // Execuções registradas para os dias de first a last, na ordem em que rodaram
+    private static List<Execucao> execucoes(LocalDate first, LocalDate last) {
+        return jdbc.query("SELECT jobrun_dt_processed_day, jobrun_st_status, jobrun_nr_rows_reset, "
+                + "jobrun_nr_rows_paid, jobrun_nr_rows_completed FROM job_runs "
+                + "WHERE jobrun_ds_name = ? AND jobrun_dt_processed_day BETWEEN ? AND ? "
+                + "ORDER BY jobrun_dt_started_at, jobrun_id",
+                (rs, i) -> new Execucao(rs.getObject(1, LocalDate.class), rs.getString(2), rs.getInt(3),
+                        rs.getInt(4), rs.getInt(5)),
+                InstallmentSchedulerService.PAYMENTS_JOB, first, last);
+    }
+
+    private static Despesa despesa(Long id) {
+        return jdbc.queryForObject("SELECT e.expens_nr_current_installment, e.expens_st_status, "
+                + "e.expens_dt_last_payment, e.expens_fl_completed, e.expens_fl_active, "
+                + "(SELECT count(*) FROM installments i WHERE i.expens_id = e.expens_id AND i.instal_fl_paid), "
+                + "(SELECT count(*) FROM balance_entries b WHERE b.expens_id = e.expens_id "
+                + "AND b.balent_ds_source = 'PARCELA') FROM expenses e WHERE e.expens_id = ?",
+                (rs, i) -> new Despesa(rs.getInt(1), rs.getString(2), rs.getObject(3, LocalDate.class),
+                        (Boolean) rs.getObject(4), (Boolean) rs.getObject(5), rs.getInt(6), rs.getInt(7)),
+                id);
+    }
+
+    private static BigDecimal saldo(Long userId) {
+        BalanceService.BalanceCheck check = context.getBean(BalanceService.class).consultar(userId);
+        assertTrue(check.consistent(), check::toString);
+        return check.balance();
+    }
+
+    private static InstallmentSchedulerService job() {
+        return context.getBean(InstallmentSchedulerService.class);
+    }
+
+    // GET /actuator/prometheus desta aplicação
+    private static String metricas() throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/actuator/prometheus");
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return response.body();
+    }
+
+    // Valor da série name com o rótulo label (ex.: action="paid"); 0 se ainda não existe
+    private static double serie(String scrape, String name, String label) {
+        return scrape.lines()
+                .filter(line -> line.startsWith(name + "{") && line.contains(label))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .findFirst()
+                .orElse(0);
+    }
+
+    // Outra instância do job em app.payments.mode=chunked, sobre os mesmos beans e banco
+    private static InstallmentSchedulerService emBlocos(int chunkSize, int retries) {
+        return new InstallmentSchedulerService(context.getBean(ExpensesRepository.class),
+                context.getBean(InstallmentRepository.class), context.getBean(InstallmentService.class),
+                context.getBean(SummaryService.class), context.getBean(BalanceService.class),
+                context.getBean(ForecastService.class), context.getBean(AnalyticsService.class),
+                context.getBean(JobWatermarkRepository.class), context.getBean(JobRunRepository.class),
+                context.getBean(PlatformTransactionManager.class), context.getBean(MeterRegistry.class),
+                "chunked", chunkSize, 2, retries);
+    }
+
+    @Test
+    void diasPerdidosSaoProcessadosUmaVezCadaEmOrdem() {
+        Long userId = usuario();
+        Long tenth = parcelada(userId, "Dia 10", 12, 10);
+        Long twelfth = parcelada(userId, "Dia 12", 12, 12);
+        BigDecimal opening = saldo(userId);
+        LocalDate first = LocalDate.of(2025, 3, 9);
+        LocalDate last = LocalDate.of(2025, 3, 13);
+
+        marcaEm(first.minusDays(1));
+        job().processarAte(last);
+
+        assertEquals(last, marca());
+        assertEquals(List.of(
+                new Execucao(first, "SUCESSO", 0, 0, 0),
+                new Execucao(first.plusDays(1), "SUCESSO", 0, 1, 0),
+                new Execucao(first.plusDays(2), "SUCESSO", 0, 0, 0),
+                new Execucao(first.plusDays(3), "SUCESSO", 0, 1, 0),
+                new Execucao(last, "SUCESSO", 0, 0, 0)),
+                execucoes(first, last));
+        Map<String, Object> run = jdbc.queryForMap(
+                "SELECT jobrun_dt_started_at, jobrun_nr_duration_ms, jobrun_ds_error "
+                + "FROM job_runs WHERE jobrun_ds_name = ? AND jobrun_dt_processed_day = ?",
+                InstallmentSchedulerService.PAYMENTS_JOB, last);
+        assertNotNull(run.get("jobrun_dt_started_at"));
+        assertTrue(((Number) run.get("jobrun_nr_duration_ms")).longValue() >= 0);
+        assertNull(run.get("jobrun_ds_error"));
+
+        Despesa expected10 = new Despesa(1, "PAGO", first.plusDays(1), null, true, 1, 1);
+        Despesa expected12 = new Despesa(1, "PAGO", first.plusDays(3), null, true, 1, 1);
+        assertEquals(expected10, despesa(tenth));
+        assertEquals(expected12, despesa(twelfth));
+        assertEquals(opening.subtract(new BigDecimal("20.00")), saldo(userId));
+
+        // Marca d'água já no dia: nada a processar
+        job().processarAte(last);
+        assertEquals(5, execucoes(first, last).size());
+
+        // Os mesmos dias de novo (marca d'água recuada): cada dia roda, mas nada é cobrado outra vez
+        marcaEm(first);
+        job().processarAte(last);
+        List<Execucao> again = execucoes(first, last).subList(5, 9);
+        assertEquals(List.of(
+                new Execucao(first.plusDays(1), "SUCESSO", 0, 0, 0),
+                new Execucao(first.plusDays(2), "SUCESSO", 0, 0, 0),
+                new Execucao(first.plusDays(3), "SUCESSO", 0, 0, 0),
+                new Execucao(last, "SUCESSO", 0, 0, 0)),
+                again);
+        assertEquals(expected10, despesa(tenth));
+        assertEquals(expected12, despesa(twelfth));
+        assertEquals(opening.subtract(new BigDecimal("20.00")), saldo(userId));
+    }
+
+    @Test
+    void ultimoDiaDoMesCobraOsDiasQueOMesNaoTemEODia1VoltaAPendente() {
+        Long userId = usuario();
+        List<Long> ids = List.of(parcelada(userId, "Dia 28", 12, 28), parcelada(userId, "Dia 29", 12, 29),
+                parcelada(userId, "Dia 30", 12, 30), parcelada(userId, "Dia 31", 12, 31));
+        BigDecimal opening = saldo(userId);
+        LocalDate february28 = LocalDate.of(2025, 2, 28);
+        LocalDate march1 = LocalDate.of(2025, 3, 1);
+
+        marcaEm(LocalDate.of(2025, 2, 26));
+        job().processarAte(march1);
+
+        assertEquals(List.of(
+                new Execucao(february28.minusDays(1), "SUCESSO", 0, 0, 0),
+                new Execucao(february28, "SUCESSO", 0, 4, 0),
+                new Execucao(march1, "SUCESSO", 4, 0, 0)),
+                execucoes(february28.minusDays(1), march1));
+        // Cobradas em 28/02 e pendentes de novo no dia 1
+        Despesa expected = new Despesa(1, "PENDENTE", february28, null, true, 1, 1);
+        for (Long id : ids) {
+            assertEquals(expected, despesa(id));
+        }
+        assertEquals(opening.subtract(new BigDecimal("40.00")), saldo(userId));
+
+        // Repetir 28/02 e o dia 1 não cobra nem volta nada outra vez
+        marcaEm(february28.minusDays(1));
+        job().processarAte(march1);
+        assertEquals(List.of(
+                new Execucao(february28, "SUCESSO", 0, 0, 0),
+                new Execucao(march1, "SUCESSO", 0, 0, 0)),
+                execucoes(february28, march1).subList(2, 4));
+        for (Long id : ids) {
+            assertEquals(expected, despesa(id));
+        }
+        assertEquals(opening.subtract(new BigDecimal("40.00")), saldo(userId));
+    }
+
+    @Test
+    void ultimaParcelaConcluiADespesa() {
+        Long userId = usuario();
+        Long shorter = parcelada(userId, "Duas parcelas", 2, 5);
+        Long longer = parcelada(userId, "Três parcelas", 3, 5);
+        LocalDate first = LocalDate.of(2025, 4, 5);
+        LocalDate second = LocalDate.of(2025, 5, 5);
+
+        marcaEm(first.minusDays(1));
+        job().processarAte(second);
+
+        List<Execucao> runs = execucoes(first, second);
+        assertEquals(31, runs.size());
+        assertEquals(new Execucao(first, "SUCESSO", 0, 2, 0), runs.get(0));
+        assertEquals(new Execucao(LocalDate.of(2025, 5, 1), "SUCESSO", 2, 0, 0), runs.get(26));
+        assertEquals(new Execucao(second, "SUCESSO", 0, 2, 1), runs.get(30));
+        assertEquals(new Despesa(2, "PAGO", second, true, false, 2, 2), despesa(shorter));
+        assertEquals(new Despesa(2, "PAGO", second, null, true, 2, 2), despesa(longer));
+    }
+
+    @Test
+    void duasInstanciasEmBlocosCobramCadaDespesaUmaVezPorDia() throws Exception {
+        Long userId = usuario();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(parcelada(userId, "Bloco " + i, 12, 15));
+        }
+        BigDecimal opening = saldo(userId);
+        LocalDate first = LocalDate.of(2025, 6, 15);
+        LocalDate second = LocalDate.of(2025, 7, 15);
+        List<InstallmentSchedulerService> instances = List.of(emBlocos(2, 0), emBlocos(3, 0));
+
+        marcaEm(first.minusDays(1));
+        ExecutorService executor = Executors.newFixedThreadPool(instances.size());
+        try {
+            // Primeiro só o dia 15, depois os 30 dias seguintes (com o reset do dia 1), ao mesmo tempo nas duas
+            for (LocalDate today : List.of(first, second)) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> runs = new ArrayList<>();
+                for (InstallmentSchedulerService instance : instances) {
+                    runs.add(executor.submit(() -> {
+                        start.await();
+                        instance.processarAte(today);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> run : runs) {
+                    run.get();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(second, marca());
+        List<Execucao> runs = execucoes(first, second);
+        assertEquals(31, runs.size());
+        for (int i = 0; i < runs.size(); i++) {
+            assertEquals(first.plusDays(i), runs.get(i).day());
+            assertEquals("SUCESSO", runs.get(i).status());
+        }
+        assertEquals(new Execucao(first, "SUCESSO", 0, 7, 0), runs.get(0));
+        assertEquals(new Execucao(LocalDate.of(2025, 7, 1), "SUCESSO", 7, 0, 0), runs.get(16));
+        assertEquals(new Execucao(second, "SUCESSO", 0, 7, 0), runs.get(30));
+        for (Long id : ids) {
+            assertEquals(new Despesa(2, "PAGO", second, null, true, 2, 2), despesa(id));
+        }
+        assertEquals(opening.subtract(new BigDecimal("140.00")), saldo(userId));
+    }
+
+    @Test
+    void blocoQueFalhaUmaVezERepetidoSemCobrarDuasVezes() {
+        Long userId = usuario();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(parcelada(userId, "Repetido " + i, 12, 20));
+        }
+        BigDecimal opening = saldo(userId);
+        LocalDate day = LocalDate.of(2025, 8, 20);
+        Counter retries = context.getBean(MeterRegistry.class).counter("payments.job.chunk.retries");
+        double retriesBefore = retries.count();
+
+        // O primeiro movimento do usuário falha; nextval não volta no rollback, então só falha uma vez
+        jdbc.execute("CREATE SEQUENCE falha_bloco_seq");
+        jdbc.execute("CREATE FUNCTION falha_bloco() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN "
+                + "IF nextval('falha_bloco_seq') = 1 THEN RAISE EXCEPTION 'falha simulada'; END IF; "
+                + "RETURN NEW; END $$");
+        jdbc.execute("CREATE TRIGGER falha_bloco BEFORE INSERT ON balance_entries FOR EACH ROW "
+                + "WHEN (NEW.users_id = " + userId + ") EXECUTE FUNCTION falha_bloco()");
+        try {
+            marcaEm(day.minusDays(1));
+            emBlocos(2, 2).processarAte(day);
+        } finally {
+            jdbc.execute("DROP TRIGGER falha_bloco ON balance_entries");
+            jdbc.execute("DROP FUNCTION falha_bloco()");
+            jdbc.execute("DROP SEQUENCE falha_bloco_seq");
+        }
+
+        assertEquals(retriesBefore + 1, retries.count());
+        assertEquals(day, marca());
+        assertEquals(List.of(new Execucao(day, "SUCESSO", 0, 5, 0)), execucoes(day, day));
+        for (Long id : ids) {
+            assertEquals(new Despesa(1, "PAGO", day, null, true, 1, 1), despesa(id));
+        }
+        assertEquals(opening.subtract(new BigDecimal("50.00")), saldo(userId));
+    }
+
+    @Test
+    void metricasDoJobSaemNoEndpointDoPrometheus() throws Exception {
+        Long userId = usuario();
+        parcelada(userId, "Métrica", 12, 5);
+        LocalDate day = LocalDate.of(2025, 9, 5);
+        String before = metricas();
+
+        marcaEm(day.minusDays(1));
+        job().processarAte(day);
+
+        String after = metricas();
+        assertEquals(1, serie(after, "payments_job_rows_total", "action=\"paid\"")
+                - serie(before, "payments_job_rows_total", "action=\"paid\""));
+        assertTrue(after.lines().anyMatch(line -> line.startsWith("payments_job_rows_total{")
+                && line.contains("action=\"reset\"")), "sem payments_job_rows_total{action=\"reset\"}");
+        assertEquals(1, serie(after, "payments_job_day_seconds_count", "status=\"SUCESSO\"")
+                - serie(before, "payments_job_day_seconds_count", "status=\"SUCESSO\""));
+        // Percentis configurados em application.properties
+        assertTrue(after.lines().anyMatch(line -> line.startsWith("payments_job_day_seconds{")
+                && line.contains("quantile=\"0.99\"") && line.contains("status=\"SUCESSO\"")), after);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.models.MonthlyRollup;
+import com.example.models.MonthlyRollupId;
+import com.example.repository.MonthlyRollupRepository;
+import com.example.service.MonthlyRollupService.MonthlySummary;
+import com.example.service.MonthlyRollupService.RollupEntry;
+
+class MonthlyRollupServiceTest {
+
+    private static final YearMonth MES = YearMonth.of(2024, 5);
+
+    private final MonthlyRollupRepository monthlyRollupRepository = mock(MonthlyRollupRepository.class);
+    private final MonthlyRollupService service = new MonthlyRollupService(monthlyRollupRepository);
+
+    private void consultas(long userId, int expected) {
+        verify(monthlyRollupRepository, times(expected)).findByMonth(eq(userId), anyInt(), anyInt());
+    }
+
+    private static MonthlyRollup rollup(Long userId, String type, String revenue, String expense) {
+        return new MonthlyRollup(new MonthlyRollupId(userId, MES.getYear(), MES.getMonthValue(), type),
+                new BigDecimal(revenue), new BigDecimal(expense));
+    }
+
+    @Test
+    void somaOsTiposDoMesEConsultaUmaVez() {
+        when(monthlyRollupRepository.findByMonth(1L, 2024, 5)).thenReturn(List.of(
+                rollup(1L, "AVULSO", "100.00", "30.50"), rollup(1L, "FIXO", "2000.00", "0"),
+                rollup(1L, "PARCELADO", "0", "450.25")));
+
+        MonthlySummary summary = service.consultar(1L, MES);
+        assertEquals(new BigDecimal("2100.00"), summary.totalRevenue());
+        assertEquals(new BigDecimal("480.75"), summary.totalExpenses());
+        assertEquals(new BigDecimal("1619.25"), summary.balance());
+
+        assertEquals(summary, service.consultar(1L, MES));
+        consultas(1L, 1);
+    }
+
+    @Test
+    void escritaNoMesDescartaSoOMesDoUsuario() {
+        service.consultar(1L, MES);
+        service.consultar(1L, MES.plusMonths(1));
+        service.consultar(2L, MES);
+
+        service.aplicar(null, new RollupEntry(1L, MES, "AVULSO", BigDecimal.ZERO, BigDecimal.TEN));
+        service.consultar(1L, MES);
+        service.consultar(1L, MES.plusMonths(1));
+        service.consultar(2L, MES);
+
+        verify(monthlyRollupRepository, times(2)).findByMonth(1L, 2024, 5);
+        verify(monthlyRollupRepository, times(1)).findByMonth(1L, 2024, 6);
+        consultas(2L, 1);
+    }
+
+    @Test
+    void escritaSemValorNaoDescartaOMes() {
+        service.consultar(1L, MES);
+        RollupEntry entry = new RollupEntry(1L, MES, "AVULSO", BigDecimal.ZERO, BigDecimal.TEN);
+        service.aplicar(entry, entry);
+        service.consultar(1L, MES);
+        consultas(1L, 1);
+    }
+
+    @Test
+    void invalidarDescartaSoOsMesesDosUsuarios() {
+        service.consultar(1L, MES);
+        service.consultar(1L, MES.plusMonths(1));
+        service.consultar(2L, MES);
+
+        service.invalidar(List.of(1L));
+        service.consultar(1L, MES);
+        service.consultar(1L, MES.plusMonths(1));
+        service.consultar(2L, MES);
+
+        consultas(1L, 4);
+        consultas(2L, 1);
+    }
+
+    @Test
+    void recalcularDescartaTodosOsMeses() {
+        service.consultar(1L, MES);
+        service.consultar(2L, MES);
+
+        service.recalcular();
+        service.consultar(1L, MES);
+        service.consultar(2L, MES);
+        consultas(1L, 2);
+        consultas(2L, 2);
+    }
+
+    @Test
+    void leituraConcorrenteComInvalidacaoNaoEntraNoCache() {
+        // A invalidação acontece enquanto a leitura consulta o banco: o resultado dela não é guardado
+        when(monthlyRollupRepository.findByMonth(1L, 2024, 5)).thenAnswer(invocation -> {
+            service.aplicar(null, new RollupEntry(1L, MES, "AVULSO", BigDecimal.ONE, BigDecimal.ZERO));
+            return List.of();
+        });
+        service.consultar(1L, MES);
+        service.consultar(1L, MES);
+        consultas(1L, 2);
+    }
+}
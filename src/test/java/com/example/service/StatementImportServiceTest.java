@@ -0,0 +1,95 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.Dto.ImportResult;
+import com.example.Dto.ImportResult.LineError;
+
+/**
+ * Contagem e relatório de erros da importação, com os serviços de gravação
+ * simulados: cada bloco de CHUNK_SIZE lançamentos vai numa chamada de
+ * salvarLote.
+ */
+class StatementImportServiceTest {
+
+    private final ExpensesService expensesService = mock(ExpensesService.class);
+    private final RevenueService revenueService = mock(RevenueService.class);
+    private final StatementImportService service = new StatementImportService(expensesService, revenueService,
+            mock(CategoryService.class), mock(PlatformTransactionManager.class));
+
+    private ImportResult importar(String csv) throws IOException {
+        return service.importar(1L, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv",
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void debitosViramDespesasECreditosReceitas() throws IOException {
+        ImportResult result = importar("data;descrição;valor\n"
+                + "01/02/2024;Mercado;-120,00\n"
+                + "02/02/2024;Salário;3.000,00\n"
+                + "03/02/2024;Estorno;0,00\n"
+                + "04/02/2024;Farmácia;-35,10\n");
+        assertEquals(4, result.lines());
+        assertEquals(2, result.expensesImported());
+        assertEquals(1, result.revenuesImported());
+        assertEquals(1, result.errorCount());
+        assertEquals(new LineError(4, "Lançamento com valor zero"), result.errors().get(0));
+        verify(expensesService, times(1)).salvarLote(eq(1L), anyList());
+        verify(revenueService, times(1)).salvarLote(eq(1L), anyList());
+    }
+
+    @Test
+    void relatorioGuardaSoOsPrimeirosErros() throws IOException {
+        int invalid = StatementImportService.MAX_REPORTED_ERRORS + 50;
+        StringBuilder csv = new StringBuilder("01/01/2024;Válida;-1,00\n");
+        for (int i = 0; i < invalid; i++) {
+            csv.append("01/01/2024;Inválida;x\n");
+        }
+        csv.append("02/01/2024;Válida;-2,00\n");
+
+        ImportResult result = importar(csv.toString());
+        assertEquals(invalid + 2, result.lines());
+        assertEquals(2, result.expensesImported());
+        assertEquals(invalid, result.errorCount());
+        assertEquals(StatementImportService.MAX_REPORTED_ERRORS, result.errors().size());
+        // Os primeiros, na ordem do arquivo
+        assertEquals(new LineError(2, "Valor inválido: x"), result.errors().get(0));
+        assertEquals(StatementImportService.MAX_REPORTED_ERRORS + 1,
+                result.errors().get(result.errors().size() - 1).line());
+    }
+
+    @Test
+    void blocoNaoGravadoViraUmErroComAsLinhasDele() throws IOException {
+        int lines = StatementImportService.CHUNK_SIZE + 5;
+        StringBuilder csv = new StringBuilder("data;descrição;valor\n");
+        for (int i = 0; i < lines; i++) {
+            csv.append("01/01/2024;Despesa ").append(i).append(";-1,00\n");
+        }
+        doThrow(new IllegalStateException("falha no banco")).doNothing()
+                .when(expensesService).salvarLote(eq(1L), anyList());
+
+        ImportResult result = importar(csv.toString());
+        assertEquals(lines, result.lines());
+        assertEquals(5, result.expensesImported());
+        assertEquals(1, result.errorCount());
+        // Cabeçalho na linha 1: o primeiro bloco vai da linha 2 à CHUNK_SIZE + 1
+        long last = StatementImportService.CHUNK_SIZE + 1;
+        assertEquals(List.of(new LineError(2, "Bloco das linhas 2 a " + last + " não gravado: falha no banco")),
+                result.errors());
+        verify(expensesService, times(2)).salvarLote(eq(1L), anyList());
+    }
+}
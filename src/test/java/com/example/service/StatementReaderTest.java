@@ -0,0 +1,167 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.service.StatementReader.InvalidLineException;
+import com.example.service.StatementReader.StatementLine;
+
+class StatementReaderTest {
+
+    private static StatementReader leitor(String format, String content) {
+        return StatementReader.of(format, new BufferedReader(new StringReader(content)));
+    }
+
+    // Lançamentos e erros ("linha: mensagem") na ordem do arquivo
+    private static List<Object> ler(String format, String content) throws IOException {
+        StatementReader reader = leitor(format, content);
+        List<Object> result = new ArrayList<>();
+        while (true) {
+            try {
+                StatementLine line = reader.next();
+                if (line == null) {
+                    return result;
+                }
+                result.add(line);
+            } catch (InvalidLineException e) {
+                result.add(e.getLineNumber() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static StatementLine linha(long number, LocalDate date, String description, String amount,
+            String category) {
+        return new StatementLine(number, date, description, new BigDecimal(amount), category);
+    }
+
+    @Test
+    void csvComPontoEVirgulaCabecalhoEBom() throws IOException {
+        String csv = "\uFEFFdata;descrição;valor;categoria\n"
+                + "01/02/2024;\"Mercado; bairro\";-1.234,56;Casa\n"
+                + "\n"
+                + "2024-02-03;Salário;R$ 5.000,00;\n"
+                + "04/02/2024;\"Loja \"\"A\"\"\";-10,5; Lazer \n";
+        assertEquals(List.of(
+                linha(2, LocalDate.of(2024, 2, 1), "Mercado; bairro", "-1234.56", "Casa"),
+                linha(4, LocalDate.of(2024, 2, 3), "Salário", "5000.00", null),
+                linha(5, LocalDate.of(2024, 2, 4), "Loja \"A\"", "-10.5", "Lazer")),
+                ler("csv", csv));
+    }
+
+    @Test
+    void csvComVirgulaSemCabecalhoEValorInternacional() throws IOException {
+        String csv = "2024-02-01,\"Padaria, centro\",\"-1,234.56\",Alimentação\n"
+                + "2024-02-02,Reembolso,12.5\n";
+        assertEquals(List.of(
+                linha(1, LocalDate.of(2024, 2, 1), "Padaria, centro", "-1234.56", "Alimentação"),
+                linha(2, LocalDate.of(2024, 2, 2), "Reembolso", "12.5", null)),
+                ler("csv", csv));
+    }
+
+    @Test
+    void valoresBrasileirosEInternacionais() {
+        assertEquals(new BigDecimal("1234.56"), StatementReader.parseAmount("1.234,56"));
+        assertEquals(new BigDecimal("-1234.56"), StatementReader.parseAmount("-R$ 1.234,56"));
+        assertEquals(new BigDecimal("1234567.89"), StatementReader.parseAmount("1.234.567,89"));
+        assertEquals(new BigDecimal("10.5"), StatementReader.parseAmount("10,5"));
+        assertEquals(new BigDecimal("1234.56"), StatementReader.parseAmount("1,234.56"));
+        assertEquals(new BigDecimal("-1234567.89"), StatementReader.parseAmount("-1,234,567.89"));
+        assertEquals(new BigDecimal("1234.56"), StatementReader.parseAmount("1234.56"));
+        assertEquals(new BigDecimal("99.90"), StatementReader.parseAmount("R$ 99,90"));
+        assertThrows(NumberFormatException.class, () -> StatementReader.parseAmount("abc"));
+    }
+
+    @Test
+    void csvReportaCadaLinhaInvalidaEContinua() throws IOException {
+        String csv = "data;descrição;valor\n"
+                + "15/13/2024;Mês que não existe;-10,00\n"
+                + "01/03/2024;Valor ruim;dez reais\n"
+                + "01/03/2024;Só duas colunas\n"
+                + "01/03/2024;  ;-5,00\n"
+                + "02/03/2024;Válida;-7,00\n";
+        assertEquals(List.of(
+                "2: Data inválida: 15/13/2024",
+                "3: Valor inválido: dez reais",
+                "4: Esperadas ao menos 3 colunas (data, descrição, valor)",
+                "5: Descrição vazia",
+                linha(6, LocalDate.of(2024, 3, 2), "Válida", "-7.00", null)),
+                ler("csv", csv));
+    }
+
+    @Test
+    void ofxSgml() throws IOException {
+        String ofx = "OFXHEADER:100\n"
+                + "DATA:OFXSGML\n"
+                + "\n"
+                + "<OFX>\n"
+                + "<BANKTRANLIST>\n"
+                + "<STMTTRN>\n"
+                + "<TRNTYPE>DEBIT\n"
+                + "<DTPOSTED>20240215120000[-3:BRT]\n"
+                + "<TRNAMT>-45.90\n"
+                + "<NAME>FARMACIA\n"
+                + "<MEMO>Farmácia &amp; cia\n"
+                + "</STMTTRN>\n"
+                + "<STMTTRN>\n"
+                + "<DTPOSTED>20240216\n"
+                + "<TRNAMT>1500,00\n"
+                + "<NAME>Salário\n"
+                + "</STMTTRN>\n"
+                + "</BANKTRANLIST>\n"
+                + "<LEDGERBAL><BALAMT>100.00<DTASOF>20240216\n"
+                + "</OFX>\n";
+        assertEquals(List.of(
+                linha(6, LocalDate.of(2024, 2, 15), "Farmácia & cia", "-45.90", null),
+                linha(13, LocalDate.of(2024, 2, 16), "Salário", "1500.00", null)),
+                ler("ofx", ofx));
+    }
+
+    @Test
+    void ofxXmlNumaLinhaSo() throws IOException {
+        String ofx = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<?OFX OFXHEADER=\"200\" VERSION=\"220\"?>\n"
+                + "<OFX><BANKTRANLIST>"
+                + "<STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20240301</DTPOSTED><TRNAMT>1500.00</TRNAMT>"
+                + "<NAME>Salário</NAME><MEMO></MEMO></STMTTRN>"
+                + "<stmttrn><dtposted>20240302</dtposted><trnamt>-3.5</trnamt><memo>Café &lt;1&gt;</memo></stmttrn>"
+                + "</BANKTRANLIST></OFX>\n";
+        assertEquals(List.of(
+                linha(3, LocalDate.of(2024, 3, 1), "Salário", "1500.00", null),
+                linha(3, LocalDate.of(2024, 3, 2), "Café <1>", "-3.5", null)),
+                ler("ofx", ofx));
+    }
+
+    @Test
+    void ofxReportaLancamentoInvalidoEContinua() throws IOException {
+        String ofx = "<OFX>\n"
+                + "<STMTTRN>\n<DTPOSTED>20240301\n<MEMO>Sem valor\n</STMTTRN>\n"
+                + "<STMTTRN>\n<DTPOSTED>20241399\n<TRNAMT>-1.00\n<MEMO>Mês 13\n</STMTTRN>\n"
+                + "<STMTTRN>\n<DTPOSTED>20240301\n<TRNAMT>um real\n<MEMO>Valor ruim\n</STMTTRN>\n"
+                + "<STMTTRN>\n<DTPOSTED>20240302\n<TRNAMT>-2.00\n<MEMO>Válido\n</STMTTRN>\n"
+                + "</OFX>\n";
+        assertEquals(List.of(
+                "2: Lançamento sem DTPOSTED, TRNAMT ou MEMO/NAME",
+                "6: Data inválida: 20241399",
+                "11: Valor inválido: um real",
+                linha(16, LocalDate.of(2024, 3, 2), "Válido", "-2.00", null)),
+                ler("ofx", ofx));
+    }
+
+    @Test
+    void formatoDesconhecido() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> leitor("qif", ""));
+        assertNull(leitor("CSV", "").next());
+        assertNull(leitor("OFX", "").next());
+    }
+}
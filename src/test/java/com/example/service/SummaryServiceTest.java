@@ -0,0 +1,69 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+
+import com.example.IntegrationTestBase;
+
+class SummaryServiceTest extends IntegrationTestBase {
+
+    @Autowired
+    private SummaryService summaryService;
+
+    @Test
+    void recalcularConcorrenteComEscritasNaoPerdeIncrementos() throws Exception {
+        String token = cadastrar();
+        Long userId = usuario(token);
+        int writers = 4;
+        int perWriter = 15;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<Integer> rebuilds = executor.submit(() -> {
+                int count = 0;
+                while (writing.get()) {
+                    summaryService.recalcular(userId);
+                    count++;
+                }
+                return count;
+            });
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        assertEquals(HttpStatus.OK, post("/api/expenses", token, Map.of("nome", "d" + writer + "-" + i,
+                                "tipo", "AVULSO", "valorPago", 10, "nomeCategoria", "Casa", "totalParcelas", 1),
+                                String.class).getStatusCode());
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            writing.set(false);
+            rebuilds.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Os contadores incrementais depois da disputa batem com a soma das tabelas
+        Map<String, Object> report = summaryService.recalcular(userId);
+        assertEquals(List.of(), report.get("mismatches"));
+        assertEquals(0, summaryService.consultar(userId).getExpensesTotal()
+                .compareTo(BigDecimal.valueOf(10L * writers * perWriter)));
+    }
+}